@@ -0,0 +1,101 @@
+package fr.lehtto.maven.plugins;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the deletion of a server holding a synthetic world: region folders of small chunk and data files.
+ * <p>
+ * A deleted world has to be created again before the next deletion, so every iteration deletes a single world and the
+ * benchmark reports the time of one deletion; the throughput is its inverse.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CleanBenchmark {
+
+  private static final int FILES_PER_FOLDER = 1000;
+  private static final byte[] CONTENT = new byte[256];
+
+  /**
+   * Number of files of the world.
+   */
+  @Param({"100000"})
+  public int files;
+  private final CleanMojo cleanMojo = new CleanMojo();
+  private Path directory;
+  private File world;
+
+  /**
+   * Creates the temporary directory of the worlds.
+   *
+   * @throws IOException when the directory cannot be created
+   */
+  @Setup(Level.Trial)
+  public void setUpTrial() throws IOException {
+    directory = Files.createTempDirectory("servermc-clean");
+  }
+
+  /**
+   * Creates the world to delete.
+   *
+   * @throws IOException when a file cannot be written
+   */
+  @Setup(Level.Iteration)
+  public void setUpIteration() throws IOException {
+    world = directory.resolve("world").toFile();
+    for (int i = 0; i < files; i++) {
+      final Path folder = world.toPath().resolve("region-" + i / FILES_PER_FOLDER);
+      if (0 == i % FILES_PER_FOLDER) {
+        Files.createDirectories(folder);
+      }
+      Files.write(folder.resolve("r." + i + ".mca"), CONTENT);
+    }
+  }
+
+  /**
+   * Deletes the temporary directory of the worlds.
+   *
+   * @throws IOException when the directory cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  /**
+   * Deletes the world.
+   *
+   * @return whether the world is deleted
+   * @throws MojoExecutionException when issue occurred
+   */
+  @Benchmark
+  public boolean deleteDir() throws MojoExecutionException {
+    return cleanMojo.deleteDir(world, file -> true);
+  }
+}
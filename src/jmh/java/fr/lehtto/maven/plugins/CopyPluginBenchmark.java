@@ -0,0 +1,88 @@
+package fr.lehtto.maven.plugins;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the copy of a plugin JAR to the plugins folder of the server, the destination being replaced by every
+ * copy.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CopyPluginBenchmark {
+
+  /**
+   * Size of the plugin JAR, in bytes: a plain plugin and a shaded one.
+   */
+  @Param({"1048576", "52428800"})
+  public int size;
+  private final CopyPluginMojo copyPluginMojo = new CopyPluginMojo();
+  private Path directory;
+  private File source;
+  private File destination;
+
+  /**
+   * Creates the plugin JAR of random content.
+   *
+   * @throws IOException when the JAR cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("servermc-copy");
+    source = directory.resolve("plugin.jar").toFile();
+    destination = directory.resolve("plugins/plugin.jar").toFile();
+    Files.createDirectories(destination.toPath().getParent());
+    final byte[] content = new byte[size];
+    new Random(42).nextBytes(content);
+    Files.write(source.toPath(), content);
+  }
+
+  /**
+   * Deletes the plugin JAR and its copy.
+   *
+   * @throws IOException when the files cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  /**
+   * Copies the plugin JAR.
+   *
+   * @return the copy
+   * @throws MojoExecutionException when issue occurred
+   */
+  @Benchmark
+  public File copyFile() throws MojoExecutionException {
+    copyPluginMojo.copyFile(source, destination);
+    return destination;
+  }
+}
@@ -0,0 +1,135 @@
+package fr.lehtto.maven.plugins;
+
+import fr.lehtto.maven.plugins.papermc.PaperApiStub;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the installation of a server from a {@link PaperApiStub local PaperMC API} answering in 50 ms, the
+ * server JAR being downloaded in one stream or in segments.
+ * <p>
+ * An installed server has to be removed before the next installation, so every iteration installs a single server and
+ * the benchmark reports the time of one installation; the throughput is its inverse.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstallBenchmark {
+
+  private static final String MC_VERSION = "1.19.2";
+
+  /**
+   * Size of the server JAR, in bytes.
+   */
+  @Param({"41943040"})
+  public int size;
+  /**
+   * Number of segments of the download.
+   */
+  @Param({"1", "4"})
+  public int segments;
+  private PaperApiStub api;
+  private Path directory;
+  private InstallMojo installMojo;
+
+  /**
+   * Starts the local PaperMC API serving the server JAR.
+   *
+   * @throws IOException when the API cannot be started
+   */
+  @Setup(Level.Trial)
+  public void setUpTrial() throws IOException {
+    api = new PaperApiStub();
+    api.addBuild(MC_VERSION, 1, size);
+    api.setLatency(50L);
+    directory = Files.createTempDirectory("servermc-install");
+  }
+
+  /**
+   * Removes the previous server and creates the MOJO installing the next one.
+   *
+   * @throws IOException                  when the previous server cannot be deleted
+   * @throws ReflectiveOperationException when the MOJO cannot be configured
+   */
+  @Setup(Level.Iteration)
+  public void setUpIteration() throws IOException, ReflectiveOperationException {
+    final File serverDirectory = directory.resolve("server").toFile();
+    FileUtils.deleteDirectory(serverDirectory);
+    installMojo = new InstallMojo();
+    set(AbstractServerMcMojo.class, "serverDirectory", serverDirectory);
+    set(InstallMojo.class, "baseUrl", api.getBaseUrl());
+    set(InstallMojo.class, "mcVersion", MC_VERSION);
+    set(InstallMojo.class, "eula", true);
+    set(InstallMojo.class, "properties", Collections.singletonMap("motd", "Benchmark"));
+    set(AbstractDownloadMojo.class, "downloadSegments", segments);
+    set(AbstractDownloadMojo.class, "downloadMinSegmentSize", 1L);
+    set(AbstractDownloadMojo.class, "httpReadTimeout", 30L);
+    set(AbstractDownloadMojo.class, "schedulerDirectory", directory.resolve("scheduler").toFile());
+  }
+
+  /**
+   * Stops the local PaperMC API and deletes the servers.
+   *
+   * @throws IOException when the servers cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    api.close();
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  /**
+   * Installs the server.
+   *
+   * @return the installed server directory
+   * @throws MojoExecutionException when issue occurred
+   * @throws MojoFailureException   when issue occurred
+   */
+  @Benchmark
+  public File install() throws MojoExecutionException, MojoFailureException {
+    installMojo.execute();
+    return installMojo.getServerDirectory();
+  }
+
+  /**
+   * Sets a parameter of the MOJO, as Maven would.
+   *
+   * @param type  the class declaring the parameter
+   * @param name  the name of the parameter
+   * @param value the value of the parameter
+   * @throws ReflectiveOperationException when issue occurred
+   */
+  private void set(final Class<?> type, final String name, final Object value) throws ReflectiveOperationException {
+    final Field field = type.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(installMojo, value);
+  }
+}
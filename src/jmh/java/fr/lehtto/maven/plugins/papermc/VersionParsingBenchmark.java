@@ -0,0 +1,81 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fr.lehtto.maven.plugins.papermc.entity.Version;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parsing of a PaperMC version response listing many builds: the data binding of the whole
+ * {@link Version version} against the streaming read of the latest build only.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionParsingBenchmark {
+
+  /**
+   * Number of builds of the version.
+   */
+  @Param({"500", "5000"})
+  public int builds;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final PaperApiClient client = new PaperApiClient();
+  private byte[] payload;
+
+  /**
+   * Creates the version response.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    final StringBuilder json = new StringBuilder(
+        "{\"project_id\":\"paper\",\"project_name\":\"Paper\",\"version\":\"1.19.2\",\"builds\":[");
+    for (int i = 1; i <= builds; i++) {
+      json.append(i).append(i < builds ? "," : "");
+    }
+    payload = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Binds the whole response, as {@link PaperApiClient#retrieveVersion(String, String)} does.
+   *
+   * @return the {@link Version version}
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public Version readVersion() throws IOException {
+    return objectMapper.readValue(new ByteArrayInputStream(payload), Version.class);
+  }
+
+  /**
+   * Streams the response for the latest build, as {@link PaperApiClient#retrieveLatestBuild(String, String)} does.
+   *
+   * @return the latest build number
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public int parseLatestBuild() throws IOException {
+    return client.parseLatestBuild(new ByteArrayInputStream(payload));
+  }
+}
@@ -0,0 +1,100 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the checksum verification of a downloaded file, the file being in the page cache.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChecksumBenchmark {
+
+  /**
+   * Size of the file, in bytes: a plugin and a server JAR.
+   */
+  @Param({"1048576", "52428800"})
+  public int size;
+  private File file;
+  private String md5;
+  private String sha256;
+
+  /**
+   * Creates the file of random content and computes its digests.
+   *
+   * @throws IOException when the file cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = File.createTempFile("servermc-checksum", ".jar");
+    final byte[] content = new byte[size];
+    new Random(42).nextBytes(content);
+    Files.write(file.toPath(), content);
+    try (final InputStream in = new FileInputStream(file)) {
+      md5 = DigestUtils.md5Hex(in);
+    }
+    try (final InputStream in = new FileInputStream(file)) {
+      sha256 = DigestUtils.sha256Hex(in);
+    }
+  }
+
+  /**
+   * Deletes the file.
+   *
+   * @throws IOException when the file cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  /**
+   * Verifies the MD5 digest.
+   *
+   * @return whether the checksum is valid
+   * @throws MojoExecutionException when issue occurred
+   */
+  @Benchmark
+  public boolean md5() throws MojoExecutionException {
+    return FileDownloader.checkMd5Checksum(file, md5);
+  }
+
+  /**
+   * Verifies the SHA256 digest.
+   *
+   * @return whether the checksum is valid
+   * @throws MojoExecutionException when issue occurred
+   */
+  @Benchmark
+  public boolean sha256() throws MojoExecutionException {
+    return FileDownloader.checkSha256Checksum(file, sha256);
+  }
+}
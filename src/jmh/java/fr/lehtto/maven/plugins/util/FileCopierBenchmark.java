@@ -0,0 +1,119 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the copy of a shaded plugin by {@link FileCopier} against the 1 Ko buffer loop the plugin used before,
+ * the destination being replaced by every copy.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileCopierBenchmark {
+
+  /**
+   * Size of the copied file, in bytes.
+   */
+  @Param({"52428800"})
+  public int size;
+  private Path directory;
+  private File source;
+  private File destination;
+
+  /**
+   * Creates the file of random content.
+   *
+   * @throws IOException when the file cannot be written
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("servermc-copier");
+    source = directory.resolve("shaded.jar").toFile();
+    destination = directory.resolve("copy.jar").toFile();
+    final byte[] content = new byte[size];
+    new Random(42).nextBytes(content);
+    Files.write(source.toPath(), content);
+  }
+
+  /**
+   * Deletes the file and its copy.
+   *
+   * @throws IOException when the files cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  /**
+   * Copies the file the way the plugin did before {@link FileCopier}: a 1 Ko buffer flushed after every chunk.
+   *
+   * @return the copy
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public File bufferLoop() throws IOException {
+    try (final FileInputStream in = new FileInputStream(source);
+        final FileOutputStream out = new FileOutputStream(destination)) {
+      final byte[] buffer = new byte[1024];
+      int lengthRead;
+      while (0 < (lengthRead = in.read(buffer))) {
+        out.write(buffer, 0, lengthRead);
+        out.flush();
+      }
+    }
+    return destination;
+  }
+
+  /**
+   * Copies the file with the channel transfer of {@link FileCopier#transfer(Path, Path)}.
+   *
+   * @return the copy
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public File transfer() throws IOException {
+    FileCopier.transfer(source.toPath(), destination.toPath());
+    return destination;
+  }
+
+  /**
+   * Copies the file with {@link FileCopier#copy(File, File)}, cloning it when the filesystem supports it.
+   *
+   * @return the copy
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public File copy() throws IOException {
+    FileCopier.copy(source, destination);
+    return destination;
+  }
+}
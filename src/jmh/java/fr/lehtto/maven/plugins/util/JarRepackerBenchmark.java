@@ -0,0 +1,125 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the loading, by a new {@link URLClassLoader}, of every class of a large library from its deflated JAR
+ * and from the JAR {@link JarRepacker repacked} with stored entries.
+ * <p>
+ * The library is the Kotlin standard library, a dependency of OkHttp depending on the JDK only: about 880 classes. The
+ * benchmark measures the class loading alone, not the enable of a plugin by a server.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JarRepackerBenchmark {
+
+  private static final String CLASS_SUFFIX = ".class";
+
+  private Path directory;
+  private File deflated;
+  private File stored;
+
+  /**
+   * Repacks the Kotlin standard library.
+   *
+   * @throws IOException        when the library cannot be repacked
+   * @throws URISyntaxException when the location of the library is not valid
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, URISyntaxException {
+    directory = Files.createTempDirectory("servermc-repack");
+    deflated = new File(kotlin.Unit.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    stored = directory.resolve("stored.jar").toFile();
+    JarRepacker.repack(deflated, stored);
+  }
+
+  /**
+   * Deletes the repacked library.
+   *
+   * @throws IOException when the library cannot be deleted
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(directory.toFile());
+  }
+
+  /**
+   * Loads every class of the deflated library.
+   *
+   * @return the number of loaded classes
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public int loadDeflated() throws IOException {
+    return loadClasses(deflated);
+  }
+
+  /**
+   * Loads every class of the repacked library.
+   *
+   * @return the number of loaded classes
+   * @throws IOException when issue occurred
+   */
+  @Benchmark
+  public int loadStored() throws IOException {
+    return loadClasses(stored);
+  }
+
+  /**
+   * Loads every class of given JAR with a new class loader.
+   *
+   * @param jar the {@link File JAR}
+   * @return the number of loaded classes
+   * @throws IOException when issue occurred
+   */
+  private static int loadClasses(final File jar) throws IOException {
+    int loaded = 0;
+    try (final ZipFile zip = new ZipFile(jar);
+        final URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null)) {
+      for (final ZipEntry entry : Collections.list(zip.entries())) {
+        final String name = entry.getName();
+        if (!name.endsWith(CLASS_SUFFIX) || name.startsWith("META-INF/")) {
+          continue;
+        }
+        try {
+          Class.forName(name.substring(0, name.length() - CLASS_SUFFIX.length()).replace('/', '.'), false, loader);
+          loaded++;
+        } catch (final ClassNotFoundException | LinkageError e) {
+          // Classes depending on optional libraries are skipped
+        }
+      }
+    }
+    return loaded;
+  }
+}
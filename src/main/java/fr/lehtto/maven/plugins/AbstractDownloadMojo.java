@@ -0,0 +1,345 @@
+package fr.lehtto.maven.plugins;
+
+import fr.lehtto.maven.plugins.util.DownloadOptions;
+import fr.lehtto.maven.plugins.util.FileCache;
+import fr.lehtto.maven.plugins.util.HttpMetrics;
+import fr.lehtto.maven.plugins.util.HttpSettings;
+import fr.lehtto.maven.plugins.util.RequestMetrics;
+import fr.lehtto.maven.plugins.util.RetryPolicy;
+import java.io.File;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Abstract MOJO for goals which download files (server JAR, plugins).
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+abstract class AbstractDownloadMojo extends AbstractServerMcMojo {
+
+  private static final long KILOBYTE = 1024L;
+  private static final long MEGABYTE = 1024L * 1024L;
+
+  /**
+   * The directory of the shared download cache.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "cacheDirectory", defaultValue = "${user.home}/.m2/servermc/cache")
+  private File cacheDirectory;
+
+  /**
+   * The maximum size, in Mo, of the shared download cache.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "cacheMaxSize", defaultValue = "2048")
+  private long cacheMaxSize;
+
+  /**
+   * Whether the shared download cache should be ignored.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "skipCache", defaultValue = "false")
+  private boolean skipCache;
+
+  /**
+   * The maximum number of byte ranges downloaded concurrently for a single file.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "downloadSegments", defaultValue = "4")
+  private int downloadSegments;
+
+  /**
+   * The minimum size, in Mo, of a byte range when a file is downloaded as several segments.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "downloadMinSegmentSize", defaultValue = "4")
+  private long downloadMinSegmentSize;
+
+  /**
+   * Whether files and API responses have to be resolved from the shared cache only. Defaults to the Maven offline
+   * mode.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "offline", defaultValue = "${settings.offline}")
+  private boolean offline;
+
+  /**
+   * The maximum number of idle connections kept alive by the shared HTTP client.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpPoolSize", defaultValue = "8")
+  private int httpPoolSize;
+
+  /**
+   * The duration, in seconds, during which an idle connection of the shared HTTP client is kept alive.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpKeepAlive", defaultValue = "300")
+  private long httpKeepAlive;
+
+  /**
+   * The connection timeout, in seconds, of the shared HTTP client. {@code 0} means no timeout.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpConnectTimeout", defaultValue = "10")
+  private long httpConnectTimeout;
+
+  /**
+   * The read timeout, in seconds, of the shared HTTP client. {@code 0} means no timeout.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpReadTimeout", defaultValue = "30")
+  private long httpReadTimeout;
+
+  /**
+   * The directory where the HTTP timings of the goal are written as JSON.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "metricsDirectory", defaultValue = "${project.build.directory}/servermc")
+  private File metricsDirectory;
+
+  /**
+   * The maximum bandwidth, in Ko per second, of all the downloads of the machine, shared with the concurrent builds.
+   * {@code 0} means unlimited.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "downloadMaxBandwidth", defaultValue = "0")
+  private long downloadMaxBandwidth;
+
+  /**
+   * The maximum number of concurrent downloads of the machine from the same host, shared with the concurrent builds.
+   * {@code 0} means unlimited.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "downloadMaxConnectionsPerHost", defaultValue = "0")
+  private int downloadMaxConnectionsPerHost;
+
+  /**
+   * The directory through which the concurrent builds of the machine share the download caps.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "schedulerDirectory", defaultValue = "${user.home}/.m2/servermc/scheduler")
+  private File schedulerDirectory;
+
+  /**
+   * The maximum number of retries of a request failing with a transient error (connection reset, timeout, 429 or 5xx
+   * status).
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpRetries", defaultValue = "3")
+  private int httpRetries;
+
+  /**
+   * The delay, in milliseconds, before the first retry of a request. The delay doubles with every retry.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpRetryBackoff", defaultValue = "500")
+  private long httpRetryBackoff;
+
+  /**
+   * The maximum delay, in seconds, before a retry of a request, including the delays requested by the servers.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "httpRetryMaxBackoff", defaultValue = "30")
+  private long httpRetryMaxBackoff;
+
+  private final AtomicInteger cacheHits = new AtomicInteger();
+  private final AtomicInteger cacheMisses = new AtomicInteger();
+  /**
+   * Recorder of the HTTP requests of the goal, the other modules of a parallel build record theirs apart.
+   */
+  private final HttpMetrics httpMetrics = new HttpMetrics();
+  private FileCache fileCache;
+
+  /**
+   * Gets the recorder of the timings of the HTTP requests sent by the goal.
+   *
+   * @return the {@link HttpMetrics recorder}
+   */
+  HttpMetrics getHttpMetrics() {
+    return httpMetrics;
+  }
+
+  /**
+   * Gets the shared download cache.
+   *
+   * @return the {@link FileCache cache} or {@link Optional#empty()} when the cache is disabled
+   */
+  synchronized Optional<FileCache> getFileCache() {
+    if (skipCache || null == cacheDirectory) {
+      return Optional.empty();
+    }
+    if (null == fileCache) {
+      fileCache = new FileCache(cacheDirectory, cacheMaxSize * MEGABYTE);
+    }
+    return Optional.of(fileCache);
+  }
+
+  /**
+   * Whether files and API responses have to be resolved from the shared cache only.
+   *
+   * @return {@code true} in offline mode
+   */
+  boolean isOffline() {
+    return offline;
+  }
+
+  /**
+   * Ensures that a file which is not in the shared cache can be downloaded.
+   *
+   * @param fileName the name of the file to download
+   * @throws MojoExecutionException in offline mode
+   */
+  void ensureOnline(final String fileName) throws MojoExecutionException {
+    if (offline) {
+      throw new MojoExecutionException(
+          MessageFormat.format("{0} is not in the download cache and offline mode is enabled", fileName));
+    }
+  }
+
+  /**
+   * Creates the {@link HttpSettings settings} of the shared HTTP client configured for the goal.
+   *
+   * @return new instance of {@link HttpSettings}
+   */
+  HttpSettings createHttpSettings() {
+    final HttpSettings settings = new HttpSettings();
+    settings.setPoolSize(httpPoolSize);
+    settings.setKeepAlive(httpKeepAlive);
+    settings.setConnectTimeout(httpConnectTimeout);
+    settings.setReadTimeout(httpReadTimeout);
+    return settings;
+  }
+
+  /**
+   * Creates the policy of the retries of the requests failing with a transient error.
+   *
+   * @return the {@link RetryPolicy retry policy}
+   */
+  RetryPolicy createRetryPolicy() {
+    final RetryPolicy retryPolicy = new RetryPolicy();
+    retryPolicy.setRetries(httpRetries);
+    retryPolicy.setInitialBackoff(httpRetryBackoff);
+    retryPolicy.setMaxBackoff(TimeUnit.SECONDS.toMillis(httpRetryMaxBackoff));
+    return retryPolicy;
+  }
+
+  /**
+   * Creates the {@link DownloadOptions download options} configured for the goal.
+   *
+   * @return new instance of {@link DownloadOptions}
+   */
+  DownloadOptions createDownloadOptions() {
+    final DownloadOptions options = new DownloadOptions();
+    options.setSegments(downloadSegments);
+    options.setMinSegmentSize(downloadMinSegmentSize * MEGABYTE);
+    options.setHttpSettings(createHttpSettings());
+    options.setRetryPolicy(createRetryPolicy());
+    options.setHttpMetrics(httpMetrics);
+    options.setMaxBandwidth(downloadMaxBandwidth * KILOBYTE);
+    options.setMaxConnectionsPerHost(downloadMaxConnectionsPerHost);
+    if (null != schedulerDirectory) {
+      options.setSchedulerDirectory(schedulerDirectory);
+    }
+    return options;
+  }
+
+  /**
+   * Materialises the file identified by given digest from the shared cache.
+   *
+   * @param sha256      the SHA256 digest of the file
+   * @param destination the destination {@link File file}
+   * @return {@code true} on cache hit
+   * @throws MojoExecutionException when the cached file cannot be copied
+   */
+  boolean retrieveFromCache(final String sha256, final @NotNull File destination) throws MojoExecutionException {
+    final Optional<FileCache> cache = getFileCache();
+    if (!cache.isPresent() || !FileCache.isCacheable(sha256)) {
+      return false;
+    }
+    if (cache.get().retrieve(sha256, destination)) {
+      cacheHits.incrementAndGet();
+      getLog().info(MessageFormat.format("Cache hit for {0} ({1})", destination.getName(), sha256));
+      return true;
+    }
+    cacheMisses.incrementAndGet();
+    getLog().info(MessageFormat.format("Cache miss for {0} ({1})", destination.getName(), sha256));
+    return false;
+  }
+
+  /**
+   * Stores the given verified file in the shared cache.
+   *
+   * @param sha256 the SHA256 digest of the file
+   * @param source the {@link File file} to store
+   * @throws MojoExecutionException when the file cannot be stored
+   */
+  void storeInCache(final String sha256, final @NotNull File source) throws MojoExecutionException {
+    final Optional<FileCache> cache = getFileCache();
+    if (cache.isPresent()) {
+      cache.get().store(sha256, source);
+    }
+  }
+
+  /**
+   * Logs the timings of the HTTP requests sent by the goal since the previous report, the totals in info and every
+   * request in debug, and writes them as JSON.
+   *
+   * @param goal the name of the goal
+   */
+  void reportHttpMetrics(final @NotNull String goal) {
+    final List<RequestMetrics> metrics = httpMetrics.drain();
+    if (metrics.isEmpty()) {
+      return;
+    }
+    final List<String> summary = HttpMetrics.summarize(metrics);
+    getLog().info(summary.get(0));
+    summary.subList(1, summary.size()).forEach(getLog()::debug);
+    if (null == metricsDirectory) {
+      return;
+    }
+    final File metricsFile = new File(metricsDirectory, goal + "-metrics.json");
+    try {
+      HttpMetrics.writeJson(metricsFile, goal, metrics);
+      getLog().debug(MessageFormat.format("HTTP metrics written to {0}", metricsFile));
+    } catch (final MojoExecutionException e) {
+      // Metrics are informative, they never fail the build
+      getLog().warn(e.getMessage(), e.getCause());
+    }
+  }
+
+  /**
+   * Logs the shared cache hits and misses of the goal.
+   */
+  void logCacheStatistics() {
+    if (getFileCache().isPresent() && 0 < cacheHits.get() + cacheMisses.get()) {
+      getLog().info(
+          MessageFormat.format("Download cache: {0} hit(s), {1} miss(es)", cacheHits.get(), cacheMisses.get()));
+    }
+  }
+}
@@ -1,24 +1,62 @@
 package fr.lehtto.maven.plugins;
 
+import fr.lehtto.maven.plugins.util.AtomicFiles;
+import fr.lehtto.maven.plugins.util.LibraryStore;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * Abstract MOJO for servermc plugin.
  *
  * @author Lehtto
- * @version 0.0.1
+ * @version 0.2.0
  * @since 0.0.1
  */
 abstract class AbstractServerMcMojo extends AbstractMojo {
 
+  /**
+   * Name of the file, in the server directory, listing the plugin JARs loaded in place.
+   */
+  static final String ADDED_PLUGINS_NAME = ".servermc-added-plugins";
+  private static final String LIBRARIES_FOLDER = "libraries";
+
   /**
    * The target server's directory.
    */
   @Parameter(property = "serverDirectory", defaultValue = "target/server")
   private File serverDirectory;
 
+  /**
+   * Whether the server loads the plugin JAR and the local additional plugins in place, from the build folder and the
+   * local repository, with the {@literal --add-plugin} option instead of copies in the plugins folder. Servers which
+   * do not support the option get copies.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "addPlugins", defaultValue = "false")
+  private boolean addPlugins;
+
+  /**
+   * The directory of the content-addressed libraries store shared between server directories. When set, the libraries
+   * extracted by the server are stored once and linked into the {@literal libraries} folder of every server
+   * directory. The store is never cleaned.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "librariesStore")
+  private File librariesStore;
+
   /**
    * Gets the server directory parameter.
    *
@@ -27,4 +65,104 @@ abstract class AbstractServerMcMojo extends AbstractMojo {
   File getServerDirectory() {
     return serverDirectory;
   }
+
+  /**
+   * Gets the add plugins parameter.
+   *
+   * @return the add plugins parameter
+   */
+  boolean isAddPlugins() {
+    return addPlugins;
+  }
+
+  /**
+   * Gets the libraries store parameter.
+   *
+   * @return the libraries store parameter, {@code null} when the libraries are not shared
+   */
+  File getLibrariesStore() {
+    return librariesStore;
+  }
+
+  /**
+   * Shares the libraries of the server directory through the libraries store, when one is configured.
+   *
+   * @throws MojoExecutionException when a library cannot be stored or linked
+   */
+  void shareLibraries() throws MojoExecutionException {
+    shareLibraries(getServerDirectory());
+  }
+
+  /**
+   * Shares the libraries of given server directory through the libraries store, when one is configured.
+   *
+   * @param serverDirectory the server directory
+   * @throws MojoExecutionException when a library cannot be stored or linked
+   */
+  void shareLibraries(final @NotNull File serverDirectory) throws MojoExecutionException {
+    if (null == librariesStore) {
+      return;
+    }
+    final LibraryStore store = new LibraryStore(librariesStore);
+    try {
+      store.share(new File(serverDirectory, LIBRARIES_FOLDER));
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          MessageFormat.format("Unable to share the libraries through the store {0}", librariesStore), e);
+    }
+    if (0 < store.getShared()) {
+      getLog().info(MessageFormat.format("Libraries shared: {0} linked to the store, {1} already linked, {2} saved",
+          store.getShared(), store.getAlreadyShared(), FileUtils.byteCountToDisplaySize(store.getBytesShared())));
+    }
+  }
+
+  /**
+   * Reads the plugin JARs loaded in place, listed by the last copy of the plugins.
+   *
+   * @return the plugin {@link File JARs}, empty when no plugin is loaded in place
+   * @throws MojoExecutionException when the list cannot be read
+   */
+  List<File> readAddedPlugins() throws MojoExecutionException {
+    final File list = new File(getServerDirectory(), ADDED_PLUGINS_NAME);
+    final List<File> plugins = new ArrayList<>();
+    if (!list.isFile()) {
+      return plugins;
+    }
+    try {
+      for (final String line : Files.readAllLines(list.toPath(), StandardCharsets.UTF_8)) {
+        if (StringUtils.isNotBlank(line)) {
+          plugins.add(new File(line));
+        }
+      }
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to read the plugins loaded in place", e);
+    }
+    return plugins;
+  }
+
+  /**
+   * Writes the plugin JARs loaded in place. The list is only rewritten when it changes and it is removed when empty.
+   *
+   * @param plugins the plugin {@link File JARs}
+   * @throws MojoExecutionException when the list cannot be written
+   */
+  void writeAddedPlugins(final @NotNull List<File> plugins) throws MojoExecutionException {
+    final File list = new File(getServerDirectory(), ADDED_PLUGINS_NAME);
+    try {
+      if (plugins.isEmpty()) {
+        Files.deleteIfExists(list.toPath());
+        return;
+      }
+      final List<File> absolutePlugins = new ArrayList<>();
+      plugins.forEach(plugin -> absolutePlugins.add(plugin.getAbsoluteFile()));
+      if (absolutePlugins.equals(readAddedPlugins())) {
+        return;
+      }
+      final StringBuilder content = new StringBuilder();
+      absolutePlugins.forEach(plugin -> content.append(plugin.getPath()).append('\n'));
+      AtomicFiles.write(list, out -> out.write(content.toString().getBytes(StandardCharsets.UTF_8)));
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to write the plugins loaded in place", e);
+    }
+  }
 }
@@ -16,7 +16,7 @@ import org.jetbrains.annotations.VisibleForTesting;
  * Cleans server folder.
  *
  * @author lehtto
- * @version 0.1.0
+ * @version 0.2.0
  * @since 0.0.1
  */
 @Mojo(name = "clean")
@@ -38,7 +38,7 @@ public class CleanMojo extends AbstractServerMcMojo {
   @Override
   public void execute() throws MojoExecutionException {
     getLog().info("Delete server folder");
-    deleteDir(getServerDirectory(), dir -> !ignoreWorlds || !isWorldDir(dir));
+    deleteDir(getServerDirectory(), dir -> (!ignoreWorlds || !isWorldDir(dir)) && !isLibrariesStore(dir));
     getLog().info("Server folders deleted");
   }
 
@@ -57,7 +57,8 @@ public class CleanMojo extends AbstractServerMcMojo {
     }
 
     if (file.exists()) {
-      final File[] content = file.listFiles();
+      // A link is deleted, not its target
+      final File[] content = Files.isSymbolicLink(file.toPath()) ? null : file.listFiles();
       boolean cleaned = true;
 
       if (null != content) {
@@ -80,6 +81,18 @@ public class CleanMojo extends AbstractServerMcMojo {
     return true;
   }
 
+  /**
+   * Checks whether the {@link File directory} is the libraries store, which is shared and never cleaned.
+   *
+   * @param directory the {@link File directory} to check
+   * @return {@code true} is the {@link File directory} is the libraries store
+   */
+  @VisibleForTesting
+  boolean isLibrariesStore(final @NotNull File directory) {
+    return null != getLibrariesStore() && getLibrariesStore().getAbsoluteFile().toPath().normalize()
+        .equals(directory.getAbsoluteFile().toPath().normalize());
+  }
+
   /**
    * Checks whether the {@link File directory} is a world directory.
    *
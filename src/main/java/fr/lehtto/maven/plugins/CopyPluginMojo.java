@@ -1,13 +1,33 @@
 package fr.lehtto.maven.plugins;
 
+import fr.lehtto.maven.plugins.papermc.ServerCapabilities;
+import fr.lehtto.maven.plugins.util.AtomicFiles;
+import fr.lehtto.maven.plugins.util.DownloadOptions;
+import fr.lehtto.maven.plugins.util.FileCopier;
 import fr.lehtto.maven.plugins.util.FileDownloader;
+import fr.lehtto.maven.plugins.util.JarRepacker;
+import fr.lehtto.maven.plugins.util.PluginSync;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.Artifact;
@@ -18,17 +38,23 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.VisibleForTesting;
 
 /**
  * Copies plugins to server plugins folder. Copies the current plugin and defined additionalPlugins.
  *
  * @author Lehtto
- * @version 0.1.0
+ * @version 0.2.0
  * @since 0.0.1
  */
 @Mojo(name = "copy-plugin", requiresDependencyResolution = ResolutionScope.COMPILE)
-public class CopyPluginMojo extends AbstractServerMcMojo {
+public class CopyPluginMojo extends AbstractDownloadMojo {
+
+  private static final String STAGING_PREFIX = ".plugins-staging";
+  private static final String FILE_SOURCE_PREFIX = "file:";
+  private static final String URL_SOURCE_PREFIX = "url:";
+  private static final String STORED_SOURCE_PREFIX = "stored:";
 
   /**
    * The {@link MavenProject maven project} entity.
@@ -61,6 +87,38 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
   @Parameter(property = "skipAdditionalPlugins", required = true, defaultValue = "false")
   private boolean skipAdditionalPlugins;
 
+  /**
+   * The maximum number of additional plugins acquired concurrently.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "pluginParallelism", defaultValue = "4")
+  private int pluginParallelism;
+
+  /**
+   * Whether the plugin JAR and the local additional plugins should be linked into the plugins folder instead of copied.
+   * A hard link is created when the files share a filesystem, otherwise a symbolic link, and the JAR is copied when
+   * the filesystem supports no link.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "linkPlugins", defaultValue = "false")
+  private boolean linkPlugins;
+
+  /**
+   * Whether the plugin JAR should be repacked with uncompressed entries when copied, so the server reads its classes
+   * without inflating them. Meant for development: the deployed JAR is larger. The repacked JAR is copied even when
+   * {@link #linkPlugins} is set.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "repackPlugin", defaultValue = "false")
+  private boolean repackPlugin;
+
+  private PluginSync pluginSync;
+  private boolean addingPlugins;
+  private final List<File> addedPlugins = new ArrayList<>();
+
   /**
    * Default constructor.
    */
@@ -90,6 +148,7 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
       }
     }
 
+    addingPlugins = isAddPlugins() && checkAddPluginSupport();
     copyPlugin();
 
     if (skipAdditionalPlugins) {
@@ -97,6 +156,12 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
     } else {
       copyAdditionalPlugin();
     }
+    finishPluginSync(!skipAdditionalPlugins);
+    if (isAddPlugins()) {
+      writeAddedPlugins(addedPlugins);
+    }
+    logCacheStatistics();
+    reportHttpMetrics("copy-plugin");
   }
 
   /**
@@ -113,13 +178,55 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
     if (!pluginsFolder.exists() && !pluginsFolder.mkdirs()) {
       throw new MojoExecutionException("Unable to create plugins directory");
     }
+    final PluginSync sync = getPluginSync(pluginsFolder);
+    if (addingPlugins) {
+      if (!sourcePluginJar.isFile()) {
+        throw new MojoExecutionException(
+            MessageFormat.format("Plugin JAR {0} not found, package the project first", sourcePluginJar));
+      }
+      // The previous copy is removed with the stale plugins
+      getLog().info(MessageFormat.format("Plugin JAR {0}.jar is loaded in place", jarName));
+      addedPlugins.add(sourcePluginJar);
+      return;
+    }
+    // A repacked JAR has its own source, so toggling the repack deploys the JAR again
+    final String source =
+        (repackPlugin ? STORED_SOURCE_PREFIX : FILE_SOURCE_PREFIX) + sourcePluginJar.getAbsolutePath();
+    final boolean link = linkPlugins && !repackPlugin;
+    if (sync.isUpToDate(destinationPluginJar.getName(), source, sourcePluginJar, null, link)) {
+      getLog().info(MessageFormat.format("Plugin JAR {0}.jar is up to date", jarName));
+      return;
+    }
+    if (repackPlugin) {
+      getLog().info(MessageFormat.format("Repack plugin JAR {0}.jar with uncompressed entries", jarName));
+      final int entries = repackFile(sourcePluginJar, destinationPluginJar);
+      sync.recordCopy(destinationPluginJar, source, sourcePluginJar, false);
+      getLog().info(MessageFormat.format("Plugin JAR repacked: {0} entries, {1} to {2}", entries,
+          FileUtils.byteCountToDisplaySize(sourcePluginJar.length()),
+          FileUtils.byteCountToDisplaySize(destinationPluginJar.length())));
+      return;
+    }
+    if (link) {
+      getLog().info(MessageFormat.format("Link plugin JAR {0}.jar", jarName));
+      final FileCopier.Method method = linkFile(sourcePluginJar, destinationPluginJar);
+      sync.recordLink(destinationPluginJar, source, sourcePluginJar, false, method);
+      getLog().info(MessageFormat.format("Plugin JAR deployed ({0})", method));
+      return;
+    }
     getLog().info(MessageFormat.format("Copy plugin JAR {0}.jar", jarName));
     copyFile(sourcePluginJar, destinationPluginJar);
+    sync.recordCopy(destinationPluginJar, source, sourcePluginJar, false);
     getLog().info("Plugin JAR copied");
   }
 
   /**
-   * Copies plugin JAR into server plugins folder.
+   * Copies additional plugin JARs into server plugins folder.
+   * <p>
+   * Plugins which are up to date in the plugins folder are skipped, the local ones are listed instead when the server
+   * loads them in place. The others are acquired concurrently into a staging folder, entries sharing a URL or a SHA256
+   * digest are fetched once and the digests declared by each of them are verified against the fetched file. The staged
+   * JARs are moved (and the local ones linked, when {@link #linkPlugins} is set) to the plugins folder only when every
+   * plugin is acquired, otherwise the failures are reported together and the plugins folder is left untouched.
    *
    * @throws MojoExecutionException when issue occurred while coping JAR file
    * @throws MojoFailureException   when one plugin checksum is not valid
@@ -127,46 +234,347 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
   @VisibleForTesting
   void copyAdditionalPlugin() throws MojoExecutionException, MojoFailureException {
     getLog().info("Copy additional plugins");
-    final File pluginsFolder = new File(getServerDirectory(), "plugins");
-
+    final File serverDirectory = getServerDirectory();
+    final File pluginsFolder = new File(serverDirectory, "plugins");
+    final PluginSync sync = getPluginSync(pluginsFolder);
+    final Map<Plugin, Exception> failures = new LinkedHashMap<>();
+    final List<StagedPlugin> outdatedPlugins = new ArrayList<>();
+    final List<StagedPlugin> linkedPlugins = new ArrayList<>();
     for (final Plugin plugin : additionalPlugins) {
-      final File destinationPluginJar = new File(pluginsFolder, FilenameUtils.getName( plugin.getName() + ".jar"));
-      if (null != plugin.getFile()) {
-        // Plugin file is defined
-        getLog().info(MessageFormat.format("Copy plugin {0} from file {1}", plugin.getName(), plugin.getFile()));
-        copyFile(plugin.getFile(), destinationPluginJar);
-      } else if (null != plugin.getUrl()) {
-        // Plugin download URL is defined
-        getLog().info(MessageFormat.format("Download plugin {0} from url {1}", plugin.getName(), plugin.getUrl()));
-        FileDownloader.downloadFile(destinationPluginJar, plugin.getUrl());
-        if (null != plugin.getSha256() && !plugin.getSha256().isEmpty() && !FileDownloader.checkSha256Checksum(
-            destinationPluginJar, plugin.getSha256())) {
-          throw new MojoFailureException(MessageFormat.format("Plugin {0} checksum is not valid", plugin.getName()));
+      try {
+        final StagedPlugin stagedPlugin = stagePlugin(plugin);
+        if (addingPlugins && null != stagedPlugin.getSource()) {
+          getLog().info(MessageFormat.format("Plugin {0} is loaded in place", plugin.getName()));
+          addedPlugins.add(stagedPlugin.getSource());
+          continue;
         }
-        if (null != plugin.getMd5() && !plugin.getMd5().isEmpty() && !FileDownloader.checkMd5Checksum(
-            destinationPluginJar, plugin.getMd5())) {
-          throw new MojoFailureException(MessageFormat.format("Plugin {0} checksum is not valid", plugin.getName()));
+        final boolean link = linkPlugins && null != stagedPlugin.getSource();
+        if (sync.isUpToDate(stagedPlugin.getFileName(), stagedPlugin.getSourceId(), stagedPlugin.getSource(),
+            plugin.getSha256(), link)) {
+          getLog().info(MessageFormat.format("Plugin {0} is up to date", plugin.getName()));
+        } else if (link) {
+          linkedPlugins.add(stagedPlugin);
+        } else {
+          outdatedPlugins.add(stagedPlugin);
         }
-      } else if (StringUtils.isNotBlank(plugin.getArtifactId()) && StringUtils.isNotBlank(plugin.getGroupId())) {
-        getLog().info(MessageFormat.format("Copy plugin {0} from dependencies", plugin.getName()));
-        final Artifact artifact = searchArtifact(plugin.getGroupId(), plugin.getArtifactId())
-            .orElseThrow(() -> new MojoFailureException(
-                MessageFormat.format("Unable to found plugin {0} in dependencies with groupId {1} and artifactId {2}",
-                    plugin.getName(), plugin.getGroupId(), plugin.getArtifactId())));
-        final File sourceFile = artifact.getFile();
-        final File destinationFile = new File(pluginsFolder, FilenameUtils.getName(artifact.getArtifactId() + ".jar"));
-        getLog().info("Plugin found in dependencies");
-        copyFile(sourceFile, destinationFile);
-      } else {
-        throw new MojoFailureException(
-            MessageFormat.format(
-                "Not source provided for plugin {0}, please provide a file, an URL or a groupId/artifactId",
-                plugin.getName()));
+      } catch (final MojoFailureException e) {
+        failures.put(plugin, e);
       }
     }
+    if (outdatedPlugins.isEmpty()) {
+      reportFailures(failures);
+      linkAdditionalPlugins(linkedPlugins, pluginsFolder, sync);
+      getLog().info(linkedPlugins.isEmpty() ? "Additional plugins are up to date" : "Additional plugins linked");
+      return;
+    }
+
+    final File stagingFolder;
+    try {
+      stagingFolder = Files.createTempDirectory(serverDirectory.toPath(), STAGING_PREFIX).toFile();
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to create plugins staging directory", e);
+    }
+    // Without parallelism the plugins are acquired by the calling thread
+    final ExecutorService pool = 1 < pluginParallelism ? Executors.newFixedThreadPool(pluginParallelism) : null;
+    final Executor executor = null == pool ? Runnable::run : pool;
+    try {
+      final Map<String, StagedPlugin> sources = new HashMap<>();
+      final Map<StagedPlugin, StagedPlugin> duplicates = new LinkedHashMap<>();
+      final Map<StagedPlugin, FutureTask<Void>> acquisitions = new LinkedHashMap<>();
+      for (final StagedPlugin stagedPlugin : outdatedPlugins) {
+        stagedPlugin.stageIn(stagingFolder);
+        final Optional<StagedPlugin> source = findSource(stagedPlugin, sources);
+        if (source.isPresent()) {
+          getLog().info(MessageFormat.format("Plugin {0} shares its source with plugin {1}, it is fetched once",
+              stagedPlugin.getPlugin().getName(), source.get().getPlugin().getName()));
+          duplicates.put(stagedPlugin, source.get());
+        } else {
+          final FutureTask<Void> acquisition = new FutureTask<>(() -> acquirePlugin(stagedPlugin));
+          acquisitions.put(stagedPlugin, acquisition);
+          executor.execute(acquisition);
+        }
+      }
+
+      for (final Entry<StagedPlugin, FutureTask<Void>> acquisition : acquisitions.entrySet()) {
+        try {
+          acquisition.getValue().get();
+        } catch (final ExecutionException e) {
+          failures.put(acquisition.getKey().getPlugin(),
+              e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        }
+      }
+      for (final Entry<StagedPlugin, StagedPlugin> duplicate : duplicates.entrySet()) {
+        if (!failures.containsKey(duplicate.getValue().getPlugin())) {
+          try {
+            verifyDuplicate(duplicate.getKey(), duplicate.getValue());
+          } catch (final MojoExecutionException | MojoFailureException e) {
+            failures.put(duplicate.getKey().getPlugin(), e);
+          }
+        }
+      }
+      reportFailures(failures);
+
+      for (final Entry<StagedPlugin, StagedPlugin> duplicate : duplicates.entrySet()) {
+        copyFile(duplicate.getValue().getStaged(), duplicate.getKey().getStaged());
+      }
+      final List<StagedPlugin> stagedPlugins = new ArrayList<>(acquisitions.keySet());
+      stagedPlugins.addAll(duplicates.keySet());
+      promotePlugins(stagedPlugins, pluginsFolder, sync);
+      linkAdditionalPlugins(linkedPlugins, pluginsFolder, sync);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while copying additional plugins", e);
+    } finally {
+      if (null != pool) {
+        pool.shutdownNow();
+      }
+      FileUtils.deleteQuietly(stagingFolder);
+    }
     getLog().info("Additional plugins copied");
   }
 
+  /**
+   * Resolves the source of given plugin and the name of its JAR.
+   *
+   * @param plugin the {@link Plugin plugin} to stage
+   * @return the {@link StagedPlugin staged plugin}
+   * @throws MojoFailureException when the plugin has no source or when its artifact is not found
+   */
+  private StagedPlugin stagePlugin(final @NotNull Plugin plugin) throws MojoFailureException {
+    final String fileName = FilenameUtils.getName(plugin.getName() + ".jar");
+    if (null != plugin.getFile()) {
+      // Plugin file is defined
+      getLog().info(MessageFormat.format("Copy plugin {0} from file {1}", plugin.getName(), plugin.getFile()));
+      return new StagedPlugin(plugin, plugin.getFile(), fileName);
+    } else if (null != plugin.getUrl()) {
+      // Plugin download URL is defined
+      return new StagedPlugin(plugin, null, fileName);
+    } else if (StringUtils.isNotBlank(plugin.getArtifactId()) && StringUtils.isNotBlank(plugin.getGroupId())) {
+      getLog().info(MessageFormat.format("Copy plugin {0} from dependencies", plugin.getName()));
+      final Artifact artifact = searchArtifact(plugin.getGroupId(), plugin.getArtifactId())
+          .orElseThrow(() -> new MojoFailureException(
+              MessageFormat.format("Unable to found plugin {0} in dependencies with groupId {1} and artifactId {2}",
+                  plugin.getName(), plugin.getGroupId(), plugin.getArtifactId())));
+      getLog().info("Plugin found in dependencies");
+      return new StagedPlugin(plugin, artifact.getFile(), FilenameUtils.getName(artifact.getArtifactId() + ".jar"));
+    }
+    throw new MojoFailureException(
+        MessageFormat.format(
+            "Not source provided for plugin {0}, please provide a file, an URL or a groupId/artifactId",
+            plugin.getName()));
+  }
+
+  /**
+   * Finds the already staged plugin which shares the URL or the SHA256 digest of given plugin, otherwise registers
+   * given plugin as the source of its URL and digest.
+   *
+   * @param stagedPlugin the {@link StagedPlugin staged plugin}
+   * @param sources      the staged plugins by URL and by digest
+   * @return the staged plugin to copy or {@link Optional#empty()} when given plugin has to be acquired
+   */
+  private static Optional<StagedPlugin> findSource(final @NotNull StagedPlugin stagedPlugin,
+      final @NotNull Map<String, StagedPlugin> sources) {
+    final Plugin plugin = stagedPlugin.getPlugin();
+    if (null != stagedPlugin.getSource() || null == plugin.getUrl()) {
+      // Local files are copied
+      return Optional.empty();
+    }
+    final List<String> keys = new ArrayList<>();
+    keys.add(stagedPlugin.getSourceId());
+    if (StringUtils.isNotBlank(plugin.getSha256())) {
+      keys.add("sha256:" + plugin.getSha256().toLowerCase(Locale.ROOT));
+    }
+    for (final String key : keys) {
+      final StagedPlugin source = sources.get(key);
+      if (null != source) {
+        return Optional.of(source);
+      }
+    }
+    for (final String key : keys) {
+      sources.put(key, stagedPlugin);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Verifies the digests declared by a plugin fetched once with another one against the digests of the shared source.
+   *
+   * @param duplicate the {@link StagedPlugin staged plugin} sharing its source
+   * @param source    the acquired {@link StagedPlugin staged plugin}
+   * @throws MojoExecutionException when issue occurred while computing a digest
+   * @throws MojoFailureException   when a declared digest does not match the source
+   */
+  private static void verifyDuplicate(final @NotNull StagedPlugin duplicate, final @NotNull StagedPlugin source)
+      throws MojoExecutionException, MojoFailureException {
+    final Plugin plugin = duplicate.getPlugin();
+    if (!source.matches(MessageDigestAlgorithms.SHA_256, plugin.getSha256())
+        || !source.matches(MessageDigestAlgorithms.MD5, plugin.getMd5())) {
+      throw new MojoFailureException(MessageFormat.format("{0} checksum is not valid", duplicate.getFileName()));
+    }
+  }
+
+  /**
+   * Acquires given plugin into the staging folder.
+   *
+   * @param stagedPlugin the {@link StagedPlugin staged plugin}
+   * @return nothing
+   * @throws MojoExecutionException when issue occurred while copying or downloading the plugin
+   * @throws MojoFailureException   when the plugin checksum is not valid
+   */
+  private Void acquirePlugin(final @NotNull StagedPlugin stagedPlugin)
+      throws MojoExecutionException, MojoFailureException {
+    if (null == stagedPlugin.getSource()) {
+      stagedPlugin.addDigests(downloadAdditionalPlugin(stagedPlugin.getPlugin(), stagedPlugin.getStaged()));
+    } else {
+      copyFile(stagedPlugin.getSource(), stagedPlugin.getStaged());
+    }
+    return null;
+  }
+
+  /**
+   * Reports the failures of the additional plugins as a single exception.
+   *
+   * @param failures the failures by {@link Plugin plugin}
+   * @throws MojoExecutionException when a plugin cannot be acquired
+   * @throws MojoFailureException   when a plugin is misconfigured or when its checksum is not valid
+   */
+  private static void reportFailures(final @NotNull Map<Plugin, Exception> failures)
+      throws MojoExecutionException, MojoFailureException {
+    if (failures.isEmpty()) {
+      return;
+    }
+    if (1 == failures.size()) {
+      final Exception failure = failures.values().iterator().next();
+      if (failure instanceof MojoFailureException) {
+        throw (MojoFailureException) failure;
+      }
+      if (failure instanceof MojoExecutionException) {
+        throw (MojoExecutionException) failure;
+      }
+    }
+
+    final StringBuilder message = new StringBuilder(
+        MessageFormat.format("{0} additional plugins cannot be copied:", failures.size()));
+    boolean misconfigured = false;
+    for (final Entry<Plugin, Exception> failure : failures.entrySet()) {
+      message.append(System.lineSeparator()).append(" - ").append(failure.getKey().getName()).append(": ")
+          .append(failure.getValue().getMessage());
+      misconfigured |= failure.getValue() instanceof MojoFailureException;
+    }
+    if (misconfigured) {
+      final MojoFailureException exception = new MojoFailureException(message.toString());
+      failures.values().forEach(exception::addSuppressed);
+      throw exception;
+    }
+    final MojoExecutionException exception = new MojoExecutionException(message.toString());
+    failures.values().forEach(exception::addSuppressed);
+    throw exception;
+  }
+
+  /**
+   * Moves the staged plugins to the plugins folder.
+   *
+   * @param stagedPlugins the {@link StagedPlugin staged plugins}
+   * @param pluginsFolder the plugins folder
+   * @param sync          the {@link PluginSync synchronization} of the plugins folder
+   * @throws MojoExecutionException when issue occurred while moving a plugin
+   */
+  private static void promotePlugins(final @NotNull List<StagedPlugin> stagedPlugins,
+      final @NotNull File pluginsFolder, final @NotNull PluginSync sync) throws MojoExecutionException {
+    if (!pluginsFolder.exists() && !pluginsFolder.mkdirs()) {
+      throw new MojoExecutionException("Unable to create plugins directory");
+    }
+    for (final StagedPlugin stagedPlugin : stagedPlugins) {
+      sync.deploy(stagedPlugin.getStaged(), stagedPlugin.getSourceId(), stagedPlugin.getSource(), true);
+    }
+  }
+
+  /**
+   * Links the local additional plugins into the plugins folder.
+   *
+   * @param linkedPlugins the {@link StagedPlugin plugins} to link
+   * @param pluginsFolder the plugins folder
+   * @param sync          the {@link PluginSync synchronization} of the plugins folder
+   * @throws MojoExecutionException when issue occurred while linking a plugin
+   */
+  private void linkAdditionalPlugins(final @NotNull List<StagedPlugin> linkedPlugins,
+      final @NotNull File pluginsFolder, final @NotNull PluginSync sync) throws MojoExecutionException {
+    if (!linkedPlugins.isEmpty() && !pluginsFolder.exists() && !pluginsFolder.mkdirs()) {
+      throw new MojoExecutionException("Unable to create plugins directory");
+    }
+    for (final StagedPlugin linkedPlugin : linkedPlugins) {
+      final File deployed = new File(pluginsFolder, linkedPlugin.getFileName());
+      final FileCopier.Method method = linkFile(linkedPlugin.getSource(), deployed);
+      getLog().info(MessageFormat.format("Plugin {0} deployed ({1})", linkedPlugin.getPlugin().getName(), method));
+      sync.recordLink(deployed, linkedPlugin.getSourceId(), linkedPlugin.getSource(), true, method);
+    }
+  }
+
+  /**
+   * Checks whether the server loads plugins in place, otherwise the plugins are copied.
+   *
+   * @return {@code true} when the server supports the {@literal --add-plugin} option
+   */
+  @VisibleForTesting
+  boolean checkAddPluginSupport() {
+    if (ServerCapabilities.supportsAddPlugin(getServerDirectory())) {
+      return true;
+    }
+    getLog().warn(MessageFormat.format("The server does not support {0}, the plugins are copied",
+        ServerCapabilities.ADD_PLUGIN_OPTION));
+    return false;
+  }
+
+  /**
+   * Removes the JARs which are no longer configured, writes the plugins manifest and logs the synchronization.
+   *
+   * @param additional whether the additional plugins were synchronized
+   * @throws MojoExecutionException when issue occurred while removing a JAR or writing the manifest
+   */
+  @VisibleForTesting
+  void finishPluginSync(final boolean additional) throws MojoExecutionException {
+    if (null == pluginSync) {
+      return;
+    }
+    for (final String removed : pluginSync.removeStale(additional)) {
+      getLog().info(MessageFormat.format("Plugin {0} is no longer configured, it is removed", removed));
+    }
+    pluginSync.save();
+    getLog().info(MessageFormat.format(
+        "Plugins synchronized: {0} copied, {1} linked, {2} up to date, {3} removed, {4} written",
+        pluginSync.getCopied(), pluginSync.getLinked(), pluginSync.getUnchanged(), pluginSync.getRemoved(),
+        FileUtils.byteCountToDisplaySize(pluginSync.getBytesWritten())));
+  }
+
+  /**
+   * Downloads an additional plugin from its URL, or retrieves it from the shared cache.
+   *
+   * @param plugin               the {@link Plugin plugin} to download
+   * @param destinationPluginJar the destination {@link File file}
+   * @return the verified digests of the plugin, by algorithm name
+   * @throws MojoExecutionException when issue occurred while downloading the plugin
+   * @throws MojoFailureException   when the plugin checksum is not valid
+   */
+  private Map<String, String> downloadAdditionalPlugin(final @NotNull Plugin plugin,
+      final @NotNull File destinationPluginJar) throws MojoExecutionException, MojoFailureException {
+    if (retrieveFromCache(plugin.getSha256(), destinationPluginJar)) {
+      // The cache entries are verified against their SHA256 digest
+      return Collections.singletonMap(MessageDigestAlgorithms.SHA_256, plugin.getSha256());
+    }
+    ensureOnline(destinationPluginJar.getName());
+    getLog().info(MessageFormat.format("Download plugin {0} from url {1}", plugin.getName(), plugin.getUrl()));
+    final DownloadOptions options = createDownloadOptions();
+    options.setSha256(plugin.getSha256());
+    options.setMd5(plugin.getMd5());
+    final Map<String, String> digests = FileDownloader.downloadFile(destinationPluginJar, plugin.getUrl(), options);
+    if (StringUtils.isBlank(plugin.getSha256())) {
+      getLog().info(MessageFormat.format("Plugin {0} SHA256 is {1}, declare it to verify and cache the plugin",
+          plugin.getName(), digests.get(MessageDigestAlgorithms.SHA_256)));
+    }
+    storeInCache(plugin.getSha256(), destinationPluginJar);
+    return digests;
+  }
+
   /**
    * Searches artifact in project.
    *
@@ -195,7 +603,8 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
   }
 
   /**
-   * Copy file from given source to given destination.
+   * Copy file from given source to given destination. The copy is written to a temporary file, then moved to the
+   * destination.
    *
    * @param sourcePluginJar      the source {@link File file}
    * @param destinationPluginJar the destination {@link File file}
@@ -204,22 +613,61 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
   @VisibleForTesting
   void copyFile(final File sourcePluginJar, final File destinationPluginJar) throws MojoExecutionException {
 
-    try (final FileInputStream in = new FileInputStream(sourcePluginJar)) {
-      try (final FileOutputStream out = new FileOutputStream(destinationPluginJar)) {
-        final byte[] buffer = new byte[1024];
-        int lengthRead;
-        while (0 < (lengthRead = in.read(buffer))) {
-          out.write(buffer, 0, lengthRead);
-          out.flush();
-        }
-      }
+    try {
+      AtomicFiles.copy(sourcePluginJar, destinationPluginJar);
     } catch (final IOException e) {
       throw new MojoExecutionException("Unable to copy plugin " + sourcePluginJar.getName() + " JAR file", e);
-    } catch (final OutOfMemoryError e) {
-      throw new MojoExecutionException("Unable to create buffer to download PaperMC. Not enough memory space", e);
     }
   }
 
+  /**
+   * Repacks given JAR to given destination with uncompressed entries.
+   *
+   * @param sourcePluginJar      the source {@link File JAR}
+   * @param destinationPluginJar the destination {@link File file}
+   * @return the number of entries of the repacked JAR
+   * @throws MojoExecutionException when issue occurred while repacking the JAR
+   */
+  @VisibleForTesting
+  int repackFile(final File sourcePluginJar, final File destinationPluginJar) throws MojoExecutionException {
+    try {
+      return JarRepacker.repack(sourcePluginJar, destinationPluginJar);
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to repack plugin " + sourcePluginJar.getName() + " JAR file", e);
+    }
+  }
+
+  /**
+   * Links file from given source to given destination.
+   *
+   * @param source      the source {@link File file}
+   * @param destination the destination {@link File file}
+   * @return the {@link FileCopier.Method method} used to deploy the file
+   * @throws MojoExecutionException when the file can neither be linked nor copied
+   */
+  @VisibleForTesting
+  FileCopier.Method linkFile(final File source, final File destination) throws MojoExecutionException {
+    try {
+      return FileCopier.link(source, destination);
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to link plugin " + source.getName() + " JAR file", e);
+    }
+  }
+
+  /**
+   * Gets the synchronization of the plugins folder, its manifest is loaded once per execution.
+   *
+   * @param pluginsFolder the plugins folder
+   * @return the {@link PluginSync synchronization}
+   */
+  @VisibleForTesting
+  PluginSync getPluginSync(final File pluginsFolder) {
+    if (null == pluginSync) {
+      pluginSync = PluginSync.load(pluginsFolder);
+    }
+    return pluginSync;
+  }
+
   /**
    * Creates new instance of {@link File}.
    *
@@ -231,4 +679,119 @@ public class CopyPluginMojo extends AbstractServerMcMojo {
   File createFile(final File parent, final String path) {
     return new File(parent, path);
   }
-}
\ No newline at end of file
+
+  /**
+   * Additional plugin with its source and its file in the staging folder.
+   */
+  private static final class StagedPlugin {
+
+    private final Plugin plugin;
+    private final File source;
+    private final String fileName;
+    private final Map<String, String> digests = new HashMap<>();
+    private File staged;
+
+    /**
+     * Constructor.
+     *
+     * @param plugin   the {@link Plugin plugin}
+     * @param source   the local file to copy, {@code null} when the plugin is downloaded
+     * @param fileName the name of the plugin JAR
+     */
+    StagedPlugin(final @NotNull Plugin plugin, final @Nullable File source, final @NotNull String fileName) {
+      this.plugin = plugin;
+      this.source = source;
+      this.fileName = fileName;
+    }
+
+    /**
+     * Gets the plugin.
+     *
+     * @return the {@link Plugin plugin}
+     */
+    Plugin getPlugin() {
+      return plugin;
+    }
+
+    /**
+     * Gets the local file to copy.
+     *
+     * @return the source file, {@code null} when the plugin is downloaded
+     */
+    @Nullable File getSource() {
+      return source;
+    }
+
+    /**
+     * Gets the identifier of the plugin source, recorded in the plugins manifest.
+     *
+     * @return the path of the local file or the URL of the plugin
+     */
+    String getSourceId() {
+      return null == source ? URL_SOURCE_PREFIX + plugin.getUrl().toExternalForm()
+          : FILE_SOURCE_PREFIX + source.getAbsolutePath();
+    }
+
+    /**
+     * Gets the name of the plugin JAR.
+     *
+     * @return the file name
+     */
+    String getFileName() {
+      return fileName;
+    }
+
+    /**
+     * Places the plugin JAR in given staging folder.
+     *
+     * @param stagingFolder the staging folder
+     */
+    void stageIn(final @NotNull File stagingFolder) {
+      staged = new File(stagingFolder, fileName);
+    }
+
+    /**
+     * Gets the file in the staging folder.
+     *
+     * @return the staged file
+     */
+    File getStaged() {
+      return staged;
+    }
+
+    /**
+     * Records the digests of the staged file computed while acquiring it.
+     *
+     * @param computed the digests, by algorithm name
+     */
+    void addDigests(final @NotNull Map<String, String> computed) {
+      digests.putAll(computed);
+    }
+
+    /**
+     * Checks whether the staged file has given digest. The digest is computed from the staged file when it was not
+     * computed while acquiring it.
+     *
+     * @param algorithm the digest algorithm, see {@link MessageDigestAlgorithms}
+     * @param expected  the expected digest, can be {@code null} when nothing is expected
+     * @return {@code true} when no digest is expected or when both digests match
+     * @throws MojoExecutionException when the digest cannot be computed
+     */
+    boolean matches(final @NotNull String algorithm, final @Nullable String expected) throws MojoExecutionException {
+      if (StringUtils.isBlank(expected)) {
+        return true;
+      }
+      String actual = digests.get(algorithm);
+      if (null == actual) {
+        try {
+          actual = new DigestUtils(algorithm).digestAsHex(staged);
+        } catch (final IOException e) {
+          throw new MojoExecutionException(
+              MessageFormat.format("Unable to compute {0} digest of plugin {1}", algorithm, plugin.getName()), e);
+        }
+        digests.put(algorithm, actual);
+      }
+      return expected.equalsIgnoreCase(actual);
+    }
+  }
+}
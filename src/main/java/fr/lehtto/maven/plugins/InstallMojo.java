@@ -1,34 +1,58 @@
 package fr.lehtto.maven.plugins;
 
+import fr.lehtto.maven.plugins.papermc.BuildArtifact;
+import fr.lehtto.maven.plugins.papermc.BuildPolicy;
+import fr.lehtto.maven.plugins.papermc.MetadataCache;
 import fr.lehtto.maven.plugins.papermc.PaperApiClient;
-import fr.lehtto.maven.plugins.papermc.entity.Build;
-import fr.lehtto.maven.plugins.papermc.entity.Version;
+import fr.lehtto.maven.plugins.papermc.PaperclipCache;
+import fr.lehtto.maven.plugins.util.AtomicFiles;
+import fr.lehtto.maven.plugins.util.DownloadOptions;
 import fr.lehtto.maven.plugins.util.FileDownloader;
+import fr.lehtto.maven.plugins.util.HttpTransport;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.VisibleForTesting;
 
 /**
  * Installs (download, setup) the server.
  *
  * @author Lehtto
- * @version 0.0.1
+ * @version 0.2.0
  * @since 0.0.1
  */
 @Mojo(name = "install")
-public class InstallMojo extends AbstractServerMcMojo {
+public class InstallMojo extends AbstractDownloadMojo {
 
   private static final String BASE_URL = "https://api.papermc.io/v2/projects/paper/";
+  private static final String EULA_CONTENT = "eula=true";
+  private static final String PATCHED_FOLDER = "patched";
+  private static final String VERSION_KEY = "version";
+  private static final String BUILD_KEY = "build";
+  private static final String MATRIX_ROW_FORMAT = "  %-10s %-6s %-10s %s";
   private final PaperApiClient client;
 
   /**
@@ -37,12 +61,39 @@ public class InstallMojo extends AbstractServerMcMojo {
   @Parameter(property = "base-url", defaultValue = BASE_URL)
   private String baseUrl;
 
+  /**
+   * The base URLs of the PaperMC API and its mirrors, in preference order, replacing {@link #baseUrl} when set. The API
+   * calls and the downloads go to the fastest healthy one and fail over to the others.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "mirrors")
+  private List<String> mirrors;
+
   /**
    * The build number to use.
    */
   @Parameter(property = "buildNumber")
   private String buildNumber;
 
+  /**
+   * The policy selecting the build when {@link #buildNumber} is not set: {@literal LATEST}, {@literal LATEST_PROMOTED}
+   * or {@literal LATEST_DEFAULT}, the latest build of the stable channel.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "buildPolicy", defaultValue = "LATEST")
+  private BuildPolicy buildPolicy;
+
+  /**
+   * The minimum age, in days, of the build selected when {@link #buildNumber} is not set, {@literal 0} to accept the
+   * builds published today.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "buildMinAge", defaultValue = "0")
+  private int buildMinAge;
+
   /**
    * Whether the EULA is agreed.
    */
@@ -50,11 +101,29 @@ public class InstallMojo extends AbstractServerMcMojo {
   private boolean eula;
 
   /**
-   * Minecraft version to use.
+   * Minecraft version to use, required unless {@link #mcVersions} is set.
    */
-  @Parameter(property = "mc-version", required = true)
+  @Parameter(property = "mc-version")
   private String mcVersion;
 
+  /**
+   * Minecraft versions of the servers installed concurrently, as {@literal <version>} or
+   * {@literal <version>:<build>}, each server in its own folder of the server directory, named after the entry. When
+   * set, {@link #mcVersion} and {@link #buildNumber} are ignored.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "mcVersions")
+  private List<String> mcVersions;
+
+  /**
+   * The maximum number of servers of {@link #mcVersions} installed concurrently.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "installParallelism", defaultValue = "4")
+  private int installParallelism;
+
   /**
    * Whether the JAR file has to be overridden if it exists.
    */
@@ -67,6 +136,44 @@ public class InstallMojo extends AbstractServerMcMojo {
   @Parameter(property = "override-properties", required = true, defaultValue = "false")
   private boolean overrideProperties;
 
+  /**
+   * The duration, in minutes, during which the cached PaperMC API responses are used without revalidation. Responses
+   * related to a given build never expire.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "metadataTtl", defaultValue = "60")
+  private long metadataTtl;
+
+  /**
+   * Whether the patch phase of the Paperclip launcher is run once per server JAR, its output kept in the shared cache
+   * and copied to new server directories, so their first start does not download and patch the Mojang server again.
+   * The patch phase forks a JVM which downloads the Mojang server itself, so it is skipped in offline mode, only the
+   * patched files already cached being copied.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "prepatchServer", defaultValue = "false")
+  private boolean prepatchServer;
+
+  /**
+   * The duration, in minutes, after which the patch phase of the Paperclip launcher is aborted.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "prepatchTimeout", defaultValue = "10")
+  private long prepatchTimeout;
+
+  /**
+   * Whether the Mojang mappings published with the PaperMC build are downloaded to
+   * {@literal mojang-mappings.txt} in the server directory, alongside the server JAR and through the same verified and
+   * cached download, for the tools deobfuscating the server stack traces and profiles.
+   *
+   * @since 0.2.0
+   */
+  @Parameter(property = "downloadMappings", defaultValue = "false")
+  private boolean downloadMappings;
+
   /**
    * Initial values of "server.properties".
    */
@@ -74,13 +181,6 @@ public class InstallMojo extends AbstractServerMcMojo {
   @Parameter(property = "properties")
   private Map<String, String> properties;
 
-
-  private File eulaFile;
-  private File jarFile;
-  private String jarUrl;
-  private File propertiesFile;
-  private String sha256;
-
   /**
    * Default constructor.
    */
@@ -93,145 +193,556 @@ public class InstallMojo extends AbstractServerMcMojo {
    * <ul>
    *   <li>Checks EULA</li>
    *   <li>Creates server directory</li>
-   *   <li>Retrieves build number</li>
-   *   <li>Retrieves JAR URL</li>
+   *   <li>Resolves build number and JAR URL, with a single call when the build number is not set</li>
    *   <li>Downloads PaperMC</li>
+   *   <li>Downloads the Mojang mappings, when enabled</li>
    *   <li>Creates configuration files</li>
    * </ul>
+   * The build resolution and the download run in background while the configuration files are written, the download
+   * starts as soon as the build is resolved. The servers of a matrix are installed concurrently.
    */
   @Override
   public void execute() throws MojoExecutionException, MojoFailureException {
-    getLog().info(MessageFormat.format("Initializing PaperMC server for minecraft version {0}", mcVersion));
     if (!eula) {
       throw new MojoFailureException(
           "Please read EULA from https://aka.ms/MinecraftEULA and indicate your agreement by using parameter eula");
     }
 
+    configureClient();
+    if (null != mcVersions && !mcVersions.isEmpty()) {
+      installMatrix();
+    } else if (null == mcVersion || mcVersion.trim().isEmpty()) {
+      throw new MojoFailureException("Please set the Minecraft version with parameter mcVersion or mcVersions");
+    } else {
+      installServer(new ServerInstallation(mcVersion, buildNumber, getBuildPolicy(), getServerDirectory()));
+    }
+    logCacheStatistics();
+    reportHttpMetrics("install");
+  }
+
+  /**
+   * Installs the server of given installation.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @throws MojoExecutionException when issue occurred while calling PaperMC API or writing the server files
+   * @throws MojoFailureException   when checksum verification failed
+   */
+  private void installServer(final @NotNull ServerInstallation installation)
+      throws MojoExecutionException, MojoFailureException {
+    getLog().info(MessageFormat.format("Initializing PaperMC server for minecraft version {0}",
+        installation.getMcVersion()));
+
     // Creates server directory
-    if (!getServerDirectory().exists()) {
+    final File serverDirectory = installation.getServerDirectory();
+    if (!serverDirectory.exists()) {
       getLog().debug("Create server directory");
-      getServerDirectory().mkdirs();
+      serverDirectory.mkdirs();
+    }
+
+    // Files are written atomically, an existing file is complete
+    deleteTemporaryFiles(installation);
+
+    final CompletableFuture<Void> download;
+    final boolean installJar = !installation.getJarFile().exists() || overrideJar;
+    // Mappings of an installed server are only fetched when missing, for the build of the installed JAR
+    final boolean installMappings = downloadMappings
+        && (installJar || !installation.getMappingsFile().isFile() && useInstalledBuild(installation));
+    if (installJar || installMappings) {
+      download = retrievePaperBuildNumber(installation)
+          .thenCompose(ignored -> retrieveJarUrl(installation))
+          .thenRunAsync(() -> {
+            try {
+              if (installJar) {
+                downloadPaper(installation);
+              }
+              if (installMappings) {
+                downloadMappings(installation);
+              }
+            } catch (final MojoExecutionException | MojoFailureException e) {
+              throw new CompletionException(e);
+            }
+          });
+    } else {
+      download = CompletableFuture.completedFuture(null);
+    }
+
+    try {
+      createEulaFile(installation);
+      if (!installation.getPropertiesFile().exists() || overrideProperties) {
+        createPropertiesFile(installation);
+      }
+    } catch (final MojoExecutionException e) {
+      // Do not leave the download running once the goal failed
+      download.exceptionally(ignored -> null).join();
+      throw e;
+    }
+    awaitInstallation(download);
+    prepatchServer(installation);
+    shareLibraries(serverDirectory);
+  }
+
+  /**
+   * Installs concurrently, at most {@link #installParallelism} at a time, the servers of the matrix, sharing the
+   * PaperMC API client, its HTTP client and the download cache, then logs the resolved builds and the timings. Every
+   * server is installed even when another one fails.
+   *
+   * @throws MojoExecutionException when issue occurred while installing a server
+   * @throws MojoFailureException   when an entry is invalid or a checksum verification failed
+   */
+  private void installMatrix() throws MojoExecutionException, MojoFailureException {
+    final List<ServerInstallation> installations = new ArrayList<>();
+    for (final String entry : mcVersions) {
+      installations.add(createInstallation(entry));
+    }
+
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(Math.max(1, Math.min(installations.size(), installParallelism)));
+    final List<CompletableFuture<Long>> futures = new ArrayList<>();
+    try {
+      for (final ServerInstallation installation : installations) {
+        futures.add(CompletableFuture.supplyAsync(() -> {
+          final long start = System.nanoTime();
+          try {
+            installServer(installation);
+          } catch (final MojoExecutionException | MojoFailureException e) {
+            throw new CompletionException(e);
+          }
+          return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }, executor));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).exceptionally(ignored -> null).join();
+    } finally {
+      executor.shutdown();
+    }
+
+    getLog().info("Servers installed:");
+    getLog().info(String.format(MATRIX_ROW_FORMAT, "Minecraft", "Build", "Duration", "Server directory"));
+    for (int i = 0; i < installations.size(); i++) {
+      final ServerInstallation installation = installations.get(i);
+      final CompletableFuture<Long> future = futures.get(i);
+      getLog().info(String.format(MATRIX_ROW_FORMAT, installation.getMcVersion(),
+          null == installation.getBuildNumber() ? "-" : installation.getBuildNumber(),
+          future.isCompletedExceptionally() ? "failed" : MessageFormat.format("{0} ms", future.join()),
+          installation.getServerDirectory()));
+    }
+    for (final CompletableFuture<Long> future : futures) {
+      awaitInstallation(future);
     }
+  }
+
+  /**
+   * Creates the installation of a matrix entry, in the folder of the server directory named after the entry.
+   *
+   * @param entry the matrix entry, {@literal <version>} or {@literal <version>:<build>}
+   * @return the {@link ServerInstallation installation} of the entry
+   * @throws MojoFailureException when the entry is invalid
+   */
+  @VisibleForTesting
+  ServerInstallation createInstallation(final @NotNull String entry) throws MojoFailureException {
+    final String[] parts = entry.trim().split(":", -1);
+    if (2 < parts.length || parts[0].isEmpty() || (2 == parts.length && parts[1].isEmpty())) {
+      throw new MojoFailureException(
+          MessageFormat.format("Invalid Minecraft version \"{0}\", expected <version> or <version>:<build>", entry));
+    }
+    return new ServerInstallation(parts[0], 2 == parts.length ? parts[1] : null, getBuildPolicy(),
+        new File(getServerDirectory(), String.join("-", parts)));
+  }
+
+  /**
+   * Gets the policy selecting the build when the build number is not set.
+   *
+   * @return the {@link BuildPolicy build policy}, {@literal LATEST} by default
+   */
+  private BuildPolicy getBuildPolicy() {
+    return null == buildPolicy ? BuildPolicy.LATEST : buildPolicy;
+  }
 
-    // Defines files
-    jarFile = new File(getServerDirectory(), "server.jar");
-    propertiesFile = new File(getServerDirectory(), "server.properties");
-    eulaFile = new File(getServerDirectory(), "eula.txt");
+  /**
+   * Waits for the completion of the PaperMC installation.
+   *
+   * @param installation the future of the installation
+   * @throws MojoExecutionException when issue occurred while calling PaperMC API or downloading the server file
+   * @throws MojoFailureException   when checksum verification failed
+   */
+  private static void awaitInstallation(final @NotNull CompletableFuture<?> installation)
+      throws MojoExecutionException, MojoFailureException {
+    try {
+      installation.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while installing PaperMC", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof MojoExecutionException) {
+        throw (MojoExecutionException) cause;
+      }
+      if (cause instanceof MojoFailureException) {
+        throw (MojoFailureException) cause;
+      }
+      throw new MojoExecutionException("Unable to install PaperMC", cause);
+    }
+  }
 
-    createEulaFile();
 
-    if (!jarFile.exists() || overrideJar) {
-      retrievePaperBuildNumber();
-      retrieveJarUrl();
-      downloadPaper();
+  /**
+   * Seeds the server directory with the files patched by the Paperclip launcher, patched once in the shared cache.
+   * The patch is an optimization: on failure, or offline since the launcher downloads the Mojang server, the server
+   * patches itself on its first start.
+   * <p>
+   * The launcher is identified by the digest verified when it was installed, it is only hashed when it was installed by
+   * a previous run. The shared cache is then trimmed, the patched files counting in its size.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @throws MojoExecutionException when the server JAR cannot be read or the server directory cannot be seeded
+   */
+  @VisibleForTesting
+  void prepatchServer(final @NotNull ServerInstallation installation) throws MojoExecutionException {
+    final File jarFile = installation.getJarFile();
+    if (!prepatchServer || !getFileCache().isPresent() || !jarFile.isFile()) {
+      return;
+    }
+    final PaperclipCache paperclipCache =
+        new PaperclipCache(new File(getFileCache().get().getDirectory(), PATCHED_FOLDER), prepatchTimeout);
+    paperclipCache.clean();
+    final String serverSha256;
+    if (null != installation.getInstalledSha256()) {
+      serverSha256 = installation.getInstalledSha256();
+    } else {
+      try (final InputStream in = new FileInputStream(jarFile)) {
+        serverSha256 = DigestUtils.sha256Hex(in);
+      } catch (final IOException e) {
+        throw new MojoExecutionException("Unable to read server JAR", e);
+      }
     }
 
-    if (!propertiesFile.exists() || overrideProperties) {
-      createPropertiesFile();
+    if (!paperclipCache.contains(serverSha256)) {
+      if (isOffline()) {
+        getLog().info("Offline, the server is patched on its first start");
+        return;
+      }
+      getLog().info("Patch PaperMC server into the shared cache");
+      try {
+        paperclipCache.patch(jarFile, serverSha256);
+      } catch (final IOException e) {
+        getLog().warn(MessageFormat.format("Unable to patch PaperMC server, it is patched on its first start: {0}",
+            e.getMessage()));
+        return;
+      }
+    }
+    try {
+      final int seeded = paperclipCache.seed(serverSha256, installation.getServerDirectory());
+      if (0 < seeded) {
+        getLog().info(MessageFormat.format("Server directory seeded with {0} patched files", seeded));
+      }
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to seed server directory with the patched files", e);
     }
+    getFileCache().get().evict();
   }
 
+  /**
+   * Deletes the temporary files left by an interrupted installation.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @throws MojoExecutionException when a temporary file cannot be deleted
+   */
+  private static void deleteTemporaryFiles(final @NotNull ServerInstallation installation)
+      throws MojoExecutionException {
+    try {
+      AtomicFiles.deleteTemporaryFiles(installation.getJarFile());
+      AtomicFiles.deleteTemporaryFiles(installation.getPropertiesFile());
+      AtomicFiles.deleteTemporaryFiles(installation.getEulaFile());
+      AtomicFiles.deleteTemporaryFiles(installation.getMappingsFile());
+      AtomicFiles.deleteTemporaryFiles(installation.getBuildFile());
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to delete temporary files of the server directory", e);
+    }
+  }
 
   /**
-   * Creates {@literal eula.txt} file.
+   * Creates {@literal eula.txt} file, unless it already contains the agreement.
    *
+   * @param installation the {@link ServerInstallation installation} of the server
    * @throws MojoExecutionException when issue occurred while writing file content
    */
   @VisibleForTesting
-  void createEulaFile() throws MojoExecutionException {
-    try (final FileOutputStream eulaOut = new FileOutputStream(eulaFile)) {
-      eulaOut.write("eula=true".getBytes(StandardCharsets.UTF_8));
+  void createEulaFile(final @NotNull ServerInstallation installation) throws MojoExecutionException {
+    final File eulaFile = installation.getEulaFile();
+    try {
+      if (eulaFile.isFile()
+          && EULA_CONTENT.equals(new String(Files.readAllBytes(eulaFile.toPath()), StandardCharsets.UTF_8))) {
+        return;
+      }
+      AtomicFiles.write(eulaFile, out -> out.write(EULA_CONTENT.getBytes(StandardCharsets.UTF_8)));
     } catch (final IOException e) {
       throw new MojoExecutionException("Unable to create EULA file", e);
     }
   }
 
   /**
-   * Retrieves the latest paper build number for specified version.
+   * Configures the PaperMC API client with the metadata cache, the offline mode, the shared HTTP client and the
+   * recorder of the HTTP metrics of the goal.
+   */
+  @VisibleForTesting
+  void configureClient() {
+    client.setMetadataCache(getFileCache()
+        .map(cache -> new MetadataCache(new File(cache.getDirectory(), "metadata"),
+            TimeUnit.MINUTES.toMillis(metadataTtl)))
+        .orElse(null));
+    client.setOffline(isOffline());
+    client.setHttpClient(HttpTransport.getClient(createHttpSettings()));
+    client.setRetryPolicy(createRetryPolicy());
+    client.setMirrors(getMirrors());
+    client.setHttpMetrics(getHttpMetrics());
+  }
+
+  /**
+   * Gets the base URLs of the PaperMC API and its mirrors.
+   *
+   * @return the base URLs, in preference order, empty when no mirror is set
+   */
+  private List<String> getMirrors() {
+    final List<String> baseUrls = new ArrayList<>();
+    if (null != mirrors) {
+      mirrors.stream()
+          .filter(mirror -> null != mirror && !mirror.trim().isEmpty())
+          .map(mirror -> mirror.trim().endsWith("/") ? mirror.trim() : mirror.trim() + '/')
+          .forEach(baseUrls::add);
+    }
+    return baseUrls;
+  }
+
+  /**
+   * Gets the base URL of the PaperMC API, the first mirror when mirrors are set.
+   *
+   * @return the base URL
+   */
+  private String getBaseUrl() {
+    final List<String> baseUrls = getMirrors();
+    return baseUrls.isEmpty() ? baseUrl : baseUrls.get(0);
+  }
+
+  /**
+   * Resolves asynchronously the paper build number for specified version, selected by the build policy. A single call
+   * of the builds list also resolves the JAR, {@link #retrieveJarUrl(ServerInstallation)} then has nothing to fetch.
    *
-   * @throws MojoExecutionException when issue occurred while calling PaperMC API
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @return the future completed once the build number is known, completed exceptionally with a
+   *     {@link MojoExecutionException} when issue occurred while calling PaperMC API
    */
   @VisibleForTesting
-  void retrievePaperBuildNumber() throws MojoExecutionException {
-    if (null != buildNumber && !buildNumber.trim().isEmpty()) {
+  CompletableFuture<Void> retrievePaperBuildNumber(final @NotNull ServerInstallation installation) {
+    if (null != installation.getBuildNumber()) {
       // Paper build number is set by the user
-      return;
+      return CompletableFuture.completedFuture(null);
     }
 
     // Call Paper API
-    getLog().info(MessageFormat.format("Retrieve latest PaperMC build number for minecraft version {0}", mcVersion));
-    final Version paperVersion = client.retrieveVersion(baseUrl, mcVersion);
-    final int latestBuildVersion = paperVersion.getLatestBuild();
-    getLog().info(MessageFormat.format("Use PaperMC build version {0}", latestBuildVersion));
-    buildNumber = String.valueOf(latestBuildVersion);
+    final String mcVersion = installation.getMcVersion();
+    final BuildPolicy policy = installation.getBuildPolicy();
+    getLog().info(MessageFormat.format("Resolve PaperMC build for minecraft version {0} with policy {1}", mcVersion,
+        policy));
+    final String apiBaseUrl = getBaseUrl();
+    return client.resolveBuildAsync(apiBaseUrl, mcVersion, policy, TimeUnit.DAYS.toMillis(buildMinAge))
+        .thenAccept(paperBuild -> {
+          getLog().info(MessageFormat.format("Use PaperMC build version {0}", String.valueOf(paperBuild.getBuild())));
+          installation.setBuildNumber(String.valueOf(paperBuild.getBuild()));
+          useBuild(installation, apiBaseUrl, paperBuild);
+        });
   }
 
   /**
-   * Retrieves the JAR download URL for specified version and specified build number.
+   * Retrieves asynchronously the JAR download URL for specified version and specified build number, unless the build
+   * is already resolved.
    *
-   * @throws MojoExecutionException when issue occurred while calling PaperMC API
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @return the future completed once the JAR URL is known, completed exceptionally with a
+   *     {@link MojoExecutionException} when issue occurred while calling PaperMC API
    */
   @VisibleForTesting
-  void retrieveJarUrl() throws MojoExecutionException {
+  CompletableFuture<Void> retrieveJarUrl(final @NotNull ServerInstallation installation) {
+    if (null != installation.getJarUrl()) {
+      return CompletableFuture.completedFuture(null);
+    }
     getLog().info(
-        MessageFormat.format("Retrieve JAR name for minecraft version {0} and paper build number {1}", mcVersion,
-            buildNumber));
-    final Build paperBuild = client.retrieveBuild(baseUrl, mcVersion, buildNumber);
-    final String jarName = paperBuild.getDownloads().getApplication().getName();
-    final String buildTime = paperBuild.getTime();
-    sha256 = paperBuild.getDownloads().getApplication().getSha256();
+        MessageFormat.format("Retrieve JAR name for minecraft version {0} and paper build number {1}",
+            installation.getMcVersion(), installation.getBuildNumber()));
+    final String apiBaseUrl = getBaseUrl();
+    return client.retrieveApplicationAsync(apiBaseUrl, installation.getMcVersion(), installation.getBuildNumber())
+        .thenAccept(paperBuild -> useBuild(installation, apiBaseUrl, paperBuild));
+  }
+
+  /**
+   * Uses the downloads of given build.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @param apiBaseUrl   the base URL of the PaperMC API
+   * @param paperBuild   the {@link BuildArtifact server JAR} of the build
+   */
+  private void useBuild(final @NotNull ServerInstallation installation, final @NotNull String apiBaseUrl,
+      final @NotNull BuildArtifact paperBuild) {
+    final String jarName = paperBuild.getName();
+    installation.setSha256(paperBuild.getSha256());
+
+    getLog().info(MessageFormat.format("Using PaperMC JAR \"{0}\", built on {1}", jarName, paperBuild.getTime()));
+    installation.setJarUrl(MessageFormat.format("{0}versions/{1}/builds/{2}/downloads/{3}",
+        apiBaseUrl, installation.getMcVersion(), installation.getBuildNumber(), jarName));
 
-    getLog().info(MessageFormat.format("Using PaperMC JAR \"{0}\", built on {1}", jarName, buildTime));
-    jarUrl = MessageFormat.format("{0}versions/{1}/builds/{2}/downloads/{3}",
-        baseUrl, mcVersion, this.buildNumber, jarName);
+    final BuildArtifact mappings = paperBuild.getMappings();
+    if (null != mappings) {
+      installation.setMappingsSha256(mappings.getSha256());
+      installation.setMappingsUrl(MessageFormat.format("{0}versions/{1}/builds/{2}/downloads/{3}",
+          apiBaseUrl, installation.getMcVersion(), installation.getBuildNumber(), mappings.getName()));
+    }
   }
 
   /**
-   * Downloads the PaperMC server JAR.
+   * Downloads the PaperMC server JAR. The JAR is moved to the server directory only once its checksum is verified.
    *
+   * @param installation the {@link ServerInstallation installation} of the server
    * @throws MojoExecutionException when issue occurred while downloading the server file.
    * @throws MojoFailureException   when checksum verification failed
    */
   @VisibleForTesting
-  void downloadPaper() throws MojoExecutionException, MojoFailureException {
+  void downloadPaper(final @NotNull ServerInstallation installation)
+      throws MojoExecutionException, MojoFailureException {
+    final File jarFile = installation.getJarFile();
+    final String sha256 = installation.getSha256();
+    final String jarUrl = installation.getJarUrl();
+    if (retrieveFromCache(sha256, jarFile)) {
+      installation.setInstalledSha256(sha256);
+      writeInstalledBuild(installation);
+      getLog().info("PaperMC retrieved from cache");
+      return;
+    }
+    ensureOnline(jarFile.getName());
+
     getLog().info(MessageFormat.format("Starting downloading server JAR from {0}", jarUrl));
+    final DownloadOptions options = createDownloadOptions();
+    options.setSha256(sha256);
+    options.setMirrors(getMirrors());
+    final Map<String, String> digests;
     try {
-      FileDownloader.downloadFile(jarFile, new URL(jarUrl));
+      digests = FileDownloader.downloadFile(jarFile, new URL(jarUrl), options);
     } catch (final IOException e) {
       throw new MojoExecutionException(MessageFormat.format("JAR URL {0} is incorrect", jarUrl), e);
     }
+    installation.setInstalledSha256(digests.get(MessageDigestAlgorithms.SHA_256));
+    getLog().debug(MessageFormat.format("Server JAR SHA256 verified: {0}", installation.getInstalledSha256()));
+    storeInCache(sha256, jarFile);
+    writeInstalledBuild(installation);
+    getLog().info("PaperMC downloaded");
+  }
 
-    getLog().info("Verify JAR checksum");
-    if (!FileDownloader.checkSha256Checksum(jarFile, sha256)) {
-      throw new MojoFailureException("Server JAR checksum is not valid");
+  /**
+   * Records the Minecraft version and the build of the installed JAR, so that the files related to the build are
+   * fetched for this build by the next runs, whatever the latest build then.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @throws MojoExecutionException when the file cannot be written
+   */
+  private static void writeInstalledBuild(final @NotNull ServerInstallation installation)
+      throws MojoExecutionException {
+    final Properties build = new Properties();
+    build.setProperty(VERSION_KEY, installation.getMcVersion());
+    build.setProperty(BUILD_KEY, String.valueOf(installation.getBuildNumber()));
+    try {
+      AtomicFiles.write(installation.getBuildFile(), out -> build.store(out, "servermc installed build"));
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to record the installed PaperMC build", e);
     }
-    getLog().info("PaperMC downloaded");
+  }
+
+  /**
+   * Uses the Minecraft version and the build of the installed JAR, recorded when it was installed.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @return {@code true} when the installed build is known, {@code false} when the installed JAR was installed without
+   *     being recorded
+   */
+  @VisibleForTesting
+  boolean useInstalledBuild(final @NotNull ServerInstallation installation) {
+    final File buildFile = installation.getBuildFile();
+    final Properties recorded = new Properties();
+    if (buildFile.isFile()) {
+      try (final InputStream in = new FileInputStream(buildFile)) {
+        recorded.load(in);
+      } catch (final IOException e) {
+        getLog().debug(MessageFormat.format("Unable to read {0}: {1}", buildFile, e.getMessage()));
+      }
+    }
+    final String version = recorded.getProperty(VERSION_KEY);
+    final String build = recorded.getProperty(BUILD_KEY);
+    if (null == version || null == build) {
+      getLog().warn("Build of the installed PaperMC server unknown, Mojang mappings not downloaded; "
+          + "install the server again with override-jar to get them");
+      return false;
+    }
+    getLog().info(MessageFormat.format("Use installed PaperMC build {0} of minecraft version {1}", build, version));
+    installation.setMcVersion(version);
+    installation.setBuildNumber(build);
+    return true;
+  }
+
+  /**
+   * Downloads the Mojang mappings of the PaperMC build. The mappings are stored once per build in the shared cache and
+   * moved to the server directory only once their checksum is verified.
+   *
+   * @param installation the {@link ServerInstallation installation} of the server
+   * @throws MojoExecutionException when issue occurred while downloading the mappings file.
+   * @throws MojoFailureException   when checksum verification failed
+   */
+  @VisibleForTesting
+  void downloadMappings(final @NotNull ServerInstallation installation)
+      throws MojoExecutionException, MojoFailureException {
+    final File mappingsFile = installation.getMappingsFile();
+    final String mappingsSha256 = installation.getMappingsSha256();
+    final String mappingsUrl = installation.getMappingsUrl();
+    if (null == mappingsUrl) {
+      getLog().warn(MessageFormat.format("PaperMC build {0} publishes no Mojang mappings",
+          installation.getBuildNumber()));
+      return;
+    }
+    if (retrieveFromCache(mappingsSha256, mappingsFile)) {
+      getLog().info("Mojang mappings retrieved from cache");
+      return;
+    }
+    ensureOnline(mappingsFile.getName());
+
+    getLog().info(MessageFormat.format("Starting downloading Mojang mappings from {0}", mappingsUrl));
+    final DownloadOptions options = createDownloadOptions();
+    options.setSha256(mappingsSha256);
+    options.setMirrors(getMirrors());
+    try {
+      FileDownloader.downloadFile(mappingsFile, new URL(mappingsUrl), options);
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Mappings URL {0} is incorrect", mappingsUrl), e);
+    }
+    storeInCache(mappingsSha256, mappingsFile);
+    getLog().info("Mojang mappings downloaded");
   }
 
 
   /**
    * Creates the {@literal server.properties} file with configured properties.
    *
+   * @param installation the {@link ServerInstallation installation} of the server
    * @throws MojoExecutionException when issue occurred while writing file content.
    */
   @VisibleForTesting
-  void createPropertiesFile() throws MojoExecutionException {
+  void createPropertiesFile(final @NotNull ServerInstallation installation) throws MojoExecutionException {
     getLog().info("Creating properties file");
-    // Clear the properties fil
-    try (final FileOutputStream out = new FileOutputStream(propertiesFile)) {
-      out.write("#Add server configuration".getBytes(StandardCharsets.UTF_8));
-    } catch (final IOException e) {
-      throw new MojoExecutionException("Unable to clear properties file", e);
-    }
-
-    // Write properties
-    try (final FileOutputStream out = new FileOutputStream(propertiesFile, true)) {
-      for (final Entry<String, String> property : properties.entrySet()) {
-        out.write('\n');
-        out.write(property.getKey().getBytes(StandardCharsets.UTF_8));
-        out.write('=');
-        out.write(property.getValue().getBytes(StandardCharsets.UTF_8));
-      }
+    // Replaces the whole properties file
+    try {
+      AtomicFiles.write(installation.getPropertiesFile(), out -> {
+        out.write("#Add server configuration".getBytes(StandardCharsets.UTF_8));
+        for (final Entry<String, String> property : properties.entrySet()) {
+          out.write('\n');
+          out.write(property.getKey().getBytes(StandardCharsets.UTF_8));
+          out.write('=');
+          out.write(property.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+      });
     } catch (final IOException e) {
       throw new MojoExecutionException("Unable to create properties file", e);
     }
@@ -0,0 +1,239 @@
+package fr.lehtto.maven.plugins;
+
+import fr.lehtto.maven.plugins.papermc.BuildPolicy;
+import java.io.File;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Installation of a PaperMC server in a directory: the Minecraft version, the build and the policy selecting it, and
+ * the build artifacts resolved while the server is installed. The {@link InstallMojo} installs the servers of a matrix
+ * concurrently, each one from its own installation.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+class ServerInstallation {
+
+  private static final String MAPPINGS_NAME = "mojang-mappings.txt";
+  /**
+   * Name of the file, in the server directory, recording the Minecraft version and the build of the installed JAR.
+   */
+  private static final String BUILD_NAME = ".servermc-build.properties";
+
+  private final File serverDirectory;
+  private final BuildPolicy buildPolicy;
+  private String mcVersion;
+  private String buildNumber;
+  private String jarUrl;
+  private String sha256;
+  private String mappingsUrl;
+  private String mappingsSha256;
+  private String installedSha256;
+
+  /**
+   * Constructor.
+   *
+   * @param mcVersion       the Minecraft version
+   * @param buildNumber     the build number, {@code null} to select the build with the policy
+   * @param buildPolicy     the {@link BuildPolicy policy} selecting the build
+   * @param serverDirectory the server directory
+   */
+  ServerInstallation(final @NotNull String mcVersion, final @Nullable String buildNumber,
+      final @NotNull BuildPolicy buildPolicy, final @NotNull File serverDirectory) {
+    this.mcVersion = mcVersion;
+    this.buildNumber = null == buildNumber || buildNumber.trim().isEmpty() ? null : buildNumber;
+    this.buildPolicy = buildPolicy;
+    this.serverDirectory = serverDirectory;
+  }
+
+  /**
+   * Gets the server directory.
+   *
+   * @return the server directory
+   */
+  @NotNull File getServerDirectory() {
+    return serverDirectory;
+  }
+
+  /**
+   * Gets the policy selecting the build when the build number is not set.
+   *
+   * @return the {@link BuildPolicy build policy}
+   */
+  @NotNull BuildPolicy getBuildPolicy() {
+    return buildPolicy;
+  }
+
+  /**
+   * Gets the Minecraft version.
+   *
+   * @return the Minecraft version
+   */
+  @NotNull String getMcVersion() {
+    return mcVersion;
+  }
+
+  /**
+   * Sets the Minecraft version, the one of the installed JAR.
+   *
+   * @param mcVersion the Minecraft version
+   */
+  void setMcVersion(final @NotNull String mcVersion) {
+    this.mcVersion = mcVersion;
+  }
+
+  /**
+   * Gets the build number.
+   *
+   * @return the build number, {@code null} until the build is resolved
+   */
+  @Nullable String getBuildNumber() {
+    return buildNumber;
+  }
+
+  /**
+   * Sets the build number.
+   *
+   * @param buildNumber the build number
+   */
+  void setBuildNumber(final @NotNull String buildNumber) {
+    this.buildNumber = buildNumber;
+  }
+
+  /**
+   * Gets the download URL of the server JAR.
+   *
+   * @return the URL, {@code null} until the build is resolved
+   */
+  @Nullable String getJarUrl() {
+    return jarUrl;
+  }
+
+  /**
+   * Sets the download URL of the server JAR.
+   *
+   * @param jarUrl the URL
+   */
+  void setJarUrl(final @NotNull String jarUrl) {
+    this.jarUrl = jarUrl;
+  }
+
+  /**
+   * Gets the SHA256 digest of the server JAR published by the API.
+   *
+   * @return the SHA256 digest, {@code null} until the build is resolved
+   */
+  @Nullable String getSha256() {
+    return sha256;
+  }
+
+  /**
+   * Sets the SHA256 digest of the server JAR published by the API.
+   *
+   * @param sha256 the SHA256 digest
+   */
+  void setSha256(final @Nullable String sha256) {
+    this.sha256 = sha256;
+  }
+
+  /**
+   * Gets the download URL of the Mojang mappings.
+   *
+   * @return the URL, {@code null} until the build is resolved or when the build publishes no mappings
+   */
+  @Nullable String getMappingsUrl() {
+    return mappingsUrl;
+  }
+
+  /**
+   * Sets the download URL of the Mojang mappings.
+   *
+   * @param mappingsUrl the URL
+   */
+  void setMappingsUrl(final @NotNull String mappingsUrl) {
+    this.mappingsUrl = mappingsUrl;
+  }
+
+  /**
+   * Gets the SHA256 digest of the Mojang mappings published by the API.
+   *
+   * @return the SHA256 digest, {@code null} until the build is resolved
+   */
+  @Nullable String getMappingsSha256() {
+    return mappingsSha256;
+  }
+
+  /**
+   * Sets the SHA256 digest of the Mojang mappings published by the API.
+   *
+   * @param mappingsSha256 the SHA256 digest
+   */
+  void setMappingsSha256(final @Nullable String mappingsSha256) {
+    this.mappingsSha256 = mappingsSha256;
+  }
+
+  /**
+   * Gets the SHA256 digest of the server JAR verified when it was installed.
+   *
+   * @return the SHA256 digest, {@code null} when the JAR was installed by a previous run
+   */
+  @Nullable String getInstalledSha256() {
+    return installedSha256;
+  }
+
+  /**
+   * Sets the SHA256 digest of the server JAR verified when it was installed.
+   *
+   * @param installedSha256 the SHA256 digest
+   */
+  void setInstalledSha256(final @NotNull String installedSha256) {
+    this.installedSha256 = installedSha256;
+  }
+
+  /**
+   * Gets the server JAR.
+   *
+   * @return the {@link File server JAR}
+   */
+  @NotNull File getJarFile() {
+    return new File(serverDirectory, "server.jar");
+  }
+
+  /**
+   * Gets the {@literal server.properties} file.
+   *
+   * @return the {@link File properties file}
+   */
+  @NotNull File getPropertiesFile() {
+    return new File(serverDirectory, "server.properties");
+  }
+
+  /**
+   * Gets the {@literal eula.txt} file.
+   *
+   * @return the {@link File EULA file}
+   */
+  @NotNull File getEulaFile() {
+    return new File(serverDirectory, "eula.txt");
+  }
+
+  /**
+   * Gets the Mojang mappings file.
+   *
+   * @return the {@link File mappings file}
+   */
+  @NotNull File getMappingsFile() {
+    return new File(serverDirectory, MAPPINGS_NAME);
+  }
+
+  /**
+   * Gets the file recording the Minecraft version and the build of the installed JAR.
+   *
+   * @return the {@link File build file}
+   */
+  @NotNull File getBuildFile() {
+    return new File(serverDirectory, BUILD_NAME);
+  }
+}
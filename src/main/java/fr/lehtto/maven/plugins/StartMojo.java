@@ -1,5 +1,7 @@
 package fr.lehtto.maven.plugins;
 
+import fr.lehtto.maven.plugins.papermc.ServerCapabilities;
+import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
@@ -13,7 +15,7 @@ import org.jetbrains.annotations.VisibleForTesting;
  * Starts the Minecraft server.
  *
  * @author lehtto
- * @version 0.1.0
+ * @version 0.2.0
  * @since 0.0.1
  */
 @SuppressWarnings("UseOfProcessBuilder")
@@ -67,9 +69,12 @@ public class StartMojo extends AbstractServerMcMojo {
       getLog().info("Starting Minecraft server");
       getLog().info(MessageFormat.format("Initial memory allocation pool size {0} Go", memoryMin));
       getLog().info(MessageFormat.format("Maximum memory allocation pool size {0} Go", memoryMax));
+      shareLibraries();
       final Process process = processBuilder.start();
       process.waitFor();
       getLog().info("Minecraft server stopped");
+      // Libraries downloaded by the server or its plugins
+      shareLibraries();
     } catch (final IOException e) {
       throw new MojoExecutionException("Unable to start PaperMC server", e);
     } catch (final InterruptedException e) {
@@ -102,7 +107,45 @@ public class StartMojo extends AbstractServerMcMojo {
     commands.add("-jar");
     commands.add("server.jar");
     commands.add("--nogui");
+    if (isAddPlugins()) {
+      commands.addAll(createAddPluginArguments());
+    }
 
     return new ProcessBuilder(commands);
   }
+
+  /**
+   * Creates the arguments loading in place the plugin JARs listed by the copy of the plugins.
+   *
+   * @return the arguments, empty when no plugin is loaded in place or when the server does not support the option
+   */
+  private List<String> createAddPluginArguments() {
+    final List<File> plugins;
+    try {
+      plugins = readAddedPlugins();
+    } catch (final MojoExecutionException e) {
+      getLog().warn("Plugins are not loaded in place: " + e.getMessage());
+      return new ArrayList<>();
+    }
+    final List<String> arguments = new ArrayList<>();
+    if (plugins.isEmpty()) {
+      getLog().info("No plugin is loaded in place, run copy-plugin with addPlugins enabled");
+      return arguments;
+    }
+    if (!ServerCapabilities.supportsAddPlugin(getServerDirectory())) {
+      getLog().warn(MessageFormat.format("The server does not support {0}, run copy-plugin to copy the plugins",
+          ServerCapabilities.ADD_PLUGIN_OPTION));
+      return arguments;
+    }
+    for (final File plugin : plugins) {
+      if (plugin.isFile()) {
+        getLog().info(MessageFormat.format("Load plugin {0} in place", plugin));
+        arguments.add(ServerCapabilities.ADD_PLUGIN_OPTION);
+        arguments.add(plugin.getPath());
+      } else {
+        getLog().warn(MessageFormat.format("Plugin {0} no longer exists, it is not loaded", plugin));
+      }
+    }
+    return arguments;
+  }
 }
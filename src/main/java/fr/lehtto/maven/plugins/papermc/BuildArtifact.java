@@ -0,0 +1,142 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import java.util.Objects;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Server JAR of a PaperMC build, as extracted from the build API response without mapping the whole
+ * {@link fr.lehtto.maven.plugins.papermc.entity.Build build}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class BuildArtifact {
+
+  private final int build;
+  private final String name;
+  private final String sha256;
+  private final String time;
+  private final BuildArtifact mappings;
+
+  /**
+   * Constructor.
+   *
+   * @param name   the JAR name
+   * @param sha256 the JAR SHA256 digest
+   * @param time   the build time, can be {@code null}
+   */
+  public BuildArtifact(final String name, final String sha256, final @Nullable String time) {
+    this(name, sha256, time, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param name     the JAR name
+   * @param sha256   the JAR SHA256 digest
+   * @param time     the build time, can be {@code null}
+   * @param mappings the Mojang mappings download, without build time, can be {@code null}
+   * @since 0.2.0
+   */
+  public BuildArtifact(final String name, final String sha256, final @Nullable String time,
+      final @Nullable BuildArtifact mappings) {
+    this(-1, name, sha256, time, mappings);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param build    the build number, {@code -1} when unknown
+   * @param name     the JAR name
+   * @param sha256   the JAR SHA256 digest
+   * @param time     the build time, can be {@code null}
+   * @param mappings the Mojang mappings download, without build time, can be {@code null}
+   * @since 0.2.0
+   */
+  public BuildArtifact(final int build, final String name, final String sha256, final @Nullable String time,
+      final @Nullable BuildArtifact mappings) {
+    this.build = build;
+    this.name = name;
+    this.sha256 = sha256;
+    this.time = time;
+    this.mappings = mappings;
+  }
+
+  /**
+   * Gets the build number.
+   *
+   * @return the build number, {@code -1} when unknown
+   * @since 0.2.0
+   */
+  public int getBuild() {
+    return build;
+  }
+
+  /**
+   * Gets the JAR name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the JAR SHA256 digest.
+   *
+   * @return the SHA256 digest
+   */
+  public String getSha256() {
+    return sha256;
+  }
+
+  /**
+   * Gets the build time.
+   *
+   * @return the build time, can be {@code null}
+   */
+  public @Nullable String getTime() {
+    return time;
+  }
+
+  /**
+   * Gets the Mojang mappings download published with the build.
+   *
+   * @return the Mojang mappings download, {@code null} when the build publishes no mappings
+   * @since 0.2.0
+   */
+  public @Nullable BuildArtifact getMappings() {
+    return mappings;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BuildArtifact)) {
+      return false;
+    }
+    final BuildArtifact that = (BuildArtifact) o;
+    return getBuild() == that.getBuild() && Objects.equals(getName(), that.getName())
+        && Objects.equals(getSha256(), that.getSha256()) && Objects.equals(getTime(), that.getTime())
+        && Objects.equals(getMappings(), that.getMappings());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getBuild(), getName(), getSha256(), getTime(), getMappings());
+  }
+
+  @Override
+  public String toString() {
+    return "BuildArtifact{" +
+        "build=" + build +
+        ", name='" + name + '\'' +
+        ", sha256='" + sha256 + '\'' +
+        ", time='" + time + '\'' +
+        ", mappings=" + mappings +
+        '}';
+  }
+}
@@ -0,0 +1,45 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Policy selecting the PaperMC build of a Minecraft version among its published builds.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public enum BuildPolicy {
+  /**
+   * The latest build, whatever its channel.
+   */
+  LATEST,
+  /**
+   * The latest build promoted by the PaperMC team.
+   */
+  LATEST_PROMOTED,
+  /**
+   * The latest build of the {@literal default} channel, the experimental builds being excluded.
+   */
+  LATEST_DEFAULT;
+
+  private static final String DEFAULT_CHANNEL = "default";
+
+  /**
+   * Checks whether a build can be selected by the policy.
+   *
+   * @param channel  the channel of the build, can be {@code null}
+   * @param promoted whether the build is promoted
+   * @return {@code true} when the build can be selected
+   */
+  public boolean accepts(final @Nullable String channel, final boolean promoted) {
+    switch (this) {
+      case LATEST_PROMOTED:
+        return promoted;
+      case LATEST_DEFAULT:
+        return DEFAULT_CHANNEL.equals(channel);
+      default:
+        return true;
+    }
+  }
+}
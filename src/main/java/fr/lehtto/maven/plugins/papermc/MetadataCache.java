@@ -0,0 +1,298 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.Properties;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * On-disk cache of PaperMC API responses. Each entry keeps the raw JSON body and the HTTP validators used to
+ * revalidate it.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class MetadataCache {
+
+  private static final String BODY_SUFFIX = ".json";
+  private static final String METADATA_SUFFIX = ".properties";
+  private static final String URL_KEY = "url";
+  private static final String ETAG_KEY = "etag";
+  private static final String LAST_MODIFIED_KEY = "lastModified";
+  private static final String FETCHED_AT_KEY = "fetchedAt";
+
+  /**
+   * Directory of the cache.
+   */
+  private final File directory;
+  /**
+   * Duration, in milliseconds, during which a mutable entry is used without revalidation.
+   */
+  private final long ttl;
+
+  /**
+   * Constructor.
+   *
+   * @param directory the directory of the cache
+   * @param ttl       the duration, in milliseconds, during which a mutable entry is used without revalidation
+   */
+  public MetadataCache(final @NotNull File directory, final long ttl) {
+    this.directory = directory;
+    this.ttl = ttl;
+  }
+
+  /**
+   * Reads the entry related to given URL.
+   *
+   * @param url the requested URL
+   * @return the {@link Entry entry} or {@code null} when the URL is not cached
+   */
+  public @Nullable Entry read(final @NotNull String url) {
+    final File body = getFile(url, BODY_SUFFIX);
+    final File metadata = getFile(url, METADATA_SUFFIX);
+    if (!body.isFile() || !metadata.isFile()) {
+      return null;
+    }
+
+    final Properties properties = new Properties();
+    try (final InputStream in = new FileInputStream(metadata)) {
+      properties.load(in);
+      if (!url.equals(properties.getProperty(URL_KEY))) {
+        return null;
+      }
+      return new Entry(Files.readAllBytes(body.toPath()), properties.getProperty(ETAG_KEY),
+          properties.getProperty(LAST_MODIFIED_KEY), Long.parseLong(properties.getProperty(FETCHED_AT_KEY, "0")));
+    } catch (final IOException | NumberFormatException e) {
+      // A corrupted entry is handled as a cache miss
+      return null;
+    }
+  }
+
+  /**
+   * Opens a pending entry related to given URL, whose body is written to a temporary file while the response is read.
+   * The entry replaces the cached one only once committed.
+   *
+   * @param url the requested URL
+   * @return the {@link PendingEntry pending entry}, to close once committed or abandoned
+   * @throws MojoExecutionException when the temporary file cannot be created
+   */
+  public @NotNull PendingEntry open(final @NotNull String url) throws MojoExecutionException {
+    try {
+      Files.createDirectories(directory.toPath());
+      return new PendingEntry(url, Files.createTempFile(directory.toPath(), getFile(url, BODY_SUFFIX).getName(),
+          ".tmp"));
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Unable to cache PaperMC API response of {0}", url), e);
+    }
+  }
+
+  /**
+   * Marks the entry related to given URL as fresh, after the server confirmed it is still valid.
+   *
+   * @param url   the requested URL
+   * @param entry the revalidated {@link Entry entry}
+   * @throws MojoExecutionException when the entry cannot be written
+   */
+  public void touch(final @NotNull String url, final @NotNull Entry entry) throws MojoExecutionException {
+    try {
+      writeMetadata(url, entry.getEtag(), entry.getLastModified());
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Unable to cache PaperMC API response of {0}", url), e);
+    }
+  }
+
+  /**
+   * Checks whether given entry can be used without revalidation.
+   *
+   * @param entry the {@link Entry entry} to check
+   * @return {@code true} when the entry is younger than the TTL
+   */
+  public boolean isFresh(final @NotNull Entry entry) {
+    return System.currentTimeMillis() - entry.getFetchedAt() < ttl;
+  }
+
+  /**
+   * Writes the metadata of the entry related to given URL.
+   *
+   * @param url          the requested URL
+   * @param etag         the {@literal ETag} response header, can be {@code null}
+   * @param lastModified the {@literal Last-Modified} response header, can be {@code null}
+   * @throws IOException when the metadata cannot be written
+   */
+  private void writeMetadata(final @NotNull String url, final @Nullable String etag,
+      final @Nullable String lastModified) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty(URL_KEY, url);
+    properties.setProperty(FETCHED_AT_KEY, String.valueOf(System.currentTimeMillis()));
+    if (null != etag) {
+      properties.setProperty(ETAG_KEY, etag);
+    }
+    if (null != lastModified) {
+      properties.setProperty(LAST_MODIFIED_KEY, lastModified);
+    }
+    final File metadata = getFile(url, METADATA_SUFFIX);
+    final Path temporary = Files.createTempFile(directory.toPath(), metadata.getName(), ".tmp");
+    try {
+      try (final OutputStream out = new FileOutputStream(temporary.toFile())) {
+        properties.store(out, "servermc PaperMC API response");
+      }
+      Files.move(temporary, metadata.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Gets the {@link File file} of the entry related to given URL.
+   *
+   * @param url    the requested URL
+   * @param suffix the file suffix
+   * @return the {@link File file}
+   */
+  private File getFile(final @NotNull String url, final @NotNull String suffix) {
+    return new File(directory, DigestUtils.sha256Hex(url) + suffix);
+  }
+
+  /**
+   * PaperMC API response being written to the cache.
+   */
+  public final class PendingEntry implements Closeable {
+
+    private final String url;
+    private final Path temporary;
+    private final OutputStream out;
+    private boolean committed;
+
+    /**
+     * Constructor.
+     *
+     * @param url       the requested URL
+     * @param temporary the temporary file of the body
+     * @throws IOException when the temporary file cannot be opened
+     */
+    private PendingEntry(final @NotNull String url, final @NotNull Path temporary) throws IOException {
+      this.url = url;
+      this.temporary = temporary;
+      out = new BufferedOutputStream(new FileOutputStream(temporary.toFile()));
+    }
+
+    /**
+     * Gets the stream of the body.
+     *
+     * @return the {@link OutputStream stream} to write the response body to
+     */
+    public @NotNull OutputStream getOutputStream() {
+      return out;
+    }
+
+    /**
+     * Moves the written body to the cache and writes the metadata of the entry.
+     *
+     * @param etag         the {@literal ETag} response header, can be {@code null}
+     * @param lastModified the {@literal Last-Modified} response header, can be {@code null}
+     * @throws MojoExecutionException when the entry cannot be written
+     */
+    public void commit(final @Nullable String etag, final @Nullable String lastModified)
+        throws MojoExecutionException {
+      try {
+        out.close();
+        Files.move(temporary, getFile(url, BODY_SUFFIX).toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+        writeMetadata(url, etag, lastModified);
+        committed = true;
+      } catch (final IOException e) {
+        throw new MojoExecutionException(MessageFormat.format("Unable to cache PaperMC API response of {0}", url), e);
+      }
+    }
+
+    /**
+     * Deletes the temporary file of the body when the entry is not committed.
+     *
+     * @throws IOException when the temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException {
+      out.close();
+      if (!committed) {
+        Files.deleteIfExists(temporary);
+      }
+    }
+  }
+
+  /**
+   * Cached PaperMC API response.
+   */
+  public static final class Entry {
+
+    private final byte[] body;
+    private final String etag;
+    private final String lastModified;
+    private final long fetchedAt;
+
+    /**
+     * Constructor.
+     *
+     * @param body         the response body
+     * @param etag         the {@literal ETag} response header, can be {@code null}
+     * @param lastModified the {@literal Last-Modified} response header, can be {@code null}
+     * @param fetchedAt    the time, in milliseconds, when the response was fetched or revalidated
+     */
+    Entry(final byte[] body, final @Nullable String etag, final @Nullable String lastModified,
+        final long fetchedAt) {
+      this.body = body;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Gets the response body.
+     *
+     * @return the response body
+     */
+    public byte[] getBody() {
+      return body;
+    }
+
+    /**
+     * Gets the {@literal ETag} response header.
+     *
+     * @return the ETag, can be {@code null}
+     */
+    public @Nullable String getEtag() {
+      return etag;
+    }
+
+    /**
+     * Gets the {@literal Last-Modified} response header.
+     *
+     * @return the last modification date, can be {@code null}
+     */
+    public @Nullable String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Gets the time when the response was fetched or revalidated.
+     *
+     * @return the time, in milliseconds
+     */
+    public long getFetchedAt() {
+      return fetchedAt;
+    }
+  }
+}
@@ -1,35 +1,138 @@
 package fr.lehtto.maven.plugins.papermc;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import fr.lehtto.maven.plugins.papermc.entity.Build;
 import fr.lehtto.maven.plugins.papermc.entity.Version;
+import fr.lehtto.maven.plugins.util.DownloadScheduler;
+import fr.lehtto.maven.plugins.util.HttpMetrics;
+import fr.lehtto.maven.plugins.util.HttpTransport;
+import fr.lehtto.maven.plugins.util.MirrorHealth;
+import fr.lehtto.maven.plugins.util.RetryPolicy;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 /**
  * Client for Paper API.
  *
  * @author Lehtto
- * @version 0.0.1
+ * @version 0.2.0
  * @since 0.0.1
  */
 public class PaperApiClient {
 
   private static final int HTTP_OK = 200;
-  private final OkHttpClient client;
+  private static final int HTTP_NOT_MODIFIED = 304;
+  private static final String MOJANG_MAPPINGS_DOWNLOAD = "mojang-mappings";
+  private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(task -> {
+    final Thread thread = new Thread(task, "servermc-api-retry");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private OkHttpClient client;
   private final ObjectMapper objectMapper;
+  private MetadataCache metadataCache;
+  private boolean offline;
+  private RetryPolicy retryPolicy;
+  private List<String> mirrors;
+  private HttpMetrics httpMetrics;
 
   /**
-   * Default constructor.
+   * Default constructor, uses the {@link HttpTransport shared HTTP client} with default settings.
    */
   public PaperApiClient() {
-    client = new OkHttpClient();
+    client = HttpTransport.getClient();
     objectMapper = new ObjectMapper();
+    retryPolicy = new RetryPolicy();
+    mirrors = Collections.emptyList();
+  }
+
+  /**
+   * Sets the HTTP client used to call the API.
+   *
+   * @param client the {@link OkHttpClient client}, usually the {@link HttpTransport shared one}
+   * @since 0.2.0
+   */
+  public void setHttpClient(final @NotNull OkHttpClient client) {
+    this.client = client;
+  }
+
+  /**
+   * Sets the {@link MetadataCache cache} of API responses.
+   *
+   * @param metadataCache the cache, {@code null} disables caching
+   * @since 0.2.0
+   */
+  public void setMetadataCache(final @Nullable MetadataCache metadataCache) {
+    this.metadataCache = metadataCache;
+  }
+
+  /**
+   * Sets whether the API responses have to be resolved from the cache only.
+   *
+   * @param offline {@code true} to never call the API
+   * @since 0.2.0
+   */
+  public void setOffline(final boolean offline) {
+    this.offline = offline;
+  }
+
+  /**
+   * Sets the policy of the retries of the API calls failing with a transient error.
+   *
+   * @param retryPolicy the {@link RetryPolicy retry policy}
+   * @since 0.2.0
+   */
+  public void setRetryPolicy(final @NotNull RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Sets the base URLs of the API and its mirrors. A call of a URL starting with one of them is sent to the fastest
+   * healthy one and fails over to the others.
+   *
+   * @param mirrors the base URLs, in preference order
+   * @since 0.2.0
+   */
+  public void setMirrors(final @NotNull List<String> mirrors) {
+    this.mirrors = new ArrayList<>(mirrors);
+  }
+
+  /**
+   * Sets the recorder of the timings of the API calls, usually the one of the goal calling the API.
+   *
+   * @param httpMetrics the {@link HttpMetrics recorder}, {@code null} to not record the timings
+   * @since 0.2.0
+   */
+  public void setHttpMetrics(final @Nullable HttpMetrics httpMetrics) {
+    this.httpMetrics = httpMetrics;
   }
 
   /**
@@ -41,26 +144,89 @@ public class PaperApiClient {
    * @throws MojoExecutionException when issue occurred while fetch PaperMC API
    */
   public Version retrieveVersion(final String baseUrl, final String mcVersion) throws MojoExecutionException {
-    // Call Paper API
-    final Request request = new Request.Builder()
-        .url(baseUrl + "versions/" + mcVersion)
-        .build();
-    try (final Response response = client.newCall(request).execute()) {
-      final int status = response.code();
-      if (HTTP_OK != status) {
-        throw new MojoExecutionException(
-            "Unable to call PaperMC API status: " + status + ", body " + Objects.requireNonNull(response.body())
-                .string());
-      }
-      final ResponseBody responseBody = response.body();
-      if (null == responseBody) {
-        throw new MojoExecutionException("Unable to fetch PaperMC build number");
-      }
+    return await(retrieveVersionAsync(baseUrl, mcVersion));
+  }
 
-      return objectMapper.readValue(responseBody.string(), Version.class);
-    } catch (final IOException e) {
-      throw new MojoExecutionException("Unable to fetch PaperMC build number", e);
-    }
+  /**
+   * Retrieves asynchronously PaperMC server {@link Version version} related to given Minecraft version.
+   *
+   * @param baseUrl   the base URL to use to fetch PaperMC API
+   * @param mcVersion the Minecraft version to use
+   * @return the future PaperMC server {@link Version version}, completed exceptionally with a
+   *     {@link MojoExecutionException} when issue occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public CompletableFuture<Version> retrieveVersionAsync(final String baseUrl, final String mcVersion) {
+    // New builds are published for a version, the cached response has to be revalidated
+    return fetch(baseUrl + "versions/" + mcVersion, false, "Unable to fetch PaperMC build number",
+        in -> objectMapper.readValue(in, Version.class));
+  }
+
+  /**
+   * Retrieves the latest PaperMC build number related to given Minecraft version.
+   * <p>
+   * Unlike {@link #retrieveVersion(String, String)}, the response is streamed and only the build numbers are read.
+   *
+   * @param baseUrl   the base URL to use to fetch PaperMC API
+   * @param mcVersion the Minecraft version to use
+   * @return the latest build number
+   * @throws MojoExecutionException when issue occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public int retrieveLatestBuild(final String baseUrl, final String mcVersion) throws MojoExecutionException {
+    return await(retrieveLatestBuildAsync(baseUrl, mcVersion));
+  }
+
+  /**
+   * Retrieves asynchronously the latest PaperMC build number related to given Minecraft version.
+   *
+   * @param baseUrl   the base URL to use to fetch PaperMC API
+   * @param mcVersion the Minecraft version to use
+   * @return the future latest build number, completed exceptionally with a {@link MojoExecutionException} when issue
+   *     occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public CompletableFuture<Integer> retrieveLatestBuildAsync(final String baseUrl, final String mcVersion) {
+    return fetch(baseUrl + "versions/" + mcVersion, false, "Unable to fetch PaperMC build number",
+        this::parseLatestBuild);
+  }
+
+  /**
+   * Resolves the PaperMC build of given Minecraft version selected by given policy, with its server JAR.
+   * <p>
+   * A single call of the builds list resolves the build number and its downloads. The response is streamed: only the
+   * selected build is kept, the changes are never materialised.
+   *
+   * @param baseUrl   the base URL to use to fetch PaperMC API
+   * @param mcVersion the Minecraft version to use
+   * @param policy    the {@link BuildPolicy policy} selecting the build
+   * @param minAge    the minimum age, in milliseconds, of the selected build, {@code 0} to accept any build
+   * @return the {@link BuildArtifact server JAR} of the selected build
+   * @throws MojoExecutionException when issue occurred while fetch PaperMC API or when no build matches the policy
+   * @since 0.2.0
+   */
+  public BuildArtifact resolveBuild(final String baseUrl, final String mcVersion, final @NotNull BuildPolicy policy,
+      final long minAge) throws MojoExecutionException {
+    return await(resolveBuildAsync(baseUrl, mcVersion, policy, minAge));
+  }
+
+  /**
+   * Resolves asynchronously the PaperMC build of given Minecraft version selected by given policy, with its server
+   * JAR.
+   *
+   * @param baseUrl   the base URL to use to fetch PaperMC API
+   * @param mcVersion the Minecraft version to use
+   * @param policy    the {@link BuildPolicy policy} selecting the build
+   * @param minAge    the minimum age, in milliseconds, of the selected build, {@code 0} to accept any build
+   * @return the future {@link BuildArtifact server JAR} of the selected build, completed exceptionally with a
+   *     {@link MojoExecutionException} when issue occurred while fetch PaperMC API or when no build matches the policy
+   * @since 0.2.0
+   */
+  public CompletableFuture<BuildArtifact> resolveBuildAsync(final String baseUrl, final String mcVersion,
+      final @NotNull BuildPolicy policy, final long minAge) {
+    // New builds are published for a version, the cached response has to be revalidated
+    return fetch(baseUrl + "versions/" + mcVersion + "/builds", false, "Unable to resolve PaperMC build",
+        in -> parseBuilds(in, policy, 0L < minAge ? System.currentTimeMillis() - minAge : Long.MAX_VALUE));
   }
 
   /**
@@ -74,25 +240,555 @@ public class PaperApiClient {
    */
   public Build retrieveBuild(final String baseUrl, final String mcVersion, final String paperBuild)
       throws MojoExecutionException {
-    // Gets URL to download JAR
-    final Request request = new Request.Builder()
-        .url(baseUrl + "versions/" + mcVersion + "/builds/" + paperBuild)
-        .build();
-    try (final Response response = client.newCall(request).execute()) {
-      final int status = response.code();
-      if (HTTP_OK != status) {
-        throw new MojoExecutionException(
-            "Unable to call PaperMC API status: " + status + ", body " + Objects.requireNonNull(response.body())
-                .string());
+    return await(retrieveBuildAsync(baseUrl, mcVersion, paperBuild));
+  }
+
+  /**
+   * Retrieves asynchronously PaperMC {@link Build build} based on given Minecraft version and given build number.
+   *
+   * @param baseUrl    the base URL to use to fetch PaperMC API
+   * @param mcVersion  the Minecraft version to use
+   * @param paperBuild the build number to use
+   * @return the future PaperMC {@link Build build}, completed exceptionally with a {@link MojoExecutionException}
+   *     when issue occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public CompletableFuture<Build> retrieveBuildAsync(final String baseUrl, final String mcVersion,
+      final String paperBuild) {
+    // A published build never changes, the cached response is always valid
+    return fetch(baseUrl + "versions/" + mcVersion + "/builds/" + paperBuild, true,
+        "Unable to fetch PaperMC download URL", in -> objectMapper.readValue(in, Build.class));
+  }
+
+  /**
+   * Retrieves the server JAR of the PaperMC build based on given Minecraft version and given build number.
+   * <p>
+   * Unlike {@link #retrieveBuild(String, String, String)}, the response is streamed and the parsing stops once the
+   * application download and the build time are read, the changes are never materialised.
+   *
+   * @param baseUrl    the base URL to use to fetch PaperMC API
+   * @param mcVersion  the Minecraft version to use
+   * @param paperBuild the build number to use
+   * @return the {@link BuildArtifact server JAR}
+   * @throws MojoExecutionException when issue occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public BuildArtifact retrieveApplication(final String baseUrl, final String mcVersion, final String paperBuild)
+      throws MojoExecutionException {
+    return await(retrieveApplicationAsync(baseUrl, mcVersion, paperBuild));
+  }
+
+  /**
+   * Retrieves asynchronously the server JAR of the PaperMC build based on given Minecraft version and given build
+   * number.
+   *
+   * @param baseUrl    the base URL to use to fetch PaperMC API
+   * @param mcVersion  the Minecraft version to use
+   * @param paperBuild the build number to use
+   * @return the future {@link BuildArtifact server JAR}, completed exceptionally with a
+   *     {@link MojoExecutionException} when issue occurred while fetch PaperMC API
+   * @since 0.2.0
+   */
+  public CompletableFuture<BuildArtifact> retrieveApplicationAsync(final String baseUrl, final String mcVersion,
+      final String paperBuild) {
+    return fetch(baseUrl + "versions/" + mcVersion + "/builds/" + paperBuild, true,
+        "Unable to fetch PaperMC download URL", this::parseApplication);
+  }
+
+  /**
+   * Waits for the completion of given API call.
+   *
+   * @param future the future of the API call
+   * @param <T>    the type of the read value
+   * @return the read value
+   * @throws MojoExecutionException when issue occurred while fetch PaperMC API
+   */
+  private static <T> T await(final @NotNull CompletableFuture<T> future) throws MojoExecutionException {
+    try {
+      return future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while calling PaperMC API", e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof MojoExecutionException) {
+        throw (MojoExecutionException) e.getCause();
+      }
+      throw new MojoExecutionException("Unable to call PaperMC API", e.getCause());
+    }
+  }
+
+  /**
+   * Reads the latest build number from a version response.
+   *
+   * @param in the response body
+   * @return the latest build number
+   * @throws IOException when the response cannot be parsed or contains no build
+   */
+  @VisibleForTesting
+  int parseLatestBuild(final @NotNull InputStream in) throws IOException {
+    try (final JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      expectObject(parser);
+      while (JsonToken.FIELD_NAME == parser.nextToken()) {
+        final String field = parser.getCurrentName();
+        if (JsonToken.START_ARRAY == parser.nextToken() && "builds".equals(field)) {
+          int latest = -1;
+          while (JsonToken.END_ARRAY != parser.nextToken()) {
+            latest = Math.max(latest, parser.getIntValue());
+          }
+          if (0 > latest) {
+            throw new IOException("No PaperMC build published");
+          }
+          // Remaining fields are not needed
+          return latest;
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IOException("Missing PaperMC builds");
+  }
+
+  /**
+   * Reads the build selected by given policy from a builds list response.
+   *
+   * @param in              the response body
+   * @param policy          the {@link BuildPolicy policy} selecting the build
+   * @param publishedBefore the time, in milliseconds since the epoch, before which the selected build was published
+   * @return the {@link BuildArtifact server JAR} of the selected build
+   * @throws IOException when the response cannot be parsed or when no build matches the policy
+   */
+  @VisibleForTesting
+  BuildArtifact parseBuilds(final @NotNull InputStream in, final @NotNull BuildPolicy policy,
+      final long publishedBefore) throws IOException {
+    try (final JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      expectObject(parser);
+      while (JsonToken.FIELD_NAME == parser.nextToken()) {
+        final String field = parser.getCurrentName();
+        if (JsonToken.START_ARRAY == parser.nextToken() && "builds".equals(field)) {
+          BuildArtifact selected = null;
+          while (JsonToken.START_OBJECT == parser.nextToken()) {
+            final BuildArtifact build = parseBuild(parser, policy, publishedBefore);
+            if (null != build && (null == selected || build.getBuild() > selected.getBuild())) {
+              selected = build;
+            }
+          }
+          if (null == selected) {
+            throw new IOException(MessageFormat.format("No PaperMC build matches policy {0}", policy));
+          }
+          // Remaining fields are not needed
+          return selected;
+        }
+        parser.skipChildren();
+      }
+    }
+    throw new IOException("Missing PaperMC builds");
+  }
+
+  /**
+   * Reads a build of the builds list, the parser being on its start.
+   *
+   * @param parser          the {@link JsonParser parser}
+   * @param policy          the {@link BuildPolicy policy} selecting the build
+   * @param publishedBefore the time, in milliseconds since the epoch, before which the selected build was published
+   * @return the {@link BuildArtifact server JAR} of the build, {@code null} when the build cannot be selected
+   * @throws IOException when the response cannot be parsed
+   */
+  private static @Nullable BuildArtifact parseBuild(final @NotNull JsonParser parser,
+      final @NotNull BuildPolicy policy, final long publishedBefore) throws IOException {
+    int build = -1;
+    String time = null;
+    String channel = null;
+    boolean promoted = false;
+    BuildArtifact application = null;
+    while (JsonToken.FIELD_NAME == parser.nextToken()) {
+      final String field = parser.getCurrentName();
+      final JsonToken token = parser.nextToken();
+      if ("build".equals(field) && JsonToken.VALUE_NUMBER_INT == token) {
+        build = parser.getIntValue();
+      } else if ("time".equals(field) && JsonToken.VALUE_STRING == token) {
+        time = parser.getText();
+      } else if ("channel".equals(field) && JsonToken.VALUE_STRING == token) {
+        channel = parser.getText();
+      } else if ("promoted".equals(field)) {
+        promoted = JsonToken.VALUE_TRUE == token;
+      } else if ("downloads".equals(field) && JsonToken.START_OBJECT == token) {
+        application = parseDownloads(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    if (null == application || !policy.accepts(channel, promoted) || !isPublishedBefore(time, publishedBefore)) {
+      return null;
+    }
+    return new BuildArtifact(build, application.getName(), application.getSha256(), time, application.getMappings());
+  }
+
+  /**
+   * Checks whether a build was published before given time.
+   *
+   * @param time            the build time, can be {@code null}
+   * @param publishedBefore the time, in milliseconds since the epoch, {@link Long#MAX_VALUE} to accept any build
+   * @return {@code true} when the build was published before the time
+   */
+  private static boolean isPublishedBefore(final @Nullable String time, final long publishedBefore) {
+    if (Long.MAX_VALUE == publishedBefore) {
+      return true;
+    }
+    try {
+      return null != time && Instant.parse(time).toEpochMilli() <= publishedBefore;
+    } catch (final DateTimeParseException e) {
+      // A build of unknown age is never old enough
+      return false;
+    }
+  }
+
+  /**
+   * Reads the application download, the Mojang mappings download and the build time from a build response.
+   *
+   * @param in the response body
+   * @return the {@link BuildArtifact server JAR}
+   * @throws IOException when the response cannot be parsed or contains no application download
+   */
+  @VisibleForTesting
+  BuildArtifact parseApplication(final @NotNull InputStream in) throws IOException {
+    String time = null;
+    BuildArtifact application = null;
+    try (final JsonParser parser = objectMapper.getFactory().createParser(in)) {
+      expectObject(parser);
+      while ((null == time || null == application) && JsonToken.FIELD_NAME == parser.nextToken()) {
+        final String field = parser.getCurrentName();
+        final JsonToken token = parser.nextToken();
+        if ("time".equals(field) && JsonToken.VALUE_STRING == token) {
+          time = parser.getText();
+        } else if ("downloads".equals(field) && JsonToken.START_OBJECT == token) {
+          application = parseDownloads(parser);
+        } else {
+          parser.skipChildren();
+        }
+      }
+    }
+    if (null == application) {
+      throw new IOException("Missing PaperMC application download");
+    }
+    return new BuildArtifact(application.getName(), application.getSha256(), time, application.getMappings());
+  }
+
+  /**
+   * Reads the application and Mojang mappings names and digests from the downloads object, the parser being on its
+   * start.
+   *
+   * @param parser the {@link JsonParser parser}
+   * @return the {@link BuildArtifact server JAR} without build time, or {@code null} when there is no application
+   * @throws IOException when the response cannot be parsed
+   */
+  private static @Nullable BuildArtifact parseDownloads(final @NotNull JsonParser parser) throws IOException {
+    BuildArtifact application = null;
+    BuildArtifact mappings = null;
+    while (JsonToken.FIELD_NAME == parser.nextToken()) {
+      final String field = parser.getCurrentName();
+      if (JsonToken.START_OBJECT != parser.nextToken()) {
+        parser.skipChildren();
+      } else if ("application".equals(field)) {
+        application = parseDownload(parser);
+      } else if (MOJANG_MAPPINGS_DOWNLOAD.equals(field)) {
+        mappings = parseDownload(parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return null == application ? null
+        : new BuildArtifact(application.getName(), application.getSha256(), null, mappings);
+  }
+
+  /**
+   * Reads the name and digest of a download object, the parser being on its start.
+   *
+   * @param parser the {@link JsonParser parser}
+   * @return the {@link BuildArtifact download} without build time
+   * @throws IOException when the response cannot be parsed
+   */
+  private static BuildArtifact parseDownload(final @NotNull JsonParser parser) throws IOException {
+    String name = null;
+    String sha256 = null;
+    while (JsonToken.FIELD_NAME == parser.nextToken()) {
+      final String property = parser.getCurrentName();
+      parser.nextToken();
+      if ("name".equals(property)) {
+        name = parser.getText();
+      } else if ("sha256".equals(property)) {
+        sha256 = parser.getText();
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new BuildArtifact(name, sha256, null);
+  }
+
+  /**
+   * Ensures the response is a JSON object.
+   *
+   * @param parser the {@link JsonParser parser}
+   * @throws IOException when the response is not a JSON object
+   */
+  private static void expectObject(final @NotNull JsonParser parser) throws IOException {
+    if (JsonToken.START_OBJECT != parser.nextToken()) {
+      throw new IOException("Unexpected PaperMC API response");
+    }
+  }
+
+  /**
+   * Fetches asynchronously given API URL, from the cache when possible, and reads its body.
+   * <p>
+   * The body is read straight from the response stream, and copied to the cache while it is read when there is one.
+   *
+   * @param url          the API URL
+   * @param immutable    whether the response never changes once published
+   * @param errorMessage the error message used when the API cannot be fetched
+   * @param reader       the {@link BodyReader reader} of the response body
+   * @param <T>          the type of the read value
+   * @return the future read value, completed exceptionally with a {@link MojoExecutionException} when issue occurred
+   *     while fetch PaperMC API
+   */
+  private <T> CompletableFuture<T> fetch(final @NotNull String url, final boolean immutable,
+      final @NotNull String errorMessage, final @NotNull BodyReader<T> reader) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final MetadataCache.Entry entry = null == metadataCache ? null : metadataCache.read(url);
+    if (null != entry && (immutable || offline || metadataCache.isFresh(entry))) {
+      try {
+        future.complete(reader.read(new ByteArrayInputStream(entry.getBody())));
+      } catch (final IOException e) {
+        future.completeExceptionally(new MojoExecutionException(errorMessage, e));
       }
-      final ResponseBody responseBody = response.body();
-      if (null == responseBody) {
-        throw new MojoExecutionException("Unable to fetch PaperMC download URL");
+      return future;
+    }
+    if (offline) {
+      future.completeExceptionally(new MojoExecutionException(
+          MessageFormat.format("{0}: {1} is not cached and offline mode is enabled", errorMessage, url)));
+      return future;
+    }
+
+    // Call Paper API
+    new Fetch<>(url, MirrorHealth.candidates(url, mirrors), entry, errorMessage, reader, future).attempt(0, null);
+    return future;
+  }
+
+  /**
+   * Reads the body of an API response, or the cached body when the response is not modified.
+   *
+   * @param url          the API URL
+   * @param entry        the cached {@link MetadataCache.Entry entry}, can be {@code null}
+   * @param response     the {@link Response response}
+   * @param errorMessage the error message used when the API cannot be fetched
+   * @param reader       the {@link BodyReader reader} of the response body
+   * @param <T>          the type of the read value
+   * @return the read value
+   * @throws IOException            when the body cannot be read
+   * @throws MojoExecutionException when the API answers with an error
+   */
+  private <T> T read(final @NotNull String url, final MetadataCache.Entry entry,
+      final @NotNull Response response, final @NotNull String errorMessage, final @NotNull BodyReader<T> reader)
+      throws IOException, MojoExecutionException {
+    final int status = response.code();
+    if (HTTP_NOT_MODIFIED == status && null != entry) {
+      metadataCache.touch(url, entry);
+      return reader.read(new ByteArrayInputStream(entry.getBody()));
+    }
+    if (HTTP_OK != status) {
+      throw new MojoExecutionException(
+          "Unable to call PaperMC API status: " + status + ", body " + Objects.requireNonNull(response.body())
+              .string());
+    }
+    final ResponseBody responseBody = response.body();
+    if (null == responseBody) {
+      throw new MojoExecutionException(errorMessage);
+    }
+    if (null == metadataCache) {
+      return reader.read(responseBody.byteStream());
+    }
+    return readThrough(url, responseBody.byteStream(), response.header("ETag"), response.header("Last-Modified"),
+        reader);
+  }
+
+  /**
+   * Reads a response body from its stream while copying it to the cache. The reader may stop before the end of the
+   * body, the remaining bytes are then only copied to the cache.
+   *
+   * @param url          the API URL
+   * @param body         the response body
+   * @param etag         the {@literal ETag} response header, can be {@code null}
+   * @param lastModified the {@literal Last-Modified} response header, can be {@code null}
+   * @param reader       the {@link BodyReader reader} of the response body
+   * @param <T>          the type of the read value
+   * @return the read value
+   * @throws IOException            when the body cannot be read
+   * @throws MojoExecutionException when the response cannot be cached
+   */
+  @VisibleForTesting
+  <T> T readThrough(final @NotNull String url, final @NotNull InputStream body, final @Nullable String etag,
+      final @Nullable String lastModified, final @NotNull BodyReader<T> reader)
+      throws IOException, MojoExecutionException {
+    try (final MetadataCache.PendingEntry pending = metadataCache.open(url);
+        final InputStream in = new TeeInputStream(body, pending.getOutputStream())) {
+      // The parser closes its source once done, the rest of the body is still needed by the cache
+      final T value = reader.read(CloseShieldInputStream.wrap(in));
+      IOUtils.consume(in);
+      pending.commit(etag, lastModified);
+      return value;
+    }
+  }
+
+  /**
+   * A call of the API, retried on transient errors and failing over to the mirrors.
+   *
+   * @param <T> the type of the read value
+   */
+  private final class Fetch<T> {
+
+    private final String url;
+    private final List<String> candidates;
+    private final MetadataCache.Entry entry;
+    private final String errorMessage;
+    private final BodyReader<T> reader;
+    private final CompletableFuture<T> future;
+    private final int attempts;
+
+    /**
+     * Constructor.
+     *
+     * @param url          the API URL, the key of the cached response
+     * @param candidates   the URLs of the API and its mirrors, best first
+     * @param entry        the cached {@link MetadataCache.Entry entry}, can be {@code null}
+     * @param errorMessage the error message used when the API cannot be fetched
+     * @param reader       the {@link BodyReader reader} of the response body
+     * @param future       the future read value
+     */
+    private Fetch(final @NotNull String url, final @NotNull List<String> candidates,
+        final MetadataCache.Entry entry, final @NotNull String errorMessage,
+        final @NotNull BodyReader<T> reader, final @NotNull CompletableFuture<T> future) {
+      this.url = url;
+      this.candidates = candidates;
+      this.entry = entry;
+      this.errorMessage = errorMessage;
+      this.reader = reader;
+      this.future = future;
+      // Every mirror is tried at least once
+      attempts = Math.max(1 + retryPolicy.getRetries(), candidates.size());
+    }
+
+    /**
+     * Sends given attempt of the call.
+     *
+     * @param attempt    the index of the attempt
+     * @param retryAfter the {@literal Retry-After} header of the previous failed attempt, can be {@code null}
+     */
+    private void attempt(final int attempt, final @Nullable String retryAfter) {
+      final String candidate = candidates.get(attempt % candidates.size());
+      final long delay = 0 == attempt || attempt < candidates.size() ? 0L
+          : retryPolicy.computeDelay(attempt - candidates.size(), retryAfter);
+      if (0L < delay) {
+        RETRY_SCHEDULER.schedule(() -> send(attempt, candidate), delay, TimeUnit.MILLISECONDS);
+      } else {
+        send(attempt, candidate);
+      }
+    }
+
+    /**
+     * Sends the request of given attempt.
+     *
+     * @param attempt   the index of the attempt
+     * @param candidate the requested URL
+     */
+    private void send(final int attempt, final @NotNull String candidate) {
+      final Request.Builder requestBuilder;
+      try {
+        requestBuilder = new Request.Builder().url(candidate).tag(HttpMetrics.class, httpMetrics);
+      } catch (final IllegalArgumentException e) {
+        future.completeExceptionally(new MojoExecutionException(errorMessage, e));
+        return;
+      }
+      if (null != entry && null != entry.getEtag()) {
+        requestBuilder.header("If-None-Match", entry.getEtag());
+      }
+      if (null != entry && null != entry.getLastModified()) {
+        requestBuilder.header("If-Modified-Since", entry.getLastModified());
       }
+      final long start = System.nanoTime();
+      // The bulk transfers of the process pause until the response is read
+      DownloadScheduler.beginMetadata();
+      client.newCall(requestBuilder.build()).enqueue(new Callback() {
+        @Override
+        public void onFailure(final @NotNull Call call, final @NotNull IOException e) {
+          DownloadScheduler.endMetadata();
+          MirrorHealth.recordFailure(candidate);
+          if (attempt + 1 < attempts) {
+            attempt(attempt + 1, null);
+          } else {
+            future.completeExceptionally(new MojoExecutionException(errorMessage, e));
+          }
+        }
 
-      return objectMapper.readValue(responseBody.string(), Build.class);
-    } catch (final IOException e) {
-      throw new MojoExecutionException("Unable to fetch PaperMC download URL", e);
+        @Override
+        public void onResponse(final @NotNull Call call, final @NotNull Response response) {
+          if (!retryPolicy.isRetryable(response.code())) {
+            MirrorHealth.recordSuccess(candidate, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+          } else if (attempt + 1 < attempts) {
+            final String retryAfter = response.header("Retry-After");
+            response.close();
+            DownloadScheduler.endMetadata();
+            MirrorHealth.recordFailure(candidate);
+            attempt(attempt + 1, retryAfter);
+            return;
+          } else {
+            MirrorHealth.recordFailure(candidate);
+          }
+          T value = null;
+          MojoExecutionException failure = null;
+          IOException bodyFailure = null;
+          try (final Response closeable = response) {
+            value = read(url, entry, closeable, errorMessage, reader);
+          } catch (final MojoExecutionException e) {
+            failure = e;
+          } catch (final IOException e) {
+            bodyFailure = e;
+          } catch (final RuntimeException e) {
+            failure = new MojoExecutionException(errorMessage, e);
+          } finally {
+            // Ended before the dependent stages run, they may start bulk transfers
+            DownloadScheduler.endMetadata();
+          }
+          if (null != bodyFailure) {
+            // The body was cut or corrupted on its way, retried like a failed call
+            MirrorHealth.recordFailure(candidate);
+            if (attempt + 1 < attempts) {
+              attempt(attempt + 1, null);
+              return;
+            }
+            failure = new MojoExecutionException(errorMessage, bodyFailure);
+          }
+          if (null == failure) {
+            future.complete(value);
+          } else {
+            future.completeExceptionally(failure);
+          }
+        }
+      });
     }
   }
+
+  /**
+   * Reader of an API response body.
+   *
+   * @param <T> the type of the read value
+   */
+  @FunctionalInterface
+  interface BodyReader<T> {
+
+    /**
+     * Reads the response body.
+     *
+     * @param in the response body
+     * @return the read value
+     * @throws IOException when the body cannot be read
+     */
+    T read(@NotNull InputStream in) throws IOException;
+  }
 }
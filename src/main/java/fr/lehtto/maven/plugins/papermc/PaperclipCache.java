@@ -0,0 +1,263 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import fr.lehtto.maven.plugins.util.FileCopier;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Cache of the files patched by the Paperclip launcher, shared between projects.
+ * <p>
+ * On its first start, the launcher ({@code server.jar}) downloads the Mojang server and the libraries, then patches
+ * them into the {@code cache}, {@code libraries} and {@code versions} folders of the server directory. The patch phase
+ * is run once per launcher, identified by its SHA256 digest, and its output is kept in the cache. New server
+ * directories are seeded with links to the cached files, which the launcher verifies and reuses, so their first start
+ * is as fast as a warm one.
+ * <p>
+ * The entries are evicted with the other entries of the download cache. The seeds are hard links, or copies when the
+ * server directory is on another filesystem, so that a seeded server outlives the entry it was seeded from.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@SuppressWarnings("UseOfProcessBuilder")
+public class PaperclipCache {
+
+  /**
+   * The folders written by the patch phase.
+   */
+  private static final Set<String> PATCHED_FOLDERS =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList("cache", "libraries", "versions")));
+  private static final String LOG_NAME = "patch.log";
+  private static final String LOG_SUFFIX = ".log";
+  /**
+   * Duration, in days, after which the log of a failed patch phase is deleted.
+   */
+  private static final long LOG_RETENTION_DAYS = 7L;
+
+  /**
+   * Directory of the cache.
+   */
+  private final File directory;
+  /**
+   * Duration, in minutes, after which the patch phase is aborted.
+   */
+  private final long timeout;
+
+  /**
+   * Constructor.
+   *
+   * @param directory the directory of the cache
+   * @param timeout   the duration, in minutes, after which the patch phase is aborted
+   */
+  public PaperclipCache(final @NotNull File directory, final long timeout) {
+    this.directory = directory;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Checks whether the files patched by given launcher are cached.
+   *
+   * @param sha256 the SHA256 digest of the launcher
+   * @return {@code true} when the patched files are cached
+   */
+  public boolean contains(final @NotNull String sha256) {
+    return getEntry(sha256).isDirectory();
+  }
+
+  /**
+   * Runs the patch phase of given launcher and stores its output in the cache. The output is moved to the cache only
+   * once complete, a concurrent build patching the same launcher keeps its own output.
+   *
+   * @param serverJar the launcher {@link File JAR}
+   * @param sha256    the SHA256 digest of the launcher
+   * @throws IOException when the patch phase fails
+   */
+  public void patch(final @NotNull File serverJar, final @NotNull String sha256) throws IOException {
+    Files.createDirectories(directory.toPath());
+    final File work = Files.createTempDirectory(directory.toPath(), '.' + sha256.toLowerCase(Locale.ROOT)).toFile();
+    try {
+      final File log = new File(work, LOG_NAME);
+      final Process process = createPatchProcess(serverJar.getAbsoluteFile(), work)
+          .redirectErrorStream(true)
+          .redirectOutput(log)
+          .start();
+      if (!process.waitFor(timeout, TimeUnit.MINUTES)) {
+        process.destroyForcibly();
+        throw new IOException(MessageFormat.format("Patch of {0} timed out", serverJar.getName()));
+      }
+      if (0 != process.exitValue()) {
+        throw new IOException(MessageFormat.format("Patch of {0} failed with exit code {1}, see {2}",
+            serverJar.getName(), process.exitValue(), keepLog(log, sha256)));
+      }
+
+      // Drops the files written by a launcher which does not support the patch only mode
+      final List<File> others = listFiles(work).stream()
+          .filter(file -> !PATCHED_FOLDERS.contains(file.getName()))
+          .collect(Collectors.toList());
+      others.forEach(FileUtils::deleteQuietly);
+      if (listFiles(work).isEmpty()) {
+        throw new IOException(MessageFormat.format("Patch of {0} produced no file", serverJar.getName()));
+      }
+      try {
+        Files.move(work.toPath(), getEntry(sha256).toPath(), StandardCopyOption.ATOMIC_MOVE);
+      } catch (final IOException e) {
+        if (!contains(sha256)) {
+          throw e;
+        }
+        // Patched concurrently by another build
+      }
+      // The log of a previous failure is outdated
+      FileUtils.deleteQuietly(getLog(sha256));
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(MessageFormat.format("Interrupted while patching {0}", serverJar.getName()), e);
+    } finally {
+      FileUtils.deleteQuietly(work);
+    }
+  }
+
+  /**
+   * Seeds given server directory with the cached files patched by given launcher. Existing files are left untouched,
+   * missing ones are linked to the cache, or copied when the filesystem supports no link.
+   *
+   * @param sha256          the SHA256 digest of the launcher
+   * @param serverDirectory the server directory
+   * @return the number of seeded files
+   * @throws IOException when a file cannot be seeded
+   */
+  public int seed(final @NotNull String sha256, final @NotNull File serverDirectory) throws IOException {
+    final Path entry = getEntry(sha256).toPath();
+    if (!Files.isDirectory(entry)) {
+      return 0;
+    }
+    // Marks the entry as recently used first, so that a concurrent build does not evict it while it is seeded
+    Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    int seeded = 0;
+    try (final Stream<Path> paths = Files.walk(entry)) {
+      for (final Path cached : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+        final Path seed = serverDirectory.toPath().resolve(entry.relativize(cached).toString());
+        if (!Files.exists(seed, LinkOption.NOFOLLOW_LINKS)) {
+          Files.createDirectories(seed.getParent());
+          try {
+            Files.createLink(seed, cached);
+          } catch (final IOException | UnsupportedOperationException e) {
+            // A symbolic link would dangle once the entry is evicted
+            FileCopier.copy(cached.toFile(), seed.toFile());
+          }
+          seeded++;
+        }
+      }
+    }
+    return seeded;
+  }
+
+  /**
+   * Deletes the working directories left by the patch phases of stopped builds, older than the patch timeout, and the
+   * logs of the patch phases failed for more than {@value #LOG_RETENTION_DAYS} days.
+   *
+   * @return the number of deleted files
+   */
+  public int clean() {
+    final File[] files = directory.listFiles();
+    if (null == files) {
+      return 0;
+    }
+    final long now = System.currentTimeMillis();
+    int deleted = 0;
+    for (final File file : files) {
+      final long age = now - file.lastModified();
+      final boolean staleWork = file.isDirectory() && file.getName().startsWith(".")
+          && TimeUnit.MINUTES.toMillis(timeout) < age;
+      final boolean staleLog = file.isFile() && file.getName().endsWith(LOG_SUFFIX)
+          && TimeUnit.DAYS.toMillis(LOG_RETENTION_DAYS) < age;
+      if ((staleWork || staleLog) && FileUtils.deleteQuietly(file)) {
+        deleted++;
+      }
+    }
+    return deleted;
+  }
+
+  /**
+   * Creates the process running the patch phase of given launcher in given directory.
+   *
+   * @param serverJar        the launcher {@link File JAR}
+   * @param workingDirectory the directory receiving the patched files
+   * @return the {@link ProcessBuilder process builder}
+   */
+  @VisibleForTesting
+  ProcessBuilder createPatchProcess(final @NotNull File serverJar, final @NotNull File workingDirectory) {
+    return new ProcessBuilder(System.getProperty("java.home") + "/bin/java", "-Dpaperclip.patchonly=true", "-jar",
+        serverJar.getPath())
+        .directory(workingDirectory);
+  }
+
+  /**
+   * Moves the log of a failed patch phase next to the cache entries.
+   *
+   * @param log    the log {@link File file}
+   * @param sha256 the SHA256 digest of the launcher
+   * @return the kept log {@link File file}
+   * @throws IOException when the log cannot be moved
+   */
+  private File keepLog(final @NotNull File log, final @NotNull String sha256) throws IOException {
+    final File kept = getLog(sha256);
+    Files.move(log.toPath(), kept.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    return kept;
+  }
+
+  /**
+   * Lists the files of given directory.
+   *
+   * @param folder the directory
+   * @return the files of the directory
+   * @throws IOException when the directory cannot be read
+   */
+  private static List<File> listFiles(final @NotNull File folder) throws IOException {
+    try (final DirectoryStream<Path> paths = Files.newDirectoryStream(folder.toPath())) {
+      final List<File> files = new ArrayList<>();
+      paths.forEach(path -> files.add(path.toFile()));
+      return files;
+    }
+  }
+
+  /**
+   * Gets the log of the failed patch phase of given launcher.
+   *
+   * @param sha256 the SHA256 digest of the launcher
+   * @return the log {@link File file}, which may not exist
+   */
+  private File getLog(final @NotNull String sha256) {
+    return new File(directory, sha256.toLowerCase(Locale.ROOT) + LOG_SUFFIX);
+  }
+
+  /**
+   * Gets the directory of the entry related to given launcher.
+   *
+   * @param sha256 the SHA256 digest of the launcher
+   * @return the entry directory, which may not exist
+   */
+  private File getEntry(final @NotNull String sha256) {
+    return new File(directory, sha256.toLowerCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,158 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Detects the command line options supported by an installed PaperMC server.
+ * <p>
+ * The Paperclip launcher ({@code server.jar}) lists the version it patches in {@code META-INF/versions.list} and
+ * writes the patched server to {@code versions/} on its first start. The patched server is inspected when it exists,
+ * otherwise the Minecraft version is compared to the first one whose builds all support the option.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class ServerCapabilities {
+
+  /**
+   * The option loading a plugin JAR which is not in the plugins folder.
+   */
+  public static final String ADD_PLUGIN_OPTION = "--add-plugin";
+  /**
+   * The first Minecraft version whose PaperMC builds all support {@value #ADD_PLUGIN_OPTION}.
+   */
+  @VisibleForTesting
+  static final String ADD_PLUGIN_VERSION = "1.19.3";
+
+  private static final String SERVER_JAR = "server.jar";
+  private static final String VERSIONS_LIST = "META-INF/versions.list";
+  private static final String VERSIONS_FOLDER = "versions";
+  private static final String MAIN_CLASS = "org/bukkit/craftbukkit/Main.class";
+  private static final String ADD_PLUGIN_NAME = "add-plugin";
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private ServerCapabilities() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Checks whether the server installed in given directory accepts the {@value #ADD_PLUGIN_OPTION} option.
+   *
+   * @param serverDirectory the server directory
+   * @return {@code true} when the option is supported, {@code false} when it is not or when the server is unknown
+   */
+  public static boolean supportsAddPlugin(final @NotNull File serverDirectory) {
+    final String[] version = readVersion(new File(serverDirectory, SERVER_JAR));
+    if (null == version) {
+      // Legacy launcher or missing server
+      return false;
+    }
+    final File patched = new File(new File(serverDirectory, VERSIONS_FOLDER), version[1]);
+    final Boolean declared = declaresAddPlugin(patched);
+    return null == declared ? 0 <= compareVersions(version[0], ADD_PLUGIN_VERSION) : declared;
+  }
+
+  /**
+   * Reads the version patched by given Paperclip launcher.
+   *
+   * @param serverJar the {@link File launcher}
+   * @return the Minecraft version and the path of the patched server in the versions folder, {@code null} when the JAR
+   *     does not list its version
+   */
+  private static String[] readVersion(final @NotNull File serverJar) {
+    if (!serverJar.isFile()) {
+      return null;
+    }
+    try (final ZipFile zip = new ZipFile(serverJar)) {
+      final ZipEntry entry = zip.getEntry(VERSIONS_LIST);
+      if (null == entry) {
+        return null;
+      }
+      try (final BufferedReader reader = new BufferedReader(
+          new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8))) {
+        // Each line is "<sha256>\t<version>\t<path>"
+        final String line = reader.readLine();
+        final String[] fields = null == line ? new String[0] : line.split("\t");
+        return 3 == fields.length ? new String[]{fields[1], fields[2]} : null;
+      }
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Checks whether the main class of given patched server declares the {@value #ADD_PLUGIN_OPTION} option.
+   *
+   * @param patched the patched server {@link File JAR}
+   * @return whether the option is declared, {@code null} when the server is not patched yet or cannot be read
+   */
+  private static @Nullable Boolean declaresAddPlugin(final @NotNull File patched) {
+    if (!patched.isFile()) {
+      return null;
+    }
+    try (final ZipFile zip = new ZipFile(patched)) {
+      final ZipEntry entry = zip.getEntry(MAIN_CLASS);
+      if (null == entry) {
+        return null;
+      }
+      try (final InputStream in = zip.getInputStream(entry)) {
+        // The option names are constants of the class
+        final String content = new String(IOUtils.toByteArray(in), StandardCharsets.ISO_8859_1);
+        return content.contains(ADD_PLUGIN_NAME);
+      }
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Compares two Minecraft versions, numerically part by part. A qualifier after the numbers is ignored.
+   *
+   * @param version the version
+   * @param other   the other version
+   * @return a negative integer, zero, or a positive integer as the version is lower than, equal to, or greater than
+   *     the other version
+   */
+  @VisibleForTesting
+  static int compareVersions(final @NotNull String version, final @NotNull String other) {
+    final int[] parts = parseVersion(version);
+    final int[] otherParts = parseVersion(other);
+    for (int i = 0; i < Math.max(parts.length, otherParts.length); i++) {
+      final int part = i < parts.length ? parts[i] : 0;
+      final int otherPart = i < otherParts.length ? otherParts[i] : 0;
+      if (part != otherPart) {
+        return Integer.compare(part, otherPart);
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Parses the numeric parts of given version.
+   *
+   * @param version the version, like {@code 1.20.1} or {@code 1.20.1-R0.1-SNAPSHOT}
+   * @return the numeric parts
+   */
+  private static int[] parseVersion(final @NotNull String version) {
+    final String[] parts = version.split("[^0-9.]", 2)[0].split("\\.");
+    final int[] numbers = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      numbers[i] = parts[i].isEmpty() ? 0 : Integer.parseInt(parts[i]);
+    }
+    return numbers;
+  }
+}
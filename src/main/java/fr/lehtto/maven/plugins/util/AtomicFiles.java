@@ -0,0 +1,149 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility class to write files atomically: the content is written to a temporary file of the destination directory,
+ * flushed to the disk, then moved to the destination. An interrupted build never leaves a half-written file, so the
+ * existence of a file proves its completeness.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class AtomicFiles {
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private AtomicFiles() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Writes given content to given file.
+   *
+   * @param destination the destination {@link File file}
+   * @param content     the {@link Content content} to write
+   * @throws IOException when the file cannot be written
+   */
+  public static void write(final @NotNull File destination, final @NotNull Content content) throws IOException {
+    final Path temporary = createTemporaryFile(destination);
+    try {
+      try (final OutputStream out = new FileOutputStream(temporary.toFile())) {
+        content.writeTo(out);
+      }
+      promote(temporary, destination.toPath());
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Copies given file to given destination.
+   *
+   * @param source      the {@link File file} to copy
+   * @param destination the destination {@link File file}
+   * @throws IOException when the file cannot be copied
+   */
+  public static void copy(final @NotNull File source, final @NotNull File destination) throws IOException {
+    final Path temporary = createTemporaryFile(destination);
+    try {
+      FileCopier.copy(source, temporary.toFile());
+      promote(temporary, destination.toPath());
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Flushes a completed file to the disk, then moves it to its destination, in the same directory.
+   *
+   * @param completed   the {@link Path path} of the completed file
+   * @param destination the destination {@link Path path}
+   * @throws IOException when the file cannot be moved
+   */
+  public static void promote(final @NotNull Path completed, final @NotNull Path destination) throws IOException {
+    try (final FileChannel channel = FileChannel.open(completed, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    Files.move(completed, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory(destination.toAbsolutePath().getParent());
+  }
+
+  /**
+   * Deletes the temporary files left by interrupted writes of given file.
+   *
+   * @param destination the destination {@link File file}
+   * @throws IOException when a temporary file cannot be deleted
+   */
+  public static void deleteTemporaryFiles(final @NotNull File destination) throws IOException {
+    final File directory = destination.getAbsoluteFile().getParentFile();
+    if (!directory.isDirectory()) {
+      return;
+    }
+    try (final DirectoryStream<Path> temporaries = Files.newDirectoryStream(directory.toPath(),
+        '.' + destination.getName() + '*' + TEMPORARY_SUFFIX)) {
+      for (final Path temporary : temporaries) {
+        Files.deleteIfExists(temporary);
+      }
+    }
+  }
+
+  /**
+   * Creates a hidden temporary file next to given destination.
+   *
+   * @param destination the destination {@link File file}
+   * @return the {@link Path path} of the temporary file
+   * @throws IOException when the file cannot be created
+   */
+  private static @NotNull Path createTemporaryFile(final @NotNull File destination) throws IOException {
+    final Path directory = destination.getAbsoluteFile().getParentFile().toPath();
+    Files.createDirectories(directory);
+    return Files.createTempFile(directory, '.' + destination.getName(), TEMPORARY_SUFFIX);
+  }
+
+  /**
+   * Flushes the entries of given directory to the disk, so a move survives a crash. Some platforms cannot open a
+   * directory, the move is then only atomic.
+   *
+   * @param directory the {@link Path path} of the directory
+   */
+  private static void syncDirectory(final Path directory) {
+    if (null == directory) {
+      return;
+    }
+    try (final FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (final IOException e) {
+      // Directories cannot be opened on Windows
+    }
+  }
+
+  /**
+   * Content of a file.
+   */
+  @FunctionalInterface
+  public interface Content {
+
+    /**
+     * Writes the content.
+     *
+     * @param out the {@link OutputStream stream} of the file
+     * @throws IOException when the content cannot be written
+     */
+    void writeTo(@NotNull OutputStream out) throws IOException;
+  }
+}
@@ -0,0 +1,89 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Computes several {@link MessageDigest digests} in a single pass over the same bytes.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+final class DigestAccumulator {
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final Map<String, MessageDigest> digests;
+
+  /**
+   * Constructor.
+   *
+   * @param algorithms the names of the digest algorithms to compute
+   */
+  DigestAccumulator(final @NotNull Collection<String> algorithms) {
+    digests = new LinkedHashMap<>();
+    for (final String algorithm : algorithms) {
+      digests.put(algorithm, DigestUtils.getDigest(algorithm));
+    }
+  }
+
+  /**
+   * Feeds bytes to every digest.
+   *
+   * @param buffer the bytes
+   * @param offset the offset of the first byte
+   * @param length the number of bytes
+   */
+  void update(final byte[] buffer, final int offset, final int length) {
+    for (final MessageDigest digest : digests.values()) {
+      digest.update(buffer, offset, length);
+    }
+  }
+
+  /**
+   * Feeds the first bytes of given file to every digest.
+   *
+   * @param file   the {@link File file} to read
+   * @param length the number of bytes to read
+   * @throws IOException when the file cannot be read
+   */
+  void update(final @NotNull File file, final long length) throws IOException {
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    long remaining = length;
+    try (final InputStream in = new FileInputStream(file)) {
+      int bytesRead;
+      while (0 < remaining && -1 != (bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining)))) {
+        update(buffer, 0, bytesRead);
+        remaining -= bytesRead;
+      }
+    }
+    if (0 < remaining) {
+      throw new IOException("Unexpected end of file " + file.getName());
+    }
+  }
+
+  /**
+   * Completes the computation and gets the hexadecimal digests.
+   *
+   * @return the unmodifiable map of hexadecimal digest by algorithm name
+   */
+  Map<String, String> toHex() {
+    final Map<String, String> result = new LinkedHashMap<>();
+    for (final Entry<String, MessageDigest> entry : digests.entrySet()) {
+      result.put(entry.getKey(), Hex.encodeHexString(entry.getValue().digest()));
+    }
+    return Collections.unmodifiableMap(result);
+  }
+}
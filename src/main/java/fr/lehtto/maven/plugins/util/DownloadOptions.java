@@ -0,0 +1,344 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Options of a file download.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class DownloadOptions {
+
+  /**
+   * Default minimum size, in bytes, of a download segment.
+   */
+  public static final long DEFAULT_MIN_SEGMENT_SIZE = 4L * 1024L * 1024L;
+
+  /**
+   * Maximum number of byte ranges downloaded concurrently.
+   */
+  private int segments;
+  /**
+   * Minimum size, in bytes, of a byte range.
+   */
+  private long minSegmentSize;
+  /**
+   * Expected SHA256 digest of the file.
+   */
+  private String sha256;
+  /**
+   * Expected MD5 digest of the file.
+   */
+  private String md5;
+  /**
+   * Settings of the shared HTTP client used to download the file.
+   */
+  private HttpSettings httpSettings;
+  /**
+   * Maximum number of bytes per second of all the transfers of the machine, {@code 0} when unlimited.
+   */
+  private long maxBandwidth;
+  /**
+   * Maximum number of concurrent transfers of the machine from the same host, {@code 0} when unlimited.
+   */
+  private int maxConnectionsPerHost;
+  /**
+   * Directory of the files through which the processes of the machine share the caps.
+   */
+  private File schedulerDirectory;
+  /**
+   * Policy of the retries of a failed download.
+   */
+  private RetryPolicy retryPolicy;
+  /**
+   * Base URLs of the mirrors of the file.
+   */
+  private List<String> mirrors;
+  /**
+   * Recorder of the timings of the requests, {@code null} when they are not recorded.
+   */
+  private HttpMetrics httpMetrics;
+
+  /**
+   * Default constructor, downloads the file with a single stream, without cap.
+   */
+  public DownloadOptions() {
+    segments = 1;
+    minSegmentSize = DEFAULT_MIN_SEGMENT_SIZE;
+    httpSettings = new HttpSettings();
+    schedulerDirectory = new File(System.getProperty("java.io.tmpdir"), "servermc-scheduler");
+    retryPolicy = new RetryPolicy();
+    mirrors = Collections.emptyList();
+  }
+
+  /**
+   * Gets the maximum number of byte ranges downloaded concurrently.
+   *
+   * @return the maximum number of segments
+   */
+  public int getSegments() {
+    return segments;
+  }
+
+  /**
+   * Sets the maximum number of byte ranges downloaded concurrently.
+   *
+   * @param segments the maximum number of segments, {@code 1} disables segmented downloads
+   */
+  public void setSegments(final int segments) {
+    this.segments = Math.max(1, segments);
+  }
+
+  /**
+   * Gets the minimum size, in bytes, of a byte range.
+   *
+   * @return the minimum segment size
+   */
+  public long getMinSegmentSize() {
+    return minSegmentSize;
+  }
+
+  /**
+   * Sets the minimum size, in bytes, of a byte range.
+   *
+   * @param minSegmentSize the minimum segment size
+   */
+  public void setMinSegmentSize(final long minSegmentSize) {
+    this.minSegmentSize = Math.max(1L, minSegmentSize);
+  }
+
+  /**
+   * Gets the expected SHA256 digest of the file.
+   *
+   * @return the SHA256 digest, can be {@code null}
+   */
+  public @Nullable String getSha256() {
+    return sha256;
+  }
+
+  /**
+   * Sets the expected SHA256 digest of the file. The file is moved to its destination only if its digest matches.
+   *
+   * @param sha256 the SHA256 digest
+   */
+  public void setSha256(final String sha256) {
+    this.sha256 = sha256;
+  }
+
+  /**
+   * Gets the expected MD5 digest of the file.
+   *
+   * @return the MD5 digest, can be {@code null}
+   */
+  public @Nullable String getMd5() {
+    return md5;
+  }
+
+  /**
+   * Sets the expected MD5 digest of the file. The file is moved to its destination only if its digest matches.
+   *
+   * @param md5 the MD5 digest
+   */
+  public void setMd5(final String md5) {
+    this.md5 = md5;
+  }
+
+  /**
+   * Gets the settings of the shared HTTP client used to download the file.
+   *
+   * @return the {@link HttpSettings settings}
+   */
+  public @NotNull HttpSettings getHttpSettings() {
+    return httpSettings;
+  }
+
+  /**
+   * Sets the settings of the shared HTTP client used to download the file.
+   *
+   * @param httpSettings the {@link HttpSettings settings}
+   */
+  public void setHttpSettings(final @NotNull HttpSettings httpSettings) {
+    this.httpSettings = httpSettings;
+  }
+
+  /**
+   * Gets the maximum number of bytes per second of all the transfers of the machine.
+   *
+   * @return the maximum bandwidth, {@code 0} when unlimited
+   */
+  public long getMaxBandwidth() {
+    return maxBandwidth;
+  }
+
+  /**
+   * Sets the maximum number of bytes per second of all the transfers of the machine.
+   *
+   * @param maxBandwidth the maximum bandwidth, {@code 0} when unlimited
+   */
+  public void setMaxBandwidth(final long maxBandwidth) {
+    this.maxBandwidth = Math.max(0L, maxBandwidth);
+  }
+
+  /**
+   * Gets the maximum number of concurrent transfers of the machine from the same host.
+   *
+   * @return the maximum number of connections per host, {@code 0} when unlimited
+   */
+  public int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  /**
+   * Sets the maximum number of concurrent transfers of the machine from the same host.
+   *
+   * @param maxConnectionsPerHost the maximum number of connections per host, {@code 0} when unlimited
+   */
+  public void setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+    this.maxConnectionsPerHost = Math.max(0, maxConnectionsPerHost);
+  }
+
+  /**
+   * Gets the directory of the files through which the processes of the machine share the caps.
+   *
+   * @return the scheduler directory
+   */
+  public @NotNull File getSchedulerDirectory() {
+    return schedulerDirectory;
+  }
+
+  /**
+   * Sets the directory of the files through which the processes of the machine share the caps.
+   *
+   * @param schedulerDirectory the scheduler directory
+   */
+  public void setSchedulerDirectory(final @NotNull File schedulerDirectory) {
+    this.schedulerDirectory = schedulerDirectory;
+  }
+
+  /**
+   * Gets the policy of the retries of a failed download.
+   *
+   * @return the {@link RetryPolicy retry policy}
+   */
+  public @NotNull RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  /**
+   * Sets the policy of the retries of a failed download.
+   *
+   * @param retryPolicy the {@link RetryPolicy retry policy}
+   */
+  public void setRetryPolicy(final @NotNull RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Gets the base URLs of the mirrors of the file.
+   *
+   * @return the base URLs, in preference order
+   */
+  public @NotNull List<String> getMirrors() {
+    return mirrors;
+  }
+
+  /**
+   * Sets the base URLs of the mirrors of the file. A file whose URL starts with one of them is downloaded from the
+   * fastest healthy one and fails over to the others.
+   *
+   * @param mirrors the base URLs, in preference order
+   */
+  public void setMirrors(final @NotNull List<String> mirrors) {
+    this.mirrors = new ArrayList<>(mirrors);
+  }
+
+  /**
+   * Gets the recorder of the timings of the requests.
+   *
+   * @return the {@link HttpMetrics recorder}, {@code null} when the timings are not recorded
+   */
+  public @Nullable HttpMetrics getHttpMetrics() {
+    return httpMetrics;
+  }
+
+  /**
+   * Sets the recorder of the timings of the requests, usually the one of the goal downloading the file.
+   *
+   * @param httpMetrics the {@link HttpMetrics recorder}, {@code null} to not record the timings
+   */
+  public void setHttpMetrics(final @Nullable HttpMetrics httpMetrics) {
+    this.httpMetrics = httpMetrics;
+  }
+
+  /**
+   * Creates the scheduler of the transfers.
+   *
+   * @return the {@link DownloadScheduler scheduler}
+   */
+  DownloadScheduler createScheduler() {
+    return new DownloadScheduler(schedulerDirectory, maxBandwidth, maxConnectionsPerHost);
+  }
+
+  /**
+   * Computes the number of segments to use to download a file of given length.
+   *
+   * @param length the file length, negative when unknown
+   * @return the number of segments, {@code 1} when the file should be downloaded with a single stream
+   */
+  int computeSegmentCount(final long length) {
+    if (0 >= length || 1 >= segments) {
+      return 1;
+    }
+    return (int) Math.max(1L, Math.min(segments, length / minSegmentSize));
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DownloadOptions)) {
+      return false;
+    }
+    final DownloadOptions that = (DownloadOptions) o;
+    return getSegments() == that.getSegments() && getMinSegmentSize() == that.getMinSegmentSize()
+        && Objects.equals(getSha256(), that.getSha256()) && Objects.equals(getMd5(), that.getMd5())
+        && Objects.equals(getHttpSettings(), that.getHttpSettings()) && getMaxBandwidth() == that.getMaxBandwidth()
+        && getMaxConnectionsPerHost() == that.getMaxConnectionsPerHost()
+        && Objects.equals(getSchedulerDirectory(), that.getSchedulerDirectory())
+        && Objects.equals(getRetryPolicy(), that.getRetryPolicy()) && Objects.equals(getMirrors(), that.getMirrors())
+        && Objects.equals(getHttpMetrics(), that.getHttpMetrics());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getSegments(), getMinSegmentSize(), getSha256(), getMd5(), getHttpSettings(),
+        getMaxBandwidth(), getMaxConnectionsPerHost(), getSchedulerDirectory(), getRetryPolicy(), getMirrors(),
+        getHttpMetrics());
+  }
+
+  @Override
+  public String toString() {
+    return "DownloadOptions{" +
+        "segments=" + segments +
+        ", minSegmentSize=" + minSegmentSize +
+        ", sha256='" + sha256 + '\'' +
+        ", md5='" + md5 + '\'' +
+        ", httpSettings=" + httpSettings +
+        ", maxBandwidth=" + maxBandwidth +
+        ", maxConnectionsPerHost=" + maxConnectionsPerHost +
+        ", schedulerDirectory=" + schedulerDirectory +
+        ", retryPolicy=" + retryPolicy +
+        ", mirrors=" + mirrors +
+        ", httpMetrics=" + httpMetrics +
+        '}';
+  }
+}
@@ -0,0 +1,288 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Scheduler of the bulk transfers (server JARs, plugins) sharing the network of the machine.
+ * <p>
+ * The transfers of every Maven process of the machine are coordinated through the files of the scheduler directory:
+ * <ul>
+ *   <li>the bandwidth cap is a budget shared by all the transfers: a transfer reserves, under a file lock, the time
+ *   slot of its next bytes after the last reserved slot, then waits for its slot before reading further;</li>
+ *   <li>the per host cap is a set of slot files per host: a transfer holds the lock of one of them while it runs. The
+ *   operating system releases the locks of a dead process, so a crashed build never leaks a slot.</li>
+ * </ul>
+ * The PaperMC API calls are not scheduled, they are small and latency bound: while one is in flight, the bulk transfers
+ * of the process pause so that it is answered first.
+ * <p>
+ * Every process sharing the directory should use the same caps.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class DownloadScheduler {
+
+  private static final String BANDWIDTH_NAME = "bandwidth";
+  private static final String HOSTS_FOLDER = "hosts";
+  private static final String SLOT_SUFFIX = ".slot";
+  /**
+   * Duration of the bandwidth reserved at once.
+   */
+  private static final long RESERVATION_MILLIS = 50L;
+  private static final long MIN_RESERVATION = 16L * 1024L;
+  private static final long SLOT_POLL_MILLIS = 50L;
+  /**
+   * Maximum duration a bulk transfer pauses for the API calls, so that it never starves.
+   */
+  private static final long METADATA_PAUSE_MILLIS = 2000L;
+
+  /**
+   * The file locks are held by the process: the threads of the process take the bandwidth reservation lock in turn.
+   */
+  private static final Object BANDWIDTH_MONITOR = new Object();
+  private static final Object METADATA_MONITOR = new Object();
+  private static final AtomicInteger METADATA_IN_FLIGHT = new AtomicInteger();
+
+  /**
+   * Directory of the files shared by the processes.
+   */
+  private final File directory;
+  /**
+   * Maximum number of bytes per second of all the transfers, {@code 0} when unlimited.
+   */
+  private final long maxBandwidth;
+  /**
+   * Maximum number of concurrent transfers from the same host, {@code 0} when unlimited.
+   */
+  private final int maxConnectionsPerHost;
+
+  /**
+   * Constructor.
+   *
+   * @param directory             the directory of the files shared by the processes
+   * @param maxBandwidth          the maximum number of bytes per second of all the transfers, {@code 0} when unlimited
+   * @param maxConnectionsPerHost the maximum number of concurrent transfers from the same host, {@code 0} when
+   *                              unlimited
+   */
+  public DownloadScheduler(final @NotNull File directory, final long maxBandwidth, final int maxConnectionsPerHost) {
+    this.directory = directory;
+    this.maxBandwidth = Math.max(0L, maxBandwidth);
+    this.maxConnectionsPerHost = Math.max(0, maxConnectionsPerHost);
+  }
+
+  /**
+   * Signals the start of an API call, the bulk transfers pause until it ends.
+   */
+  public static void beginMetadata() {
+    METADATA_IN_FLIGHT.incrementAndGet();
+  }
+
+  /**
+   * Signals the end of an API call.
+   */
+  public static void endMetadata() {
+    if (0 == METADATA_IN_FLIGHT.decrementAndGet()) {
+      synchronized (METADATA_MONITOR) {
+        METADATA_MONITOR.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Checks whether a cap is set.
+   *
+   * @return {@code true} when the transfers are scheduled
+   */
+  public boolean isEnabled() {
+    return 0L < maxBandwidth || 0 < maxConnectionsPerHost;
+  }
+
+  /**
+   * Starts a transfer from given URL, waiting for a free slot of its host.
+   *
+   * @param url the source URL
+   * @return the started {@link Transfer transfer}, to close once the response is read
+   * @throws IOException when the slot cannot be acquired
+   */
+  public Transfer start(final @NotNull URL url) throws IOException {
+    if (0 >= maxConnectionsPerHost) {
+      return new Transfer(null);
+    }
+    return new Transfer(acquireSlot(url.getHost()));
+  }
+
+  /**
+   * Locks a free slot file of given host, waiting for one to be released when all are taken.
+   *
+   * @param host the host
+   * @return the held {@link FileLock lock}
+   * @throws IOException when a slot file cannot be opened
+   */
+  private FileLock acquireSlot(final @NotNull String host) throws IOException {
+    final Path hostFolder = new File(new File(directory, HOSTS_FOLDER), host.replaceAll("[^A-Za-z0-9.-]", "_"))
+        .toPath();
+    Files.createDirectories(hostFolder);
+    while (true) {
+      for (int i = 0; i < maxConnectionsPerHost; i++) {
+        final FileChannel channel = FileChannel.open(hostFolder.resolve(i + SLOT_SUFFIX), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE);
+        FileLock lock = null;
+        try {
+          lock = channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+          // Slot held by another thread of the process
+        } finally {
+          if (null == lock) {
+            channel.close();
+          }
+        }
+        if (null != lock) {
+          return lock;
+        }
+      }
+      sleep(SLOT_POLL_MILLIS);
+    }
+  }
+
+  /**
+   * Reserves the time slot of given number of bytes after the last slot reserved by the processes.
+   *
+   * @param bytes the number of bytes
+   * @return the duration, in milliseconds, to wait before the reserved slot starts
+   * @throws IOException when the bandwidth file cannot be read or written
+   */
+  @VisibleForTesting
+  long reserve(final long bytes) throws IOException {
+    Files.createDirectories(directory.toPath());
+    synchronized (BANDWIDTH_MONITOR) {
+      try (final FileChannel channel = FileChannel.open(new File(directory, BANDWIDTH_NAME).toPath(),
+          StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+          final FileLock ignored = channel.lock()) {
+        final ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        final long next = Long.BYTES == channel.read(buffer, 0L) ? buffer.getLong(0) : 0L;
+        final long now = System.currentTimeMillis();
+        final long start = Math.max(now, next);
+        buffer.putLong(0, start + TimeUnit.SECONDS.toMillis(bytes) / maxBandwidth);
+        buffer.rewind();
+        channel.write(buffer, 0L);
+        return start - now;
+      }
+    }
+  }
+
+  /**
+   * Waits, up to a bound, for the API calls of the process to end.
+   *
+   * @throws InterruptedIOException when interrupted while waiting
+   */
+  private static void awaitMetadata() throws InterruptedIOException {
+    if (0 == METADATA_IN_FLIGHT.get()) {
+      return;
+    }
+    final long deadline = System.currentTimeMillis() + METADATA_PAUSE_MILLIS;
+    synchronized (METADATA_MONITOR) {
+      long remaining = METADATA_PAUSE_MILLIS;
+      while (0 < METADATA_IN_FLIGHT.get() && 0L < remaining) {
+        try {
+          METADATA_MONITOR.wait(remaining);
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for the API calls");
+        }
+        remaining = deadline - System.currentTimeMillis();
+      }
+    }
+  }
+
+  /**
+   * Sleeps for given duration.
+   *
+   * @param millis the duration, in milliseconds
+   * @throws InterruptedIOException when interrupted while sleeping
+   */
+  private static void sleep(final long millis) throws InterruptedIOException {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the download scheduler");
+    }
+  }
+
+  /**
+   * A running transfer, holding a slot of its host.
+   */
+  public final class Transfer implements Closeable {
+
+    private final FileLock slot;
+    /**
+     * Number of reserved bytes not read yet, negative when the transfer is ahead of its reservations.
+     */
+    private long credit;
+
+    /**
+     * Constructor.
+     *
+     * @param slot the lock of the held slot, {@code null} when the connections per host are not capped
+     */
+    private Transfer(final @Nullable FileLock slot) {
+      this.slot = slot;
+    }
+
+    /**
+     * Accounts given number of read bytes, then waits for the API calls of the process and for the bandwidth to
+     * read further.
+     *
+     * @param bytes the number of read bytes
+     * @throws IOException when the bandwidth cannot be reserved or when interrupted while waiting
+     */
+    public void throttle(final int bytes) throws IOException {
+      if (!isEnabled()) {
+        return;
+      }
+      awaitMetadata();
+      if (0L >= maxBandwidth) {
+        return;
+      }
+      credit -= bytes;
+      while (0L > credit) {
+        final long reservation = Math.max(MIN_RESERVATION, maxBandwidth * RESERVATION_MILLIS / 1000L);
+        credit += reservation;
+        final long wait = reserve(reservation);
+        if (0L < wait) {
+          sleep(wait);
+        }
+      }
+    }
+
+    /**
+     * Releases the slot of the host.
+     *
+     * @throws IOException when the slot file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+      if (null != slot) {
+        // Closing the channel releases the lock
+        slot.channel().close();
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Content-addressed cache of downloaded files, shared between projects. Entries are keyed by their SHA256 digest and
+ * evicted in least recently used order once the cache exceeds its maximum size.
+ * <p>
+ * The folders of the cache may also hold directories keyed by a SHA256 digest, such as the files patched by the
+ * Paperclip launcher: they are entries too, whose size is the size of their files, and are evicted as a whole.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class FileCache {
+
+  private static final Pattern SHA256_PATTERN = Pattern.compile("^[0-9a-f]{64}$");
+
+  /**
+   * Root directory of the cache.
+   */
+  private final File directory;
+  /**
+   * Maximum size, in bytes, of the cache.
+   */
+  private final long maxSize;
+
+  /**
+   * Constructor.
+   *
+   * @param directory the root directory of the cache
+   * @param maxSize   the maximum size, in bytes, of the cache
+   */
+  public FileCache(final @NotNull File directory, final long maxSize) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Gets the root directory of the cache.
+   *
+   * @return the root directory
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Checks whether the given digest can be used as cache key.
+   *
+   * @param sha256 the SHA256 digest
+   * @return {@code true} when the digest is a valid SHA256 hexadecimal string
+   */
+  public static boolean isCacheable(final String sha256) {
+    return null != sha256 && SHA256_PATTERN.matcher(sha256.toLowerCase(Locale.ROOT)).matches();
+  }
+
+  /**
+   * Copies the cached file identified by given digest to given destination.
+   *
+   * @param sha256      the SHA256 digest of the file
+   * @param destination the destination {@link File file}
+   * @return {@code true} when the file was found in cache, {@code false} otherwise
+   * @throws MojoExecutionException when the cached file cannot be copied
+   */
+  public boolean retrieve(final String sha256, final @NotNull File destination) throws MojoExecutionException {
+    if (!isCacheable(sha256)) {
+      return false;
+    }
+    final File entry = getEntry(sha256);
+    if (!entry.isFile()) {
+      return false;
+    }
+
+    try {
+      AtomicFiles.copy(entry, destination);
+      // Marks the entry as recently used
+      Files.setLastModifiedTime(entry.toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          MessageFormat.format("Unable to copy {0} from cache to {1}", entry, destination.getAbsolutePath()), e);
+    }
+    return true;
+  }
+
+  /**
+   * Stores given file in cache, then evicts the least recently used entries if the cache is full.
+   *
+   * @param sha256 the SHA256 digest of the file
+   * @param source the {@link File file} to store
+   * @throws MojoExecutionException when the file cannot be stored
+   */
+  public void store(final String sha256, final @NotNull File source) throws MojoExecutionException {
+    if (!isCacheable(sha256)) {
+      return;
+    }
+    final File entry = getEntry(sha256);
+    if (entry.isFile()) {
+      return;
+    }
+
+    try {
+      // Copies to a temporary file first, so concurrent builds never see a partial entry
+      AtomicFiles.copy(source, entry);
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Unable to store {0} in cache", source.getName()), e);
+    }
+    evict();
+  }
+
+  /**
+   * Deletes the least recently used entries until the cache size is lower than its maximum size.
+   *
+   * @throws MojoExecutionException when an entry cannot be deleted
+   */
+  public void evict() throws MojoExecutionException {
+    final List<File> entries = listEntries();
+    final Map<File, Long> lengths = new HashMap<>();
+    long size = 0;
+    for (final File entry : entries) {
+      final long length = entry.isDirectory() ? FileUtils.sizeOfDirectory(entry) : entry.length();
+      lengths.put(entry, length);
+      size += length;
+    }
+
+    entries.sort(Comparator.comparingLong(File::lastModified));
+    for (final File entry : entries) {
+      if (size <= maxSize) {
+        return;
+      }
+      try {
+        if (entry.isDirectory()) {
+          FileUtils.deleteDirectory(entry);
+        } else {
+          Files.deleteIfExists(entry.toPath());
+        }
+      } catch (final IOException e) {
+        throw new MojoExecutionException(MessageFormat.format("Unable to evict {0} from cache", entry), e);
+      }
+      size -= lengths.get(entry);
+    }
+  }
+
+  /**
+   * Lists all cache entries, files and directories.
+   *
+   * @return the mutable list of entries
+   * @throws MojoExecutionException when the cache directory cannot be read
+   */
+  private List<File> listEntries() throws MojoExecutionException {
+    if (!directory.isDirectory()) {
+      return new ArrayList<>();
+    }
+    try (final Stream<Path> paths = Files.walk(directory.toPath(), 2)) {
+      return paths.filter(path -> 2 == directory.toPath().relativize(path).getNameCount())
+          .filter(path -> Files.isRegularFile(path) || Files.isDirectory(path))
+          .map(Path::toFile)
+          .filter(file -> isCacheable(file.getName()))
+          .collect(Collectors.toCollection(ArrayList::new));
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Unable to read cache directory {0}", directory), e);
+    }
+  }
+
+  /**
+   * Gets the {@link File file} of the entry identified by given digest.
+   *
+   * @param sha256 the SHA256 digest
+   * @return the entry {@link File file}, which may not exist
+   */
+  File getEntry(final @NotNull String sha256) {
+    final String key = sha256.toLowerCase(Locale.ROOT);
+    return new File(new File(directory, key.substring(0, 2)), key);
+  }
+}
@@ -0,0 +1,213 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Utility class to copy files without moving their content through the Java heap.
+ * <p>
+ * On Linux, files of at least {@value #REFLINK_MIN_SIZE} bytes are first cloned with {@code cp --reflink=always}: on
+ * copy-on-write filesystems (Btrfs, XFS, ZFS...) the clone shares the blocks of the source and costs no I/O. When the
+ * clone is not supported, the file is copied with {@link FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel) transferTo} which lets the kernel copy the content ({@code sendfile} or
+ * {@code copy_file_range}).
+ * <p>
+ * Files can also be {@link #link(File, File) linked} instead of copied, for local development.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class FileCopier {
+
+  /**
+   * Minimum size of a file cloned with {@code cp}, smaller ones are cheaper to copy than to fork a process.
+   */
+  @VisibleForTesting
+  static final long REFLINK_MIN_SIZE = 1024L * 1024L;
+  private static final long REFLINK_TIMEOUT = 30L;
+  private static final boolean LINUX = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).contains("linux");
+  private static final Map<FileStore, Boolean> REFLINK_SUPPORT = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private FileCopier() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Copies given file, the destination is replaced when it exists.
+   *
+   * @param source      the {@link File file} to copy
+   * @param destination the destination {@link File file}
+   * @throws IOException when the file cannot be copied
+   */
+  public static void copy(final @NotNull File source, final @NotNull File destination) throws IOException {
+    final Path sourcePath = source.toPath();
+    final Path destinationPath = destination.toPath();
+    unlink(sourcePath, destinationPath);
+    if (!reflink(sourcePath, destinationPath)) {
+      transfer(sourcePath, destinationPath);
+    }
+  }
+
+  /**
+   * Links given file, the destination is replaced when it exists.
+   * <p>
+   * A hard link is created when both files share a filesystem, otherwise a symbolic link to the absolute path of the
+   * source. When the filesystem supports none of them, the file is copied.
+   *
+   * @param source      the {@link File file} to link
+   * @param destination the destination {@link File file}
+   * @return the {@link Method method} used to deploy the file
+   * @throws IOException when the file can neither be linked nor copied
+   */
+  public static @NotNull Method link(final @NotNull File source, final @NotNull File destination) throws IOException {
+    final Path sourcePath = source.toPath().toAbsolutePath();
+    final Path destinationPath = destination.toPath().toAbsolutePath();
+    if (!Files.isRegularFile(sourcePath)) {
+      // A symbolic link would be dangling
+      throw new NoSuchFileException(sourcePath.toString());
+    }
+    Files.deleteIfExists(destinationPath);
+    final Path destinationDirectory = destinationPath.getParent();
+    try {
+      if (null != destinationDirectory
+          && Files.getFileStore(sourcePath).equals(Files.getFileStore(destinationDirectory))) {
+        Files.createLink(destinationPath, sourcePath);
+        return Method.HARD_LINK;
+      }
+    } catch (final IOException | UnsupportedOperationException e) {
+      // Falls back to a symbolic link
+    }
+    try {
+      Files.createSymbolicLink(destinationPath, sourcePath);
+      return Method.SYMBOLIC_LINK;
+    } catch (final IOException | UnsupportedOperationException e) {
+      // Falls back to a copy
+    }
+    copy(source, destination);
+    return Method.COPY;
+  }
+
+  /**
+   * Deletes the destination when it is a link to the source, writing through it would truncate the source.
+   *
+   * @param source      the {@link Path path} of the file to copy
+   * @param destination the destination {@link Path path}
+   * @throws IOException when the destination cannot be deleted
+   */
+  private static void unlink(final @NotNull Path source, final @NotNull Path destination) throws IOException {
+    if (Files.isSymbolicLink(destination) || Files.exists(destination) && Files.isSameFile(source, destination)) {
+      Files.delete(destination);
+    }
+  }
+
+  /**
+   * Copies given file through its {@link FileChannel channel}.
+   *
+   * @param source      the {@link Path path} of the file to copy
+   * @param destination the destination {@link Path path}
+   * @throws IOException when the file cannot be copied
+   */
+  @VisibleForTesting
+  static void transfer(final @NotNull Path source, final @NotNull Path destination) throws IOException {
+    try (final FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+        final FileChannel out = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final long size = in.size();
+      long position = 0L;
+      while (position < size) {
+        position += in.transferTo(position, size - position, out);
+      }
+    }
+  }
+
+  /**
+   * Clones given file with {@code cp --reflink=always}, when the filesystem supports it.
+   * <p>
+   * Clones only share blocks within a filesystem. The support is remembered per {@link FileStore file store} so the
+   * process is not forked again for a filesystem which cannot clone files.
+   *
+   * @param source      the {@link Path path} of the file to clone
+   * @param destination the destination {@link Path path}
+   * @return {@code true} when the file was cloned, {@code false} when it still has to be copied
+   * @throws IOException when the source file cannot be read
+   */
+  @VisibleForTesting
+  static boolean reflink(final @NotNull Path source, final @NotNull Path destination) throws IOException {
+    if (!LINUX || Files.size(source) < REFLINK_MIN_SIZE) {
+      return false;
+    }
+    final FileStore store = Files.getFileStore(source);
+    final Path destinationDirectory = destination.toAbsolutePath().getParent();
+    if (null == destinationDirectory || !store.equals(Files.getFileStore(destinationDirectory))
+        || Boolean.FALSE.equals(REFLINK_SUPPORT.get(store))) {
+      return false;
+    }
+    final boolean cloned = runCp(source, destination);
+    if (!cloned) {
+      REFLINK_SUPPORT.put(store, Boolean.FALSE);
+    }
+    return cloned;
+  }
+
+  /**
+   * Runs {@code cp --reflink=always}.
+   *
+   * @param source      the {@link Path path} of the file to clone
+   * @param destination the destination {@link Path path}
+   * @return {@code true} when the process succeeded
+   */
+  private static boolean runCp(final @NotNull Path source, final @NotNull Path destination) {
+    try {
+      final Process process = new ProcessBuilder("cp", "--reflink=always", "--", source.toString(),
+          destination.toString())
+          .redirectErrorStream(true)
+          .redirectOutput(ProcessBuilder.Redirect.to(new File("/dev/null")))
+          .start();
+      if (!process.waitFor(REFLINK_TIMEOUT, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+        return false;
+      }
+      return 0 == process.exitValue();
+    } catch (final IOException e) {
+      // cp is not available, the file is copied by the JVM
+      return false;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Method used to deploy a file.
+   */
+  public enum Method {
+    /**
+     * Hard link sharing the content of the source.
+     */
+    HARD_LINK,
+    /**
+     * Symbolic link to the source.
+     */
+    SYMBOLIC_LINK,
+    /**
+     * Copy of the source.
+     */
+    COPY
+  }
+}
@@ -6,26 +6,50 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.HttpURLConnection;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Utility class to download and check files.
  *
  * @author Lehtto
- * @version 0.0.1
+ * @version 0.2.0
  * @since 0.0.1
  */
 public final class FileDownloader {
 
   private static final List<String> WHITELISTED_PROTOCOLE = Arrays.asList("http", "https");
+  private static final int BUFFER_SIZE = 8192;
+  private static final long RESUME_CHECKPOINT_SIZE = 1024L * 1024L;
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_PARTIAL = 206;
 
   /**
    * Default constructor.
@@ -45,14 +69,13 @@ public final class FileDownloader {
    */
   public static boolean checkMd5Checksum(final @NotNull File file, final @NotNull String md5)
       throws MojoExecutionException {
-    try {
-      final FileInputStream fileInputStream = new FileInputStream(file);
+    try (final FileInputStream fileInputStream = new FileInputStream(file)) {
       final String digest = DigestUtils.md5Hex(fileInputStream);
       return digest.equals(md5);
     } catch (final FileNotFoundException e) {
       throw new MojoExecutionException("Unable to found file " + file.getAbsolutePath(), e);
     } catch (final IOException e) {
-      throw new MojoExecutionException("Unable to execute SHA256 algorithm", e);
+      throw new MojoExecutionException("Unable to execute MD5 algorithm", e);
     }
   }
 
@@ -66,8 +89,7 @@ public final class FileDownloader {
    */
   public static boolean checkSha256Checksum(final @NotNull File file, final @NotNull String sha256)
       throws MojoExecutionException {
-    try {
-      final FileInputStream fileInputStream = new FileInputStream(file);
+    try (final FileInputStream fileInputStream = new FileInputStream(file)) {
       final String digest = DigestUtils.sha256Hex(fileInputStream);
       return digest.equals(sha256);
     } catch (final FileNotFoundException e) {
@@ -78,36 +100,554 @@ public final class FileDownloader {
   }
 
   /**
-   * Downloads file from given {@link URL url}.
+   * Downloads file from given {@link URL url} with a single stream.
    *
    * @param destination the destination file
    * @param url         the source URL
+   * @return the SHA256 digest of the downloaded file, by algorithm name
    * @throws MojoExecutionException when issue occurred while downloading the server file.
    * @throws MojoFailureException when unsupported protocol is used
    */
-  public static void downloadFile(final File destination, final URL url)
+  public static Map<String, String> downloadFile(final File destination, final URL url)
       throws MojoExecutionException, MojoFailureException {
+    return downloadFile(destination, url, new DownloadOptions());
+  }
+
+  /**
+   * Downloads file from given {@link URL url}. When the server supports byte ranges and the file is large enough, the
+   * file is downloaded as several segments fetched concurrently.
+   * <p>
+   * The bytes are written to a {@literal .part} file which is moved to the destination only once the expected
+   * digests, if any, are verified. An interrupted download is resumed by the next call, every segment of a segmented
+   * one where it stopped.
+   * <p>
+   * The SHA256 digest, and the MD5 digest when an MD5 is expected, are computed while a single stream is downloaded,
+   * so verifying the file costs no extra read, except for the bytes of a resumed download written by the previous run.
+   * The segments of a segmented download complete out of order and these digests cannot be combined, so the
+   * completed file is read back once to compute them.
+   * <p>
+   * Every request goes through the {@link HttpTransport shared HTTP client}, so the connections are reused. The
+   * transfers are paced by the {@link DownloadScheduler scheduler} when the options set a bandwidth or connection cap.
+   * <p>
+   * A transient failure is retried according to the {@link RetryPolicy retry policy} of the options, on the fastest
+   * healthy {@link DownloadOptions#getMirrors() mirror} first. A retried download resumes where the failed attempt
+   * stopped, from another mirror too when the SHA256 digest of the file is expected.
+   *
+   * @param destination the destination file
+   * @param url         the source URL
+   * @param options     the download {@link DownloadOptions options}
+   * @return the digests of the downloaded file, by algorithm name (see {@link MessageDigestAlgorithms})
+   * @throws MojoExecutionException when issue occurred while downloading the server file.
+   * @throws MojoFailureException   when unsupported protocol is used or when the checksum is not valid
+   */
+  public static Map<String, String> downloadFile(final File destination, final URL url,
+      final @NotNull DownloadOptions options) throws MojoExecutionException, MojoFailureException {
     // Enforce security before downloading file avoid SSRF
     if (!WHITELISTED_PROTOCOLE.contains(url.getProtocol())) {
       throw new MojoFailureException(
           MessageFormat.format("Unable to download file from url {0}, only http and https protocol accepted", url));
     }
 
-    try (final FileOutputStream out = new FileOutputStream(destination)) {
-      final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-      final byte[] buffer = new byte[8192];
-      try (final InputStream in = connection.getInputStream()) {
-        int bytesRead;
-        while (-1 != (bytesRead = in.read(buffer))) {
-          out.write(buffer, 0, bytesRead);
+    final OkHttpClient client = HttpTransport.getClient(options.getHttpSettings());
+    final DownloadScheduler scheduler = options.createScheduler();
+    final RetryPolicy retryPolicy = options.getRetryPolicy();
+    final List<String> candidates = MirrorHealth.candidates(url.toString(), options.getMirrors());
+    // Every mirror is tried at least once
+    final int attempts = Math.max(1 + retryPolicy.getRetries(), candidates.size());
+    for (int attempt = 0; ; attempt++) {
+      final String candidate = candidates.get(attempt % candidates.size());
+      final DigestAccumulator digests = new DigestAccumulator(getAlgorithms(options));
+      final PartialDownload partialDownload;
+      final long responseTime;
+      try {
+        partialDownload = new PartialDownload(destination, new URL(candidate),
+            StringUtils.isBlank(options.getSha256()) ? null : options.getSha256());
+        responseTime = download(client, scheduler, partialDownload, digests, options);
+      } catch (final IOException e) {
+        MirrorHealth.recordFailure(candidate);
+        if (attempt + 1 >= attempts || !isRetryable(e, retryPolicy)) {
+          throw new MojoExecutionException(
+              MessageFormat.format("Unable to download {0} from {1}", destination.getName(), candidate), e);
+        }
+        // Fails over to the next mirror at once, backs off once every mirror failed
+        if (attempt + 1 >= candidates.size()) {
+          sleep(retryPolicy.computeDelay(attempt + 1 - candidates.size(),
+              e instanceof UnexpectedStatusException ? ((UnexpectedStatusException) e).getRetryAfter() : null));
         }
+        continue;
+      } catch (final OutOfMemoryError e) {
+        throw new MojoExecutionException(MessageFormat.format(
+            "Unable to create buffer to download {0}. Not enough memory space", destination.getName()), e);
       }
-      // Free resources
-      connection.disconnect();
+      MirrorHealth.recordSuccess(candidate, responseTime);
+
+      final Map<String, String> result = digests.toHex();
+      verifyAndPromote(partialDownload, destination, options, result);
+      return result;
+    }
+  }
+
+  /**
+   * Downloads the file once, as several segments when possible, otherwise with a single stream. The segments or the
+   * stream of the previous interrupted download are resumed.
+   *
+   * @param client          the {@link OkHttpClient HTTP client}
+   * @param scheduler       the {@link DownloadScheduler scheduler} of the transfers
+   * @param partialDownload the {@link PartialDownload download} to write
+   * @param digests         the {@link DigestAccumulator digests} fed with every byte of the file
+   * @param options         the download {@link DownloadOptions options}
+   * @return the time to the first byte, in milliseconds, of the transfer, negative when nothing was left to transfer
+   * @throws IOException when issue occurred while downloading the file
+   */
+  private static long download(final @NotNull OkHttpClient client, final @NotNull DownloadScheduler scheduler,
+      final @NotNull PartialDownload partialDownload, final @NotNull DigestAccumulator digests,
+      final @NotNull DownloadOptions options) throws IOException {
+    final URL url = partialDownload.getUrl();
+    final PartialDownload.State state = partialDownload.load();
+    final PartialDownload.State segmentedState = null == state && 1 < options.getSegments()
+        ? retrieveSegmentedState(client, url, options) : state;
+    if (null != segmentedState && segmentedState.isSegmented()) {
+      try {
+        final SegmentedDownload segmentedDownload =
+            new SegmentedDownload(client, scheduler, partialDownload, segmentedState, options.getHttpMetrics());
+        segmentedDownload.run();
+        // Segments complete out of order, the digests are computed in a single pass once the file is complete
+        digests.update(partialDownload.getPart(), segmentedState.getLength());
+        return segmentedDownload.getResponseTime();
+      } catch (final RangeNotSupportedException e) {
+        // The server ignored the range request or the file changed, downloads it again with a single stream
+      }
+      return downloadStream(client, scheduler, partialDownload, url, null, digests, options.getHttpMetrics());
+    }
+    return downloadStream(client, scheduler, partialDownload, url, state, digests, options.getHttpMetrics());
+  }
+
+  /**
+   * Gets the time to the first byte of given response: the time between the request was sent and the response
+   * headers were received.
+   *
+   * @param response the {@link Response response}
+   * @return the time to the first byte, in milliseconds
+   */
+  private static long getResponseTime(final @NotNull Response response) {
+    return Math.max(0L, response.receivedResponseAtMillis() - response.sentRequestAtMillis());
+  }
+
+  /**
+   * Checks whether a failed download is retried.
+   *
+   * @param e           the failure
+   * @param retryPolicy the {@link RetryPolicy retry policy}
+   * @return {@code true} for a transient network failure or a transient HTTP status
+   */
+  private static boolean isRetryable(final @NotNull IOException e, final @NotNull RetryPolicy retryPolicy) {
+    if (Thread.currentThread().isInterrupted()) {
+      return false;
+    }
+    return !(e instanceof UnexpectedStatusException) || retryPolicy.isRetryable(
+        ((UnexpectedStatusException) e).getStatus());
+  }
+
+  /**
+   * Waits before the next attempt.
+   *
+   * @param millis the delay, in milliseconds
+   * @throws MojoExecutionException when interrupted while waiting
+   */
+  private static void sleep(final long millis) throws MojoExecutionException {
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MojoExecutionException("Interrupted while waiting to retry the download", e);
+    }
+  }
+
+  /**
+   * Gets the digest algorithms to compute while downloading.
+   *
+   * @param options the download {@link DownloadOptions options}
+   * @return the algorithm names
+   */
+  private static List<String> getAlgorithms(final @NotNull DownloadOptions options) {
+    final List<String> algorithms = new ArrayList<>();
+    algorithms.add(MessageDigestAlgorithms.SHA_256);
+    if (StringUtils.isNotBlank(options.getMd5())) {
+      algorithms.add(MessageDigestAlgorithms.MD5);
+    }
+    return algorithms;
+  }
+
+  /**
+   * Verifies the expected digests of the downloaded file, then moves it to its destination.
+   *
+   * @param partialDownload the completed {@link PartialDownload download}
+   * @param destination     the destination file
+   * @param options         the download {@link DownloadOptions options}
+   * @param digests         the computed digests, by algorithm name
+   * @throws MojoExecutionException when issue occurred while moving the file
+   * @throws MojoFailureException   when the checksum is not valid
+   */
+  private static void verifyAndPromote(final @NotNull PartialDownload partialDownload, final @NotNull File destination,
+      final @NotNull DownloadOptions options, final @NotNull Map<String, String> digests)
+      throws MojoExecutionException, MojoFailureException {
+    final boolean valid = isExpected(options.getSha256(), digests.get(MessageDigestAlgorithms.SHA_256))
+        && isExpected(options.getMd5(), digests.get(MessageDigestAlgorithms.MD5));
+    try {
+      if (!valid) {
+        partialDownload.discard();
+        throw new MojoFailureException(MessageFormat.format("{0} checksum is not valid", destination.getName()));
+      }
+      partialDownload.promote();
     } catch (final IOException e) {
-      throw new MojoExecutionException(MessageFormat.format("Unable to download PaperMC from {0}", url), e);
-    } catch (final OutOfMemoryError e) {
-      throw new MojoExecutionException("Unable to create buffer to download PaperMC. Not enough memory space", e);
+      throw new MojoExecutionException(
+          MessageFormat.format("Unable to move downloaded file to {0}", destination.getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * Checks whether the computed digest matches the expected one.
+   *
+   * @param expected the expected digest, can be {@code null} when nothing is expected
+   * @param actual   the computed digest
+   * @return {@code true} when no digest is expected or when both digests match
+   */
+  private static boolean isExpected(final @Nullable String expected, final @Nullable String actual) {
+    return StringUtils.isBlank(expected) || expected.equalsIgnoreCase(actual);
+  }
+
+  /**
+   * Downloads the file with a single stream, resuming the previous interrupted download when possible.
+   *
+   * @param client          the {@link OkHttpClient HTTP client}
+   * @param scheduler       the {@link DownloadScheduler scheduler} of the transfers
+   * @param partialDownload the {@link PartialDownload download} to write
+   * @param url             the source URL
+   * @param state           the state of the previous interrupted download, can be {@code null}
+   * @param digests         the {@link DigestAccumulator digests} fed with every byte of the file
+   * @param httpMetrics     the {@link HttpMetrics recorder} of the request, can be {@code null}
+   * @return the time to the first byte, in milliseconds, of the response
+   * @throws IOException when issue occurred while downloading the file
+   */
+  private static long downloadStream(final @NotNull OkHttpClient client, final @NotNull DownloadScheduler scheduler,
+      final @NotNull PartialDownload partialDownload, final URL url, final @Nullable PartialDownload.State state,
+      final @NotNull DigestAccumulator digests, final @Nullable HttpMetrics httpMetrics) throws IOException {
+    final Request.Builder requestBuilder = new Request.Builder().url(url).tag(HttpMetrics.class, httpMetrics);
+    if (null != state) {
+      requestBuilder.header("Range", "bytes=" + state.getOffset() + '-');
+      if (!partialDownload.isContentAddressed()) {
+        // Without expected digest, only the bytes of the same version of the file are kept
+        requestBuilder.header("If-Range", state.getValidator());
+      }
+    }
+    try (final DownloadScheduler.Transfer transfer = scheduler.start(url);
+        final Response response = client.newCall(requestBuilder.build()).execute()) {
+      final long responseTime = getResponseTime(response);
+      final int status = response.code();
+      final ResponseBody body = response.body();
+      if (HTTP_OK != status && HTTP_PARTIAL != status || null == body) {
+        throw new UnexpectedStatusException(status, response.header("Retry-After"));
+      }
+      // The server answers with the whole file when the validator does not match anymore
+      final boolean resumed = null != state && HTTP_PARTIAL == status;
+      PartialDownload.State current = resumed ? state : new PartialDownload.State(response.header("ETag"),
+          response.header("Last-Modified"), 0L);
+      partialDownload.save(current);
+      if (resumed) {
+        // Only the bytes downloaded by the previous run are read back
+        digests.update(partialDownload.getPart(), current.getOffset());
+      }
+
+      try (final FileOutputStream out = new FileOutputStream(partialDownload.getPart(), resumed);
+          final InputStream in = body.byteStream()) {
+        // Drops the bytes written after the last saved offset
+        out.getChannel().truncate(current.getOffset());
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long position = current.getOffset();
+        int bytesRead;
+        try {
+          while (-1 != (bytesRead = in.read(buffer))) {
+            out.write(buffer, 0, bytesRead);
+            digests.update(buffer, 0, bytesRead);
+            position += bytesRead;
+            transfer.throttle(bytesRead);
+            if (RESUME_CHECKPOINT_SIZE <= position - current.getOffset()) {
+              // The saved offset never gets ahead of the bytes flushed to the disk
+              out.getChannel().force(false);
+              current = current.withOffset(position);
+              partialDownload.save(current);
+            }
+          }
+        } finally {
+          partialDownload.save(current.withOffset(position));
+        }
+      }
+      return responseTime;
+    }
+  }
+
+  /**
+   * Retrieves the length and the validator of the remote file to download it as several segments.
+   *
+   * @param client  the {@link OkHttpClient HTTP client}
+   * @param url     the source URL
+   * @param options the download {@link DownloadOptions options}
+   * @return the state of the segmented download, or {@code null} when byte ranges are not supported or the file is too
+   *     small to be segmented
+   * @throws IOException when issue occurred while calling the server
+   */
+  private static @Nullable PartialDownload.State retrieveSegmentedState(final @NotNull OkHttpClient client,
+      final URL url, final @NotNull DownloadOptions options) throws IOException {
+    final Request request = new Request.Builder().url(url).head().tag(HttpMetrics.class, options.getHttpMetrics())
+        .build();
+    final long length;
+    final String etag;
+    final String lastModified;
+    try (final Response response = client.newCall(request).execute()) {
+      final String contentLength = response.header("Content-Length");
+      if (HTTP_OK != response.code() || !"bytes".equalsIgnoreCase(response.header("Accept-Ranges"))
+          || null == contentLength) {
+        return null;
+      }
+      length = Long.parseLong(contentLength.trim());
+      etag = response.header("ETag");
+      lastModified = response.header("Last-Modified");
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+    final int segments = options.computeSegmentCount(length);
+    return 1 < segments ? PartialDownload.State.segmented(etag, lastModified, length, segments) : null;
+  }
+
+  /**
+   * Download of a file as several byte ranges fetched concurrently into a preallocated file. The position reached by
+   * every segment is saved in the sidecar, so an interrupted download resumes every segment where it stopped.
+   */
+  private static final class SegmentedDownload {
+
+    private final OkHttpClient client;
+    private final DownloadScheduler scheduler;
+    private final PartialDownload partialDownload;
+    private final PartialDownload.State state;
+    private final HttpMetrics httpMetrics;
+    private final AtomicLongArray positions;
+    private final List<Call> calls = new CopyOnWriteArrayList<>();
+    private final AtomicLong responseTime = new AtomicLong(-1L);
+    private volatile boolean failed;
+    private FileChannel channel;
+
+    /**
+     * Constructor.
+     *
+     * @param client          the {@link OkHttpClient HTTP client}
+     * @param scheduler       the {@link DownloadScheduler scheduler} of the transfers
+     * @param partialDownload the {@link PartialDownload download} to write
+     * @param state           the segmented state to start from
+     * @param httpMetrics     the {@link HttpMetrics recorder} of the requests, can be {@code null}
+     */
+    SegmentedDownload(final @NotNull OkHttpClient client, final @NotNull DownloadScheduler scheduler,
+        final @NotNull PartialDownload partialDownload, final @NotNull PartialDownload.State state,
+        final @Nullable HttpMetrics httpMetrics) {
+      this.client = client;
+      this.scheduler = scheduler;
+      this.partialDownload = partialDownload;
+      this.state = state;
+      this.httpMetrics = httpMetrics;
+      positions = new AtomicLongArray(state.getPositions());
+    }
+
+    /**
+     * Downloads the remaining bytes of every segment.
+     *
+     * @throws IOException when issue occurred while downloading the file
+     */
+    void run() throws IOException {
+      final int segments = state.getSegmentCount();
+      final ExecutorService executor = Executors.newFixedThreadPool(segments);
+      IOException failure = null;
+      try (final RandomAccessFile file = new RandomAccessFile(partialDownload.getPart(), "rw")) {
+        file.setLength(state.getLength());
+        channel = file.getChannel();
+        partialDownload.save(state);
+        final List<Future<Void>> futures = new ArrayList<>(segments);
+        for (int i = 0; i < segments; i++) {
+          final int segment = i;
+          futures.add(executor.submit(() -> downloadSegment(segment)));
+        }
+        // Every segment is awaited, so the positions saved at the end are final
+        for (final Future<Void> future : futures) {
+          try {
+            future.get();
+          } catch (final ExecutionException e) {
+            if (null == failure) {
+              failure = e.getCause() instanceof IOException ? (IOException) e.getCause()
+                  : new IOException("Unable to download segment", e.getCause());
+              cancel();
+            }
+          }
+        }
+        checkpoint(false);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+        throw new InterruptedIOException("Segmented download interrupted");
+      } finally {
+        executor.shutdown();
+      }
+      if (null != failure) {
+        throw failure;
+      }
+    }
+
+    /**
+     * Gets the time to the first byte of the first segment response.
+     *
+     * @return the time to the first byte, in milliseconds, negative when every segment was already downloaded
+     */
+    long getResponseTime() {
+      return responseTime.get();
+    }
+
+    /**
+     * Cancels the requests of the segments still running.
+     */
+    private void cancel() {
+      failed = true;
+      calls.forEach(Call::cancel);
+    }
+
+    /**
+     * Saves the position reached by every segment.
+     *
+     * @param force whether the written bytes are flushed to the disk first
+     * @throws IOException when issue occurred while saving the state
+     */
+    private synchronized void checkpoint(final boolean force) throws IOException {
+      // A position is updated once its bytes are written, the positions read first never get ahead of the disk
+      final long[] snapshot = new long[positions.length()];
+      for (int i = 0; i < snapshot.length; i++) {
+        snapshot[i] = positions.get(i);
+      }
+      if (force) {
+        channel.force(false);
+      }
+      partialDownload.save(state.withPositions(snapshot));
+    }
+
+    /**
+     * Downloads the remaining byte range of a segment and writes it at its position in the destination file.
+     *
+     * @param segment the segment index
+     * @return nothing
+     * @throws IOException when issue occurred while downloading the segment
+     */
+    private Void downloadSegment(final int segment) throws IOException {
+      final URL url = partialDownload.getUrl();
+      final long start = positions.get(segment);
+      final long end = state.getSegmentEnd(segment);
+      if (start > end) {
+        return null;
+      }
+      final Request.Builder requestBuilder = new Request.Builder().url(url).tag(HttpMetrics.class, httpMetrics)
+          .header("Range", "bytes=" + start + '-' + end);
+      if (null != state.getValidator() && !partialDownload.isContentAddressed()) {
+        // Every segment must come from the same version of the file
+        requestBuilder.header("If-Range", state.getValidator());
+      }
+      final Call call = client.newCall(requestBuilder.build());
+      calls.add(call);
+      if (failed) {
+        call.cancel();
+      }
+      long position = start;
+      try (final DownloadScheduler.Transfer transfer = scheduler.start(url);
+          final Response response = call.execute()) {
+        responseTime.compareAndSet(-1L, FileDownloader.getResponseTime(response));
+        final ResponseBody body = response.body();
+        if (HTTP_OK == response.code()) {
+          // The server ignored the range or the validator does not match anymore
+          throw new RangeNotSupportedException();
+        }
+        if (HTTP_PARTIAL != response.code() || null == body) {
+          throw new UnexpectedStatusException(response.code(), response.header("Retry-After"));
+        }
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long checkpointed = position;
+        try (final InputStream in = body.byteStream()) {
+          int bytesRead;
+          while (position <= end && -1 != (bytesRead = in.read(buffer))) {
+            final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, (int) Math.min(bytesRead, end - position + 1));
+            while (byteBuffer.hasRemaining()) {
+              position += channel.write(byteBuffer, position);
+            }
+            positions.set(segment, position);
+            transfer.throttle(bytesRead);
+            if (RESUME_CHECKPOINT_SIZE <= position - checkpointed) {
+              checkpoint(true);
+              checkpointed = position;
+            }
+          }
+        }
+      }
+      if (end + 1 != position) {
+        throw new IOException(MessageFormat.format("Segment {0}-{1} is truncated", start, end));
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Signals that the server answered with an unexpected HTTP status.
+   */
+  private static final class UnexpectedStatusException extends IOException {
+
+    private static final long serialVersionUID = 6310742093417702815L;
+    private final int status;
+    private final String retryAfter;
+
+    /**
+     * Constructor.
+     *
+     * @param status     the HTTP status
+     * @param retryAfter the {@literal Retry-After} header, can be {@code null}
+     */
+    UnexpectedStatusException(final int status, final @Nullable String retryAfter) {
+      super(MessageFormat.format("Unexpected HTTP status {0}", status));
+      this.status = status;
+      this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets the HTTP status.
+     *
+     * @return the HTTP status
+     */
+    int getStatus() {
+      return status;
+    }
+
+    /**
+     * Gets the {@literal Retry-After} header.
+     *
+     * @return the header value, can be {@code null}
+     */
+    @Nullable String getRetryAfter() {
+      return retryAfter;
+    }
+  }
+
+  /**
+   * Signals that the server does not honour a range request.
+   */
+  private static final class RangeNotSupportedException extends IOException {
+
+    private static final long serialVersionUID = -2419712413960012584L;
+
+    /**
+     * Default constructor.
+     */
+    RangeNotSupportedException() {
+      super("Range request not supported");
     }
   }
 }
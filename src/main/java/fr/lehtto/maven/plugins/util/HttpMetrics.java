@@ -0,0 +1,124 @@
+package fr.lehtto.maven.plugins.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import okhttp3.Request;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Recorder of the {@link RequestMetrics timings} of the requests sent by a goal through the {@link HttpTransport shared
+ * HTTP client}.
+ * <p>
+ * The client is shared by the goals of every module of the build, so each goal records the requests tagged with its
+ * own recorder, see {@link Request.Builder#tag(Class, Object)}. The requests without recorder are not recorded.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class HttpMetrics {
+
+  private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+  private final List<RequestMetrics> recorded = new ArrayList<>();
+
+  /**
+   * Records the timings of a completed request.
+   *
+   * @param metrics the {@link RequestMetrics timings}
+   */
+  void record(final @NotNull RequestMetrics metrics) {
+    synchronized (recorded) {
+      recorded.add(metrics);
+    }
+  }
+
+  /**
+   * Gets and clears the timings recorded since the previous call.
+   *
+   * @return the recorded {@link RequestMetrics timings}, in completion order
+   */
+  public @NotNull List<RequestMetrics> drain() {
+    synchronized (recorded) {
+      final List<RequestMetrics> drained = new ArrayList<>(recorded);
+      recorded.clear();
+      return drained;
+    }
+  }
+
+  /**
+   * Formats a human readable summary of given timings. The throughput of a transfer too short to be measured is
+   * {@literal n/a}.
+   *
+   * @param metrics the {@link RequestMetrics timings}
+   * @return the summary lines, the first one being the totals, the next ones the requests
+   */
+  public static @NotNull List<String> summarize(final @NotNull List<RequestMetrics> metrics) {
+    if (metrics.isEmpty()) {
+      return Collections.emptyList();
+    }
+    long bytes = 0L;
+    long totalMillis = 0L;
+    int reused = 0;
+    final List<String> lines = new ArrayList<>();
+    lines.add("");
+    for (final RequestMetrics request : metrics) {
+      bytes += request.getBytes();
+      totalMillis += request.getTotalMillis();
+      reused += request.isConnectionReused() ? 1 : 0;
+      lines.add(String.format(Locale.ROOT,
+          "  %s %s -> %s | dns %d ms, connect %d ms, tls %d ms, ttfb %d ms, transfer %d ms | %.2f Mo at %s%s",
+          request.getMethod(), request.getUrl(), null == request.getError() ? request.getStatus() : request.getError(),
+          request.getDnsMillis(), request.getConnectMillis(), request.getTlsMillis(), request.getTtfbMillis(),
+          request.getTransferMillis(), request.getBytes() / BYTES_PER_MEGABYTE,
+          0L < request.getTransferMillis()
+              ? String.format(Locale.ROOT, "%.2f Mo/s", request.getBytesPerSecond() / BYTES_PER_MEGABYTE) : "n/a",
+          request.isConnectionReused() ? " (reused)" : ""));
+    }
+    lines.set(0, String.format(Locale.ROOT, "HTTP requests: %d (%d on reused connections), %.2f Mo, %d ms",
+        metrics.size(), reused, bytes / BYTES_PER_MEGABYTE, totalMillis));
+    return lines;
+  }
+
+  /**
+   * Writes given timings as JSON.
+   *
+   * @param file    the destination {@link File file}
+   * @param goal    the goal which sent the requests
+   * @param metrics the {@link RequestMetrics timings}
+   * @throws MojoExecutionException when the file cannot be written
+   */
+  public static void writeJson(final @NotNull File file, final @NotNull String goal,
+      final @NotNull List<RequestMetrics> metrics) throws MojoExecutionException {
+    final Map<String, Object> report = new LinkedHashMap<>();
+    report.put("goal", goal);
+    report.put("timestamp", Instant.now().toString());
+    report.put("requests", metrics);
+    try {
+      final Path directory = file.getAbsoluteFile().getParentFile().toPath();
+      Files.createDirectories(directory);
+      final Path temporary = Files.createTempFile(directory, file.getName(), ".tmp");
+      try {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), report);
+        Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          MessageFormat.format("Unable to write HTTP metrics to {0}", file.getAbsolutePath()), e);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.util.Objects;
+
+/**
+ * Settings of the shared HTTP client.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class HttpSettings {
+
+  private static final int DEFAULT_POOL_SIZE = 8;
+  private static final long DEFAULT_KEEP_ALIVE = 300L;
+  private static final long DEFAULT_CONNECT_TIMEOUT = 10L;
+  private static final long DEFAULT_READ_TIMEOUT = 30L;
+
+  /**
+   * Maximum number of idle connections kept in the pool.
+   */
+  private int poolSize;
+  /**
+   * Duration, in seconds, during which an idle connection is kept alive.
+   */
+  private long keepAlive;
+  /**
+   * Connection timeout, in seconds.
+   */
+  private long connectTimeout;
+  /**
+   * Read timeout, in seconds.
+   */
+  private long readTimeout;
+
+  /**
+   * Default constructor.
+   */
+  public HttpSettings() {
+    poolSize = DEFAULT_POOL_SIZE;
+    keepAlive = DEFAULT_KEEP_ALIVE;
+    connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    readTimeout = DEFAULT_READ_TIMEOUT;
+  }
+
+  /**
+   * Gets the maximum number of idle connections kept in the pool.
+   *
+   * @return the pool size
+   */
+  public int getPoolSize() {
+    return poolSize;
+  }
+
+  /**
+   * Sets the maximum number of idle connections kept in the pool.
+   *
+   * @param poolSize the pool size
+   */
+  public void setPoolSize(final int poolSize) {
+    this.poolSize = Math.max(1, poolSize);
+  }
+
+  /**
+   * Gets the duration, in seconds, during which an idle connection is kept alive.
+   *
+   * @return the keep alive duration
+   */
+  public long getKeepAlive() {
+    return keepAlive;
+  }
+
+  /**
+   * Sets the duration, in seconds, during which an idle connection is kept alive.
+   *
+   * @param keepAlive the keep alive duration
+   */
+  public void setKeepAlive(final long keepAlive) {
+    this.keepAlive = Math.max(1L, keepAlive);
+  }
+
+  /**
+   * Gets the connection timeout, in seconds.
+   *
+   * @return the connection timeout
+   */
+  public long getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  /**
+   * Sets the connection timeout, in seconds.
+   *
+   * @param connectTimeout the connection timeout, {@code 0} means no timeout
+   */
+  public void setConnectTimeout(final long connectTimeout) {
+    this.connectTimeout = Math.max(0L, connectTimeout);
+  }
+
+  /**
+   * Gets the read timeout, in seconds.
+   *
+   * @return the read timeout
+   */
+  public long getReadTimeout() {
+    return readTimeout;
+  }
+
+  /**
+   * Sets the read timeout, in seconds.
+   *
+   * @param readTimeout the read timeout, {@code 0} means no timeout
+   */
+  public void setReadTimeout(final long readTimeout) {
+    this.readTimeout = Math.max(0L, readTimeout);
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof HttpSettings)) {
+      return false;
+    }
+    final HttpSettings that = (HttpSettings) o;
+    return getPoolSize() == that.getPoolSize() && getKeepAlive() == that.getKeepAlive()
+        && getConnectTimeout() == that.getConnectTimeout() && getReadTimeout() == that.getReadTimeout();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getPoolSize(), getKeepAlive(), getConnectTimeout(), getReadTimeout());
+  }
+
+  @Override
+  public String toString() {
+    return "HttpSettings{" +
+        "poolSize=" + poolSize +
+        ", keepAlive=" + keepAlive +
+        ", connectTimeout=" + connectTimeout +
+        ", readTimeout=" + readTimeout +
+        '}';
+  }
+}
@@ -0,0 +1,86 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Holder of the {@link OkHttpClient HTTP client} shared by every PaperMC API call and every download of the build.
+ * <p>
+ * The client lives as long as the plugin class realm, so keep-alive connections (and HTTP/2 multiplexed ones) are
+ * reused across goals and modules instead of paying a new TCP and TLS handshake for each request. The timings of every
+ * request tagged with a {@link HttpMetrics recorder} are recorded into it.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class HttpTransport {
+
+  private static OkHttpClient client;
+  private static HttpSettings settings;
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private HttpTransport() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Gets the shared client with default settings.
+   *
+   * @return the shared {@link OkHttpClient client}
+   */
+  public static @NotNull OkHttpClient getClient() {
+    return getClient(new HttpSettings());
+  }
+
+  /**
+   * Gets the shared client configured with given settings.
+   * <p>
+   * A client with other timeouts still shares the connection pool and the dispatcher of the previous one, a new pool is
+   * only created when its size or keep alive duration changes.
+   *
+   * @param httpSettings the {@link HttpSettings settings} of the client
+   * @return the shared {@link OkHttpClient client}
+   */
+  public static synchronized @NotNull OkHttpClient getClient(final @NotNull HttpSettings httpSettings) {
+    if (null != client && httpSettings.equals(settings)) {
+      return client;
+    }
+
+    final OkHttpClient.Builder builder;
+    if (null != client && sharePool(settings, httpSettings)) {
+      builder = client.newBuilder();
+    } else {
+      builder = new OkHttpClient.Builder()
+          .connectionPool(new ConnectionPool(httpSettings.getPoolSize(), httpSettings.getKeepAlive(),
+              TimeUnit.SECONDS))
+          .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+          .eventListenerFactory(MetricsEventListener.FACTORY)
+          .retryOnConnectionFailure(true);
+    }
+    client = builder
+        .connectTimeout(httpSettings.getConnectTimeout(), TimeUnit.SECONDS)
+        .readTimeout(httpSettings.getReadTimeout(), TimeUnit.SECONDS)
+        .build();
+    client.dispatcher().setMaxRequestsPerHost(httpSettings.getPoolSize());
+    settings = httpSettings;
+    return client;
+  }
+
+  /**
+   * Checks whether a client configured with given settings can reuse the connection pool of the current client.
+   *
+   * @param current the {@link HttpSettings settings} of the current client
+   * @param next    the requested {@link HttpSettings settings}
+   * @return {@code true} when the pool size and keep alive duration are the same
+   */
+  private static boolean sharePool(final @NotNull HttpSettings current, final @NotNull HttpSettings next) {
+    return current.getPoolSize() == next.getPoolSize() && current.getKeepAlive() == next.getKeepAlive();
+  }
+}
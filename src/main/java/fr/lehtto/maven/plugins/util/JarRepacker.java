@@ -0,0 +1,108 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utility class to repack a JAR with uncompressed ({@link ZipEntry#STORED STORED}) entries.
+ * <p>
+ * A class loader reading a stored entry copies its bytes instead of inflating them, which shortens the enable of a
+ * plugin shading thousands of classes. The repacked JAR is larger and its entries are written in name order, once
+ * each: the entry resolved by {@link ZipFile#getEntry(String)}, the one a class loader reads, is kept when the source
+ * holds duplicates. The manifest stays first, as {@link java.util.jar.JarInputStream} expects.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class JarRepacker {
+
+  private static final String META_INF = "META-INF/";
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private JarRepacker() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Repacks given JAR to given destination, written atomically.
+   *
+   * @param source      the {@link File JAR} to repack
+   * @param destination the destination {@link File file}
+   * @return the number of entries of the repacked JAR
+   * @throws IOException when the JAR cannot be read or the destination cannot be written
+   */
+  public static int repack(final @NotNull File source, final @NotNull File destination) throws IOException {
+    try (final ZipFile zip = new ZipFile(source)) {
+      final Map<String, ZipEntry> entries = new TreeMap<>(JarRepacker::compareNames);
+      final Enumeration<? extends ZipEntry> enumeration = zip.entries();
+      while (enumeration.hasMoreElements()) {
+        final String name = enumeration.nextElement().getName();
+        entries.computeIfAbsent(name, zip::getEntry);
+      }
+      AtomicFiles.write(destination, out -> {
+        final CRC32 crc = new CRC32();
+        try (final ZipOutputStream zipOut = new ZipOutputStream(out)) {
+          for (final ZipEntry entry : entries.values()) {
+            final byte[] content;
+            try (final InputStream in = zip.getInputStream(entry)) {
+              content = IOUtils.toByteArray(in);
+            }
+            crc.reset();
+            crc.update(content);
+            final ZipEntry stored = new ZipEntry(entry.getName());
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(content.length);
+            stored.setCompressedSize(content.length);
+            stored.setCrc(crc.getValue());
+            stored.setTime(entry.getTime());
+            zipOut.putNextEntry(stored);
+            zipOut.write(content);
+            zipOut.closeEntry();
+          }
+        }
+      });
+      return entries.size();
+    }
+  }
+
+  /**
+   * Compares entry names: the {@code META-INF/} directory then the manifest come first, the other entries follow in
+   * name order.
+   *
+   * @param name  the entry name
+   * @param other the other entry name
+   * @return a negative integer, zero, or a positive integer as the entry comes before, is, or comes after the other
+   */
+  private static int compareNames(final @NotNull String name, final @NotNull String other) {
+    final int rank = rank(name);
+    final int otherRank = rank(other);
+    return rank == otherRank ? name.compareTo(other) : Integer.compare(rank, otherRank);
+  }
+
+  /**
+   * Ranks given entry name.
+   *
+   * @param name the entry name
+   * @return {@code 0} for the {@code META-INF/} directory, {@code 1} for the manifest, {@code 2} otherwise
+   */
+  private static int rank(final @NotNull String name) {
+    if (META_INF.equals(name)) {
+      return 0;
+    }
+    return JarFile.MANIFEST_NAME.equals(name) ? 1 : 2;
+  }
+}
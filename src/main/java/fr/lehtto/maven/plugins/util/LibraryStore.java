@@ -0,0 +1,227 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Content-addressed store of the library JARs extracted by the servers, shared between server directories.
+ * <p>
+ * The libraries of a server directory are moved to the store, keyed by their SHA256 digest, and replaced by hard links
+ * to the stored files, or symbolic links when the store is on another filesystem. A library is thus stored once
+ * whatever the number of projects and clean runs, and the server still finds it at its usual path. Libraries which
+ * are already hard links to a stored file, the same {@link BasicFileAttributes#fileKey() file key} as an entry, are
+ * skipped without being read; a library hard linked to another cache only is still shared.
+ * <p>
+ * The stored files are shared: they must never be modified in place.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class LibraryStore {
+
+  private static final String TEMPORARY_SUFFIX = ".tmp";
+
+  /**
+   * Root directory of the store.
+   */
+  private final File directory;
+  /**
+   * File keys of the stored files, read once.
+   */
+  private Set<Object> storedKeys;
+  private int shared;
+  private int alreadyShared;
+  private long bytesShared;
+
+  /**
+   * Constructor.
+   *
+   * @param directory the root directory of the store
+   */
+  public LibraryStore(final @NotNull File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Shares the libraries of given folder through the store.
+   *
+   * @param librariesFolder the libraries folder of a server directory
+   * @throws IOException when a library cannot be stored or linked
+   */
+  public void share(final @NotNull File librariesFolder) throws IOException {
+    if (!librariesFolder.isDirectory()) {
+      return;
+    }
+    final List<Path> libraries;
+    try (final Stream<Path> paths = Files.walk(librariesFolder.toPath())) {
+      libraries = paths.filter(path -> Files.isRegularFile(path) && !Files.isSymbolicLink(path))
+          .collect(Collectors.toList());
+    }
+    for (final Path library : libraries) {
+      if (isLinked(library)) {
+        alreadyShared++;
+      } else {
+        share(library);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of libraries replaced by a link to the store.
+   *
+   * @return the number of shared libraries
+   */
+  public int getShared() {
+    return shared;
+  }
+
+  /**
+   * Gets the number of libraries which were already links.
+   *
+   * @return the number of already shared libraries
+   */
+  public int getAlreadyShared() {
+    return alreadyShared;
+  }
+
+  /**
+   * Gets the number of bytes which are no longer duplicated.
+   *
+   * @return the number of shared bytes
+   */
+  public long getBytesShared() {
+    return bytesShared;
+  }
+
+  /**
+   * Moves given library to the store, or links it to the stored file with the same content.
+   *
+   * @param library the {@link Path path} of the library
+   * @throws IOException when the library cannot be stored or linked
+   */
+  private void share(final @NotNull Path library) throws IOException {
+    final String sha256;
+    try (final InputStream in = Files.newInputStream(library)) {
+      sha256 = DigestUtils.sha256Hex(in);
+    }
+    final File entry = getEntry(sha256);
+    Files.createDirectories(entry.getParentFile().toPath());
+    if (!entry.isFile()) {
+      try {
+        // Same filesystem: the library itself becomes the stored file
+        Files.createLink(entry.toPath(), library);
+        addStoredKey(entry.toPath());
+        shared++;
+        return;
+      } catch (final FileAlreadyExistsException e) {
+        // Stored concurrently by another build
+        bytesShared += entry.length();
+      } catch (final IOException | UnsupportedOperationException e) {
+        AtomicFiles.copy(library.toFile(), entry);
+        addStoredKey(entry.toPath());
+      }
+    } else {
+      bytesShared += entry.length();
+    }
+
+    // Links next to the library, then replaces it, so the library is never missing
+    final Path temporary = library.resolveSibling('.' + library.getFileName().toString() + TEMPORARY_SUFFIX);
+    try {
+      FileCopier.link(entry, temporary.toFile());
+      Files.move(temporary, library, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+    shared++;
+  }
+
+  /**
+   * Checks whether given library is already a hard link to a stored file. A library with several hard links may be
+   * linked to another cache only, such as the files patched by the Paperclip launcher, so its file key is compared with
+   * the ones of the stored files.
+   *
+   * @param library the {@link Path path} of the library
+   * @return {@code true} when the library is a stored file
+   * @throws IOException when the store cannot be read
+   */
+  private boolean isLinked(final @NotNull Path library) throws IOException {
+    final Object key = getFileKey(library);
+    // Unknown file key, the library is hashed
+    return null != key && getStoredKeys().contains(key);
+  }
+
+  /**
+   * Gets the file keys of the stored files, read on first call.
+   *
+   * @return the mutable set of file keys
+   * @throws IOException when the store cannot be read
+   */
+  private Set<Object> getStoredKeys() throws IOException {
+    if (null == storedKeys) {
+      storedKeys = new HashSet<>();
+      if (directory.isDirectory()) {
+        try (final Stream<Path> paths = Files.walk(directory.toPath(), 2)) {
+          paths.filter(Files::isRegularFile)
+              .map(LibraryStore::getFileKey)
+              .filter(Objects::nonNull)
+              .forEach(storedKeys::add);
+        }
+      }
+    }
+    return storedKeys;
+  }
+
+  /**
+   * Adds the file key of given stored file, once the file keys are read.
+   *
+   * @param entry the {@link Path path} of the stored file
+   */
+  private void addStoredKey(final @NotNull Path entry) {
+    final Object key = getFileKey(entry);
+    if (null != storedKeys && null != key) {
+      storedKeys.add(key);
+    }
+  }
+
+  /**
+   * Gets the file key of given file, identifying it whatever the hard link it is read through.
+   *
+   * @param path the {@link Path path} of the file
+   * @return the file key or {@code null} when the filesystem provides none
+   */
+  private static @Nullable Object getFileKey(final @NotNull Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the {@link File file} of the entry identified by given digest.
+   *
+   * @param sha256 the SHA256 digest
+   * @return the entry {@link File file}, which may not exist
+   */
+  private File getEntry(final @NotNull String sha256) {
+    final String key = sha256.toLowerCase(Locale.ROOT);
+    return new File(new File(directory, key.substring(0, 2)), key);
+  }
+}
@@ -0,0 +1,161 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link EventListener Listener} measuring the timings of a call and recording them into the {@link HttpMetrics
+ * recorder} the request is tagged with.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+final class MetricsEventListener extends EventListener {
+
+  /**
+   * Factory creating one listener per call.
+   */
+  static final Factory FACTORY = call -> new MetricsEventListener();
+
+  private final RequestMetrics metrics = new RequestMetrics();
+  private long callStart;
+  private long dnsStart;
+  private long connectStart;
+  private long secureConnectStart;
+  private long requestStart;
+  private long responseBodyStart;
+  private boolean connected;
+
+  /**
+   * Default constructor.
+   */
+  private MetricsEventListener() {
+    super();
+  }
+
+  @Override
+  public void callStart(final @NotNull Call call) {
+    callStart = System.nanoTime();
+    metrics.setMethod(call.request().method());
+    metrics.setUrl(call.request().url().toString());
+  }
+
+  @Override
+  public void dnsStart(final @NotNull Call call, final @NotNull String domainName) {
+    dnsStart = System.nanoTime();
+  }
+
+  @Override
+  public void dnsEnd(final @NotNull Call call, final @NotNull String domainName,
+      final @NotNull List<InetAddress> inetAddressList) {
+    metrics.setDnsMillis(metrics.getDnsMillis() + elapsedMillis(dnsStart));
+  }
+
+  @Override
+  public void connectStart(final @NotNull Call call, final @NotNull InetSocketAddress inetSocketAddress,
+      final @NotNull Proxy proxy) {
+    connected = true;
+    connectStart = System.nanoTime();
+  }
+
+  @Override
+  public void secureConnectStart(final @NotNull Call call) {
+    secureConnectStart = System.nanoTime();
+  }
+
+  @Override
+  public void secureConnectEnd(final @NotNull Call call, final @Nullable Handshake handshake) {
+    metrics.setTlsMillis(metrics.getTlsMillis() + elapsedMillis(secureConnectStart));
+  }
+
+  @Override
+  public void connectEnd(final @NotNull Call call, final @NotNull InetSocketAddress inetSocketAddress,
+      final @NotNull Proxy proxy, final @Nullable Protocol protocol) {
+    metrics.setConnectMillis(metrics.getConnectMillis() + elapsedMillis(connectStart));
+  }
+
+  @Override
+  public void connectFailed(final @NotNull Call call, final @NotNull InetSocketAddress inetSocketAddress,
+      final @NotNull Proxy proxy, final @Nullable Protocol protocol, final @NotNull IOException ioe) {
+    metrics.setConnectMillis(metrics.getConnectMillis() + elapsedMillis(connectStart));
+  }
+
+  @Override
+  public void connectionAcquired(final @NotNull Call call, final @NotNull Connection connection) {
+    metrics.setConnectionReused(!connected);
+  }
+
+  @Override
+  public void requestHeadersStart(final @NotNull Call call) {
+    requestStart = System.nanoTime();
+  }
+
+  @Override
+  public void responseHeadersStart(final @NotNull Call call) {
+    metrics.setTtfbMillis(elapsedMillis(requestStart));
+  }
+
+  @Override
+  public void responseHeadersEnd(final @NotNull Call call, final @NotNull Response response) {
+    metrics.setStatus(response.code());
+  }
+
+  @Override
+  public void responseBodyStart(final @NotNull Call call) {
+    responseBodyStart = System.nanoTime();
+  }
+
+  @Override
+  public void responseBodyEnd(final @NotNull Call call, final long byteCount) {
+    metrics.setTransferMillis(elapsedMillis(responseBodyStart));
+    metrics.setBytes(byteCount);
+  }
+
+  @Override
+  public void callEnd(final @NotNull Call call) {
+    metrics.setTotalMillis(elapsedMillis(callStart));
+    record(call);
+  }
+
+  @Override
+  public void callFailed(final @NotNull Call call, final @NotNull IOException ioe) {
+    metrics.setTotalMillis(elapsedMillis(callStart));
+    metrics.setError(ioe.toString());
+    record(call);
+  }
+
+  /**
+   * Records the timings into the recorder of the goal which sent the call, if any.
+   *
+   * @param call the completed {@link Call call}
+   */
+  private void record(final @NotNull Call call) {
+    final HttpMetrics recorder = call.request().tag(HttpMetrics.class);
+    if (null != recorder) {
+      recorder.record(metrics);
+    }
+  }
+
+  /**
+   * Computes the milliseconds elapsed since given time.
+   *
+   * @param start the start time, in nanoseconds
+   * @return the elapsed milliseconds
+   */
+  private static long elapsedMillis(final long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,170 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+/**
+ * Health of the HTTP endpoints (scheme, host and port) shared by every PaperMC API call and every download of the
+ * build, so that the requests prefer the fastest healthy mirror.
+ * <p>
+ * The latency of an endpoint is the moving average of its API response times. An endpoint failing with a transient
+ * error is avoided during a cooldown, which doubles with every consecutive failure; it is still used as a last resort.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class MirrorHealth {
+
+  private static final long BASE_COOLDOWN = 1000L;
+  private static final long MAX_COOLDOWN = 60_000L;
+  private static final int MAX_SHIFT = 10;
+  /**
+   * Weight of the last response time in the moving average.
+   */
+  private static final double LATENCY_WEIGHT = 0.3;
+  private static final Map<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+
+  /**
+   * Private constructor to hide the implicit public one.
+   */
+  private MirrorHealth() {
+    throw new AssertionError("Utility class");
+  }
+
+  /**
+   * Gets the URLs from which given resource can be fetched, best endpoint first: the healthy endpoints by latency, the
+   * ones with an unknown latency in their configured order, then the failing ones.
+   *
+   * @param url     the resource URL
+   * @param mirrors the base URLs of the mirrors: a URL starting with one of them can be fetched from the others
+   * @return the candidate URLs, containing at least the resource URL
+   */
+  public static @NotNull List<String> candidates(final @NotNull String url, final @Nullable List<String> mirrors) {
+    final List<String> candidates = new ArrayList<>();
+    final String base = null == mirrors ? null : mirrors.stream().filter(url::startsWith).findFirst().orElse(null);
+    if (null == base) {
+      candidates.add(url);
+      return candidates;
+    }
+    final String path = url.substring(base.length());
+    mirrors.forEach(mirror -> candidates.add(mirror + path));
+    // Snapshot of the health, the endpoints are updated concurrently
+    final long now = System.currentTimeMillis();
+    final Map<String, Long> unhealthyUntil = new HashMap<>();
+    final Map<String, Double> latencies = new HashMap<>();
+    candidates.forEach(candidate -> {
+      unhealthyUntil.put(candidate, getEndpoint(candidate).getUnhealthyUntil(now));
+      latencies.put(candidate, getEndpoint(candidate).getLatency());
+    });
+    // Stable sort, the configured order breaks the ties
+    candidates.sort(Comparator.comparing((String candidate) -> unhealthyUntil.get(candidate))
+        .thenComparing(latencies::get));
+    return candidates;
+  }
+
+  /**
+   * Records a response of the endpoint of given URL.
+   *
+   * @param url     the requested URL
+   * @param latency the response time, in milliseconds, negative when unknown
+   */
+  public static void recordSuccess(final @NotNull String url, final long latency) {
+    getEndpoint(url).recordSuccess(latency);
+  }
+
+  /**
+   * Records a transient failure of the endpoint of given URL.
+   *
+   * @param url the requested URL
+   */
+  public static void recordFailure(final @NotNull String url) {
+    getEndpoint(url).recordFailure();
+  }
+
+  /**
+   * Forgets the health of every endpoint.
+   */
+  @VisibleForTesting
+  static void reset() {
+    ENDPOINTS.clear();
+  }
+
+  /**
+   * Gets the health of the endpoint of given URL.
+   *
+   * @param url the URL
+   * @return the {@link Endpoint endpoint}
+   */
+  private static Endpoint getEndpoint(final @NotNull String url) {
+    String key;
+    try {
+      final URI uri = new URI(url);
+      key = uri.getScheme() + "://" + uri.getAuthority();
+    } catch (final URISyntaxException e) {
+      key = url;
+    }
+    return ENDPOINTS.computeIfAbsent(key, ignored -> new Endpoint());
+  }
+
+  /**
+   * Health of an endpoint.
+   */
+  private static final class Endpoint {
+
+    private double latency = Double.MAX_VALUE;
+    private int failures;
+    private long unhealthyUntil;
+
+    /**
+     * Gets the average response time.
+     *
+     * @return the latency, in milliseconds, {@link Double#MAX_VALUE} when unknown
+     */
+    synchronized double getLatency() {
+      return latency;
+    }
+
+    /**
+     * Gets the end of the cooldown of the endpoint.
+     *
+     * @param now the current time, in milliseconds
+     * @return the end of the cooldown, {@code 0} when the endpoint is healthy
+     */
+    synchronized long getUnhealthyUntil(final long now) {
+      return now < unhealthyUntil ? unhealthyUntil : 0L;
+    }
+
+    /**
+     * Records a response.
+     *
+     * @param responseTime the response time, in milliseconds, negative when unknown
+     */
+    synchronized void recordSuccess(final long responseTime) {
+      failures = 0;
+      unhealthyUntil = 0L;
+      if (0L <= responseTime) {
+        latency = Double.MAX_VALUE == latency ? responseTime
+            : LATENCY_WEIGHT * responseTime + (1.0 - LATENCY_WEIGHT) * latency;
+      }
+    }
+
+    /**
+     * Records a transient failure.
+     */
+    synchronized void recordFailure() {
+      final long cooldown = Math.min(MAX_COOLDOWN, BASE_COOLDOWN << Math.min(failures, MAX_SHIFT));
+      failures++;
+      unhealthyUntil = System.currentTimeMillis() + cooldown;
+    }
+  }
+}
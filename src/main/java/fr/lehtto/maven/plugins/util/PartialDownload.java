@@ -0,0 +1,412 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Properties;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Partially downloaded file. The bytes are written to a {@literal .part} file next to the destination, and a sidecar
+ * file keeps the HTTP validator and the offset reached, or the position reached by every segment of a segmented
+ * download, so an interrupted download can be resumed with range requests.
+ * <p>
+ * When the SHA256 digest of the file is expected, the download is identified by this digest rather than by its URL: it
+ * is resumed from any mirror, without validator, the verification of the digest rejecting a file which changed.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+final class PartialDownload {
+
+  private static final String PART_SUFFIX = ".part";
+  private static final String SIDECAR_SUFFIX = ".part.properties";
+  private static final String SOURCE_KEY = "source";
+  private static final String SHA256_PREFIX = "sha256:";
+  private static final String ETAG_KEY = "etag";
+  private static final String LAST_MODIFIED_KEY = "lastModified";
+  private static final String OFFSET_KEY = "offset";
+  private static final String LENGTH_KEY = "length";
+  private static final String SEGMENTS_KEY = "segments";
+  private static final String SEPARATOR = ",";
+
+  private final File destination;
+  private final File part;
+  private final File sidecar;
+  private final URL url;
+  private final String sha256;
+
+  /**
+   * Constructor.
+   *
+   * @param destination the final destination {@link File file}
+   * @param url         the source URL
+   * @param sha256      the expected SHA256 digest of the file, can be {@code null}
+   */
+  PartialDownload(final @NotNull File destination, final @NotNull URL url, final @Nullable String sha256) {
+    this.destination = destination;
+    this.url = url;
+    this.sha256 = null == sha256 ? null : sha256.toLowerCase(Locale.ROOT);
+    part = new File(destination.getParentFile(), destination.getName() + PART_SUFFIX);
+    sidecar = new File(destination.getParentFile(), destination.getName() + SIDECAR_SUFFIX);
+  }
+
+  /**
+   * Gets the source URL.
+   *
+   * @return the source URL
+   */
+  URL getUrl() {
+    return url;
+  }
+
+  /**
+   * Checks whether the download is identified by the expected digest of the file rather than by its URL.
+   *
+   * @return {@code true} when the SHA256 digest of the file is expected
+   */
+  boolean isContentAddressed() {
+    return null != sha256;
+  }
+
+  /**
+   * Gets the {@literal .part} file.
+   *
+   * @return the {@literal .part} file
+   */
+  File getPart() {
+    return part;
+  }
+
+  /**
+   * Gets the sidecar file.
+   *
+   * @return the sidecar file
+   */
+  File getSidecar() {
+    return sidecar;
+  }
+
+  /**
+   * Loads the state of a previous interrupted download of the same file, or of the same URL when no digest is expected.
+   *
+   * @return the saved state, or {@code null} when the download cannot be resumed
+   */
+  @Nullable State load() {
+    if (!part.isFile() || !sidecar.isFile()) {
+      return null;
+    }
+    final Properties properties = new Properties();
+    try (final InputStream in = new FileInputStream(sidecar)) {
+      properties.load(in);
+    } catch (final IOException e) {
+      return null;
+    }
+    if (!getSource().equals(properties.getProperty(SOURCE_KEY))) {
+      return null;
+    }
+
+    final String etag = properties.getProperty(ETAG_KEY);
+    final String lastModified = properties.getProperty(LAST_MODIFIED_KEY);
+    if (!isContentAddressed() && null == etag && null == lastModified) {
+      return null;
+    }
+    if (null != properties.getProperty(SEGMENTS_KEY)) {
+      return loadSegments(properties, etag, lastModified);
+    }
+    final long offset;
+    try {
+      // Bytes after the saved offset may not have reached the disk
+      offset = Math.min(Long.parseLong(properties.getProperty(OFFSET_KEY, "0")), part.length());
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+    if (0 >= offset) {
+      return null;
+    }
+    return new State(etag, lastModified, offset);
+  }
+
+  /**
+   * Loads the state of a previous interrupted segmented download.
+   *
+   * @param properties   the content of the sidecar
+   * @param etag         the saved {@literal ETag}, can be {@code null}
+   * @param lastModified the saved {@literal Last-Modified}, can be {@code null}
+   * @return the saved state, or {@code null} when the download cannot be resumed
+   */
+  private @Nullable State loadSegments(final @NotNull Properties properties, final @Nullable String etag,
+      final @Nullable String lastModified) {
+    final State state;
+    try {
+      final String[] values = properties.getProperty(SEGMENTS_KEY).split(SEPARATOR);
+      final long[] positions = new long[values.length];
+      for (int i = 0; i < values.length; i++) {
+        positions[i] = Long.parseLong(values[i].trim());
+      }
+      state = new State(etag, lastModified, Long.parseLong(properties.getProperty(LENGTH_KEY, "-1")), positions);
+    } catch (final NumberFormatException e) {
+      return null;
+    }
+    // The .part file is preallocated, its length does not tell how far the segments went
+    if (part.length() != state.getLength()) {
+      return null;
+    }
+    for (int i = 0; i < state.getSegmentCount(); i++) {
+      final long position = state.getPositions()[i];
+      if (position < state.getSegmentStart(i) || position > state.getSegmentEnd(i) + 1) {
+        return null;
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Saves the state of the download.
+   *
+   * @param state the {@link State state} to save
+   * @throws IOException when the sidecar cannot be written
+   */
+  void save(final @NotNull State state) throws IOException {
+    if (!isContentAddressed() && null == state.getEtag() && null == state.getLastModified()) {
+      // Without digest nor validator the download cannot be safely resumed
+      Files.deleteIfExists(sidecar.toPath());
+      return;
+    }
+    final Properties properties = new Properties();
+    properties.setProperty(SOURCE_KEY, getSource());
+    if (state.isSegmented()) {
+      final StringBuilder segments = new StringBuilder();
+      for (final long position : state.getPositions()) {
+        segments.append(0 < segments.length() ? SEPARATOR : "").append(position);
+      }
+      properties.setProperty(LENGTH_KEY, String.valueOf(state.getLength()));
+      properties.setProperty(SEGMENTS_KEY, segments.toString());
+    } else {
+      properties.setProperty(OFFSET_KEY, String.valueOf(state.getOffset()));
+    }
+    if (null != state.getEtag()) {
+      properties.setProperty(ETAG_KEY, state.getEtag());
+    }
+    if (null != state.getLastModified()) {
+      properties.setProperty(LAST_MODIFIED_KEY, state.getLastModified());
+    }
+    try (final OutputStream out = new FileOutputStream(sidecar)) {
+      properties.store(out, "servermc partial download");
+    }
+  }
+
+  /**
+   * Flushes the completed {@literal .part} file to the disk, moves it to its destination and deletes the sidecar.
+   *
+   * @throws IOException when the file cannot be moved
+   */
+  void promote() throws IOException {
+    AtomicFiles.promote(part.toPath(), destination.toPath());
+    Files.deleteIfExists(sidecar.toPath());
+  }
+
+  /**
+   * Gets the identifier of the downloaded file saved in the sidecar.
+   *
+   * @return the expected SHA256 digest, prefixed by {@value #SHA256_PREFIX}, or the URL when no digest is expected
+   */
+  private String getSource() {
+    return isContentAddressed() ? SHA256_PREFIX + sha256 : url.toString();
+  }
+
+  /**
+   * Deletes the {@literal .part} file and its sidecar.
+   *
+   * @throws IOException when the files cannot be deleted
+   */
+  void discard() throws IOException {
+    Files.deleteIfExists(part.toPath());
+    Files.deleteIfExists(sidecar.toPath());
+  }
+
+  /**
+   * State of a partial download, downloaded with a single stream or as several segments.
+   */
+  static final class State {
+
+    private final String etag;
+    private final String lastModified;
+    private final long offset;
+    private final long length;
+    private final long[] positions;
+
+    /**
+     * Constructor of the state of a single stream download.
+     *
+     * @param etag         the {@literal ETag} header of the response, can be {@code null}
+     * @param lastModified the {@literal Last-Modified} header of the response, can be {@code null}
+     * @param offset       the number of bytes already downloaded
+     */
+    State(final @Nullable String etag, final @Nullable String lastModified, final long offset) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.offset = offset;
+      length = -1L;
+      positions = null;
+    }
+
+    /**
+     * Constructor of the state of a segmented download.
+     *
+     * @param etag         the {@literal ETag} header of the response, can be {@code null}
+     * @param lastModified the {@literal Last-Modified} header of the response, can be {@code null}
+     * @param length       the file length
+     * @param positions    the position of the next byte to download, by segment
+     */
+    State(final @Nullable String etag, final @Nullable String lastModified, final long length, final long[] positions) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.length = length;
+      this.positions = positions.clone();
+      long downloaded = 0L;
+      for (int i = 0; i < positions.length; i++) {
+        downloaded += positions[i] - getSegmentStart(i);
+      }
+      offset = downloaded;
+    }
+
+    /**
+     * Creates the state of a segmented download which has not started yet.
+     *
+     * @param etag         the {@literal ETag} header of the response, can be {@code null}
+     * @param lastModified the {@literal Last-Modified} header of the response, can be {@code null}
+     * @param length       the file length
+     * @param segments     the number of segments
+     * @return new instance of {@link State}
+     */
+    static State segmented(final @Nullable String etag, final @Nullable String lastModified, final long length,
+        final int segments) {
+      final long[] starts = new long[segments];
+      for (int i = 0; i < segments; i++) {
+        starts[i] = i * (length / segments);
+      }
+      return new State(etag, lastModified, length, starts);
+    }
+
+    /**
+     * Gets the {@literal ETag} header of the response.
+     *
+     * @return the ETag, can be {@code null}
+     */
+    @Nullable String getEtag() {
+      return etag;
+    }
+
+    /**
+     * Gets the {@literal Last-Modified} header of the response.
+     *
+     * @return the last modification date, can be {@code null}
+     */
+    @Nullable String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Gets the validator to send in the {@literal If-Range} header.
+     *
+     * @return the ETag, or the last modification date when there is no ETag, can be {@code null}
+     */
+    @Nullable String getValidator() {
+      return null != etag ? etag : lastModified;
+    }
+
+    /**
+     * Gets the number of bytes already downloaded.
+     *
+     * @return the offset
+     */
+    long getOffset() {
+      return offset;
+    }
+
+    /**
+     * Checks whether the file is downloaded as several segments.
+     *
+     * @return {@code true} for a segmented download
+     */
+    boolean isSegmented() {
+      return null != positions;
+    }
+
+    /**
+     * Gets the file length of a segmented download.
+     *
+     * @return the file length, {@code -1} for a single stream download
+     */
+    long getLength() {
+      return length;
+    }
+
+    /**
+     * Gets the number of segments.
+     *
+     * @return the number of segments, {@code 0} for a single stream download
+     */
+    int getSegmentCount() {
+      return null == positions ? 0 : positions.length;
+    }
+
+    /**
+     * Gets the position of the next byte to download, by segment.
+     *
+     * @return the positions, {@code null} for a single stream download
+     */
+    long[] getPositions() {
+      return null == positions ? null : positions.clone();
+    }
+
+    /**
+     * Gets the first byte position of a segment.
+     *
+     * @param segment the segment index
+     * @return the first byte position, inclusive
+     */
+    long getSegmentStart(final int segment) {
+      return segment * (length / getSegmentCount());
+    }
+
+    /**
+     * Gets the last byte position of a segment, the last segment ending with the file.
+     *
+     * @param segment the segment index
+     * @return the last byte position, inclusive
+     */
+    long getSegmentEnd(final int segment) {
+      return getSegmentCount() - 1 == segment ? length - 1 : getSegmentStart(segment + 1) - 1;
+    }
+
+    /**
+     * Creates a copy of this state with a new offset.
+     *
+     * @param newOffset the new offset
+     * @return new instance of {@link State}
+     */
+    State withOffset(final long newOffset) {
+      return new State(etag, lastModified, newOffset);
+    }
+
+    /**
+     * Creates a copy of this segmented state with new positions.
+     *
+     * @param newPositions the position of the next byte to download, by segment
+     * @return new instance of {@link State}
+     */
+    State withPositions(final long[] newPositions) {
+      return new State(etag, lastModified, length, newPositions);
+    }
+  }
+}
@@ -0,0 +1,553 @@
+package fr.lehtto.maven.plugins.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Incremental synchronization of the server plugins folder.
+ * <p>
+ * A manifest, stored in the plugins folder, records the source, the size, the modification time and the SHA256 digest
+ * of every deployed JAR. An unchanged plugin is neither copied nor downloaded again, so the JARs of the plugins folder
+ * keep their modification time, and a JAR deployed by a previous run which is no longer configured is removed. Linked
+ * JARs are recorded without digest, so they are never read.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class PluginSync {
+
+  /**
+   * Name of the manifest file.
+   */
+  public static final String MANIFEST_NAME = ".servermc-plugins.json";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final File folder;
+  private final Map<String, Entry> entries;
+  private final Set<String> synchronizedNames = new HashSet<>();
+  private boolean modified;
+  private int copied;
+  private int linked;
+  private int unchanged;
+  private int removed;
+  private long bytesWritten;
+
+  /**
+   * Constructor.
+   *
+   * @param folder  the plugins folder
+   * @param entries the manifest entries by deployed file name
+   */
+  private PluginSync(final @NotNull File folder, final @NotNull Map<String, Entry> entries) {
+    this.folder = folder;
+    this.entries = entries;
+  }
+
+  /**
+   * Loads the manifest of given plugins folder.
+   * <p>
+   * A missing or corrupted manifest is handled as an empty one: every plugin is copied again and nothing is removed.
+   *
+   * @param folder the plugins folder
+   * @return new instance of {@link PluginSync}
+   */
+  public static @NotNull PluginSync load(final @NotNull File folder) {
+    final File manifest = new File(folder, MANIFEST_NAME);
+    Map<String, Entry> entries = new TreeMap<>();
+    if (manifest.isFile()) {
+      try {
+        entries = MAPPER.readValue(manifest, new TypeReference<TreeMap<String, Entry>>() {
+        });
+      } catch (final IOException e) {
+        // A corrupted manifest is rebuilt
+        entries = new TreeMap<>();
+      }
+    }
+    return new PluginSync(folder, entries);
+  }
+
+  /**
+   * Checks whether the deployed plugin is up to date with its source. The deployed JAR must be untouched since the
+   * previous run and:
+   * <ul>
+   *   <li>a local source must have the recorded size and modification time, or the recorded content</li>
+   *   <li>a remote source must declare the recorded SHA256 digest</li>
+   * </ul>
+   * A linked JAR is not up to date when the plugin has to be copied.
+   *
+   * @param name       the name of the deployed JAR
+   * @param source     the identifier of the plugin source, a file path or a URL
+   * @param sourceFile the local source {@link File file}, {@code null} for a remote source
+   * @param sha256     the declared SHA256 digest of a remote source
+   * @param link       whether the plugin has to be linked instead of copied
+   * @return {@code true} when the plugin does not have to be copied again
+   * @throws MojoExecutionException when the source cannot be read
+   */
+  public boolean isUpToDate(final @NotNull String name, final @NotNull String source, final @Nullable File sourceFile,
+      final @Nullable String sha256, final boolean link) throws MojoExecutionException {
+    final Entry entry = entries.get(name);
+    if (null == entry || !source.equals(entry.getSource()) || !link && entry.isLinked()
+        || !isDeployed(name, entry)) {
+      return false;
+    }
+
+    final boolean upToDate;
+    if (null == sourceFile) {
+      upToDate = StringUtils.isNotBlank(sha256) && sha256.equalsIgnoreCase(entry.getSha256());
+    } else if (!sourceFile.isFile()) {
+      upToDate = false;
+    } else if (sourceFile.length() == entry.getSourceSize()
+        && sourceFile.lastModified() == entry.getSourceLastModified()) {
+      upToDate = true;
+    } else if (null != entry.getSha256() && sourceFile.length() == entry.getSize()
+        && sha256(sourceFile).equals(entry.getSha256())) {
+      // Rebuilt with the same content
+      entry.setSourceSize(sourceFile.length());
+      entry.setSourceLastModified(sourceFile.lastModified());
+      modified = true;
+      upToDate = true;
+    } else {
+      upToDate = false;
+    }
+    if (upToDate) {
+      synchronizedNames.add(name);
+      unchanged++;
+    }
+    return upToDate;
+  }
+
+  /**
+   * Records a plugin copied into the plugins folder.
+   *
+   * @param deployed   the deployed {@link File JAR}
+   * @param source     the identifier of the plugin source
+   * @param sourceFile the local source {@link File file}, {@code null} for a remote source
+   * @param additional whether the plugin is an additional plugin
+   * @throws MojoExecutionException when the deployed JAR cannot be read
+   */
+  public void recordCopy(final @NotNull File deployed, final @NotNull String source, final @Nullable File sourceFile,
+      final boolean additional) throws MojoExecutionException {
+    record(deployed, source, sourceFile, additional, sha256(deployed), false);
+    copied++;
+    bytesWritten += deployed.length();
+  }
+
+  /**
+   * Records a plugin linked into the plugins folder.
+   *
+   * @param deployed   the deployed {@link File JAR}
+   * @param source     the identifier of the plugin source
+   * @param sourceFile the local source {@link File file}
+   * @param additional whether the plugin is an additional plugin
+   * @param method     the {@link FileCopier.Method method} used to deploy the JAR
+   * @throws MojoExecutionException when the JAR was copied and cannot be read
+   */
+  public void recordLink(final @NotNull File deployed, final @NotNull String source, final @NotNull File sourceFile,
+      final boolean additional, final @NotNull FileCopier.Method method) throws MojoExecutionException {
+    if (FileCopier.Method.COPY == method) {
+      recordCopy(deployed, source, sourceFile, additional);
+      return;
+    }
+    record(deployed, source, sourceFile, additional, null, true);
+    linked++;
+  }
+
+  /**
+   * Moves a staged plugin into the plugins folder, unless the deployed JAR already has the same content.
+   *
+   * @param staged     the staged {@link File JAR}
+   * @param source     the identifier of the plugin source
+   * @param sourceFile the local source {@link File file}, {@code null} for a remote source
+   * @param additional whether the plugin is an additional plugin
+   * @throws MojoExecutionException when the plugin cannot be moved
+   */
+  public void deploy(final @NotNull File staged, final @NotNull String source, final @Nullable File sourceFile,
+      final boolean additional) throws MojoExecutionException {
+    final String name = staged.getName();
+    final File deployed = new File(folder, name);
+    final String sha256 = sha256(staged);
+    final Entry entry = entries.get(name);
+    if (null != entry && sha256.equals(entry.getSha256()) && isDeployed(name, entry)) {
+      // Downloaded again but unchanged
+      record(deployed, source, sourceFile, additional, sha256, false);
+      unchanged++;
+      return;
+    }
+
+    try {
+      Files.createDirectories(folder.toPath());
+      Files.move(staged.toPath(), deployed.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (final IOException e) {
+      throw new MojoExecutionException("Unable to move plugin " + name + " to plugins directory", e);
+    }
+    record(deployed, source, sourceFile, additional, sha256, false);
+    copied++;
+    bytesWritten += deployed.length();
+  }
+
+  /**
+   * Removes the JARs deployed by a previous run which were not synchronized by this one. A JAR modified since its
+   * deployment is kept, only its manifest entry is dropped. A symbolic link whose source is gone is removed too.
+   *
+   * @param additional whether the additional plugins were synchronized, otherwise their JARs are kept
+   * @return the names of the removed JARs
+   * @throws MojoExecutionException when a JAR cannot be removed
+   */
+  public @NotNull List<String> removeStale(final boolean additional) throws MojoExecutionException {
+    final List<String> removedNames = new ArrayList<>();
+    for (final Map.Entry<String, Entry> entry : new ArrayList<>(entries.entrySet())) {
+      final String name = entry.getKey();
+      if (synchronizedNames.contains(name) || !additional && entry.getValue().isAdditional()) {
+        continue;
+      }
+      final Path deployed = new File(folder, name).toPath();
+      // A dangling link fails the checks following it
+      final boolean danglingLink = entry.getValue().isLinked() && Files.isSymbolicLink(deployed)
+          && !Files.exists(deployed);
+      if (danglingLink || isDeployed(name, entry.getValue())) {
+        try {
+          Files.delete(deployed);
+        } catch (final IOException e) {
+          throw new MojoExecutionException(MessageFormat.format("Unable to remove plugin {0}", name), e);
+        }
+        removedNames.add(name);
+        removed++;
+      }
+      entries.remove(name);
+      modified = true;
+    }
+    return removedNames;
+  }
+
+  /**
+   * Writes the manifest, when it has changed.
+   *
+   * @throws MojoExecutionException when the manifest cannot be written
+   */
+  public void save() throws MojoExecutionException {
+    if (!modified) {
+      return;
+    }
+    final File manifest = new File(folder, MANIFEST_NAME);
+    try {
+      Files.createDirectories(folder.toPath());
+      final Path temporary = Files.createTempFile(folder.toPath(), MANIFEST_NAME, ".tmp");
+      try {
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), entries);
+        Files.move(temporary, manifest.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (final IOException e) {
+      throw new MojoExecutionException(
+          MessageFormat.format("Unable to write plugins manifest {0}", manifest.getAbsolutePath()), e);
+    }
+    modified = false;
+  }
+
+  /**
+   * Gets the number of JARs copied into the plugins folder.
+   *
+   * @return the number of copied JARs
+   */
+  public int getCopied() {
+    return copied;
+  }
+
+  /**
+   * Gets the number of JARs linked into the plugins folder.
+   *
+   * @return the number of linked JARs
+   */
+  public int getLinked() {
+    return linked;
+  }
+
+  /**
+   * Gets the number of up to date JARs.
+   *
+   * @return the number of up to date JARs
+   */
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * Gets the number of removed JARs.
+   *
+   * @return the number of removed JARs
+   */
+  public int getRemoved() {
+    return removed;
+  }
+
+  /**
+   * Gets the number of bytes written into the plugins folder.
+   *
+   * @return the number of written bytes
+   */
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  /**
+   * Records a deployed JAR in the manifest.
+   *
+   * @param deployed   the deployed {@link File JAR}
+   * @param source     the identifier of the plugin source
+   * @param sourceFile the local source {@link File file}, {@code null} for a remote source
+   * @param additional whether the plugin is an additional plugin
+   * @param sha256     the SHA256 digest of the deployed JAR, {@code null} for a linked JAR
+   * @param link       whether the JAR is linked to its source
+   */
+  private void record(final @NotNull File deployed, final @NotNull String source, final @Nullable File sourceFile,
+      final boolean additional, final @Nullable String sha256, final boolean link) {
+    final Entry entry = new Entry();
+    entry.setSource(source);
+    entry.setSourceSize(null == sourceFile ? -1L : sourceFile.length());
+    entry.setSourceLastModified(null == sourceFile ? -1L : sourceFile.lastModified());
+    entry.setSize(deployed.length());
+    entry.setLastModified(deployed.lastModified());
+    entry.setSha256(sha256);
+    entry.setAdditional(additional);
+    entry.setLinked(link);
+    if (!entry.equals(entries.put(deployed.getName(), entry))) {
+      modified = true;
+    }
+    synchronizedNames.add(deployed.getName());
+  }
+
+  /**
+   * Checks whether the deployed JAR is untouched since its deployment.
+   *
+   * @param name  the name of the deployed JAR
+   * @param entry the manifest {@link Entry entry}
+   * @return {@code true} when the JAR has the recorded size and modification time
+   */
+  private boolean isDeployed(final @NotNull String name, final @NotNull Entry entry) {
+    final File deployed = new File(folder, name);
+    return deployed.isFile() && deployed.length() == entry.getSize()
+        && deployed.lastModified() == entry.getLastModified();
+  }
+
+  /**
+   * Computes the SHA256 digest of given file.
+   *
+   * @param file the {@link File file}
+   * @return the hexadecimal digest
+   * @throws MojoExecutionException when the file cannot be read
+   */
+  private static @NotNull String sha256(final @NotNull File file) throws MojoExecutionException {
+    try (final InputStream in = new FileInputStream(file)) {
+      return DigestUtils.sha256Hex(in);
+    } catch (final IOException e) {
+      throw new MojoExecutionException(MessageFormat.format("Unable to read plugin {0}", file.getName()), e);
+    }
+  }
+
+  /**
+   * Manifest entry of a deployed JAR.
+   */
+  public static class Entry {
+
+    private String source;
+    private long sourceSize;
+    private long sourceLastModified;
+    private long size;
+    private long lastModified;
+    private String sha256;
+    private boolean additional;
+    private boolean linked;
+
+    /**
+     * Gets the identifier of the plugin source.
+     *
+     * @return the file path or the URL of the source
+     */
+    public String getSource() {
+      return source;
+    }
+
+    /**
+     * Sets the identifier of the plugin source.
+     *
+     * @param source the file path or the URL of the source
+     */
+    public void setSource(final String source) {
+      this.source = source;
+    }
+
+    /**
+     * Gets the size of the local source.
+     *
+     * @return the size, {@code -1} for a remote source
+     */
+    public long getSourceSize() {
+      return sourceSize;
+    }
+
+    /**
+     * Sets the size of the local source.
+     *
+     * @param sourceSize the size, {@code -1} for a remote source
+     */
+    public void setSourceSize(final long sourceSize) {
+      this.sourceSize = sourceSize;
+    }
+
+    /**
+     * Gets the modification time of the local source.
+     *
+     * @return the modification time, {@code -1} for a remote source
+     */
+    public long getSourceLastModified() {
+      return sourceLastModified;
+    }
+
+    /**
+     * Sets the modification time of the local source.
+     *
+     * @param sourceLastModified the modification time, {@code -1} for a remote source
+     */
+    public void setSourceLastModified(final long sourceLastModified) {
+      this.sourceLastModified = sourceLastModified;
+    }
+
+    /**
+     * Gets the size of the deployed JAR.
+     *
+     * @return the size
+     */
+    public long getSize() {
+      return size;
+    }
+
+    /**
+     * Sets the size of the deployed JAR.
+     *
+     * @param size the size
+     */
+    public void setSize(final long size) {
+      this.size = size;
+    }
+
+    /**
+     * Gets the modification time of the deployed JAR.
+     *
+     * @return the modification time
+     */
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Sets the modification time of the deployed JAR.
+     *
+     * @param lastModified the modification time
+     */
+    public void setLastModified(final long lastModified) {
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * Gets the SHA256 digest of the deployed JAR.
+     *
+     * @return the hexadecimal digest, {@code null} for a linked JAR
+     */
+    public String getSha256() {
+      return sha256;
+    }
+
+    /**
+     * Sets the SHA256 digest of the deployed JAR.
+     *
+     * @param sha256 the hexadecimal digest
+     */
+    public void setSha256(final String sha256) {
+      this.sha256 = sha256;
+    }
+
+    /**
+     * Whether the JAR is an additional plugin.
+     *
+     * @return {@code true} for an additional plugin
+     */
+    public boolean isAdditional() {
+      return additional;
+    }
+
+    /**
+     * Sets whether the JAR is an additional plugin.
+     *
+     * @param additional {@code true} for an additional plugin
+     */
+    public void setAdditional(final boolean additional) {
+      this.additional = additional;
+    }
+
+    /**
+     * Whether the JAR is linked to its source.
+     *
+     * @return {@code true} for a hard or symbolic link
+     */
+    public boolean isLinked() {
+      return linked;
+    }
+
+    /**
+     * Sets whether the JAR is linked to its source.
+     *
+     * @param linked {@code true} for a hard or symbolic link
+     */
+    public void setLinked(final boolean linked) {
+      this.linked = linked;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      final Entry entry = (Entry) o;
+      return getSourceSize() == entry.getSourceSize() && getSourceLastModified() == entry.getSourceLastModified()
+          && getSize() == entry.getSize() && getLastModified() == entry.getLastModified()
+          && isAdditional() == entry.isAdditional() && isLinked() == entry.isLinked()
+          && Objects.equals(getSource(), entry.getSource()) && Objects.equals(getSha256(), entry.getSha256());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(getSource(), getSourceSize(), getSourceLastModified(), getSize(), getLastModified(),
+          getSha256(), isAdditional(), isLinked());
+    }
+  }
+}
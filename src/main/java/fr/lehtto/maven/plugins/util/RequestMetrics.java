@@ -0,0 +1,303 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Timings of an HTTP request sent by the shared HTTP client.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class RequestMetrics {
+
+  private static final double MILLIS_PER_SECOND = 1000.0;
+
+  private String method;
+  private String url;
+  private int status;
+  private String error;
+  private boolean connectionReused;
+  private long dnsMillis;
+  private long connectMillis;
+  private long tlsMillis;
+  private long ttfbMillis;
+  private long transferMillis;
+  private long totalMillis;
+  private long bytes;
+
+  /**
+   * Default constructor.
+   */
+  public RequestMetrics() {
+    status = -1;
+  }
+
+  /**
+   * Gets the HTTP method.
+   *
+   * @return the method
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * Sets the HTTP method.
+   *
+   * @param method the method
+   */
+  public void setMethod(final String method) {
+    this.method = method;
+  }
+
+  /**
+   * Gets the requested URL.
+   *
+   * @return the URL
+   */
+  public String getUrl() {
+    return url;
+  }
+
+  /**
+   * Sets the requested URL.
+   *
+   * @param url the URL
+   */
+  public void setUrl(final String url) {
+    this.url = url;
+  }
+
+  /**
+   * Gets the response status.
+   *
+   * @return the status, {@code -1} when no response is received
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * Sets the response status.
+   *
+   * @param status the status
+   */
+  public void setStatus(final int status) {
+    this.status = status;
+  }
+
+  /**
+   * Gets the error of the failed request.
+   *
+   * @return the error message, {@code null} when the request succeeded
+   */
+  public @Nullable String getError() {
+    return error;
+  }
+
+  /**
+   * Sets the error of the failed request.
+   *
+   * @param error the error message
+   */
+  public void setError(final @Nullable String error) {
+    this.error = error;
+  }
+
+  /**
+   * Whether the request reused a pooled connection, without DNS lookup, connection nor TLS handshake.
+   *
+   * @return {@code true} when the connection was reused
+   */
+  public boolean isConnectionReused() {
+    return connectionReused;
+  }
+
+  /**
+   * Sets whether the request reused a pooled connection.
+   *
+   * @param connectionReused {@code true} when the connection was reused
+   */
+  public void setConnectionReused(final boolean connectionReused) {
+    this.connectionReused = connectionReused;
+  }
+
+  /**
+   * Gets the duration of the DNS lookup.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getDnsMillis() {
+    return dnsMillis;
+  }
+
+  /**
+   * Sets the duration of the DNS lookup.
+   *
+   * @param dnsMillis the duration, in milliseconds
+   */
+  public void setDnsMillis(final long dnsMillis) {
+    this.dnsMillis = dnsMillis;
+  }
+
+  /**
+   * Gets the duration of the connection, TLS handshake included.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getConnectMillis() {
+    return connectMillis;
+  }
+
+  /**
+   * Sets the duration of the connection, TLS handshake included.
+   *
+   * @param connectMillis the duration, in milliseconds
+   */
+  public void setConnectMillis(final long connectMillis) {
+    this.connectMillis = connectMillis;
+  }
+
+  /**
+   * Gets the duration of the TLS handshake.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getTlsMillis() {
+    return tlsMillis;
+  }
+
+  /**
+   * Sets the duration of the TLS handshake.
+   *
+   * @param tlsMillis the duration, in milliseconds
+   */
+  public void setTlsMillis(final long tlsMillis) {
+    this.tlsMillis = tlsMillis;
+  }
+
+  /**
+   * Gets the time to first byte, from the request sending to the response headers.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getTtfbMillis() {
+    return ttfbMillis;
+  }
+
+  /**
+   * Sets the time to first byte.
+   *
+   * @param ttfbMillis the duration, in milliseconds
+   */
+  public void setTtfbMillis(final long ttfbMillis) {
+    this.ttfbMillis = ttfbMillis;
+  }
+
+  /**
+   * Gets the duration of the response body transfer.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getTransferMillis() {
+    return transferMillis;
+  }
+
+  /**
+   * Sets the duration of the response body transfer.
+   *
+   * @param transferMillis the duration, in milliseconds
+   */
+  public void setTransferMillis(final long transferMillis) {
+    this.transferMillis = transferMillis;
+  }
+
+  /**
+   * Gets the duration of the whole call.
+   *
+   * @return the duration, in milliseconds
+   */
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  /**
+   * Sets the duration of the whole call.
+   *
+   * @param totalMillis the duration, in milliseconds
+   */
+  public void setTotalMillis(final long totalMillis) {
+    this.totalMillis = totalMillis;
+  }
+
+  /**
+   * Gets the number of bytes of the response body.
+   *
+   * @return the number of bytes
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Sets the number of bytes of the response body.
+   *
+   * @param bytes the number of bytes
+   */
+  public void setBytes(final long bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Gets the throughput of the response body transfer.
+   *
+   * @return the throughput, in bytes per second, {@code 0} when the transfer is too short to be measured
+   */
+  public long getBytesPerSecond() {
+    return 0 < transferMillis ? (long) (bytes * MILLIS_PER_SECOND / transferMillis) : 0L;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RequestMetrics)) {
+      return false;
+    }
+    final RequestMetrics that = (RequestMetrics) o;
+    return getStatus() == that.getStatus() && isConnectionReused() == that.isConnectionReused()
+        && getDnsMillis() == that.getDnsMillis() && getConnectMillis() == that.getConnectMillis()
+        && getTlsMillis() == that.getTlsMillis() && getTtfbMillis() == that.getTtfbMillis()
+        && getTransferMillis() == that.getTransferMillis() && getTotalMillis() == that.getTotalMillis()
+        && getBytes() == that.getBytes() && Objects.equals(getMethod(), that.getMethod())
+        && Objects.equals(getUrl(), that.getUrl()) && Objects.equals(getError(), that.getError());
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getMethod(), getUrl(), getStatus(), getError(), isConnectionReused(), getDnsMillis(),
+        getConnectMillis(), getTlsMillis(), getTtfbMillis(), getTransferMillis(), getTotalMillis(), getBytes());
+  }
+
+  @Override
+  public @NotNull String toString() {
+    return "RequestMetrics{" +
+        "method='" + method + '\'' +
+        ", url='" + url + '\'' +
+        ", status=" + status +
+        ", error='" + error + '\'' +
+        ", connectionReused=" + connectionReused +
+        ", dnsMillis=" + dnsMillis +
+        ", connectMillis=" + connectMillis +
+        ", tlsMillis=" + tlsMillis +
+        ", ttfbMillis=" + ttfbMillis +
+        ", transferMillis=" + transferMillis +
+        ", totalMillis=" + totalMillis +
+        ", bytes=" + bytes +
+        '}';
+  }
+}
@@ -0,0 +1,189 @@
+package fr.lehtto.maven.plugins.util;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Retry policy of the HTTP requests failing with a transient error: a connection failure, a timeout or a
+ * {@literal 408}, {@literal 429}, {@literal 500}, {@literal 502}, {@literal 503} or {@literal 504} status.
+ * <p>
+ * The delay before a retry grows exponentially from the initial backoff up to the maximum one, half of it being random
+ * so that concurrent builds do not retry in lockstep. A {@literal Retry-After} header sent by the server replaces the
+ * computed delay, bounded by the maximum backoff.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public class RetryPolicy {
+
+  private static final int DEFAULT_RETRIES = 3;
+  private static final long DEFAULT_INITIAL_BACKOFF = 500L;
+  private static final long DEFAULT_MAX_BACKOFF = 30_000L;
+  private static final int MAX_SHIFT = 20;
+  private static final Set<Integer> RETRYABLE_STATUSES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(408, 429, 500, 502, 503, 504)));
+
+  /**
+   * Maximum number of retries of a request.
+   */
+  private int retries;
+  /**
+   * Delay, in milliseconds, before the first retry.
+   */
+  private long initialBackoff;
+  /**
+   * Maximum delay, in milliseconds, before a retry.
+   */
+  private long maxBackoff;
+
+  /**
+   * Default constructor.
+   */
+  public RetryPolicy() {
+    retries = DEFAULT_RETRIES;
+    initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    maxBackoff = DEFAULT_MAX_BACKOFF;
+  }
+
+  /**
+   * Gets the maximum number of retries of a request.
+   *
+   * @return the maximum number of retries
+   */
+  public int getRetries() {
+    return retries;
+  }
+
+  /**
+   * Sets the maximum number of retries of a request.
+   *
+   * @param retries the maximum number of retries, {@code 0} disables the retries
+   */
+  public void setRetries(final int retries) {
+    this.retries = Math.max(0, retries);
+  }
+
+  /**
+   * Gets the delay, in milliseconds, before the first retry.
+   *
+   * @return the initial backoff
+   */
+  public long getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  /**
+   * Sets the delay, in milliseconds, before the first retry.
+   *
+   * @param initialBackoff the initial backoff
+   */
+  public void setInitialBackoff(final long initialBackoff) {
+    this.initialBackoff = Math.max(1L, initialBackoff);
+  }
+
+  /**
+   * Gets the maximum delay, in milliseconds, before a retry.
+   *
+   * @return the maximum backoff
+   */
+  public long getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  /**
+   * Sets the maximum delay, in milliseconds, before a retry.
+   *
+   * @param maxBackoff the maximum backoff
+   */
+  public void setMaxBackoff(final long maxBackoff) {
+    this.maxBackoff = Math.max(1L, maxBackoff);
+  }
+
+  /**
+   * Checks whether a response with given status is retried.
+   *
+   * @param status the HTTP status
+   * @return {@code true} when the status signals a transient error
+   */
+  public boolean isRetryable(final int status) {
+    return RETRYABLE_STATUSES.contains(status);
+  }
+
+  /**
+   * Computes the delay before given retry.
+   *
+   * @param retry      the index of the retry, {@code 0} for the first one
+   * @param retryAfter the {@literal Retry-After} header of the failed response, can be {@code null}
+   * @return the delay, in milliseconds
+   */
+  public long computeDelay(final int retry, final @Nullable String retryAfter) {
+    final long requested = parseRetryAfter(retryAfter);
+    if (0L <= requested) {
+      return Math.min(requested, maxBackoff);
+    }
+    final long backoff = Math.min(maxBackoff, initialBackoff << Math.min(Math.max(0, retry), MAX_SHIFT));
+    // Equal jitter: the delay still grows while concurrent retries spread
+    return backoff / 2L + ThreadLocalRandom.current().nextLong(backoff / 2L + 1L);
+  }
+
+  /**
+   * Parses a {@literal Retry-After} header, a number of seconds or an HTTP date.
+   *
+   * @param retryAfter the header value, can be {@code null}
+   * @return the delay, in milliseconds, or {@code -1} when the header is missing or invalid
+   */
+  static long parseRetryAfter(final @Nullable String retryAfter) {
+    if (null == retryAfter || retryAfter.trim().isEmpty()) {
+      return -1L;
+    }
+    final String value = retryAfter.trim();
+    try {
+      return TimeUnit.SECONDS.toMillis(Math.max(0L, Long.parseLong(value)));
+    } catch (final NumberFormatException e) {
+      // Not a number of seconds, an HTTP date
+    }
+    try {
+      final long date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+      return Math.max(0L, date - System.currentTimeMillis());
+    } catch (final DateTimeParseException e) {
+      return -1L;
+    }
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RetryPolicy)) {
+      return false;
+    }
+    final RetryPolicy that = (RetryPolicy) o;
+    return getRetries() == that.getRetries() && getInitialBackoff() == that.getInitialBackoff()
+        && getMaxBackoff() == that.getMaxBackoff();
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getRetries(), getInitialBackoff(), getMaxBackoff());
+  }
+
+  @Override
+  public String toString() {
+    return "RetryPolicy{" +
+        "retries=" + retries +
+        ", initialBackoff=" + initialBackoff +
+        ", maxBackoff=" + maxBackoff +
+        '}';
+  }
+}
@@ -10,16 +10,21 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.function.Predicate;
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
@@ -80,6 +85,60 @@ class CleanMojoTest {
     verify(cleanMojo).deleteDir(eq(serverDirectory), any());
   }
 
+  /**
+   * The libraries store and the targets of links are never deleted.
+   *
+   * @param temporaryDirectory the project directory
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Libraries store")
+  @Test
+  void librariesStore(@TempDir final File temporaryDirectory) throws Exception {
+    // INPUTS
+    final File server = new File(temporaryDirectory, "server");
+    final File store = new File(server, "store");
+    final File stored = new File(store, "ab/abcdef");
+    final File linked = new File(temporaryDirectory, "shared/library.jar");
+    writeFile(new File(server, "libraries/library.jar"));
+    writeFile(stored);
+    writeFile(linked);
+    Files.createSymbolicLink(new File(server, "link").toPath(), linked.getParentFile().toPath());
+    setField("serverDirectory", server);
+    setField("librariesStore", store);
+
+    // CALL
+    cleanMojo.execute();
+
+    // ASSERT
+    assertThat(server.list()).containsExactly("store");
+    assertThat(stored).exists();
+    assertThat(linked).exists();
+  }
+
+  /**
+   * Writes a file.
+   *
+   * @param file the {@link File file}
+   * @throws IOException when issue occurred
+   */
+  private static void writeFile(final File file) throws IOException {
+    FileUtils.writeStringToFile(file, "library", StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Sets a field of the server MOJO.
+   *
+   * @param name  the field name
+   * @param value the field value
+   * @throws NoSuchFieldException   when issue occurred
+   * @throws IllegalAccessException when issue occurred
+   */
+  private void setField(final String name, final Object value) throws NoSuchFieldException, IllegalAccessException {
+    final Field field = AbstractServerMcMojo.class.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(cleanMojo, value);
+  }
+
   /**
    * Tests for {@link CleanMojo#deleteDir(File, Predicate)}.
    */
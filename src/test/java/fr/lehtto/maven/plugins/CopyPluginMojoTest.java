@@ -4,6 +4,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -11,14 +13,28 @@ import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import fr.lehtto.maven.plugins.util.DownloadOptions;
 import fr.lehtto.maven.plugins.util.FileDownloader;
+import fr.lehtto.maven.plugins.util.PluginSync;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -27,6 +43,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
@@ -34,7 +51,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
-import org.mockito.stubbing.Answer;
+import org.mockito.invocation.InvocationOnMock;
 
 /**
  * Tests for {@link CopyPluginMojo}.
@@ -64,6 +81,8 @@ class CopyPluginMojoTest {
 
   @Captor
   ArgumentCaptor<File> fileArgumentCaptor;
+  @Captor
+  ArgumentCaptor<DownloadOptions> optionsArgumentCaptor;
 
   /**
    * Setups tests.
@@ -131,6 +150,53 @@ class CopyPluginMojoTest {
       verify(serverDirectory).mkdirs();
     }
 
+    /**
+     * The plugins loaded in place are listed instead of copied, their previous copies are removed.
+     *
+     * @param temporaryDirectory the project directory
+     * @throws Exception when an issue occurred
+     */
+    @DisplayName("Add plugins")
+    @Test
+    void addPlugins(@TempDir final File temporaryDirectory) throws Exception {
+      // INPUTS
+      final File target = new File(temporaryDirectory, "target");
+      final File pluginJar = new File(target, jarName + ".jar");
+      FileUtils.writeStringToFile(pluginJar, "plugin", StandardCharsets.UTF_8);
+      final File source = new File(temporaryDirectory, "additional.jar");
+      FileUtils.writeStringToFile(source, "additional", StandardCharsets.UTF_8);
+      final Plugin plugin = new Plugin();
+      plugin.setName("additional");
+      plugin.setFile(source);
+      final File server = new File(temporaryDirectory, "server");
+      final File pluginsFolder = new File(server, "plugins");
+      final Field buildFolderField = CopyPluginMojo.class.getDeclaredField("buildFolder");
+      buildFolderField.setAccessible(true);
+      buildFolderField.set(copyPluginMojo, target);
+      final Field pluginSync = CopyPluginMojo.class.getDeclaredField("pluginSync");
+      pluginSync.setAccessible(true);
+      final Field addPluginsField = AbstractServerMcMojo.class.getDeclaredField("addPlugins");
+      addPluginsField.setAccessible(true);
+
+      // STUBBING
+      doReturn(server).when(copyPluginMojo).getServerDirectory();
+      doReturn(Collections.singletonList(plugin).iterator(), Collections.singletonList(plugin).iterator())
+          .when(additionalPlugins).iterator();
+      doReturn(true).when(copyPluginMojo).checkAddPluginSupport();
+      copyPluginMojo.execute();
+      assertThat(pluginsFolder.list())
+          .containsExactlyInAnyOrder(jarName + ".jar", "additional.jar", PluginSync.MANIFEST_NAME);
+      pluginSync.set(copyPluginMojo, null);
+      addPluginsField.set(copyPluginMojo, true);
+
+      // CALL
+      copyPluginMojo.execute();
+
+      // ASSERT
+      assertThat(pluginsFolder.list()).containsExactly(PluginSync.MANIFEST_NAME);
+      assertThat(copyPluginMojo.readAddedPlugins())
+          .containsExactly(pluginJar.getAbsoluteFile(), source.getAbsoluteFile());
+    }
   }
 
   /**
@@ -153,6 +219,7 @@ class CopyPluginMojoTest {
       final File pluginsFolder = mock(File.class);
       final File sourcePlugin = mock(File.class);
       final File destinationPluginJar = mock(File.class);
+      final PluginSync pluginSync = mock(PluginSync.class);
 
       // STUBBING
       doReturn(pluginsFolder).when(copyPluginMojo).createFile(serverDirectory, "plugins");
@@ -160,6 +227,7 @@ class CopyPluginMojoTest {
       doReturn(destinationPluginJar).when(copyPluginMojo).createFile(pluginsFolder, jarName + ".jar");
       doReturn(false).when(pluginsFolder).exists();
       doReturn(true).when(pluginsFolder).mkdirs();
+      doReturn(pluginSync).when(copyPluginMojo).getPluginSync(pluginsFolder);
       doNothing().when(copyPluginMojo).copyFile(sourcePlugin, destinationPluginJar);
 
       // CALL
@@ -172,6 +240,41 @@ class CopyPluginMojoTest {
       verify(pluginsFolder).exists();
       verify(pluginsFolder).mkdirs();
       verify(copyPluginMojo).copyFile(sourcePlugin, destinationPluginJar);
+      verify(pluginSync).recordCopy(eq(destinationPluginJar), any(), eq(sourcePlugin), eq(false));
+    }
+
+    /**
+     * The plugin JAR is repacked instead of copied.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Repack plugin")
+    @Test
+    void repackPlugin() throws Exception {
+      // MOCKS
+      final File pluginsFolder = mock(File.class);
+      final File sourcePlugin = mock(File.class);
+      final File destinationPluginJar = mock(File.class);
+      final PluginSync pluginSync = mock(PluginSync.class);
+      final Field repackPlugin = CopyPluginMojo.class.getDeclaredField("repackPlugin");
+      repackPlugin.setAccessible(true);
+      repackPlugin.set(copyPluginMojo, true);
+
+      // STUBBING
+      doReturn(pluginsFolder).when(copyPluginMojo).createFile(serverDirectory, "plugins");
+      doReturn(sourcePlugin).when(copyPluginMojo).createFile(buildFolder, jarName + ".jar");
+      doReturn(destinationPluginJar).when(copyPluginMojo).createFile(pluginsFolder, jarName + ".jar");
+      doReturn(true).when(pluginsFolder).exists();
+      doReturn(pluginSync).when(copyPluginMojo).getPluginSync(pluginsFolder);
+      doReturn(42).when(copyPluginMojo).repackFile(sourcePlugin, destinationPluginJar);
+
+      // CALL
+      copyPluginMojo.copyPlugin();
+
+      // VERIFY
+      verify(copyPluginMojo).repackFile(sourcePlugin, destinationPluginJar);
+      verify(copyPluginMojo, times(0)).copyFile(any(), any());
+      verify(pluginSync).recordCopy(eq(destinationPluginJar), startsWith("stored:"), eq(sourcePlugin), eq(false));
     }
 
     /**
@@ -214,6 +317,9 @@ class CopyPluginMojoTest {
   @Nested
   class CopyAdditionalPluginTests {
 
+    @TempDir
+    File temporaryDirectory;
+
     /**
      * With file path.
      *
@@ -226,14 +332,13 @@ class CopyPluginMojoTest {
       // MOCKS
       final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
       final File pluginFile = mock(File.class);
-      final File file = new File("");
       final String pluginName = "pluginName";
 
       // STUBBING
-      doReturn(file).when(copyPluginMojo).getServerDirectory();
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
       doReturn(plugins.iterator()).when(additionalPlugins).iterator();
       doReturn(pluginFile).when(plugins.get(0)).getFile();
-      doNothing().when(copyPluginMojo).copyFile(eq(pluginFile), any());
+      doAnswer(CopyPluginMojoTest::writeDestination).when(copyPluginMojo).copyFile(eq(pluginFile), any());
       doReturn(pluginName).when(plugins.get(0)).getName();
 
       // CALL
@@ -245,9 +350,10 @@ class CopyPluginMojoTest {
       verify(copyPluginMojo).copyFile(eq(pluginFile), fileArgumentCaptor.capture());
 
       // ASSERT
-      assertThat(fileArgumentCaptor.getValue())
-          .hasFileName(pluginName + ".jar")
-          .hasParent("/plugins");
+      assertThat(fileArgumentCaptor.getValue()).hasFileName(pluginName + ".jar");
+      assertThat(fileArgumentCaptor.getValue().getParentFile().getName()).startsWith(".plugins-staging");
+      assertThat(new File(temporaryDirectory, "plugins/" + pluginName + ".jar")).isFile();
+      assertThat(temporaryDirectory.list()).containsExactly("plugins");
     }
 
     /**
@@ -262,18 +368,16 @@ class CopyPluginMojoTest {
       try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
         // MOCKS
         final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
-        final File pluginFile = mock(File.class);
-        final File file = new File("");
         final String pluginName = "pluginName";
         final URL url = mock(URL.class);
 
         // STUBBING
-        doReturn(file).when(copyPluginMojo).getServerDirectory();
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
         doReturn(plugins.iterator()).when(additionalPlugins).iterator();
         doReturn(null).when(plugins.get(0)).getFile();
         doReturn(url).when(plugins.get(0)).getUrl();
-        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url)))
-            .thenAnswer((Answer<Void>) invocationOnMock -> null);
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url), any()))
+            .thenAnswer(CopyPluginMojoTest::download);
         doReturn(pluginName).when(plugins.get(0)).getName();
 
         // CALL
@@ -282,12 +386,12 @@ class CopyPluginMojoTest {
         // VERIFY
         verify(additionalPlugins).iterator();
         verify(plugins.get(0)).getFile();
-        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url)));
+        fileDownloaderMockedStatic.verify(
+            () -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url), any()));
 
         // ASSERT
-        assertThat(fileArgumentCaptor.getValue())
-            .hasFileName(pluginName + ".jar")
-            .hasParent("/plugins");
+        assertThat(fileArgumentCaptor.getValue()).hasFileName(pluginName + ".jar");
+        assertThat(new File(temporaryDirectory, "plugins/" + pluginName + ".jar")).isFile();
       }
     }
 
@@ -300,39 +404,35 @@ class CopyPluginMojoTest {
       try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
         // MOCKS
         final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
-        final File pluginFile = mock(File.class);
-        final File file = new File("");
         final String pluginName = "pluginName";
         final URL url = mock(URL.class);
         final String sha256 = "SHA256";
 
         // STUBBING
-        doReturn(file).when(copyPluginMojo).getServerDirectory();
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
         doReturn(plugins.iterator()).when(additionalPlugins).iterator();
         doReturn(null).when(plugins.get(0)).getFile();
         doReturn(url).when(plugins.get(0)).getUrl();
-        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url)))
-            .thenAnswer((Answer<Void>) invocationOnMock -> null);
         doReturn(pluginName).when(plugins.get(0)).getName();
         doReturn(sha256).when(plugins.get(0)).getSha256();
-        fileDownloaderMockedStatic.when(() -> FileDownloader.checkSha256Checksum(any(), eq(sha256))).thenReturn(false);
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url), any()))
+            .thenThrow(new MojoFailureException(pluginName + ".jar checksum is not valid"));
 
         // CALL
         assertThatExceptionOfType(MojoFailureException.class)
             .isThrownBy(() -> copyPluginMojo.copyAdditionalPlugin())
-            .withMessage("Plugin %s checksum is not valid", pluginName);
+            .withMessage("%s.jar checksum is not valid", pluginName);
 
         // VERIFY
         verify(additionalPlugins).iterator();
         verify(plugins.get(0)).getFile();
-        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url)));
-        fileDownloaderMockedStatic.verify(
-            () -> FileDownloader.checkSha256Checksum(fileArgumentCaptor.getValue(), sha256));
+        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url),
+            optionsArgumentCaptor.capture()));
 
         // ASSERT
-        assertThat(fileArgumentCaptor.getValue())
-            .hasFileName(pluginName + ".jar")
-            .hasParent("/plugins");
+        assertThat(fileArgumentCaptor.getValue()).hasFileName(pluginName + ".jar");
+        assertThat(optionsArgumentCaptor.getValue().getSha256()).isEqualTo(sha256);
+        assertThat(temporaryDirectory.list()).isEmpty();
       }
     }
 
@@ -345,43 +445,35 @@ class CopyPluginMojoTest {
       try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
         // MOCKS
         final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
-        final File pluginFile = mock(File.class);
-        final File file = new File("");
         final String pluginName = "pluginName";
         final URL url = mock(URL.class);
         final String md5 = "md5";
 
         // STUBBING
-        doReturn(file).when(copyPluginMojo).getServerDirectory();
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
         doReturn(plugins.iterator()).when(additionalPlugins).iterator();
         doReturn(null).when(plugins.get(0)).getFile();
         doReturn(url).when(plugins.get(0)).getUrl();
-        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url)))
-            .thenAnswer((Answer<Void>) invocationOnMock -> null);
         doReturn(pluginName).when(plugins.get(0)).getName();
         doReturn(md5).when(plugins.get(0)).getMd5();
-        fileDownloaderMockedStatic.when(() -> FileDownloader.checkMd5Checksum(any(), eq(md5))).thenReturn(false);
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(url), any()))
+            .thenThrow(new MojoFailureException(pluginName + ".jar checksum is not valid"));
 
         // CALL
         assertThatExceptionOfType(MojoFailureException.class)
             .isThrownBy(() -> copyPluginMojo.copyAdditionalPlugin())
-            .withMessage("Plugin %s checksum is not valid", pluginName);
+            .withMessage("%s.jar checksum is not valid", pluginName);
 
         // VERIFY
         verify(copyPluginMojo).getServerDirectory();
         verify(additionalPlugins).iterator();
         verify(plugins.get(0)).getFile();
-        verify(plugins.get(0), times(3)).getUrl();
-        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url)));
-        verify(plugins.get(0), times(3)).getName();
-        verify(plugins.get(0), times(3)).getMd5();
-        fileDownloaderMockedStatic.verify(
-            () -> FileDownloader.checkMd5Checksum(fileArgumentCaptor.getValue(), md5));
+        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(fileArgumentCaptor.capture(), eq(url),
+            optionsArgumentCaptor.capture()));
 
         // ASSERT
-        assertThat(fileArgumentCaptor.getValue())
-            .hasFileName(pluginName + ".jar")
-            .hasParent("/plugins");
+        assertThat(fileArgumentCaptor.getValue()).hasFileName(pluginName + ".jar");
+        assertThat(optionsArgumentCaptor.getValue().getMd5()).isEqualTo(md5);
       }
     }
 
@@ -396,8 +488,6 @@ class CopyPluginMojoTest {
     void withGroupIdAndArtifactIdFound() throws MojoExecutionException, MojoFailureException {
       // MOCKS
       final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
-      final File pluginFile = mock(File.class);
-      final File file = new File("");
       final String pluginName = "pluginName";
       final String groupId = "groupId";
       final String artifactId = "artifactId";
@@ -405,7 +495,7 @@ class CopyPluginMojoTest {
       final File artifactFile = mock(File.class);
 
       // STUBBING
-      doReturn(file).when(copyPluginMojo).getServerDirectory();
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
       doReturn(plugins.iterator()).when(additionalPlugins).iterator();
       doReturn(null).when(plugins.get(0)).getFile();
       doReturn(null).when(plugins.get(0)).getUrl();
@@ -415,7 +505,7 @@ class CopyPluginMojoTest {
       doReturn(pluginName).when(plugins.get(0)).getName();
       doReturn(artifactFile).when(artifact).getFile();
       doReturn(pluginName).when(artifact).getArtifactId();
-      doNothing().when(copyPluginMojo).copyFile(eq(artifactFile), any());
+      doAnswer(CopyPluginMojoTest::writeDestination).when(copyPluginMojo).copyFile(eq(artifactFile), any());
 
       // CALL
       copyPluginMojo.copyAdditionalPlugin();
@@ -433,9 +523,8 @@ class CopyPluginMojoTest {
       verify(copyPluginMojo).copyFile(eq(artifactFile), fileArgumentCaptor.capture());
 
       // ASSERT
-      assertThat(fileArgumentCaptor.getValue())
-          .hasParent("/plugins")
-          .hasFileName(pluginName + ".jar");
+      assertThat(fileArgumentCaptor.getValue()).hasFileName(pluginName + ".jar");
+      assertThat(new File(temporaryDirectory, "plugins/" + pluginName + ".jar")).isFile();
     }
 
     /**
@@ -448,14 +537,12 @@ class CopyPluginMojoTest {
     void withGroupIdAndArtifactIdNotFound() throws MojoFailureException {
       // MOCKS
       final List<Plugin> plugins = Collections.singletonList(mock(Plugin.class));
-      final File pluginFile = mock(File.class);
-      final File file = new File("");
       final String pluginName = "pluginName";
       final String groupId = "groupId";
       final String artifactId = "artifactId";
 
       // STUBBING
-      doReturn(file).when(copyPluginMojo).getServerDirectory();
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
       doReturn(plugins.iterator()).when(additionalPlugins).iterator();
       doReturn(null).when(plugins.get(0)).getFile();
       doReturn(null).when(plugins.get(0)).getUrl();
@@ -470,6 +557,280 @@ class CopyPluginMojoTest {
           .withMessage("Unable to found plugin %s in dependencies with groupId %s and artifactId %s", pluginName,
               groupId, artifactId);
     }
+
+    /**
+     * Plugins sharing a URL or a digest are downloaded once.
+     *
+     * @throws MojoExecutionException when an issue occurred
+     * @throws MojoFailureException   when an issue occurred
+     * @throws MalformedURLException  when an issue occurred
+     */
+    @DisplayName("Deduplication")
+    @Test
+    void deduplication() throws MojoExecutionException, MojoFailureException, MalformedURLException {
+      try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
+        // INPUTS
+        final URL url = new URL("https://example.org/first.jar");
+        final URL mirror = new URL("https://mirror.example.org/first.jar");
+        final String sha256 = DigestUtils.sha256Hex("plugin");
+        final List<Plugin> plugins = Arrays.asList(createPlugin("first", url, sha256.toUpperCase(Locale.ROOT)),
+            createPlugin("sameUrl", url, null), createPlugin("sameDigest", mirror, sha256));
+        plugins.get(1).setMd5(DigestUtils.md5Hex("plugin"));
+
+        // STUBBING
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+        doReturn(plugins.iterator()).when(additionalPlugins).iterator();
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), any(), any()))
+            .thenAnswer(CopyPluginMojoTest::download);
+
+        // CALL
+        copyPluginMojo.copyAdditionalPlugin();
+
+        // VERIFY
+        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(any(), any(), any()));
+
+        // ASSERT
+        assertThat(new File(temporaryDirectory, "plugins").list())
+            .containsExactlyInAnyOrder("first.jar", "sameUrl.jar", "sameDigest.jar");
+      }
+    }
+
+    /**
+     * A plugin sharing the URL of another one is reported when its declared digest does not match the fetched file.
+     *
+     * @throws MalformedURLException when an issue occurred
+     */
+    @DisplayName("Deduplication - invalid SHA256")
+    @Test
+    void deduplicationInvalidSha256() throws MalformedURLException {
+      try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
+        // INPUTS
+        final URL url = new URL("https://example.org/first.jar");
+        final List<Plugin> plugins = Arrays.asList(createPlugin("first", url, DigestUtils.sha256Hex("plugin")),
+            createPlugin("sameUrl", url, DigestUtils.sha256Hex("other")));
+
+        // STUBBING
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+        doReturn(plugins.iterator()).when(additionalPlugins).iterator();
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), any(), any()))
+            .thenAnswer(CopyPluginMojoTest::download);
+
+        // CALL
+        assertThatExceptionOfType(MojoFailureException.class)
+            .isThrownBy(() -> copyPluginMojo.copyAdditionalPlugin())
+            .withMessage("sameUrl.jar checksum is not valid");
+
+        // VERIFY
+        fileDownloaderMockedStatic.verify(() -> FileDownloader.downloadFile(any(), any(), any()));
+
+        // ASSERT
+        assertThat(new File(temporaryDirectory, "plugins")).doesNotExist();
+      }
+    }
+
+    /**
+     * Plugins are acquired concurrently.
+     *
+     * @throws Exception when an issue occurred
+     */
+    @DisplayName("Parallelism")
+    @Test
+    void parallelism() throws Exception {
+      // INPUTS
+      final List<Plugin> plugins = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        final Plugin plugin = new Plugin();
+        plugin.setName("plugin" + i);
+        plugin.setFile(new File(temporaryDirectory, "source" + i + ".jar"));
+        plugins.add(plugin);
+      }
+      final Field pluginParallelism = CopyPluginMojo.class.getDeclaredField("pluginParallelism");
+      pluginParallelism.setAccessible(true);
+      pluginParallelism.set(copyPluginMojo, 3);
+      final CountDownLatch barrier = new CountDownLatch(plugins.size());
+
+      // STUBBING
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+      doReturn(plugins.iterator()).when(additionalPlugins).iterator();
+      doAnswer(invocation -> {
+        // Every copy waits for the others, it only completes when they run concurrently
+        barrier.countDown();
+        assertThat(barrier.await(5, TimeUnit.SECONDS)).isTrue();
+        return writeDestination(invocation);
+      }).when(copyPluginMojo).copyFile(any(), any());
+
+      // CALL
+      copyPluginMojo.copyAdditionalPlugin();
+
+      // ASSERT
+      assertThat(new File(temporaryDirectory, "plugins").list())
+          .containsExactlyInAnyOrder("plugin0.jar", "plugin1.jar", "plugin2.jar");
+    }
+
+    /**
+     * A re-run without changes writes nothing, a plugin which is no longer configured is removed.
+     *
+     * @throws Exception when an issue occurred
+     */
+    @DisplayName("Incremental synchronization")
+    @Test
+    void incrementalSync() throws Exception {
+      // INPUTS
+      final File source = new File(temporaryDirectory, "source.jar");
+      FileUtils.writeStringToFile(source, "plugin", StandardCharsets.UTF_8);
+      final Plugin plugin = new Plugin();
+      plugin.setName("plugin");
+      plugin.setFile(source);
+      final File deployed = new File(temporaryDirectory, "plugins/plugin.jar");
+      final File manifest = new File(temporaryDirectory, "plugins/" + PluginSync.MANIFEST_NAME);
+      final Field pluginSync = CopyPluginMojo.class.getDeclaredField("pluginSync");
+      pluginSync.setAccessible(true);
+
+      // STUBBING
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+      doReturn(Collections.singletonList(plugin).iterator(), Collections.singletonList(plugin).iterator(),
+          Collections.emptyIterator()).when(additionalPlugins).iterator();
+      copyPluginMojo.copyAdditionalPlugin();
+      copyPluginMojo.finishPluginSync(true);
+      pluginSync.set(copyPluginMojo, null);
+      final long deployedLastModified = deployed.lastModified();
+      final long manifestLastModified = manifest.lastModified();
+
+      // CALL
+      copyPluginMojo.copyAdditionalPlugin();
+      copyPluginMojo.finishPluginSync(true);
+
+      // VERIFY
+      verify(copyPluginMojo, times(1)).copyFile(eq(source), any());
+
+      // ASSERT
+      assertThat(deployed.lastModified()).isEqualTo(deployedLastModified);
+      assertThat(manifest.lastModified()).isEqualTo(manifestLastModified);
+      assertThat(temporaryDirectory.list()).containsExactlyInAnyOrder("plugins", "source.jar");
+
+      // CALL
+      pluginSync.set(copyPluginMojo, null);
+      copyPluginMojo.copyAdditionalPlugin();
+      copyPluginMojo.finishPluginSync(true);
+
+      // ASSERT
+      assertThat(deployed).doesNotExist();
+    }
+
+    /**
+     * Local plugins are linked into the plugins folder.
+     *
+     * @throws Exception when an issue occurred
+     */
+    @DisplayName("Link plugins")
+    @Test
+    void linkPlugins() throws Exception {
+      // INPUTS
+      final File source = new File(temporaryDirectory, "source.jar");
+      FileUtils.writeStringToFile(source, "plugin", StandardCharsets.UTF_8);
+      final Plugin plugin = new Plugin();
+      plugin.setName("plugin");
+      plugin.setFile(source);
+      final File deployed = new File(temporaryDirectory, "plugins/plugin.jar");
+      final Field linkPlugins = CopyPluginMojo.class.getDeclaredField("linkPlugins");
+      linkPlugins.setAccessible(true);
+      linkPlugins.set(copyPluginMojo, true);
+
+      // STUBBING
+      doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+      doReturn(Collections.singletonList(plugin).iterator()).when(additionalPlugins).iterator();
+
+      // CALL
+      copyPluginMojo.copyAdditionalPlugin();
+
+      // VERIFY
+      verify(copyPluginMojo).linkFile(source, deployed);
+      verify(copyPluginMojo, times(0)).copyFile(any(), any());
+
+      // ASSERT
+      assertThat(Files.isSameFile(source.toPath(), deployed.toPath())).isTrue();
+      assertThat(temporaryDirectory.list()).containsExactlyInAnyOrder("plugins", "source.jar");
+    }
+
+    /**
+     * Failures are reported together and the plugins folder is left untouched.
+     *
+     * @throws IOException when an issue occurred
+     */
+    @DisplayName("Aggregated failures")
+    @Test
+    void aggregatedFailures() throws IOException {
+      try (final MockedStatic<FileDownloader> fileDownloaderMockedStatic = mockStatic(FileDownloader.class)) {
+        // INPUTS
+        final URL valid = new URL("https://example.org/valid.jar");
+        final URL invalid = new URL("https://example.org/invalid.jar");
+        final List<Plugin> plugins = Arrays.asList(createPlugin("valid", valid, null),
+            createPlugin("invalid", invalid, null), createPlugin("noSource", null, null));
+        final File pluginsFolder = new File(temporaryDirectory, "plugins");
+        final File existing = new File(pluginsFolder, "valid.jar");
+        FileUtils.writeStringToFile(existing, "previous", StandardCharsets.UTF_8);
+
+        // STUBBING
+        doReturn(temporaryDirectory).when(copyPluginMojo).getServerDirectory();
+        doReturn(plugins.iterator()).when(additionalPlugins).iterator();
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(valid), any()))
+            .thenAnswer(CopyPluginMojoTest::download);
+        fileDownloaderMockedStatic.when(() -> FileDownloader.downloadFile(any(), eq(invalid), any()))
+            .thenThrow(new MojoFailureException("invalid.jar checksum is not valid"));
+
+        // CALL
+        assertThatExceptionOfType(MojoFailureException.class)
+            .isThrownBy(() -> copyPluginMojo.copyAdditionalPlugin())
+            .withMessageStartingWith("2 additional plugins cannot be copied:")
+            .withMessageContaining("invalid: invalid.jar checksum is not valid")
+            .withMessageContaining("noSource: Not source provided for plugin noSource");
+
+        // ASSERT
+        assertThat(pluginsFolder.list()).containsExactly("valid.jar");
+        assertThat(existing).hasContent("previous");
+        assertThat(temporaryDirectory.list()).containsExactly("plugins");
+      }
+    }
+  }
+
+  /**
+   * Creates a {@link Plugin plugin}.
+   *
+   * @param name   the plugin name
+   * @param url    the plugin URL
+   * @param sha256 the plugin SHA256 digest
+   * @return new instance of {@link Plugin}
+   */
+  private static Plugin createPlugin(final String name, final URL url, final String sha256) {
+    final Plugin plugin = new Plugin();
+    plugin.setName(name);
+    plugin.setUrl(url);
+    plugin.setSha256(sha256);
+    return plugin;
+  }
+
+  /**
+   * Writes the destination file of a stubbed {@link CopyPluginMojo#copyFile(File, File)} call.
+   *
+   * @param invocation the {@link InvocationOnMock invocation}
+   * @return nothing
+   * @throws IOException when the file cannot be written
+   */
+  private static Object writeDestination(final InvocationOnMock invocation) throws IOException {
+    FileUtils.writeStringToFile(invocation.getArgument(1), "plugin", StandardCharsets.UTF_8);
+    return null;
+  }
+
+  /**
+   * Writes the destination file of a stubbed {@link FileDownloader#downloadFile(File, URL, DownloadOptions)} call.
+   *
+   * @param invocation the {@link InvocationOnMock invocation}
+   * @return the digests
+   * @throws IOException when the file cannot be written
+   */
+  private static Map<String, String> download(final InvocationOnMock invocation) throws IOException {
+    FileUtils.writeStringToFile(invocation.getArgument(0), "plugin", StandardCharsets.UTF_8);
+    return Collections.singletonMap(MessageDigestAlgorithms.SHA_256, DigestUtils.sha256Hex("plugin"));
   }
 
   /**
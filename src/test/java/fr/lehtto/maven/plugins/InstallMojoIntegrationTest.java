@@ -0,0 +1,354 @@
+package fr.lehtto.maven.plugins;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import fr.lehtto.maven.plugins.papermc.BuildPolicy;
+import fr.lehtto.maven.plugins.papermc.PaperApiStub;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link InstallMojo} against a {@link PaperApiStub local PaperMC API}: the API calls, the downloads and the
+ * checksum verifications run for real, without network.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Install MOJO against a local PaperMC API")
+class InstallMojoIntegrationTest {
+
+  private static final String MC_VERSION = "1.19.2";
+  private static final int JAR_SIZE = 512 * 1024;
+  private static final int MAPPINGS_SIZE = 64 * 1024;
+  private static final int SEGMENTED_JAR_SIZE = 16 * 1024 * 1024;
+
+  @TempDir
+  File temporaryDirectory;
+  private PaperApiStub api;
+  private String firstSha256;
+  private String sha256;
+
+  /**
+   * Starts the local PaperMC API with two builds of {@value #MC_VERSION}.
+   *
+   * @throws IOException when issue occurred
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    api = new PaperApiStub();
+    firstSha256 = api.addBuild(MC_VERSION, 1, JAR_SIZE);
+    sha256 = api.addBuild(MC_VERSION, 2, JAR_SIZE, MAPPINGS_SIZE);
+  }
+
+  /**
+   * Stops the local PaperMC API.
+   */
+  @AfterEach
+  void tearDown() {
+    api.close();
+  }
+
+  /**
+   * The latest build is resolved, downloaded and verified, then the configuration files are written.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Latest build")
+  @Test
+  void latestBuild() throws Exception {
+    // INPUTS
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo installMojo = createMojo(serverDirectory);
+    set(InstallMojo.class, installMojo, "downloadMappings", true);
+
+    // CALL
+    installMojo.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(sha256);
+    assertThat(new File(serverDirectory, "mojang-mappings.txt")).hasSize(MAPPINGS_SIZE);
+    assertThat(new String(Files.readAllBytes(new File(serverDirectory, "eula.txt").toPath()),
+        StandardCharsets.UTF_8)).isEqualTo("eula=true");
+    assertThat(new File(serverDirectory, "server.properties")).isFile();
+    // The builds list resolves the build and its downloads
+    assertThat(api.getApiRequests()).isEqualTo(1);
+    assertThat(api.getDownloads()).isEqualTo(2);
+  }
+
+  /**
+   * The latest build of the stable channel is installed, an experimental build being published after it.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Stable channel")
+  @Test
+  void stableChannel() throws Exception {
+    // INPUTS
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo installMojo = createMojo(serverDirectory);
+    set(InstallMojo.class, installMojo, "buildPolicy", BuildPolicy.LATEST_DEFAULT);
+    api.setRelease(MC_VERSION, 2, "experimental", false, Instant.now());
+
+    // CALL
+    installMojo.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(firstSha256);
+    assertThat(api.getApiRequests()).isEqualTo(1);
+  }
+
+  /**
+   * The Mojang mappings of an installed server are downloaded for its recorded build, not for the latest one.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Mappings of the installed build")
+  @Test
+  void mappingsOfInstalledBuild() throws Exception {
+    // INPUTS
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo first = createMojo(serverDirectory);
+    final InstallMojo second = createMojo(serverDirectory);
+    set(InstallMojo.class, second, "downloadMappings", true);
+
+    // CALL
+    first.execute();
+    api.addBuild(MC_VERSION, 3, JAR_SIZE, 2 * MAPPINGS_SIZE);
+    second.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(sha256);
+    assertThat(new File(serverDirectory, "mojang-mappings.txt")).hasSize(MAPPINGS_SIZE);
+  }
+
+  /**
+   * A download cut by the server resumes where it stopped.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Truncated download resumed")
+  @Test
+  void truncatedDownload() throws Exception {
+    // INPUTS
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo installMojo = createMojo(serverDirectory);
+    set(InstallMojo.class, installMojo, "buildNumber", "2");
+    api.truncateDownloads(1);
+
+    // CALL
+    installMojo.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(sha256);
+    assertThat(api.getDownloads()).isEqualTo(2);
+    assertThat(api.getRangeRequests()).isEqualTo(1);
+    assertThat(api.getBytesServed()).isLessThan(2L * JAR_SIZE);
+  }
+
+  /**
+   * A segmented download cut by the server resumes every segment where it stopped on the next run, with the default
+   * download options.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Interrupted segmented download resumed")
+  @Test
+  void interruptedSegmentedDownload() throws Exception {
+    // INPUTS
+    final String segmentedSha256 = api.addBuild(MC_VERSION, 3, SEGMENTED_JAR_SIZE);
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo interrupted = createMojo(serverDirectory);
+    set(InstallMojo.class, interrupted, "buildNumber", "3");
+    set(AbstractDownloadMojo.class, interrupted, "httpRetries", 0);
+    final InstallMojo resumed = createMojo(serverDirectory);
+    set(InstallMojo.class, resumed, "buildNumber", "3");
+    api.truncateDownloads(4);
+
+    // CALL
+    assertThatExceptionOfType(MojoExecutionException.class).isThrownBy(interrupted::execute);
+    resumed.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(segmentedSha256);
+    // Four segments cut at their half, then the remaining ranges of the four segments
+    assertThat(api.getRangeRequests()).isEqualTo(8);
+    assertThat(api.getBytesServed()).isLessThan(SEGMENTED_JAR_SIZE + SEGMENTED_JAR_SIZE / 2);
+    assertThat(new File(serverDirectory, "server.jar.part.properties")).doesNotExist();
+  }
+
+  /**
+   * A server JAR downloaded for a build is retrieved from the shared cache for the next one.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Shared cache")
+  @Test
+  void sharedCache() throws Exception {
+    // INPUTS
+    final File cacheDirectory = new File(temporaryDirectory, "cache");
+    final InstallMojo first = createMojo(new File(temporaryDirectory, "first"));
+    set(AbstractDownloadMojo.class, first, "cacheDirectory", cacheDirectory);
+    set(AbstractDownloadMojo.class, first, "cacheMaxSize", 100L);
+    final InstallMojo second = createMojo(new File(temporaryDirectory, "second"));
+    set(AbstractDownloadMojo.class, second, "cacheDirectory", cacheDirectory);
+    set(AbstractDownloadMojo.class, second, "cacheMaxSize", 100L);
+
+    // CALL
+    first.execute();
+    second.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(temporaryDirectory, "second/server.jar"))).isEqualTo(sha256);
+    assertThat(api.getDownloads()).isEqualTo(1);
+  }
+
+  /**
+   * The server directory is seeded with the files patched for the verified digest of the downloaded server JAR.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Prepatched server")
+  @Test
+  void prepatchedServer() throws Exception {
+    // INPUTS
+    final File cacheDirectory = new File(temporaryDirectory, "cache");
+    final File serverDirectory = new File(temporaryDirectory, "server");
+    final InstallMojo installMojo = createMojo(serverDirectory);
+    set(AbstractDownloadMojo.class, installMojo, "cacheDirectory", cacheDirectory);
+    set(AbstractDownloadMojo.class, installMojo, "cacheMaxSize", 100L);
+    set(InstallMojo.class, installMojo, "prepatchServer", true);
+    final File library = new File(cacheDirectory, "patched/" + sha256 + "/libraries/library.jar");
+    Files.createDirectories(library.getParentFile().toPath());
+    Files.write(library.toPath(), "library".getBytes(StandardCharsets.UTF_8));
+
+    // CALL
+    installMojo.execute();
+
+    // ASSERT
+    assertThat(new File(serverDirectory, "libraries/library.jar")).hasContent("library");
+    assertThat(library).exists();
+  }
+
+  /**
+   * Offline, the server JAR retrieved from the cache is not patched, the patch phase downloading the Mojang server.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Offline prepatch")
+  @Test
+  void offlinePrepatch() throws Exception {
+    // INPUTS
+    final File cacheDirectory = new File(temporaryDirectory, "cache");
+    final InstallMojo online = createMojo(new File(temporaryDirectory, "online"));
+    set(AbstractDownloadMojo.class, online, "cacheDirectory", cacheDirectory);
+    set(AbstractDownloadMojo.class, online, "cacheMaxSize", 100L);
+    final File serverDirectory = new File(temporaryDirectory, "offline");
+    final InstallMojo offline = createMojo(serverDirectory);
+    set(AbstractDownloadMojo.class, offline, "cacheDirectory", cacheDirectory);
+    set(AbstractDownloadMojo.class, offline, "cacheMaxSize", 100L);
+    set(AbstractDownloadMojo.class, offline, "offline", true);
+    set(InstallMojo.class, offline, "prepatchServer", true);
+
+    // CALL
+    online.execute();
+    offline.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(serverDirectory, "server.jar"))).isEqualTo(sha256);
+    assertThat(new File(cacheDirectory, "patched/" + sha256)).doesNotExist();
+    assertThat(new File(cacheDirectory, "patched/" + sha256 + ".log")).doesNotExist();
+  }
+
+  /**
+   * Every server of the matrix is installed in its own folder.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Matrix")
+  @Test
+  void matrix() throws Exception {
+    // INPUTS
+    final String otherSha256 = api.addBuild("1.18.2", 7, JAR_SIZE);
+    final InstallMojo installMojo = createMojo(new File(temporaryDirectory, "servers"));
+    set(InstallMojo.class, installMojo, "mcVersions", Arrays.asList(MC_VERSION + ":1", "1.18.2"));
+
+    // CALL
+    installMojo.execute();
+
+    // ASSERT
+    assertThat(sha256(new File(temporaryDirectory, "servers/1.19.2-1/server.jar"))).isEqualTo(firstSha256);
+    assertThat(sha256(new File(temporaryDirectory, "servers/1.18.2/server.jar"))).isEqualTo(otherSha256);
+  }
+
+  /**
+   * Creates an install MOJO configured as Maven would, calling the local PaperMC API without cache.
+   *
+   * @param serverDirectory the server directory
+   * @return the configured {@link InstallMojo}
+   * @throws ReflectiveOperationException when issue occurred
+   */
+  private InstallMojo createMojo(final File serverDirectory) throws ReflectiveOperationException {
+    final InstallMojo installMojo = new InstallMojo();
+    set(AbstractServerMcMojo.class, installMojo, "serverDirectory", serverDirectory);
+    set(InstallMojo.class, installMojo, "baseUrl", api.getBaseUrl());
+    set(InstallMojo.class, installMojo, "mcVersion", MC_VERSION);
+    set(InstallMojo.class, installMojo, "eula", true);
+    set(InstallMojo.class, installMojo, "properties", Collections.singletonMap("motd", "Integration"));
+    set(InstallMojo.class, installMojo, "metadataTtl", 60L);
+    set(InstallMojo.class, installMojo, "installParallelism", 4);
+    set(AbstractDownloadMojo.class, installMojo, "downloadSegments", 4);
+    set(AbstractDownloadMojo.class, installMojo, "downloadMinSegmentSize", 4L);
+    set(AbstractDownloadMojo.class, installMojo, "httpReadTimeout", 30L);
+    set(AbstractDownloadMojo.class, installMojo, "httpRetries", 2);
+    set(AbstractDownloadMojo.class, installMojo, "httpRetryBackoff", 10L);
+    set(AbstractDownloadMojo.class, installMojo, "httpRetryMaxBackoff", 1L);
+    set(AbstractDownloadMojo.class, installMojo, "schedulerDirectory", new File(temporaryDirectory, "scheduler"));
+    return installMojo;
+  }
+
+  /**
+   * Sets a parameter of a MOJO.
+   *
+   * @param type        the class declaring the parameter
+   * @param installMojo the MOJO
+   * @param name        the name of the parameter
+   * @param value       the value of the parameter
+   * @throws ReflectiveOperationException when issue occurred
+   */
+  private static void set(final Class<?> type, final InstallMojo installMojo, final String name, final Object value)
+      throws ReflectiveOperationException {
+    final Field field = type.getDeclaredField(name);
+    field.setAccessible(true);
+    field.set(installMojo, value);
+  }
+
+  /**
+   * Computes the SHA256 digest of a file.
+   *
+   * @param file the {@link File file}
+   * @return the hexadecimal digest
+   * @throws IOException when issue occurred
+   */
+  private static String sha256(final File file) throws IOException {
+    try (final InputStream in = new FileInputStream(file)) {
+      return DigestUtils.sha256Hex(in);
+    }
+  }
+}
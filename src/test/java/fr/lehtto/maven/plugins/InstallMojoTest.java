@@ -1,18 +1,30 @@
 package fr.lehtto.maven.plugins;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
+import fr.lehtto.maven.plugins.papermc.BuildArtifact;
+import fr.lehtto.maven.plugins.papermc.BuildPolicy;
 import fr.lehtto.maven.plugins.papermc.PaperApiClient;
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
@@ -20,6 +32,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -67,9 +80,12 @@ class InstallMojoTest {
     MockitoAnnotations.openMocks(this);
     serverDirectory = spy(new File("parentPath"));
 
-    final Field serverDirectoryField = installMojo.getClass().getSuperclass().getDeclaredField("serverDirectory");
+    final Field serverDirectoryField = AbstractServerMcMojo.class.getDeclaredField("serverDirectory");
     serverDirectoryField.setAccessible(true);
     serverDirectoryField.set(installMojo, serverDirectory);
+    final Field mcVersionField = InstallMojo.class.getDeclaredField("mcVersion");
+    mcVersionField.setAccessible(true);
+    mcVersionField.set(installMojo, "1.19.2");
   }
 
   /**
@@ -117,11 +133,11 @@ class InstallMojoTest {
       eula.set(installMojo, true);
       doReturn(false).when(serverDirectory).exists();
       doReturn(true /* ignored */).when(serverDirectory).mkdirs();
-      doNothing().when(installMojo).createEulaFile();
-      doNothing().when(installMojo).retrievePaperBuildNumber();
-      doNothing().when(installMojo).retrieveJarUrl();
-      doNothing().when(installMojo).downloadPaper();
-      doNothing().when(installMojo).createPropertiesFile();
+      doNothing().when(installMojo).createEulaFile(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrievePaperBuildNumber(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrieveJarUrl(any());
+      doNothing().when(installMojo).downloadPaper(any());
+      doNothing().when(installMojo).createPropertiesFile(any());
 
       // CALL
       installMojo.execute();
@@ -130,16 +146,214 @@ class InstallMojoTest {
       final InOrder inOrder = inOrder(installMojo);
       verify(serverDirectory).exists();
       verify(serverDirectory).mkdirs();
-      verify(installMojo).createEulaFile();
-      inOrder.verify(installMojo).retrievePaperBuildNumber();
-      inOrder.verify(installMojo).retrieveJarUrl();
-      inOrder.verify(installMojo).downloadPaper();
-      verify(installMojo).createPropertiesFile();
+      verify(installMojo).createEulaFile(any());
+      inOrder.verify(installMojo).retrievePaperBuildNumber(any());
+      inOrder.verify(installMojo).retrieveJarUrl(any());
+      inOrder.verify(installMojo).downloadPaper(any());
+      verify(installMojo).createPropertiesFile(any());
+    }
+
+    /**
+     * Mojang mappings of an installed server are downloaded without the server JAR, for the recorded build.
+     *
+     * @throws MojoExecutionException when an issue occurred
+     * @throws MojoFailureException   when an issue occurred
+     * @throws IllegalAccessException when issue occurred
+     * @throws NoSuchFieldException   when issue occurred
+     * @throws IOException            when an issue occurred
+     */
+    @DisplayName("Mappings of an installed server")
+    @Test
+    void mappingsOfInstalledServer(@TempDir final File directory)
+        throws NoSuchFieldException, IllegalAccessException, MojoExecutionException, MojoFailureException, IOException {
+      // STUBBING
+      Files.createFile(new File(directory, "server.jar").toPath());
+      Files.write(new File(directory, ".servermc-build.properties").toPath(),
+          "version=1.19.2\nbuild=5".getBytes(StandardCharsets.UTF_8));
+      final Field serverDirectoryField = AbstractServerMcMojo.class.getDeclaredField("serverDirectory");
+      serverDirectoryField.setAccessible(true);
+      serverDirectoryField.set(installMojo, directory);
+      final Field eula = installMojo.getClass().getDeclaredField("eula");
+      eula.setAccessible(true);
+      eula.set(installMojo, true);
+      final Field downloadMappings = installMojo.getClass().getDeclaredField("downloadMappings");
+      downloadMappings.setAccessible(true);
+      downloadMappings.set(installMojo, true);
+      doNothing().when(installMojo).createEulaFile(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrievePaperBuildNumber(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrieveJarUrl(any());
+      doNothing().when(installMojo).downloadMappings(any());
+      doNothing().when(installMojo).createPropertiesFile(any());
+
+      // CALL
+      installMojo.execute();
+
+      // VERIFY
+      final InOrder inOrder = inOrder(installMojo);
+      inOrder.verify(installMojo).retrievePaperBuildNumber(any());
+      inOrder.verify(installMojo).retrieveJarUrl(any());
+      inOrder.verify(installMojo).downloadMappings(argThat(installation -> "5".equals(installation.getBuildNumber())));
+      verify(installMojo, never()).downloadPaper(any());
+    }
+
+    /**
+     * Mojang mappings of an installed server whose build is unknown are not downloaded, rather than guessed.
+     *
+     * @throws MojoExecutionException when an issue occurred
+     * @throws MojoFailureException   when an issue occurred
+     * @throws IllegalAccessException when issue occurred
+     * @throws NoSuchFieldException   when issue occurred
+     * @throws IOException            when an issue occurred
+     */
+    @DisplayName("Mappings of a server of unknown build")
+    @Test
+    void mappingsOfUnknownBuild(@TempDir final File directory)
+        throws NoSuchFieldException, IllegalAccessException, MojoExecutionException, MojoFailureException, IOException {
+      // STUBBING
+      Files.createFile(new File(directory, "server.jar").toPath());
+      final Field serverDirectoryField = AbstractServerMcMojo.class.getDeclaredField("serverDirectory");
+      serverDirectoryField.setAccessible(true);
+      serverDirectoryField.set(installMojo, directory);
+      final Field eula = installMojo.getClass().getDeclaredField("eula");
+      eula.setAccessible(true);
+      eula.set(installMojo, true);
+      final Field downloadMappings = installMojo.getClass().getDeclaredField("downloadMappings");
+      downloadMappings.setAccessible(true);
+      downloadMappings.set(installMojo, true);
+      doNothing().when(installMojo).createEulaFile(any());
+      doNothing().when(installMojo).createPropertiesFile(any());
+
+      // CALL
+      installMojo.execute();
+
+      // VERIFY
+      verify(installMojo, never()).retrievePaperBuildNumber(any());
+      verify(installMojo, never()).downloadMappings(any());
+      verify(log).warn(anyString());
+    }
+
+    /**
+     * Download failure is reported once the configuration files are written.
+     *
+     * @throws MojoExecutionException when an issue occurred
+     * @throws MojoFailureException   when an issue occurred
+     * @throws IllegalAccessException when issue occurred
+     * @throws NoSuchFieldException   when issue occurred
+     */
+    @DisplayName("Download failure")
+    @Test
+    void downloadFailure()
+        throws NoSuchFieldException, IllegalAccessException, MojoExecutionException, MojoFailureException {
+      // STUBBING
+      final Field eula = installMojo.getClass().getDeclaredField("eula");
+      eula.setAccessible(true);
+      eula.set(installMojo, true);
+      doReturn(true).when(serverDirectory).exists();
+      doNothing().when(installMojo).createEulaFile(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrievePaperBuildNumber(any());
+      doReturn(CompletableFuture.completedFuture(null)).when(installMojo).retrieveJarUrl(any());
+      doThrow(new MojoFailureException("server.jar checksum is not valid")).when(installMojo).downloadPaper(any());
+      doNothing().when(installMojo).createPropertiesFile(any());
+
+      // CALL
+      assertThatExceptionOfType(MojoFailureException.class).isThrownBy(() -> installMojo.execute())
+          .withMessage("server.jar checksum is not valid");
+
+      // VERIFY
+      verify(installMojo).createEulaFile(any());
+      verify(installMojo).createPropertiesFile(any());
+    }
+
+    /**
+     * API failure is reported without download.
+     *
+     * @throws MojoExecutionException when an issue occurred
+     * @throws MojoFailureException   when an issue occurred
+     * @throws IllegalAccessException when issue occurred
+     * @throws NoSuchFieldException   when issue occurred
+     */
+    @DisplayName("API failure")
+    @Test
+    void apiFailure()
+        throws NoSuchFieldException, IllegalAccessException, MojoExecutionException, MojoFailureException {
+      // STUBBING
+      final Field eula = installMojo.getClass().getDeclaredField("eula");
+      eula.setAccessible(true);
+      eula.set(installMojo, true);
+      doReturn(true).when(serverDirectory).exists();
+      doNothing().when(installMojo).createEulaFile(any());
+      final CompletableFuture<Void> failure = new CompletableFuture<>();
+      failure.completeExceptionally(new MojoExecutionException("Unable to fetch PaperMC build number"));
+      doReturn(failure).when(installMojo).retrievePaperBuildNumber(any());
+      doNothing().when(installMojo).createPropertiesFile(any());
+
+      // CALL
+      assertThatExceptionOfType(MojoExecutionException.class).isThrownBy(() -> installMojo.execute())
+          .withMessage("Unable to fetch PaperMC build number");
+
+      // VERIFY
+      verify(installMojo, never()).retrieveJarUrl(any());
+      verify(installMojo, never()).downloadPaper(any());
     }
   }
 
   /**
-   * Tests for {@link InstallMojo#retrievePaperBuildNumber()}.
+   * Tests for {@link InstallMojo#createInstallation(String)}.
+   */
+  @DisplayName("Create matrix installation")
+  @Nested
+  class CreateInstallation {
+
+    /**
+     * Each entry is installed in its own folder, with its own version and build.
+     *
+     * @throws MojoFailureException   when an issue occurred
+     * @throws NoSuchFieldException   when an issue occurred
+     * @throws IllegalAccessException when an issue occurred
+     */
+    @DisplayName("Version and build")
+    @Test
+    void versionAndBuild() throws MojoFailureException, NoSuchFieldException, IllegalAccessException {
+      // STUBBING
+      final Field buildNumberField = InstallMojo.class.getDeclaredField("buildNumber");
+      buildNumberField.setAccessible(true);
+      buildNumberField.set(installMojo, "152");
+      final Field buildPolicyField = InstallMojo.class.getDeclaredField("buildPolicy");
+      buildPolicyField.setAccessible(true);
+      buildPolicyField.set(installMojo, BuildPolicy.LATEST_PROMOTED);
+
+      // CALL
+      final ServerInstallation pinned = installMojo.createInstallation("1.20.6:150");
+      final ServerInstallation latest = installMojo.createInstallation(" 1.21.1 ");
+
+      // ASSERT
+      assertThat(pinned.getMcVersion()).isEqualTo("1.20.6");
+      assertThat(pinned.getBuildNumber()).isEqualTo("150");
+      assertThat(pinned.getBuildPolicy()).isEqualTo(BuildPolicy.LATEST_PROMOTED);
+      assertThat(pinned.getServerDirectory()).isEqualTo(new File(serverDirectory, "1.20.6-150"));
+      assertThat(latest.getMcVersion()).isEqualTo("1.21.1");
+      assertThat(latest.getBuildNumber()).isNull();
+      assertThat(latest.getServerDirectory()).isEqualTo(new File(serverDirectory, "1.21.1"));
+      assertThat(installMojo.getServerDirectory()).isSameAs(serverDirectory);
+      assertThat(buildNumberField.get(installMojo)).isEqualTo("152");
+    }
+
+    /**
+     * Malformed entries are rejected.
+     */
+    @DisplayName("Invalid entry")
+    @Test
+    void invalidEntry() {
+      assertThatExceptionOfType(MojoFailureException.class)
+          .isThrownBy(() -> installMojo.createInstallation("1.20.6:"))
+          .withMessage("Invalid Minecraft version \"1.20.6:\", expected <version> or <version>:<build>");
+      assertThatExceptionOfType(MojoFailureException.class)
+          .isThrownBy(() -> installMojo.createInstallation("1.20.6:150:1"));
+    }
+  }
+
+  /**
+   * Tests for {@link InstallMojo#retrievePaperBuildNumber(ServerInstallation)}.
    */
   @DisplayName("Retrieve paper build number")
   @Nested
@@ -147,24 +361,54 @@ class InstallMojoTest {
 
     /**
      * With build number.
+     */
+    @DisplayName("With build number")
+    @Test
+    void withBuildNumber() {
+      // INPUTS
+      final ServerInstallation installation =
+          new ServerInstallation("1.19.2", "152", BuildPolicy.LATEST, serverDirectory);
+
+      // CALL
+      assertThat(installMojo.retrievePaperBuildNumber(installation)).isCompleted();
+
+      // VERIFY
+      verify(client, never()).retrieveLatestBuildAsync(anyString(), anyString());
+      verify(client, never()).resolveBuildAsync(any(), anyString(), any(BuildPolicy.class), anyLong());
+    }
+
+    /**
+     * Without build number, the builds list resolves the build and its JAR at once.
      *
      * @throws NoSuchFieldException   when an issue occurred
      * @throws IllegalAccessException when an issue occurred
-     * @throws MojoExecutionException when an issue occurred
      */
-    @DisplayName("With build number")
+    @DisplayName("Without build number")
     @Test
-    void withBuildNumber() throws NoSuchFieldException, IllegalAccessException, MojoExecutionException {
+    void withoutBuildNumber() throws NoSuchFieldException, IllegalAccessException {
+      // INPUTS
+      final ServerInstallation installation =
+          new ServerInstallation("1.19.2", null, BuildPolicy.LATEST, serverDirectory);
+
       // STUBBING
-      final Field buildNumberField = installMojo.getClass().getDeclaredField("buildNumber");
-      buildNumberField.setAccessible(true);
-      buildNumberField.set(installMojo, "152");
+      final Field clientField = InstallMojo.class.getDeclaredField("client");
+      clientField.setAccessible(true);
+      clientField.set(installMojo, client);
+      doReturn(CompletableFuture.completedFuture(
+          new BuildArtifact(152, "paper-1.19.2-152.jar", "abc", "2022-08-10T00:00:00Z", null)))
+          .when(client).resolveBuildAsync(any(), eq("1.19.2"), eq(BuildPolicy.LATEST), eq(0L));
 
       // CALL
-      installMojo.retrievePaperBuildNumber();
+      installMojo.retrievePaperBuildNumber(installation).join();
+      installMojo.retrieveJarUrl(installation).join();
 
       // VERIFY
-      verify(client, never()).retrieveVersion(anyString(), anyString());
+      verify(client, never()).retrieveApplicationAsync(any(), anyString(), anyString());
+
+      // ASSERT
+      assertThat(installation.getBuildNumber()).isEqualTo("152");
+      assertThat(installation.getJarUrl())
+          .endsWith("versions/1.19.2/builds/152/downloads/paper-1.19.2-152.jar");
     }
   }
 }
@@ -5,20 +5,26 @@ import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.verify;
 
+import fr.lehtto.maven.plugins.papermc.ServerCapabilities;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.Arrays;
 import java.util.Map;
+import org.apache.commons.io.FileUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 
@@ -136,6 +142,55 @@ class StartMojoTest {
           );
     }
 
+    /**
+     * Test of {@link StartMojo#createProcessBuilder()} with the plugins loaded in place.
+     *
+     * @param temporaryDirectory the server directory
+     * @throws Exception when an issue occurred
+     */
+    @DisplayName("Add plugins")
+    @Test
+    void withAddPlugins(@TempDir final File temporaryDirectory) throws Exception {
+      try (final MockedStatic<ServerCapabilities> capabilities = mockStatic(ServerCapabilities.class)) {
+        // INPUTS
+        final File plugin = new File(temporaryDirectory, "target/plugin.jar");
+        FileUtils.touch(plugin);
+        final File missing = new File(temporaryDirectory, "repository/missing.jar");
+
+        // STUBBING
+        final Field serverDirectoryField = AbstractServerMcMojo.class.getDeclaredField("serverDirectory");
+        serverDirectoryField.setAccessible(true);
+        serverDirectoryField.set(startMojo, temporaryDirectory);
+        final Field addPluginsField = AbstractServerMcMojo.class.getDeclaredField("addPlugins");
+        addPluginsField.setAccessible(true);
+        addPluginsField.set(startMojo, true);
+        startMojo.writeAddedPlugins(Arrays.asList(plugin, missing));
+        capabilities.when(() -> ServerCapabilities.supportsAddPlugin(temporaryDirectory)).thenReturn(true);
+
+        // CALL
+        final ProcessBuilder result = startMojo.createProcessBuilder();
+
+        // ASSERT
+        //noinspection StringConcatenationMissingWhitespace
+        assertThat(result.command())
+            .containsExactly(
+                System.getProperty("java.home") + "/bin/java",
+                "-Xms" + memoryMin + 'G',
+                "-Xmx" + memoryMax + 'G',
+                "-jar",
+                "server.jar",
+                "--nogui",
+                "--add-plugin",
+                plugin.getAbsolutePath()
+            );
+
+        // STUBBING
+        capabilities.when(() -> ServerCapabilities.supportsAddPlugin(temporaryDirectory)).thenReturn(false);
+
+        // ASSERT
+        assertThat(startMojo.createProcessBuilder().command()).endsWith("server.jar", "--nogui");
+      }
+    }
   }
 
   /**
@@ -0,0 +1,572 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import fr.lehtto.maven.plugins.papermc.entity.Build;
+import fr.lehtto.maven.plugins.papermc.entity.Version;
+import fr.lehtto.maven.plugins.util.RetryPolicy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link PaperApiClient}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("PaperMC API client")
+class PaperApiClientTest {
+
+  private static final String ETAG = "\"v1\"";
+  private static final String VERSION_JSON = "{\"project_id\":\"paper\",\"project_name\":\"Paper\","
+      + "\"version\":\"1.19.2\",\"builds\":[1,2,3]}";
+  private static final String BUILD_JSON = "{\"project_id\":\"paper\",\"project_name\":\"Paper\","
+      + "\"version\":\"1.19.2\",\"build\":3,\"time\":\"2022-08-10T00:00:00.000Z\",\"channel\":\"default\","
+      + "\"promoted\":false,\"changes\":[],\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-3.jar\","
+      + "\"sha256\":\"abc\"}}}";
+
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger notModified = new AtomicInteger();
+  private final AtomicInteger concurrentRequests = new AtomicInteger();
+  private final AtomicInteger unavailable = new AtomicInteger();
+  private final AtomicInteger truncated = new AtomicInteger();
+  private volatile CountDownLatch barrier;
+  private ExecutorService serverExecutor;
+  private HttpServer server;
+  private String baseUrl;
+  private PaperApiClient client;
+  @TempDir
+  Path temporaryDirectory;
+
+  /**
+   * Starts a local HTTP server acting as PaperMC API.
+   *
+   * @throws IOException when issue occurred
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/versions/", exchange -> {
+      requests.incrementAndGet();
+      if (0 < unavailable.getAndDecrement()) {
+        exchange.sendResponseHeaders(503, -1);
+        exchange.close();
+        return;
+      }
+      if (null != barrier) {
+        // Holds the request until every expected request is received
+        barrier.countDown();
+        try {
+          if (barrier.await(5, TimeUnit.SECONDS)) {
+            concurrentRequests.incrementAndGet();
+          }
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        notModified.incrementAndGet();
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
+      final byte[] body = (exchange.getRequestURI().getPath().contains("/builds/") ? BUILD_JSON : VERSION_JSON)
+          .getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("ETag", ETAG);
+      exchange.sendResponseHeaders(200, body.length);
+      try (final OutputStream out = exchange.getResponseBody()) {
+        // A truncated body ends the exchange before its announced length
+        out.write(body, 0, 0 < truncated.getAndDecrement() ? body.length / 2 : body.length);
+      }
+    });
+    serverExecutor = Executors.newCachedThreadPool();
+    server.setExecutor(serverExecutor);
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort() + '/';
+    client = new PaperApiClient();
+  }
+
+  /**
+   * Stops the local HTTP server.
+   */
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  /**
+   * Tests for the metadata cache.
+   */
+  @DisplayName("Metadata cache")
+  @Nested
+  class MetadataCacheTests {
+
+    /**
+     * Without cache every call reaches the API.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Without cache")
+    @Test
+    void withoutCache() throws MojoExecutionException {
+      final Version first = client.retrieveVersion(baseUrl, "1.19.2");
+      final Version second = client.retrieveVersion(baseUrl, "1.19.2");
+
+      assertThat(first).isEqualTo(second);
+      assertThat(first.getLatestBuild()).isEqualTo(3);
+      assertThat(requests).hasValue(2);
+    }
+
+    /**
+     * Pinned builds are never revalidated.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Pinned build is immutable")
+    @Test
+    void pinnedBuild() throws MojoExecutionException {
+      client.setMetadataCache(new MetadataCache(temporaryDirectory.toFile(), 0));
+
+      final Build first = client.retrieveBuild(baseUrl, "1.19.2", "3");
+      final Build second = client.retrieveBuild(baseUrl, "1.19.2", "3");
+
+      assertThat(first).isEqualTo(second);
+      assertThat(second.getDownloads().getApplication().getName()).isEqualTo("paper-1.19.2-3.jar");
+      assertThat(requests).hasValue(1);
+    }
+
+    /**
+     * Expired version is revalidated with its ETag.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Expired version is revalidated")
+    @Test
+    void expiredVersion() throws MojoExecutionException {
+      client.setMetadataCache(new MetadataCache(temporaryDirectory.toFile(), 0));
+
+      final Version first = client.retrieveVersion(baseUrl, "1.19.2");
+      final Version second = client.retrieveVersion(baseUrl, "1.19.2");
+
+      assertThat(first).isEqualTo(second);
+      assertThat(requests).hasValue(2);
+      assertThat(notModified).hasValue(1);
+    }
+
+    /**
+     * Fresh version is not revalidated.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Fresh version is used")
+    @Test
+    void freshVersion() throws MojoExecutionException {
+      client.setMetadataCache(new MetadataCache(temporaryDirectory.toFile(), 60_000));
+
+      client.retrieveVersion(baseUrl, "1.19.2");
+      client.retrieveVersion(baseUrl, "1.19.2");
+
+      assertThat(requests).hasValue(1);
+    }
+
+    /**
+     * Offline mode resolves from the cache only.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Offline mode")
+    @Test
+    void offline() throws MojoExecutionException {
+      client.setMetadataCache(new MetadataCache(temporaryDirectory.toFile(), 0));
+      client.retrieveVersion(baseUrl, "1.19.2");
+      client.setOffline(true);
+
+      final Version version = client.retrieveVersion(baseUrl, "1.19.2");
+
+      assertThat(version.getLatestBuild()).isEqualTo(3);
+      assertThat(requests).hasValue(1);
+      assertThatExceptionOfType(MojoExecutionException.class)
+          .isThrownBy(() -> client.retrieveBuild(baseUrl, "1.19.2", "3"))
+          .withMessageContaining("offline mode is enabled");
+      assertThat(requests).hasValue(1);
+    }
+  }
+
+  /**
+   * Tests for the asynchronous API.
+   */
+  @DisplayName("Asynchronous API")
+  @Nested
+  class AsyncTests {
+
+    /**
+     * Version and build are requested concurrently.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Concurrent requests")
+    @Test
+    void concurrentRequests() throws Exception {
+      barrier = new CountDownLatch(3);
+
+      final CompletableFuture<Version> version = client.retrieveVersionAsync(baseUrl, "1.19.2");
+      final CompletableFuture<Integer> latestBuild = client.retrieveLatestBuildAsync(baseUrl, "1.19.3");
+      final CompletableFuture<BuildArtifact> application = client.retrieveApplicationAsync(baseUrl, "1.19.2", "3");
+
+      assertThat(version.get(10, TimeUnit.SECONDS).getLatestBuild()).isEqualTo(3);
+      assertThat(latestBuild.get(10, TimeUnit.SECONDS)).isEqualTo(3);
+      assertThat(application.get(10, TimeUnit.SECONDS).getName()).isEqualTo("paper-1.19.2-3.jar");
+      assertThat(concurrentRequests).hasValue(3);
+    }
+
+    /**
+     * Failures complete the future exceptionally.
+     */
+    @DisplayName("Failure")
+    @Test
+    void failure() {
+      final CompletableFuture<Build> build = client.retrieveBuildAsync(baseUrl + "unknown/", "1.19.2", "3");
+
+      assertThatExceptionOfType(ExecutionException.class).isThrownBy(() -> build.get(10, TimeUnit.SECONDS))
+          .havingCause()
+          .isInstanceOf(MojoExecutionException.class)
+          .withMessageStartingWith("Unable to call PaperMC API status: 404");
+    }
+  }
+
+  /**
+   * Tests for the streaming extraction.
+   */
+  @DisplayName("Streaming extraction")
+  @Nested
+  class StreamingTests {
+
+    private static final int BUILD_COUNT = 20_000;
+    private static final int CHANGE_COUNT = 2_000;
+    private static final int ITERATIONS = 20;
+
+    /**
+     * Latest build is read from the response stream.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Latest build")
+    @Test
+    void latestBuild() throws MojoExecutionException {
+      assertThat(client.retrieveLatestBuild(baseUrl, "1.19.2")).isEqualTo(3);
+
+      client.setMetadataCache(new MetadataCache(temporaryDirectory.toFile(), 60_000));
+      assertThat(client.retrieveLatestBuild(baseUrl, "1.19.2")).isEqualTo(3);
+      assertThat(client.retrieveLatestBuild(baseUrl, "1.19.2")).isEqualTo(3);
+      assertThat(requests).hasValue(2);
+    }
+
+    /**
+     * Application download and build time are read from the response stream.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Application")
+    @Test
+    void application() throws MojoExecutionException {
+      final BuildArtifact artifact = client.retrieveApplication(baseUrl, "1.19.2", "3");
+
+      assertThat(artifact).isEqualTo(new BuildArtifact("paper-1.19.2-3.jar", "abc", "2022-08-10T00:00:00.000Z"));
+    }
+
+    /**
+     * Mojang mappings download is read with the application download.
+     *
+     * @throws IOException when issue occurred
+     */
+    @DisplayName("Mojang mappings")
+    @Test
+    void mappings() throws IOException {
+      final byte[] body = ("{\"build\":3,\"time\":\"2022-08-10T00:00:00.000Z\",\"downloads\":{"
+          + "\"mojang-mappings\":{\"name\":\"paper-mojang-mappings-1.19.2-3.txt\",\"sha256\":\"def\"},"
+          + "\"application\":{\"name\":\"paper-1.19.2-3.jar\",\"sha256\":\"abc\"}}}")
+          .getBytes(StandardCharsets.UTF_8);
+
+      final BuildArtifact artifact = client.parseApplication(new ByteArrayInputStream(body));
+
+      assertThat(artifact).isEqualTo(new BuildArtifact("paper-1.19.2-3.jar", "abc", "2022-08-10T00:00:00.000Z",
+          new BuildArtifact("paper-mojang-mappings-1.19.2-3.txt", "def", null)));
+    }
+
+    /**
+     * The builds list is streamed and the build is selected by the policy.
+     *
+     * @throws IOException when issue occurred
+     */
+    @DisplayName("Build policies")
+    @Test
+    void buildPolicies() throws IOException {
+      final String builds = "{\"version\":\"1.19.2\",\"builds\":["
+          + "{\"build\":1,\"time\":\"2022-01-01T00:00:00.000Z\",\"channel\":\"default\",\"promoted\":true,"
+          + "\"changes\":[{\"commit\":\"a\",\"summary\":\"b\"}],"
+          + "\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-1.jar\",\"sha256\":\"a1\"}}},"
+          + "{\"build\":2,\"time\":\"2022-06-01T00:00:00.000Z\",\"channel\":\"default\",\"promoted\":false,"
+          + "\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-2.jar\",\"sha256\":\"a2\"}}},"
+          + "{\"build\":3,\"time\":\"2022-08-01T00:00:00.000Z\",\"channel\":\"experimental\",\"promoted\":false,"
+          + "\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-3.jar\",\"sha256\":\"a3\"}}}]}";
+      final byte[] body = builds.getBytes(StandardCharsets.UTF_8);
+      final long july = Instant.parse("2022-07-01T00:00:00Z").toEpochMilli();
+
+      assertThat(client.parseBuilds(new ByteArrayInputStream(body), BuildPolicy.LATEST, Long.MAX_VALUE))
+          .isEqualTo(new BuildArtifact(3, "paper-1.19.2-3.jar", "a3", "2022-08-01T00:00:00.000Z", null));
+      assertThat(client.parseBuilds(new ByteArrayInputStream(body), BuildPolicy.LATEST_PROMOTED, Long.MAX_VALUE)
+          .getBuild()).isEqualTo(1);
+      assertThat(client.parseBuilds(new ByteArrayInputStream(body), BuildPolicy.LATEST_DEFAULT, Long.MAX_VALUE)
+          .getBuild()).isEqualTo(2);
+      assertThat(client.parseBuilds(new ByteArrayInputStream(body), BuildPolicy.LATEST, july).getBuild())
+          .isEqualTo(2);
+      assertThatExceptionOfType(IOException.class)
+          .isThrownBy(() -> client.parseBuilds(new ByteArrayInputStream(body), BuildPolicy.LATEST_PROMOTED, 0L))
+          .withMessage("No PaperMC build matches policy LATEST_PROMOTED");
+    }
+
+    /**
+     * The build is resolved with a single call of the builds list.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Resolve build in one call")
+    @Test
+    void resolveBuild() throws Exception {
+      try (final PaperApiStub api = new PaperApiStub()) {
+        api.addBuild("1.19.2", 1, 1024);
+        api.addBuild("1.19.2", 2, 1024);
+        api.setRelease("1.19.2", 2, "experimental", false, Instant.now());
+
+        final BuildArtifact artifact =
+            client.resolveBuild(api.getBaseUrl(), "1.19.2", BuildPolicy.LATEST_DEFAULT, 0L);
+
+        assertThat(artifact.getBuild()).isEqualTo(1);
+        assertThat(artifact.getName()).isEqualTo("paper-1.19.2-1.jar");
+        assertThat(api.getApiRequests()).isEqualTo(1);
+      }
+    }
+
+    /**
+     * Transient error is retried.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Retry transient error")
+    @Test
+    void retry() throws MojoExecutionException {
+      unavailable.set(2);
+      final RetryPolicy retryPolicy = new RetryPolicy();
+      retryPolicy.setInitialBackoff(10L);
+      client.setRetryPolicy(retryPolicy);
+
+      assertThat(client.retrieveLatestBuild(baseUrl, "1.19.2")).isEqualTo(3);
+      assertThat(requests).hasValue(3);
+    }
+
+    /**
+     * Body cut while it is read is retried like a failed call.
+     *
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Retry truncated body")
+    @Test
+    void retryTruncatedBody() throws MojoExecutionException {
+      truncated.set(1);
+      final RetryPolicy retryPolicy = new RetryPolicy();
+      retryPolicy.setInitialBackoff(10L);
+      client.setRetryPolicy(retryPolicy);
+
+      assertThat(client.retrieveLatestBuild(baseUrl, "1.19.2")).isEqualTo(3);
+      assertThat(requests).hasValue(2);
+    }
+
+    /**
+     * Version without build is rejected.
+     */
+    @DisplayName("No build")
+    @Test
+    void noBuild() {
+      final byte[] body = "{\"version\":\"1.19.2\",\"builds\":[]}".getBytes(StandardCharsets.UTF_8);
+
+      assertThatExceptionOfType(IOException.class)
+          .isThrownBy(() -> client.parseLatestBuild(new ByteArrayInputStream(body)))
+          .withMessage("No PaperMC build published");
+    }
+
+    /**
+     * Build without application download is rejected.
+     */
+    @DisplayName("No application")
+    @Test
+    void noApplication() {
+      final byte[] body = "{\"build\":3,\"downloads\":{}}".getBytes(StandardCharsets.UTF_8);
+
+      assertThatExceptionOfType(IOException.class)
+          .isThrownBy(() -> client.parseApplication(new ByteArrayInputStream(body)))
+          .withMessage("Missing PaperMC application download");
+    }
+
+    /**
+     * Streaming extraction of the latest build allocates less than the databind mapping.
+     *
+     * @throws Throwable when issue occurred
+     */
+    @DisplayName("Latest build allocates less than databind")
+    @Test
+    void latestBuildAllocation() throws Throwable {
+      final StringBuilder json = new StringBuilder("{\"project_id\":\"paper\",\"version\":\"1.19.2\",\"builds\":[");
+      for (int i = 1; i <= BUILD_COUNT; i++) {
+        json.append(1 == i ? "" : ",").append(i);
+      }
+      final byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+      final ObjectMapper objectMapper = new ObjectMapper();
+
+      assertThat(client.parseLatestBuild(new ByteArrayInputStream(body))).isEqualTo(BUILD_COUNT);
+      final long streaming = measureAllocation(() -> client.parseLatestBuild(new ByteArrayInputStream(body)));
+      final long databind = measureAllocation(
+          () -> objectMapper.readValue(new ByteArrayInputStream(body), Version.class).getLatestBuild());
+
+      assertThat(streaming).as("streaming %d bytes, databind %d bytes", streaming, databind)
+          .isLessThan(databind / 2);
+    }
+
+    /**
+     * Streaming extraction of the application allocates less than the databind mapping.
+     *
+     * @throws Throwable when issue occurred
+     */
+    @DisplayName("Application allocates less than databind")
+    @Test
+    void applicationAllocation() throws Throwable {
+      final StringBuilder json = new StringBuilder("{\"project_id\":\"paper\",\"version\":\"1.19.2\",\"build\":3,"
+          + "\"time\":\"2022-08-10T00:00:00.000Z\",\"channel\":\"default\",\"promoted\":false,\"changes\":[");
+      for (int i = 0; i < CHANGE_COUNT; i++) {
+        json.append(0 == i ? "" : ",").append("{\"commit\":\"").append(Integer.toHexString(i))
+            .append("\",\"summary\":\"Change number ").append(i).append("\",\"message\":\"Message of change ")
+            .append(i).append("\"}");
+      }
+      final byte[] body = json.append("],\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-3.jar\",")
+          .append("\"sha256\":\"abc\"}}}").toString().getBytes(StandardCharsets.UTF_8);
+      final ObjectMapper objectMapper = new ObjectMapper();
+
+      assertThat(client.parseApplication(new ByteArrayInputStream(body)).getName()).isEqualTo("paper-1.19.2-3.jar");
+      final long streaming = measureAllocation(() -> client.parseApplication(new ByteArrayInputStream(body)));
+      final long databind = measureAllocation(
+          () -> objectMapper.readValue(new ByteArrayInputStream(body), Build.class).getDownloads().getApplication());
+
+      assertThat(streaming).as("streaming %d bytes, databind %d bytes", streaming, databind)
+          .isLessThan(databind / 2);
+    }
+
+    /**
+     * With a cache, the latest build is streamed while the body is copied to the cache, the body is not buffered.
+     *
+     * @throws Throwable when issue occurred
+     */
+    @DisplayName("Cached latest build is streamed")
+    @Test
+    void cachedLatestBuildAllocation() throws Throwable {
+      final StringBuilder json = new StringBuilder("{\"project_id\":\"paper\",\"version\":\"1.19.2\",\"builds\":[");
+      for (int i = 1; i <= BUILD_COUNT; i++) {
+        json.append(1 == i ? "" : ",").append(i);
+      }
+      final byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+      final String url = baseUrl + "versions/1.19.2";
+      final MetadataCache metadataCache = new MetadataCache(temporaryDirectory.toFile(), 60_000);
+      client.setMetadataCache(metadataCache);
+
+      assertThat(client.readThrough(url, new ByteArrayInputStream(body), ETAG, null, client::parseLatestBuild))
+          .isEqualTo(BUILD_COUNT);
+      final long streaming = measureAllocation(
+          () -> client.readThrough(url, new ByteArrayInputStream(body), ETAG, null, client::parseLatestBuild));
+
+      assertThat(streaming).as("streaming %d bytes, body %d bytes", streaming, body.length)
+          .isLessThan(body.length / 2L);
+      assertThat(metadataCache.read(url)).isNotNull().satisfies(entry -> {
+        assertThat(entry.getBody()).isEqualTo(body);
+        assertThat(entry.getEtag()).isEqualTo(ETAG);
+      });
+    }
+
+    /**
+     * With a cache, the whole body is cached even when the parsing stops before its end.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Cached application")
+    @Test
+    void cachedApplication() throws Exception {
+      final StringBuilder json = new StringBuilder("{\"build\":3,\"time\":\"2022-08-10T00:00:00.000Z\","
+          + "\"downloads\":{\"application\":{\"name\":\"paper-1.19.2-3.jar\",\"sha256\":\"abc\"}},\"changes\":[");
+      for (int i = 0; i < CHANGE_COUNT; i++) {
+        json.append(0 == i ? "" : ",").append("{\"commit\":\"").append(Integer.toHexString(i)).append("\"}");
+      }
+      final byte[] body = json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+      final String url = baseUrl + "versions/1.19.2/builds/3";
+      final MetadataCache metadataCache = new MetadataCache(temporaryDirectory.toFile(), 60_000);
+      client.setMetadataCache(metadataCache);
+
+      final BuildArtifact artifact = client.readThrough(url, new ByteArrayInputStream(body), ETAG, null,
+          client::parseApplication);
+
+      assertThat(artifact).isEqualTo(new BuildArtifact("paper-1.19.2-3.jar", "abc", "2022-08-10T00:00:00.000Z"));
+      assertThat(metadataCache.read(url)).isNotNull().extracting(MetadataCache.Entry::getBody).isEqualTo(body);
+      assertThat(temporaryDirectory).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread while running given code, after a warm-up.
+     *
+     * @param executable the code to measure
+     * @return the allocated bytes per iteration
+     * @throws Throwable when the code fails
+     */
+    private long measureAllocation(final Executable executable) throws Throwable {
+      assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+          "Thread allocation measurement is not supported");
+      final com.sun.management.ThreadMXBean threadMxBean =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      assumeTrue(threadMxBean.isThreadAllocatedMemorySupported(), "Thread allocation measurement is not supported");
+      threadMxBean.setThreadAllocatedMemoryEnabled(true);
+
+      for (int i = 0; i < ITERATIONS; i++) {
+        executable.execute();
+      }
+      final long threadId = Thread.currentThread().getId();
+      final long before = threadMxBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < ITERATIONS; i++) {
+        executable.execute();
+      }
+      return (threadMxBean.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+  }
+}
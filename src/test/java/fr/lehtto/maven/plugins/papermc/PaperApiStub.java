@@ -0,0 +1,479 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Local stand-in for the PaperMC API, so that the API client, the downloads and the install goal are tested through
+ * real HTTP without network.
+ * <p>
+ * The stub serves the {@literal /versions/<version>}, {@literal /versions/<version>/builds},
+ * {@literal /versions/<version>/builds/<build>} and {@literal /versions/<version>/builds/<build>/downloads/<name>}
+ * endpoints of the registered builds, whose server JARs and Mojang mappings are synthetic files of the requested size.
+ * The latency of every response, the bandwidth of the downloads, the support of byte ranges and the truncation of the
+ * next downloads can be configured while it runs.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+public final class PaperApiStub implements Closeable {
+
+  private static final String VERSIONS_PATH = "/versions/";
+  private static final String BUILDS_PATH = "/builds/";
+  private static final String BUILDS_LIST_SUFFIX = "/builds";
+  private static final String DOWNLOADS_PATH = "/downloads/";
+  private static final String BUILD_TIME = "2022-08-10T00:00:00Z";
+  private static final int CHUNK = 8192;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<String, Map<Integer, Build>> versions = new ConcurrentHashMap<>();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final HttpServer server;
+  private final AtomicInteger apiRequests = new AtomicInteger();
+  private final AtomicInteger downloads = new AtomicInteger();
+  private final AtomicInteger rangeRequests = new AtomicInteger();
+  private final AtomicInteger truncatedDownloads = new AtomicInteger();
+  private final AtomicLong bytesServed = new AtomicLong();
+  private volatile long latency;
+  private volatile long bandwidth;
+  private volatile boolean acceptRanges = true;
+
+  /**
+   * Constructor, starts the stub on a free port of the loopback interface.
+   *
+   * @throws IOException when the server cannot be started
+   */
+  public PaperApiStub() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext(VERSIONS_PATH, exchange -> {
+      try {
+        handle(exchange);
+      } catch (final IOException e) {
+        // Connection closed by the client or response truncated on purpose
+      } finally {
+        exchange.close();
+      }
+    });
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /**
+   * Gets the base URL of the stub, to use as base URL of the PaperMC API.
+   *
+   * @return the base URL, ending with a slash
+   */
+  public @NotNull String getBaseUrl() {
+    return "http://localhost:" + server.getAddress().getPort() + '/';
+  }
+
+  /**
+   * Registers a build without Mojang mappings.
+   *
+   * @param version the Minecraft version
+   * @param build   the build number
+   * @param jarSize the size, in bytes, of the synthetic server JAR
+   * @return the SHA256 digest of the server JAR
+   */
+  public @NotNull String addBuild(final @NotNull String version, final int build, final int jarSize) {
+    return addBuild(version, build, jarSize, 0);
+  }
+
+  /**
+   * Registers a build.
+   *
+   * @param version      the Minecraft version
+   * @param build        the build number
+   * @param jarSize      the size, in bytes, of the synthetic server JAR
+   * @param mappingsSize the size, in bytes, of the synthetic Mojang mappings, {@code 0} when the build has none
+   * @return the SHA256 digest of the server JAR
+   */
+  public @NotNull String addBuild(final @NotNull String version, final int build, final int jarSize,
+      final int mappingsSize) {
+    final Random random = new Random(31L * version.hashCode() + build);
+    final Map<String, byte[]> files = new LinkedHashMap<>();
+    files.put(MessageFormat.format("paper-{0}-{1}.jar", version, String.valueOf(build)), createJar(random, jarSize));
+    if (0 < mappingsSize) {
+      final byte[] mappings = new byte[mappingsSize];
+      random.nextBytes(mappings);
+      files.put(MessageFormat.format("mappings-{0}-{1}.txt", version, String.valueOf(build)), mappings);
+    }
+    versions.computeIfAbsent(version, ignored -> new ConcurrentHashMap<>()).put(build, new Build(build, files));
+    return DigestUtils.sha256Hex(files.values().iterator().next());
+  }
+
+  /**
+   * Sets the release information of a registered build, by default published on 2022-08-10 in the {@literal default}
+   * channel without promotion.
+   *
+   * @param version  the Minecraft version
+   * @param build    the build number
+   * @param channel  the channel, {@literal default} or {@literal experimental}
+   * @param promoted whether the build is promoted
+   * @param time     the publication time
+   */
+  public void setRelease(final @NotNull String version, final int build, final @NotNull String channel,
+      final boolean promoted, final @NotNull Instant time) {
+    final Build registered = versions.get(version).get(build);
+    registered.channel = channel;
+    registered.promoted = promoted;
+    registered.time = time.toString();
+  }
+
+  /**
+   * Sets the delay before every response.
+   *
+   * @param latency the delay, in milliseconds
+   */
+  public void setLatency(final long latency) {
+    this.latency = Math.max(0L, latency);
+  }
+
+  /**
+   * Sets the bandwidth of every download.
+   *
+   * @param bandwidth the number of bytes per second, {@code 0} when unlimited
+   */
+  public void setBandwidth(final long bandwidth) {
+    this.bandwidth = Math.max(0L, bandwidth);
+  }
+
+  /**
+   * Sets whether the downloads support byte ranges, they do by default.
+   *
+   * @param acceptRanges {@code false} to ignore the {@literal Range} headers
+   */
+  public void setAcceptRanges(final boolean acceptRanges) {
+    this.acceptRanges = acceptRanges;
+  }
+
+  /**
+   * Cuts the connection of the next downloads at the half of their body.
+   *
+   * @param count the number of downloads to truncate
+   */
+  public void truncateDownloads(final int count) {
+    truncatedDownloads.set(Math.max(0, count));
+  }
+
+  /**
+   * Gets the number of API calls received, downloads excluded.
+   *
+   * @return the number of API calls
+   */
+  public int getApiRequests() {
+    return apiRequests.get();
+  }
+
+  /**
+   * Gets the number of downloads received, range requests included.
+   *
+   * @return the number of downloads
+   */
+  public int getDownloads() {
+    return downloads.get();
+  }
+
+  /**
+   * Gets the number of downloads received with a byte range.
+   *
+   * @return the number of range requests
+   */
+  public int getRangeRequests() {
+    return rangeRequests.get();
+  }
+
+  /**
+   * Gets the number of bytes of the downloads sent.
+   *
+   * @return the number of bytes
+   */
+  public long getBytesServed() {
+    return bytesServed.get();
+  }
+
+  /**
+   * Stops the stub.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Answers a request.
+   *
+   * @param exchange the {@link HttpExchange exchange}
+   * @throws IOException when the response cannot be sent
+   */
+  private void handle(final @NotNull HttpExchange exchange) throws IOException {
+    sleep(latency);
+    final String requestPath = exchange.getRequestURI().getPath().substring(VERSIONS_PATH.length());
+    final boolean buildsList = requestPath.endsWith(BUILDS_LIST_SUFFIX);
+    final String path = buildsList
+        ? requestPath.substring(0, requestPath.length() - BUILDS_LIST_SUFFIX.length()) : requestPath;
+    final int buildsIndex = path.indexOf(BUILDS_PATH);
+    final String version = -1 == buildsIndex ? path : path.substring(0, buildsIndex);
+    final Map<Integer, Build> builds = versions.get(version);
+    if (null == builds) {
+      sendNotFound(exchange);
+      return;
+    }
+    if (-1 == buildsIndex) {
+      apiRequests.incrementAndGet();
+      final Map<String, Object> body = new LinkedHashMap<>();
+      body.put("project_id", "paper");
+      body.put("project_name", "Paper");
+      body.put("version", version);
+      if (buildsList) {
+        final List<Map<String, Object>> list = new ArrayList<>();
+        new TreeMap<>(builds).values().forEach(build -> list.add(build.describe()));
+        body.put("builds", list);
+      } else {
+        body.put("builds", new ArrayList<>(new TreeMap<>(builds).keySet()));
+      }
+      sendJson(exchange, body);
+      return;
+    }
+
+    final String buildPath = path.substring(buildsIndex + BUILDS_PATH.length());
+    final int downloadsIndex = buildPath.indexOf(DOWNLOADS_PATH);
+    final Build build;
+    try {
+      build = builds.get(Integer.valueOf(-1 == downloadsIndex ? buildPath : buildPath.substring(0, downloadsIndex)));
+    } catch (final NumberFormatException e) {
+      sendNotFound(exchange);
+      return;
+    }
+    if (null == build) {
+      sendNotFound(exchange);
+    } else if (-1 == downloadsIndex) {
+      apiRequests.incrementAndGet();
+      final Map<String, Object> body = new LinkedHashMap<>();
+      body.put("project_id", "paper");
+      body.put("project_name", "Paper");
+      body.put("version", version);
+      body.putAll(build.describe());
+      sendJson(exchange, body);
+    } else {
+      final byte[] content = build.files.get(buildPath.substring(downloadsIndex + DOWNLOADS_PATH.length()));
+      if (null == content) {
+        sendNotFound(exchange);
+      } else {
+        sendFile(exchange, content);
+      }
+    }
+  }
+
+  /**
+   * Sends a synthetic file, honouring the {@literal Range} and {@literal If-Range} headers when byte ranges are
+   * supported.
+   *
+   * @param exchange the {@link HttpExchange exchange}
+   * @param content  the file content
+   * @throws IOException when the response cannot be sent
+   */
+  private void sendFile(final @NotNull HttpExchange exchange, final byte[] content) throws IOException {
+    final String etag = '"' + DigestUtils.sha256Hex(content) + '"';
+    final String range = exchange.getRequestHeaders().getFirst("Range");
+    final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+    exchange.getResponseHeaders().add("ETag", etag);
+    if (acceptRanges) {
+      exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+    }
+    int start = 0;
+    int end = content.length - 1;
+    int status = 200;
+    if (acceptRanges && null != range && range.startsWith("bytes=") && (null == ifRange || etag.equals(ifRange))) {
+      final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+      start = Integer.parseInt(bounds[0]);
+      end = bounds[1].isEmpty() ? end : Math.min(end, Integer.parseInt(bounds[1]));
+      if (start > end) {
+        exchange.getResponseHeaders().add("Content-Range", "bytes */" + content.length);
+        exchange.sendResponseHeaders(416, -1);
+        return;
+      }
+      exchange.getResponseHeaders().add("Content-Range", "bytes " + start + '-' + end + '/' + content.length);
+      status = 206;
+    }
+    final int length = end - start + 1;
+    if ("HEAD".equals(exchange.getRequestMethod())) {
+      exchange.getResponseHeaders().add("Content-Length", String.valueOf(length));
+      exchange.sendResponseHeaders(status, -1);
+      return;
+    }
+    downloads.incrementAndGet();
+    if (206 == status) {
+      rangeRequests.incrementAndGet();
+    }
+    // The length is announced in full: a truncated response ends with an unexpected end of stream
+    final int sent = 0 < truncatedDownloads.getAndUpdate(count -> Math.max(0, count - 1)) ? length / 2 : length;
+    exchange.sendResponseHeaders(status, length);
+    final OutputStream out = exchange.getResponseBody();
+    for (int offset = 0; offset < sent; offset += CHUNK) {
+      final int chunk = Math.min(CHUNK, sent - offset);
+      out.write(content, start + offset, chunk);
+      out.flush();
+      bytesServed.addAndGet(chunk);
+      if (0L < bandwidth) {
+        sleep(TimeUnit.SECONDS.toMillis(chunk) / bandwidth);
+      }
+    }
+    if (sent == length) {
+      out.close();
+    }
+  }
+
+  /**
+   * Sends a JSON body.
+   *
+   * @param exchange the {@link HttpExchange exchange}
+   * @param body     the body, serialized as JSON
+   * @throws IOException when the response cannot be sent
+   */
+  private void sendJson(final @NotNull HttpExchange exchange, final @NotNull Object body) throws IOException {
+    final byte[] json = objectMapper.writeValueAsBytes(body);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, json.length);
+    try (final OutputStream out = exchange.getResponseBody()) {
+      out.write(json);
+    }
+  }
+
+  /**
+   * Sends a {@literal 404} error, as the PaperMC API does for unknown versions, builds and downloads.
+   *
+   * @param exchange the {@link HttpExchange exchange}
+   * @throws IOException when the response cannot be sent
+   */
+  private static void sendNotFound(final @NotNull HttpExchange exchange) throws IOException {
+    final byte[] body = "{\"error\":\"Not found.\"}".getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(404, body.length);
+    try (final OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Creates a synthetic server JAR: a manifest and an entry of random, incompressible, data.
+   *
+   * @param random the source of the data
+   * @param size   the approximate size of the JAR, in bytes
+   * @return the JAR content
+   */
+  private static byte[] createJar(final @NotNull Random random, final int size) {
+    final Manifest manifest = new Manifest();
+    manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+    manifest.getMainAttributes().putValue("Main-Class", "io.papermc.paperclip.Main");
+    final ByteArrayOutputStream jar = new ByteArrayOutputStream(size + CHUNK);
+    try (final JarOutputStream out = new JarOutputStream(jar, manifest)) {
+      final byte[] data = new byte[Math.max(0, size - 512)];
+      random.nextBytes(data);
+      out.putNextEntry(new ZipEntry("data.bin"));
+      out.write(data);
+      out.closeEntry();
+    } catch (final IOException e) {
+      throw new IllegalStateException(e);
+    }
+    return jar.toByteArray();
+  }
+
+  /**
+   * Sleeps for given duration.
+   *
+   * @param millis the duration, in milliseconds
+   * @throws IOException when interrupted
+   */
+  private static void sleep(final long millis) throws IOException {
+    if (0L >= millis) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted", e);
+    }
+  }
+
+  /**
+   * A registered build.
+   */
+  private static final class Build {
+
+    private final int number;
+    /**
+     * The downloads of the build by name, the server JAR first.
+     */
+    private final Map<String, byte[]> files;
+    private volatile String time = BUILD_TIME;
+    private volatile String channel = "default";
+    private volatile boolean promoted;
+
+    /**
+     * Constructor.
+     *
+     * @param number the build number
+     * @param files  the downloads of the build by name, the server JAR first
+     */
+    private Build(final int number, final @NotNull Map<String, byte[]> files) {
+      this.number = number;
+      this.files = files;
+    }
+
+    /**
+     * Describes the build as the PaperMC API does, without the project and the version.
+     *
+     * @return the build description
+     */
+    private @NotNull Map<String, Object> describe() {
+      final Map<String, Object> downloads = new LinkedHashMap<>();
+      String kind = "application";
+      for (final Map.Entry<String, byte[]> file : files.entrySet()) {
+        final Map<String, Object> download = new LinkedHashMap<>();
+        download.put("name", file.getKey());
+        download.put("sha256", DigestUtils.sha256Hex(file.getValue()));
+        downloads.put(kind, download);
+        kind = "mojang-mappings";
+      }
+      final Map<String, Object> body = new LinkedHashMap<>();
+      body.put("build", number);
+      body.put("time", time);
+      body.put("channel", channel);
+      body.put("promoted", promoted);
+      body.put("changes", Collections.emptyList());
+      body.put("downloads", downloads);
+      return body;
+    }
+  }
+}
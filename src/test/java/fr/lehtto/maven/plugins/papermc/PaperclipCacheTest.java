@@ -0,0 +1,190 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link PaperclipCache}. The launcher is replaced by a shell script writing the patched files.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Paperclip cache")
+@EnabledOnOs({OS.LINUX, OS.MAC})
+class PaperclipCacheTest {
+
+  private static final String SHA256 = "ABCDEF0123456789abcdef0123456789abcdef0123456789abcdef0123456789";
+  private static final String PATCH_SCRIPT = "mkdir -p versions/1.20.1 libraries cache"
+      + " && echo paper > versions/1.20.1/paper-1.20.1.jar"
+      + " && echo library > libraries/library.jar"
+      + " && echo mojang > cache/mojang_1.20.1.jar"
+      + " && echo eula=false > eula.txt";
+
+  @TempDir
+  File temporaryDirectory;
+  private File cacheDirectory;
+  private File serverJar;
+
+  /**
+   * Creates the launcher.
+   *
+   * @throws IOException when issue occurred
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    cacheDirectory = new File(temporaryDirectory, "cache/patched");
+    serverJar = new File(temporaryDirectory, "server/server.jar");
+    FileUtils.writeStringToFile(serverJar, "launcher", StandardCharsets.UTF_8);
+  }
+
+  /**
+   * The output of the patch phase is cached, then seeded into new server directories.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Patch and seed")
+  @Test
+  void patchAndSeed() throws IOException {
+    // STUBBING
+    final PaperclipCache cache = createCache(PATCH_SCRIPT);
+    final File serverDirectory = new File(temporaryDirectory, "other-server");
+    FileUtils.writeStringToFile(new File(serverDirectory, "libraries/library.jar"), "existing",
+        StandardCharsets.UTF_8);
+
+    // CALL
+    cache.patch(serverJar, SHA256);
+    final int seeded = cache.seed(SHA256, serverDirectory);
+
+    // ASSERT
+    assertThat(cache.contains(SHA256)).isTrue();
+    assertThat(new File(cacheDirectory, SHA256.toLowerCase()).list())
+        .containsExactlyInAnyOrder("versions", "libraries", "cache");
+    assertThat(cacheDirectory.list()).containsExactly(SHA256.toLowerCase());
+    assertThat(seeded).isEqualTo(2);
+    assertThat(new File(serverDirectory, "versions/1.20.1/paper-1.20.1.jar")).hasContent("paper");
+    assertThat(new File(serverDirectory, "cache/mojang_1.20.1.jar")).hasContent("mojang");
+    assertThat(Files.isSymbolicLink(serverDirectory.toPath().resolve("cache/mojang_1.20.1.jar"))).isFalse();
+    assertThat(new File(serverDirectory, "libraries/library.jar")).hasContent("existing");
+    assertThat(cache.seed(SHA256, serverDirectory)).isZero();
+  }
+
+  /**
+   * A failed patch phase caches nothing and keeps its log.
+   */
+  @DisplayName("Failed patch")
+  @Test
+  void failedPatch() {
+    // STUBBING
+    final PaperclipCache cache = createCache("mkdir versions && echo Unable to download >&2 && exit 3");
+
+    // CALL
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> cache.patch(serverJar, SHA256))
+        .withMessageStartingWith("Patch of server.jar failed with exit code 3");
+
+    // ASSERT
+    assertThat(cache.contains(SHA256)).isFalse();
+    assertThat(cacheDirectory.list()).containsExactly(SHA256.toLowerCase() + ".log");
+    assertThat(new File(cacheDirectory, SHA256.toLowerCase() + ".log")).content().contains("Unable to download");
+  }
+
+  /**
+   * The log of a failed patch phase is deleted once the launcher is patched.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Patch after a failure")
+  @Test
+  void patchAfterFailure() throws IOException {
+    // STUBBING
+    final PaperclipCache failing = createCache("exit 3");
+    final PaperclipCache cache = createCache(PATCH_SCRIPT);
+
+    // CALL
+    assertThatExceptionOfType(IOException.class).isThrownBy(() -> failing.patch(serverJar, SHA256));
+    cache.patch(serverJar, SHA256);
+
+    // ASSERT
+    assertThat(cacheDirectory.list()).containsExactly(SHA256.toLowerCase());
+  }
+
+  /**
+   * The working directories of stopped builds and the old logs are deleted, the recent ones and the entries are kept.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Clean")
+  @Test
+  void clean() throws IOException {
+    // STUBBING
+    final PaperclipCache cache = createCache(PATCH_SCRIPT);
+    cache.patch(serverJar, SHA256);
+    final long old = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(8L);
+    final File staleWork = new File(cacheDirectory, '.' + SHA256.toLowerCase() + "1");
+    FileUtils.writeStringToFile(new File(staleWork, "patch.log"), "stopped", StandardCharsets.UTF_8);
+    assertThat(staleWork.setLastModified(old)).isTrue();
+    final File work = new File(cacheDirectory, '.' + SHA256.toLowerCase() + "2");
+    FileUtils.writeStringToFile(new File(work, "patch.log"), "running", StandardCharsets.UTF_8);
+    final File staleLog = new File(cacheDirectory, "0123" + SHA256.substring(4).toLowerCase() + ".log");
+    FileUtils.writeStringToFile(staleLog, "failed", StandardCharsets.UTF_8);
+    assertThat(staleLog.setLastModified(old)).isTrue();
+    final File log = new File(cacheDirectory, "4567" + SHA256.substring(4).toLowerCase() + ".log");
+    FileUtils.writeStringToFile(log, "failed", StandardCharsets.UTF_8);
+    assertThat(new File(cacheDirectory, SHA256.toLowerCase()).setLastModified(old)).isTrue();
+
+    // CALL
+    final int deleted = cache.clean();
+
+    // ASSERT
+    assertThat(deleted).isEqualTo(2);
+    assertThat(cacheDirectory.list()).containsExactlyInAnyOrder(SHA256.toLowerCase(), work.getName(), log.getName());
+  }
+
+  /**
+   * A launcher which writes no patched file caches nothing.
+   */
+  @DisplayName("Unsupported launcher")
+  @Test
+  void unsupportedLauncher() {
+    // STUBBING
+    final PaperclipCache cache = createCache("echo eula=false > eula.txt");
+
+    // CALL
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> cache.patch(serverJar, SHA256))
+        .withMessage("Patch of server.jar produced no file");
+
+    // ASSERT
+    assertThat(cacheDirectory.list()).isEmpty();
+  }
+
+  /**
+   * Creates a cache whose patch phase runs given shell script.
+   *
+   * @param script the shell script
+   * @return new instance of {@link PaperclipCache}
+   */
+  private PaperclipCache createCache(final String script) {
+    return new PaperclipCache(cacheDirectory, 1) {
+      @Override
+      ProcessBuilder createPatchProcess(final @NotNull File jar, final @NotNull File workingDirectory) {
+        return new ProcessBuilder("sh", "-c", script).directory(workingDirectory);
+      }
+    };
+  }
+}
@@ -0,0 +1,133 @@
+package fr.lehtto.maven.plugins.papermc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link ServerCapabilities}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Server capabilities")
+class ServerCapabilitiesTest {
+
+  @TempDir
+  File serverDirectory;
+
+  /**
+   * A server which is not patched yet is checked by its version.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Version of the launcher")
+  @Test
+  void launcherVersion() throws IOException {
+    // STUBBING
+    createLauncher("1.20.1");
+
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isTrue();
+
+    // STUBBING
+    createLauncher("1.19.2");
+
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isFalse();
+  }
+
+  /**
+   * A patched server is checked by its main class, whatever its version.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Patched server")
+  @Test
+  void patchedServer() throws IOException {
+    // STUBBING
+    createLauncher("1.19.2");
+    createJar(new File(serverDirectory, "versions/1.19.2/paper-1.19.2.jar"), "org/bukkit/craftbukkit/Main.class",
+        "acceptsAll add-plugin add-extra-plugin-jar");
+
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isTrue();
+
+    // STUBBING
+    createLauncher("1.20.1");
+    createJar(new File(serverDirectory, "versions/1.20.1/paper-1.20.1.jar"), "org/bukkit/craftbukkit/Main.class",
+        "acceptsAll nogui");
+
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isFalse();
+  }
+
+  /**
+   * Missing servers and legacy launchers do not support the option.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Unknown server")
+  @Test
+  void unknownServer() throws IOException {
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isFalse();
+
+    // STUBBING
+    createJar(new File(serverDirectory, "server.jar"), "patch.properties", "version=1.16.5");
+
+    // ASSERT
+    assertThat(ServerCapabilities.supportsAddPlugin(serverDirectory)).isFalse();
+  }
+
+  /**
+   * Versions are compared numerically, qualifiers are ignored.
+   */
+  @DisplayName("Compare versions")
+  @Test
+  void compareVersions() {
+    assertThat(ServerCapabilities.compareVersions("1.19.3", ServerCapabilities.ADD_PLUGIN_VERSION)).isZero();
+    assertThat(ServerCapabilities.compareVersions("1.20", "1.19.3")).isPositive();
+    assertThat(ServerCapabilities.compareVersions("1.19", "1.19.3")).isNegative();
+    assertThat(ServerCapabilities.compareVersions("1.9.4", "1.19.3")).isNegative();
+    assertThat(ServerCapabilities.compareVersions("1.20.1-R0.1-SNAPSHOT", "1.20.1")).isZero();
+  }
+
+  /**
+   * Creates the Paperclip launcher of given version.
+   *
+   * @param version the Minecraft version
+   * @throws IOException when issue occurred
+   */
+  private void createLauncher(final String version) throws IOException {
+    createJar(new File(serverDirectory, "server.jar"), "META-INF/versions.list",
+        "0123456789abcdef\t" + version + '\t' + version + "/paper-" + version + ".jar\n");
+  }
+
+  /**
+   * Creates a JAR with a single entry.
+   *
+   * @param jar     the {@link File JAR}
+   * @param name    the name of the entry
+   * @param content the content of the entry
+   * @throws IOException when issue occurred
+   */
+  private static void createJar(final File jar, final String name, final String content) throws IOException {
+    //noinspection ResultOfMethodCallIgnored
+    jar.getParentFile().mkdirs();
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+      out.putNextEntry(new ZipEntry(name));
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+  }
+}
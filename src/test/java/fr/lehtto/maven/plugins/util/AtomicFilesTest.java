@@ -0,0 +1,113 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link AtomicFiles}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Atomic files")
+class AtomicFilesTest {
+
+  @TempDir
+  File temporaryDirectory;
+
+  /**
+   * The content replaces the destination, no temporary file is left.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Write")
+  @Test
+  void write() throws IOException {
+    // STUBBING
+    final File destination = new File(temporaryDirectory, "server/eula.txt");
+    FileUtils.writeStringToFile(destination, "eula=false, with a longer content", StandardCharsets.UTF_8);
+
+    // CALL
+    AtomicFiles.write(destination, out -> out.write("eula=true".getBytes(StandardCharsets.UTF_8)));
+
+    // ASSERT
+    assertThat(destination).hasContent("eula=true");
+    assertThat(destination.getParentFile().list()).containsExactly("eula.txt");
+  }
+
+  /**
+   * An interrupted write leaves the destination untouched.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Interrupted write")
+  @Test
+  void interruptedWrite() throws IOException {
+    // STUBBING
+    final File destination = new File(temporaryDirectory, "server.properties");
+    FileUtils.writeStringToFile(destination, "motd=previous", StandardCharsets.UTF_8);
+
+    // CALL
+    assertThatExceptionOfType(IOException.class).isThrownBy(() -> AtomicFiles.write(destination, out -> {
+      out.write("motd=".getBytes(StandardCharsets.UTF_8));
+      throw new IOException("Interrupted");
+    }));
+
+    // ASSERT
+    assertThat(destination).hasContent("motd=previous");
+    assertThat(temporaryDirectory.list()).containsExactly("server.properties");
+  }
+
+  /**
+   * A copy replaces the destination, no temporary file is left.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Copy")
+  @Test
+  void copy() throws IOException {
+    // STUBBING
+    final File source = new File(temporaryDirectory, "source.jar");
+    FileUtils.writeStringToFile(source, "plugin", StandardCharsets.UTF_8);
+    final File destination = new File(temporaryDirectory, "plugins/plugin.jar");
+
+    // CALL
+    AtomicFiles.copy(source, destination);
+
+    // ASSERT
+    assertThat(destination).hasSameTextualContentAs(source);
+    assertThat(destination.getParentFile().list()).containsExactly("plugin.jar");
+  }
+
+  /**
+   * The temporary files of interrupted writes are deleted, other files are kept.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Delete temporary files")
+  @Test
+  void deleteTemporaryFiles() throws IOException {
+    // STUBBING
+    final File destination = new File(temporaryDirectory, "server.jar");
+    FileUtils.writeStringToFile(destination, "server", StandardCharsets.UTF_8);
+    FileUtils.touch(new File(temporaryDirectory, ".server.jar1234.tmp"));
+    FileUtils.touch(new File(temporaryDirectory, ".eula.txt1234.tmp"));
+    FileUtils.touch(new File(temporaryDirectory, "server.jar.part"));
+
+    // CALL
+    AtomicFiles.deleteTemporaryFiles(destination);
+
+    // ASSERT
+    assertThat(temporaryDirectory.list())
+        .containsExactlyInAnyOrder("server.jar", ".eula.txt1234.tmp", "server.jar.part");
+  }
+}
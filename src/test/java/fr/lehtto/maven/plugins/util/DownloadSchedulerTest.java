@@ -0,0 +1,145 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link DownloadScheduler}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Download scheduler")
+class DownloadSchedulerTest {
+
+  private static final long MEBIBYTE = 1024L * 1024L;
+  private static final int CHUNK = 8192;
+
+  @TempDir
+  File temporaryDirectory;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  /**
+   * Stops the threads of the test.
+   */
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Two schedulers sharing a directory, as two processes would, share the bandwidth cap.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Shared bandwidth cap")
+  @Test
+  void bandwidth() throws Exception {
+    // STUBBING
+    final DownloadScheduler first = new DownloadScheduler(temporaryDirectory, MEBIBYTE, 0);
+    final DownloadScheduler second = new DownloadScheduler(temporaryDirectory, MEBIBYTE, 0);
+    final URL url = new URL("https://api.papermc.io/v2/projects/paper");
+
+    // CALL
+    final long start = System.nanoTime();
+    final Future<?> firstTransfer = executor.submit(() -> transfer(first, url, MEBIBYTE / 4));
+    final Future<?> secondTransfer = executor.submit(() -> transfer(second, url, MEBIBYTE / 4));
+    firstTransfer.get(10, TimeUnit.SECONDS);
+    secondTransfer.get(10, TimeUnit.SECONDS);
+
+    // ASSERT
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(400L);
+  }
+
+  /**
+   * A transfer waits for a slot of its host.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("Connections per host cap")
+  @Test
+  void connectionsPerHost() throws Exception {
+    // STUBBING
+    final DownloadScheduler scheduler = new DownloadScheduler(temporaryDirectory, 0L, 1);
+    final URL url = new URL("https://api.papermc.io/v2/projects/paper");
+    final DownloadScheduler.Transfer running = scheduler.start(url);
+
+    // CALL
+    final Future<?> waiting = executor.submit(() -> {
+      scheduler.start(url).close();
+      return null;
+    });
+    try (final DownloadScheduler.Transfer otherHost = scheduler.start(new URL("https://repo1.maven.org/maven2"))) {
+      // ASSERT
+      assertThat(otherHost).isNotNull();
+    }
+    TimeUnit.MILLISECONDS.sleep(300L);
+    assertThat(waiting).isNotDone();
+    running.close();
+    waiting.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * A bulk transfer pauses while an API call is in flight.
+   *
+   * @throws Exception when issue occurred
+   */
+  @DisplayName("API calls first")
+  @Test
+  void metadataPriority() throws Exception {
+    // STUBBING
+    final DownloadScheduler scheduler = new DownloadScheduler(temporaryDirectory, 0L, 1);
+    final URL url = new URL("https://api.papermc.io/v2/projects/paper");
+
+    // CALL
+    DownloadScheduler.beginMetadata();
+    final CompletableFuture<Void> transfer = new CompletableFuture<>();
+    try {
+      executor.submit(() -> {
+        try (final DownloadScheduler.Transfer running = scheduler.start(url)) {
+          running.throttle(CHUNK);
+          transfer.complete(null);
+        } catch (final Exception e) {
+          transfer.completeExceptionally(e);
+        }
+      });
+      TimeUnit.MILLISECONDS.sleep(300L);
+
+      // ASSERT
+      assertThat(transfer).isNotDone();
+    } finally {
+      DownloadScheduler.endMetadata();
+    }
+    transfer.get(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Simulates the transfer of given number of bytes.
+   *
+   * @param scheduler the {@link DownloadScheduler scheduler}
+   * @param url       the source URL
+   * @param length    the number of bytes
+   * @return nothing
+   * @throws Exception when issue occurred
+   */
+  private static Void transfer(final DownloadScheduler scheduler, final URL url, final long length) throws Exception {
+    try (final DownloadScheduler.Transfer transfer = scheduler.start(url)) {
+      for (long read = 0L; read < length; read += CHUNK) {
+        transfer.throttle(CHUNK);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,165 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link FileCache}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("File cache")
+class FileCacheTest {
+
+  @TempDir
+  Path temporaryDirectory;
+
+  /**
+   * Writes a file with given content.
+   *
+   * @param name    the file name
+   * @param content the file content
+   * @return the written {@link File file}
+   * @throws IOException when issue occurred
+   */
+  private File writeFile(final String name, final String content) throws IOException {
+    return Files.write(temporaryDirectory.resolve(name), content.getBytes(StandardCharsets.UTF_8)).toFile();
+  }
+
+  /**
+   * Tests for {@link FileCache#isCacheable(String)}.
+   */
+  @DisplayName("Is cacheable")
+  @Nested
+  class IsCacheableTests {
+
+    /**
+     * Valid SHA256.
+     */
+    @DisplayName("Valid SHA256")
+    @Test
+    void withValidSha256() {
+      assertThat(FileCache.isCacheable(DigestUtils.sha256Hex("content"))).isTrue();
+    }
+
+    /**
+     * Invalid digests.
+     */
+    @DisplayName("Invalid digests")
+    @Test
+    void withInvalidDigest() {
+      assertThat(FileCache.isCacheable(null)).isFalse();
+      assertThat(FileCache.isCacheable("")).isFalse();
+      assertThat(FileCache.isCacheable("../../etc/passwd")).isFalse();
+      assertThat(FileCache.isCacheable(DigestUtils.md5Hex("content"))).isFalse();
+    }
+  }
+
+  /**
+   * Tests for {@link FileCache#store(String, File)} and {@link FileCache#retrieve(String, File)}.
+   */
+  @DisplayName("Store and retrieve")
+  @Nested
+  class StoreAndRetrieveTests {
+
+    /**
+     * Miss then hit.
+     *
+     * @throws IOException            when issue occurred
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Miss then hit")
+    @Test
+    void missThenHit() throws IOException, MojoExecutionException {
+      // GIVEN
+      final FileCache cache = new FileCache(temporaryDirectory.resolve("cache").toFile(), 1024);
+      final File source = writeFile("source.jar", "content");
+      final String sha256 = DigestUtils.sha256Hex("content");
+      final File destination = temporaryDirectory.resolve("destination.jar").toFile();
+
+      // CALL
+      final boolean firstLookup = cache.retrieve(sha256, destination);
+      cache.store(sha256, source);
+      final boolean secondLookup = cache.retrieve(sha256, destination);
+
+      // ASSERT
+      assertThat(firstLookup).isFalse();
+      assertThat(secondLookup).isTrue();
+      assertThat(destination).hasContent("content");
+      assertThat(cache.getEntry(sha256)).exists().hasParent(new File(cache.getDirectory(), sha256.substring(0, 2)));
+    }
+
+    /**
+     * Least recently used entries are evicted.
+     *
+     * @throws IOException            when issue occurred
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("LRU eviction")
+    @Test
+    void lruEviction() throws IOException, MojoExecutionException {
+      // GIVEN
+      final FileCache cache = new FileCache(temporaryDirectory.resolve("cache").toFile(), 12);
+      final String oldSha256 = DigestUtils.sha256Hex("old-1");
+      final String recentSha256 = DigestUtils.sha256Hex("recent");
+      final String newSha256 = DigestUtils.sha256Hex("new-1");
+      cache.store(oldSha256, writeFile("old.jar", "old-1"));
+      cache.store(recentSha256, writeFile("recent.jar", "recent"));
+      Files.setLastModifiedTime(cache.getEntry(oldSha256).toPath(), FileTime.fromMillis(1000L));
+
+      // CALL
+      cache.store(newSha256, writeFile("new.jar", "new-1"));
+
+      // ASSERT
+      assertThat(cache.getEntry(oldSha256)).doesNotExist();
+      assertThat(cache.getEntry(recentSha256)).exists();
+      assertThat(cache.getEntry(newSha256)).exists();
+    }
+
+    /**
+     * Directories keyed by a digest count in the cache size and are evicted as a whole.
+     *
+     * @throws IOException            when issue occurred
+     * @throws MojoExecutionException when issue occurred
+     */
+    @DisplayName("Directory eviction")
+    @Test
+    void directoryEviction() throws IOException, MojoExecutionException {
+      // GIVEN
+      final FileCache cache = new FileCache(temporaryDirectory.resolve("cache").toFile(), 12);
+      final Path oldTree = cache.getDirectory().toPath().resolve("patched").resolve(DigestUtils.sha256Hex("old"));
+      final Path recentTree = cache.getDirectory().toPath().resolve("patched").resolve(DigestUtils.sha256Hex("new"));
+      Files.createDirectories(oldTree.resolve("libraries"));
+      Files.write(oldTree.resolve("libraries/library.jar"), "old-1".getBytes(StandardCharsets.UTF_8));
+      Files.setLastModifiedTime(oldTree, FileTime.fromMillis(1000L));
+      Files.createDirectories(recentTree.resolve("libraries"));
+      Files.write(recentTree.resolve("libraries/library.jar"), "recent".getBytes(StandardCharsets.UTF_8));
+      final Path work = Files.createDirectories(cache.getDirectory().toPath().resolve("patched/.work"));
+      Files.write(work.resolve("patch.log"), "ignored".getBytes(StandardCharsets.UTF_8));
+      final String newSha256 = DigestUtils.sha256Hex("new-1");
+
+      // CALL
+      cache.store(newSha256, writeFile("new.jar", "new-1"));
+
+      // ASSERT
+      assertThat(oldTree).doesNotExist();
+      assertThat(recentTree.resolve("libraries/library.jar")).exists();
+      assertThat(work).exists();
+      assertThat(cache.getEntry(newSha256)).exists();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link FileCopier}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("File copier")
+class FileCopierTest {
+
+  @TempDir
+  File temporaryDirectory;
+
+  /**
+   * Copy of a small file, copied by the JVM.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Small file")
+  @Test
+  void smallFile() throws IOException {
+    // STUBBING
+    final File source = createFile("small.jar", 4096);
+    final File destination = new File(temporaryDirectory, "copy.jar");
+
+    // CALL
+    FileCopier.copy(source, destination);
+
+    // ASSERT
+    assertThat(destination).hasSameBinaryContentAs(source);
+  }
+
+  /**
+   * Copy of a file large enough to be cloned, copied by the JVM when the filesystem cannot clone it.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Large file")
+  @Test
+  void largeFile() throws IOException {
+    // STUBBING
+    final File source = createFile("large.jar", (int) FileCopier.REFLINK_MIN_SIZE * 3);
+    final File destination = new File(temporaryDirectory, "copy.jar");
+
+    // CALL
+    FileCopier.copy(source, destination);
+
+    // ASSERT
+    assertThat(destination).hasSameBinaryContentAs(source);
+  }
+
+  /**
+   * A longer existing destination is truncated.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Existing destination")
+  @Test
+  void existingDestination() throws IOException {
+    // STUBBING
+    final File source = createFile("plugin.jar", 1024);
+    final File destination = createFile("copy.jar", 8192);
+
+    // CALL
+    FileCopier.copy(source, destination);
+
+    // ASSERT
+    assertThat(destination).hasSameBinaryContentAs(source);
+  }
+
+  /**
+   * Copy of an empty file.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Empty file")
+  @Test
+  void emptyFile() throws IOException {
+    // STUBBING
+    final File source = createFile("empty.jar", 0);
+    final File destination = new File(temporaryDirectory, "copy.jar");
+
+    // CALL
+    FileCopier.transfer(source.toPath(), destination.toPath());
+
+    // ASSERT
+    assertThat(destination).exists().isEmpty();
+  }
+
+  /**
+   * A copy over a link to the source replaces the link and leaves the source untouched.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Copy over a link")
+  @Test
+  void copyOverLink() throws IOException {
+    // STUBBING
+    final File source = createFile("plugin.jar", 4096);
+    final byte[] content = Files.readAllBytes(source.toPath());
+    final File hardLink = new File(temporaryDirectory, "hard.jar");
+    final File symbolicLink = new File(temporaryDirectory, "symbolic.jar");
+    Files.createLink(hardLink.toPath(), source.toPath());
+    Files.createSymbolicLink(symbolicLink.toPath(), source.toPath());
+
+    // CALL
+    FileCopier.copy(source, hardLink);
+    FileCopier.copy(source, symbolicLink);
+
+    // ASSERT
+    assertThat(source).hasBinaryContent(content);
+    assertThat(hardLink).hasBinaryContent(content);
+    assertThat(symbolicLink).hasBinaryContent(content);
+    assertThat(Files.isSymbolicLink(symbolicLink.toPath())).isFalse();
+    assertThat(Files.isSameFile(source.toPath(), hardLink.toPath())).isFalse();
+  }
+
+  /**
+   * A file is hard linked within a filesystem, an existing destination is replaced.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Link")
+  @Test
+  void link() throws IOException {
+    // STUBBING
+    final File source = createFile("plugin.jar", 4096);
+    final File destination = createFile("plugins/plugin.jar", 1024);
+
+    // CALL
+    final FileCopier.Method method = FileCopier.link(source, destination);
+
+    // ASSERT
+    assertThat(method).isEqualTo(FileCopier.Method.HARD_LINK);
+    assertThat(Files.isSameFile(source.toPath(), destination.toPath())).isTrue();
+    assertThat(Files.isSymbolicLink(destination.toPath())).isFalse();
+  }
+
+  /**
+   * A missing source is not linked.
+   */
+  @DisplayName("Link of a missing file")
+  @Test
+  void linkMissing() {
+    // INPUTS
+    final File source = new File(temporaryDirectory, "missing.jar");
+    final File destination = new File(temporaryDirectory, "plugin.jar");
+
+    // CALL
+    assertThatExceptionOfType(NoSuchFileException.class)
+        .isThrownBy(() -> FileCopier.link(source, destination));
+
+    // ASSERT
+    assertThat(Files.exists(destination.toPath(), LinkOption.NOFOLLOW_LINKS)).isFalse();
+  }
+
+  /**
+   * Creates a file of random content.
+   *
+   * @param name the name of the file
+   * @param size the size of the file
+   * @return the created {@link File file}
+   * @throws IOException when issue occurred
+   */
+  private File createFile(final String name, final int size) throws IOException {
+    final byte[] content = new byte[size];
+    new Random(size).nextBytes(content);
+    final File file = new File(temporaryDirectory, name);
+    Files.createDirectories(file.getParentFile().toPath());
+    Files.write(file.toPath(), content);
+    return file;
+  }
+}
@@ -1,14 +1,34 @@
 package fr.lehtto.maven.plugins.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
+import com.sun.net.httpserver.HttpServer;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.codec.digest.MessageDigestAlgorithms;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Tests for {@link FileDownloader}.
@@ -108,12 +128,424 @@ class FileDownloaderTest {
     }
   }
 
-//  @Test
-//  void testDownloadFile() throws MojoExecutionException, MojoFailureException {
-//    FileDownloader.downloadFile(
-//        new File(getClass().getResource("/fr/lehtto/maven/plugins/util/PleaseReplaceMeWithTestFile.txt").getFile()),
-//        null);
-//  }
+  /**
+   * Tests for {@link FileDownloader#downloadFile(File, URL, DownloadOptions)}.
+   */
+  @DisplayName("DownloadFile")
+  @Nested
+  class DownloadFileTests {
+
+    private static final String ETAG = "\"v1\"";
+    private final byte[] content = new byte[100_000];
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger ifRangeRequests = new AtomicInteger();
+    private final AtomicInteger streamRequests = new AtomicInteger();
+    private final AtomicInteger unavailable = new AtomicInteger();
+    private final AtomicInteger rangesUnavailable = new AtomicInteger();
+    private HttpServer server;
+    @TempDir
+    Path temporaryDirectory;
+
+    /**
+     * Starts a local HTTP server serving {@link #content}.
+     *
+     * @param acceptRanges whether the server supports byte ranges
+     * @throws IOException when issue occurred
+     */
+    private void startServer(final boolean acceptRanges) throws IOException {
+      new Random(42).nextBytes(content);
+      server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+      server.createContext("/file.jar", exchange -> {
+        if (0 < unavailable.getAndDecrement()) {
+          exchange.sendResponseHeaders(503, -1);
+          exchange.close();
+          return;
+        }
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        if (acceptRanges) {
+          exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        }
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        int start = 0;
+        int end = content.length - 1;
+        int status = 200;
+        if (acceptRanges && null != range) {
+          if (0 < rangesUnavailable.getAndDecrement()) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+          }
+          rangeRequests.incrementAndGet();
+          if (null != exchange.getRequestHeaders().getFirst("If-Range")) {
+            ifRangeRequests.incrementAndGet();
+          }
+          final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+          start = Integer.parseInt(bounds[0]);
+          end = bounds[1].isEmpty() ? end : Integer.parseInt(bounds[1]);
+          status = 206;
+        }
+        final int length = end - start + 1;
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+          exchange.getResponseHeaders().add("Content-Length", String.valueOf(length));
+          exchange.sendResponseHeaders(status, -1);
+          exchange.close();
+          return;
+        }
+        if (200 == status) {
+          streamRequests.incrementAndGet();
+        }
+        exchange.sendResponseHeaders(status, length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+          out.write(content, start, length);
+        }
+      });
+      server.start();
+    }
+
+    /**
+     * Stops the local HTTP server.
+     */
+    @AfterEach
+    void tearDown() {
+      if (null != server) {
+        server.stop(0);
+      }
+    }
+
+    /**
+     * Downloads from the local HTTP server.
+     *
+     * @param segments the number of segments
+     * @return the downloaded file
+     * @throws Exception when issue occurred
+     */
+    private File download(final int segments) throws Exception {
+      final DownloadOptions options = new DownloadOptions();
+      options.setSegments(segments);
+      options.setMinSegmentSize(10_000);
+      return download(options);
+    }
+
+    /**
+     * Downloads from the local HTTP server.
+     *
+     * @param options the download options
+     * @return the downloaded file
+     * @throws Exception when issue occurred
+     */
+    private File download(final DownloadOptions options) throws Exception {
+      final File destination = temporaryDirectory.resolve("file.jar").toFile();
+      FileDownloader.downloadFile(destination, getUrl(), options);
+      return destination;
+    }
+
+    /**
+     * Gets the URL of the file served by the local HTTP server.
+     *
+     * @return the file URL
+     * @throws IOException when issue occurred
+     */
+    private URL getUrl() throws IOException {
+      return new URL("http://localhost:" + server.getAddress().getPort() + "/file.jar");
+    }
+
+    /**
+     * Segmented download when ranges are supported.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Segmented download")
+    @Test
+    void withRanges() throws Exception {
+      startServer(true);
+
+      final DownloadOptions options = new DownloadOptions();
+      options.setSegments(4);
+      options.setMinSegmentSize(10_000);
+      options.setSha256(DigestUtils.sha256Hex(content));
+      final File result = download(options);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangeRequests).hasValue(4);
+    }
+
+    /**
+     * Single stream download when ranges are not supported.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Ranges not supported")
+    @Test
+    void withoutRanges() throws Exception {
+      startServer(false);
+
+      final File result = download(4);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangeRequests).hasValue(0);
+    }
+
+    /**
+     * Interrupted download is resumed with a range request.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Resume interrupted download")
+    @Test
+    void resume() throws Exception {
+      startServer(true);
+      final File part = temporaryDirectory.resolve("file.jar.part").toFile();
+      Files.write(part.toPath(), Arrays.copyOf(content, 30_000));
+      final Properties sidecar = new Properties();
+      sidecar.setProperty("source", getUrl().toString());
+      sidecar.setProperty("etag", ETAG);
+      sidecar.setProperty("offset", "30000");
+      try (final OutputStream out = Files.newOutputStream(temporaryDirectory.resolve("file.jar.part.properties"))) {
+        sidecar.store(out, null);
+      }
+
+      final File result = download(new DownloadOptions());
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangeRequests).hasValue(1);
+      assertThat(ifRangeRequests).hasValue(1);
+      assertThat(part).doesNotExist();
+      assertThat(temporaryDirectory.resolve("file.jar.part.properties")).doesNotExist();
+    }
+
+    /**
+     * Interrupted download of an expected file is resumed from another mirror, whose validator differs.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Resume interrupted download from another mirror")
+    @Test
+    void resumeFromMirror() throws Exception {
+      startServer(true);
+      final File part = temporaryDirectory.resolve("file.jar.part").toFile();
+      Files.write(part.toPath(), Arrays.copyOf(content, 30_000));
+      final Properties sidecar = new Properties();
+      sidecar.setProperty("source", "sha256:" + DigestUtils.sha256Hex(content));
+      sidecar.setProperty("etag", "\"mirror\"");
+      sidecar.setProperty("offset", "30000");
+      try (final OutputStream out = Files.newOutputStream(temporaryDirectory.resolve("file.jar.part.properties"))) {
+        sidecar.store(out, null);
+      }
+      final DownloadOptions options = new DownloadOptions();
+      options.setSha256(DigestUtils.sha256Hex(content).toUpperCase(Locale.ROOT));
+
+      final File result = download(options);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangeRequests).hasValue(1);
+      assertThat(ifRangeRequests).hasValue(0);
+      assertThat(temporaryDirectory.resolve("file.jar.part.properties")).doesNotExist();
+    }
+
+    /**
+     * Interrupted segmented download resumes every segment with a range request.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Resume interrupted segmented download")
+    @Test
+    void resumeSegments() throws Exception {
+      startServer(true);
+      final byte[] partContent = new byte[content.length];
+      for (int start = 0; start < content.length; start += 25_000) {
+        System.arraycopy(content, start, partContent, start, 10_000);
+      }
+      Files.write(temporaryDirectory.resolve("file.jar.part"), partContent);
+      final Properties sidecar = new Properties();
+      sidecar.setProperty("source", "sha256:" + DigestUtils.sha256Hex(content));
+      sidecar.setProperty("etag", ETAG);
+      sidecar.setProperty("length", "100000");
+      sidecar.setProperty("segments", "10000,35000,60000,85000");
+      try (final OutputStream out = Files.newOutputStream(temporaryDirectory.resolve("file.jar.part.properties"))) {
+        sidecar.store(out, null);
+      }
+      final DownloadOptions options = new DownloadOptions();
+      options.setSegments(4);
+      options.setMinSegmentSize(10_000);
+      options.setSha256(DigestUtils.sha256Hex(content));
+
+      final File result = download(options);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangeRequests).hasValue(4);
+      assertThat(temporaryDirectory.resolve("file.jar.part.properties")).doesNotExist();
+    }
+
+    /**
+     * A segment answered with a transient error is retried with a range request, not downloaded again as a whole.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Retry segment")
+    @Test
+    void retrySegment() throws Exception {
+      startServer(true);
+      rangesUnavailable.set(1);
+      final DownloadOptions options = new DownloadOptions();
+      options.setSegments(4);
+      options.setMinSegmentSize(10_000);
+      options.setSha256(DigestUtils.sha256Hex(content));
+      final RetryPolicy retryPolicy = new RetryPolicy();
+      retryPolicy.setInitialBackoff(10L);
+      options.setRetryPolicy(retryPolicy);
+
+      final File result = download(options);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(rangesUnavailable.get()).isNegative();
+      assertThat(streamRequests).hasValue(0);
+    }
+
+    /**
+     * Digests are computed while downloading.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Returns digests")
+    @Test
+    void returnsDigests() throws Exception {
+      startServer(false);
+      final DownloadOptions options = new DownloadOptions();
+      options.setMd5(DigestUtils.md5Hex(content));
+
+      final Map<String, String> result = FileDownloader.downloadFile(temporaryDirectory.resolve("file.jar").toFile(),
+          getUrl(), options);
+
+      assertThat(result)
+          .containsEntry(MessageDigestAlgorithms.SHA_256, DigestUtils.sha256Hex(content))
+          .containsEntry(MessageDigestAlgorithms.MD5, DigestUtils.md5Hex(content));
+    }
+
+    /**
+     * Invalid checksum, the file is not moved to its destination.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Invalid checksum")
+    @Test
+    void withInvalidChecksum() throws Exception {
+      startServer(true);
+      final DownloadOptions options = new DownloadOptions();
+      options.setSha256(DigestUtils.sha256Hex("other content"));
+
+      assertThatExceptionOfType(MojoFailureException.class)
+          .isThrownBy(() -> download(options))
+          .withMessage("file.jar checksum is not valid");
+      assertThat(temporaryDirectory.resolve("file.jar")).doesNotExist();
+      assertThat(temporaryDirectory.resolve("file.jar.part")).doesNotExist();
+    }
+
+    /**
+     * Transient error is retried.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Retry transient error")
+    @Test
+    void retry() throws Exception {
+      startServer(false);
+      unavailable.set(2);
+      final DownloadOptions options = new DownloadOptions();
+      options.setSha256(DigestUtils.sha256Hex(content));
+      final RetryPolicy retryPolicy = new RetryPolicy();
+      retryPolicy.setInitialBackoff(10L);
+      options.setRetryPolicy(retryPolicy);
+
+      final File result = download(options);
+
+      assertThat(result).hasBinaryContent(content);
+      assertThat(unavailable.get()).isNegative();
+    }
+
+    /**
+     * Transient errors are retried up to the policy limit.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Retries exhausted")
+    @Test
+    void retriesExhausted() throws Exception {
+      startServer(false);
+      unavailable.set(10);
+      final DownloadOptions options = new DownloadOptions();
+      final RetryPolicy retryPolicy = new RetryPolicy();
+      retryPolicy.setRetries(2);
+      retryPolicy.setInitialBackoff(10L);
+      options.setRetryPolicy(retryPolicy);
+
+      assertThatExceptionOfType(MojoExecutionException.class)
+          .isThrownBy(() -> download(options))
+          .withRootCauseInstanceOf(IOException.class);
+      assertThat(unavailable).hasValue(7);
+    }
+
+    /**
+     * Unreachable mirror fails over to the next one.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Mirror failover")
+    @Test
+    void mirrorFailover() throws Exception {
+      startServer(true);
+      final int unreachablePort;
+      try (final ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+        unreachablePort = socket.getLocalPort();
+      }
+      final String unreachable = "http://localhost:" + unreachablePort + '/';
+      final DownloadOptions options = new DownloadOptions();
+      options.setSha256(DigestUtils.sha256Hex(content));
+      options.setMirrors(Arrays.asList(unreachable, "http://localhost:" + server.getAddress().getPort() + '/'));
+      final File destination = temporaryDirectory.resolve("file.jar").toFile();
+
+      FileDownloader.downloadFile(destination, new URL(unreachable + "file.jar"), options);
+
+      assertThat(destination).hasBinaryContent(content);
+      assertThat(MirrorHealth.candidates(unreachable + "file.jar", options.getMirrors()))
+          .containsExactly(getUrl().toString(), unreachable + "file.jar");
+    }
+
+    /**
+     * The time to the first byte of a download ranks its mirror before the mirrors of unknown latency.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Mirror latency")
+    @Test
+    void mirrorLatency() throws Exception {
+      startServer(true);
+      final int idlePort;
+      try (final ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+        idlePort = socket.getLocalPort();
+      }
+      final String idle = "http://localhost:" + idlePort + '/';
+      final String mirror = "http://localhost:" + server.getAddress().getPort() + '/';
+      final DownloadOptions options = new DownloadOptions();
+      options.setSha256(DigestUtils.sha256Hex(content));
+      options.setMirrors(Arrays.asList(mirror, idle));
+
+      download(options);
+
+      assertThat(MirrorHealth.candidates(idle + "file.jar", Arrays.asList(idle, mirror)))
+          .containsExactly(getUrl().toString(), idle + "file.jar");
+    }
+
+    /**
+     * Unsupported protocol.
+     */
+    @DisplayName("Unsupported protocol")
+    @Test
+    void withUnsupportedProtocol() {
+      assertThatExceptionOfType(MojoFailureException.class).isThrownBy(
+          () -> FileDownloader.downloadFile(temporaryDirectory.resolve("file").toFile(), new URL("file:///etc/passwd"),
+              new DownloadOptions()));
+    }
+  }
 }
 
 //Generated with love by TestMe :)
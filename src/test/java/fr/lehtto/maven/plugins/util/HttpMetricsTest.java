@@ -0,0 +1,161 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link HttpMetrics}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("HTTP metrics")
+class HttpMetricsTest {
+
+  private static final byte[] CONTENT = new byte[64 * 1024];
+
+  private HttpServer server;
+  private String url;
+  @TempDir
+  File temporaryDirectory;
+
+  /**
+   * Starts a local HTTP server.
+   *
+   * @throws IOException when issue occurred
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    Arrays.fill(CONTENT, (byte) 'a');
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/file", exchange -> {
+      exchange.sendResponseHeaders(200, CONTENT.length);
+      try (final OutputStream out = exchange.getResponseBody()) {
+        out.write(CONTENT);
+      }
+    });
+    server.start();
+    url = "http://localhost:" + server.getAddress().getPort() + "/file";
+  }
+
+  /**
+   * Stops the local HTTP server.
+   */
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  /**
+   * Sends a request with the shared client.
+   *
+   * @param httpMetrics the recorder the request is tagged with, can be {@code null}
+   * @throws IOException when issue occurred
+   */
+  private void send(final HttpMetrics httpMetrics) throws IOException {
+    final Request request = new Request.Builder().url(url).tag(HttpMetrics.class, httpMetrics).build();
+    try (final Response response = HttpTransport.getClient().newCall(request).execute()) {
+      assertThat(response.body()).isNotNull();
+      assertThat(response.body().bytes()).hasSize(CONTENT.length);
+    }
+  }
+
+  /**
+   * Every call of the shared client tagged with the recorder is recorded, the second one reuses the connection.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Requests are recorded")
+  @Test
+  void recorded() throws IOException {
+    final HttpMetrics httpMetrics = new HttpMetrics();
+    for (int i = 0; i < 2; i++) {
+      send(httpMetrics);
+    }
+
+    final List<RequestMetrics> metrics = httpMetrics.drain();
+
+    assertThat(metrics).hasSize(2);
+    assertThat(metrics).allSatisfy(request -> {
+      assertThat(request.getMethod()).isEqualTo("GET");
+      assertThat(request.getUrl()).isEqualTo(url);
+      assertThat(request.getStatus()).isEqualTo(200);
+      assertThat(request.getBytes()).isEqualTo(CONTENT.length);
+      assertThat(request.getError()).isNull();
+    });
+    assertThat(metrics.get(0).isConnectionReused()).isFalse();
+    assertThat(metrics.get(1).isConnectionReused()).isTrue();
+    assertThat(httpMetrics.drain()).isEmpty();
+  }
+
+  /**
+   * The requests of concurrent goals are recorded by the recorder of their goal only.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Requests are recorded per goal")
+  @Test
+  void recordedPerGoal() throws IOException {
+    final HttpMetrics first = new HttpMetrics();
+    final HttpMetrics second = new HttpMetrics();
+
+    send(first);
+    send(second);
+    send(second);
+    send(null);
+
+    assertThat(first.drain()).hasSize(1);
+    assertThat(second.drain()).hasSize(2);
+  }
+
+  /**
+   * Summary and JSON report.
+   *
+   * @throws IOException            when issue occurred
+   * @throws MojoExecutionException when issue occurred
+   */
+  @DisplayName("Summary and JSON report")
+  @Test
+  void report() throws IOException, MojoExecutionException {
+    final RequestMetrics request = new RequestMetrics();
+    request.setMethod("GET");
+    request.setUrl(url);
+    request.setStatus(200);
+    request.setTransferMillis(500);
+    request.setTotalMillis(600);
+    request.setBytes(1024L * 1024L);
+    final File file = new File(temporaryDirectory, "servermc/install-metrics.json");
+
+    final List<String> summary = HttpMetrics.summarize(Arrays.asList(request, new RequestMetrics()));
+    HttpMetrics.writeJson(file, "install", Arrays.asList(request));
+
+    assertThat(summary).hasSize(3);
+    assertThat(summary.get(0)).isEqualTo("HTTP requests: 2 (0 on reused connections), 1.00 Mo, 600 ms");
+    assertThat(summary.get(1)).startsWith("  GET " + url + " -> 200").endsWith("1.00 Mo at 2.00 Mo/s");
+    assertThat(summary.get(2)).endsWith("0.00 Mo at n/a");
+    final JsonNode json = new ObjectMapper().readTree(file);
+    assertThat(json.get("goal").asText()).isEqualTo("install");
+    assertThat(json.get("requests")).hasSize(1);
+    assertThat(json.get("requests").get(0).get("bytesPerSecond").asLong()).isEqualTo(2L * 1024L * 1024L);
+    assertThat(json.get("requests").get(0).get("ttfbMillis").asLong()).isZero();
+  }
+}
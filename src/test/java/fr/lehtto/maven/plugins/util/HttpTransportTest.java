@@ -0,0 +1,64 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link HttpTransport}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Shared HTTP transport")
+class HttpTransportTest {
+
+  /**
+   * Same settings return the same client.
+   */
+  @DisplayName("Same settings")
+  @Test
+  void sameSettings() {
+    final OkHttpClient first = HttpTransport.getClient(new HttpSettings());
+    final OkHttpClient second = HttpTransport.getClient(new HttpSettings());
+
+    assertThat(second).isSameAs(first);
+  }
+
+  /**
+   * Other timeouts keep the connection pool and the dispatcher.
+   */
+  @DisplayName("Other timeouts share the pool")
+  @Test
+  void otherTimeouts() {
+    final OkHttpClient first = HttpTransport.getClient(new HttpSettings());
+    final HttpSettings settings = new HttpSettings();
+    settings.setReadTimeout(120L);
+
+    final OkHttpClient second = HttpTransport.getClient(settings);
+
+    assertThat(second).isNotSameAs(first);
+    assertThat(second.readTimeoutMillis()).isEqualTo(120_000);
+    assertThat(second.connectionPool()).isSameAs(first.connectionPool());
+    assertThat(second.dispatcher()).isSameAs(first.dispatcher());
+  }
+
+  /**
+   * Another pool size creates a new pool.
+   */
+  @DisplayName("Other pool size")
+  @Test
+  void otherPoolSize() {
+    final OkHttpClient first = HttpTransport.getClient(new HttpSettings());
+    final HttpSettings settings = new HttpSettings();
+    settings.setPoolSize(2);
+
+    final OkHttpClient second = HttpTransport.getClient(settings);
+
+    assertThat(second.connectionPool()).isNotSameAs(first.connectionPool());
+    assertThat(second.dispatcher().getMaxRequestsPerHost()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,82 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link JarRepacker}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("JAR repacker")
+class JarRepackerTest {
+
+  @TempDir
+  File temporaryDirectory;
+
+  /**
+   * The entries are stored uncompressed, in name order after the manifest, with their content.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Repack")
+  @Test
+  void repack() throws IOException {
+    // STUBBING
+    final File source = new File(temporaryDirectory, "plugin.jar");
+    try (final ZipOutputStream out = new ZipOutputStream(new FileOutputStream(source))) {
+      for (final String name : new String[]{"plugin.yml", "fr/Plugin.class", "META-INF/", JarFile.MANIFEST_NAME,
+          "fr/", "a/Shaded.class"}) {
+        out.putNextEntry(new ZipEntry(name));
+        if (!name.endsWith("/")) {
+          out.write(("content of " + name).getBytes(StandardCharsets.UTF_8));
+        }
+        out.closeEntry();
+      }
+    }
+    final File destination = new File(temporaryDirectory, "plugins/plugin.jar");
+
+    // CALL
+    final int entries = JarRepacker.repack(source, destination);
+
+    // ASSERT
+    assertThat(entries).isEqualTo(6);
+    final List<String> names = new ArrayList<>();
+    try (final ZipFile zip = new ZipFile(destination)) {
+      for (final ZipEntry entry : Collections.list(zip.entries())) {
+        names.add(entry.getName());
+        assertThat(entry.getMethod()).isEqualTo(ZipEntry.STORED);
+        if (!entry.isDirectory()) {
+          try (final InputStream in = zip.getInputStream(entry)) {
+            assertThat(IOUtils.toString(in, StandardCharsets.UTF_8)).isEqualTo("content of " + entry.getName());
+          }
+        }
+      }
+    }
+    assertThat(names).containsExactly("META-INF/", JarFile.MANIFEST_NAME, "a/Shaded.class", "fr/",
+        "fr/Plugin.class", "plugin.yml");
+    try (final JarInputStream in = new JarInputStream(Files.newInputStream(destination.toPath()))) {
+      assertThat(in.getManifest()).isNotNull();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link LibraryStore}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Library store")
+class LibraryStoreTest {
+
+  private static final String LIBRARY = "com/example/library/1.0/library-1.0.jar";
+
+  @TempDir
+  File temporaryDirectory;
+
+  /**
+   * The libraries of two servers are stored once, each server keeps its library at its usual path.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Share libraries")
+  @Test
+  void share() throws IOException {
+    // STUBBING
+    final File storeDirectory = new File(temporaryDirectory, "store");
+    final File first = createLibrary("first", LIBRARY, "library");
+    final File second = createLibrary("second", LIBRARY, "library");
+    final File other = createLibrary("second", "com/example/other/other.jar", "other");
+
+    // CALL
+    final LibraryStore firstStore = new LibraryStore(storeDirectory);
+    firstStore.share(new File(temporaryDirectory, "first/libraries"));
+    final LibraryStore secondStore = new LibraryStore(storeDirectory);
+    secondStore.share(new File(temporaryDirectory, "second/libraries"));
+
+    // ASSERT
+    assertThat(first).hasContent("library");
+    assertThat(second).hasContent("library");
+    assertThat(other).hasContent("other");
+    assertThat(Files.isSameFile(first.toPath(), second.toPath())).isTrue();
+    assertThat(Files.isSameFile(first.toPath(), other.toPath())).isFalse();
+    assertThat(FileUtils.listFiles(storeDirectory, null, true)).hasSize(2);
+    assertThat(firstStore.getShared()).isOne();
+    assertThat(secondStore.getShared()).isEqualTo(2);
+    assertThat(secondStore.getBytesShared()).isEqualTo("library".length());
+    assertThat(second.getParentFile().list()).containsExactly("library-1.0.jar");
+
+    // CALL
+    final LibraryStore rerun = new LibraryStore(storeDirectory);
+    rerun.share(new File(temporaryDirectory, "second/libraries"));
+
+    // ASSERT
+    assertThat(rerun.getShared()).isZero();
+    assertThat(rerun.getAlreadyShared()).isEqualTo(2);
+  }
+
+  /**
+   * A library hard linked to another cache only is shared, as a library which is not linked.
+   *
+   * @throws IOException when issue occurred
+   */
+  @DisplayName("Library linked to another cache")
+  @Test
+  void linkedToOtherCache() throws IOException {
+    // STUBBING
+    final File storeDirectory = new File(temporaryDirectory, "store");
+    final File library = createLibrary("server", LIBRARY, "library");
+    final File patched = new File(temporaryDirectory, "patched/libraries/library-1.0.jar");
+    Files.createDirectories(patched.getParentFile().toPath());
+    Files.createLink(patched.toPath(), library.toPath());
+
+    // CALL
+    final LibraryStore store = new LibraryStore(storeDirectory);
+    store.share(new File(temporaryDirectory, "server/libraries"));
+
+    // ASSERT
+    assertThat(store.getShared()).isOne();
+    assertThat(store.getAlreadyShared()).isZero();
+    assertThat(library).hasContent("library");
+    assertThat(FileUtils.listFiles(storeDirectory, null, true)).singleElement()
+        .satisfies(entry -> assertThat(Files.isSameFile(entry.toPath(), library.toPath())).isTrue());
+  }
+
+  /**
+   * Creates a library in the libraries folder of a server.
+   *
+   * @param server  the name of the server directory
+   * @param path    the path of the library
+   * @param content the content of the library
+   * @return the library {@link File file}
+   * @throws IOException when issue occurred
+   */
+  private File createLibrary(final String server, final String path, final String content) throws IOException {
+    final File library = new File(temporaryDirectory, server + "/libraries/" + path);
+    FileUtils.writeStringToFile(library, content, StandardCharsets.UTF_8);
+    return library;
+  }
+}
@@ -0,0 +1,348 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link PluginSync}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Plugin sync")
+class PluginSyncTest {
+
+  private static final String URL_SOURCE = "url:https://example.org/plugin.jar";
+  private static final String CONTENT = "plugin";
+
+  @TempDir
+  File temporaryDirectory;
+  private File pluginsFolder;
+  private File source;
+  private String sourceId;
+
+  /**
+   * Creates the plugins folder and a plugin source.
+   *
+   * @throws IOException when issue occurred
+   */
+  @BeforeEach
+  void setUp() throws IOException {
+    pluginsFolder = new File(temporaryDirectory, "plugins");
+    source = new File(temporaryDirectory, "source.jar");
+    FileUtils.writeStringToFile(source, CONTENT, StandardCharsets.UTF_8);
+    sourceId = "file:" + source.getAbsolutePath();
+  }
+
+  /**
+   * Tests for {@link PluginSync#isUpToDate(String, String, File, String, boolean)}.
+   */
+  @DisplayName("Up to date")
+  @Nested
+  class UpToDateTests {
+
+    /**
+     * A re-run without changes writes nothing.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Unchanged source")
+    @Test
+    void unchanged() throws Exception {
+      // STUBBING
+      final File deployed = copy(source, "plugin.jar", false);
+      final File manifest = new File(pluginsFolder, PluginSync.MANIFEST_NAME);
+      final long deployedLastModified = deployed.lastModified();
+      final long manifestLastModified = manifest.lastModified();
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+      final boolean upToDate = sync.isUpToDate("plugin.jar", sourceId, source, null, false);
+      sync.removeStale(true);
+      sync.save();
+
+      // ASSERT
+      assertThat(upToDate).isTrue();
+      assertThat(sync.getUnchanged()).isOne();
+      assertThat(sync.getCopied()).isZero();
+      assertThat(sync.getBytesWritten()).isZero();
+      assertThat(deployed.lastModified()).isEqualTo(deployedLastModified);
+      assertThat(manifest.lastModified()).isEqualTo(manifestLastModified);
+    }
+
+    /**
+     * A source rebuilt with the same content is up to date.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Rebuilt source")
+    @Test
+    void rebuilt() throws Exception {
+      // STUBBING
+      copy(source, "plugin.jar", false);
+      assertThat(source.setLastModified(source.lastModified() - 60_000L)).isTrue();
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+
+      // ASSERT
+      assertThat(sync.isUpToDate("plugin.jar", sourceId, source, null, false)).isTrue();
+    }
+
+    /**
+     * A modified source or a modified deployed JAR is copied again.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Modified plugin")
+    @Test
+    void modified() throws Exception {
+      // STUBBING
+      final File deployed = copy(source, "plugin.jar", false);
+      FileUtils.writeStringToFile(source, "pluginV2", StandardCharsets.UTF_8);
+
+      // ASSERT
+      assertThat(PluginSync.load(pluginsFolder).isUpToDate("plugin.jar", sourceId, source, null, false)).isFalse();
+
+      // STUBBING
+      copy(source, "plugin.jar", false);
+      FileUtils.writeStringToFile(deployed, "edited", StandardCharsets.UTF_8);
+
+      // ASSERT
+      assertThat(PluginSync.load(pluginsFolder).isUpToDate("plugin.jar", sourceId, source, null, false)).isFalse();
+    }
+
+    /**
+     * A remote plugin is up to date when it declares the deployed digest.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Remote source")
+    @Test
+    void remote() throws Exception {
+      // STUBBING
+      final PluginSync first = PluginSync.load(pluginsFolder);
+      first.deploy(stage("plugin.jar"), URL_SOURCE, null, true);
+      first.save();
+      final String sha256 = DigestUtils.sha256Hex(CONTENT).toUpperCase();
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+
+      // ASSERT
+      assertThat(sync.isUpToDate("plugin.jar", URL_SOURCE, null, sha256, false)).isTrue();
+      assertThat(sync.isUpToDate("plugin.jar", URL_SOURCE, null, null, false)).isFalse();
+      assertThat(sync.isUpToDate("plugin.jar", URL_SOURCE, null, "other", false)).isFalse();
+      assertThat(sync.isUpToDate("plugin.jar", "url:https://example.org/other.jar", null, sha256, false)).isFalse();
+    }
+
+    /**
+     * A corrupted manifest is handled as an empty one.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Corrupted manifest")
+    @Test
+    void corrupted() throws Exception {
+      // STUBBING
+      copy(source, "plugin.jar", false);
+      FileUtils.writeStringToFile(new File(pluginsFolder, PluginSync.MANIFEST_NAME), "{", StandardCharsets.UTF_8);
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+
+      // ASSERT
+      assertThat(sync.isUpToDate("plugin.jar", sourceId, source, null, false)).isFalse();
+      assertThat(sync.removeStale(true)).isEmpty();
+    }
+  }
+
+  /**
+   * Tests for {@link PluginSync#deploy(File, String, File, boolean)}.
+   */
+  @DisplayName("Deploy")
+  @Nested
+  class DeployTests {
+
+    /**
+     * A staged plugin is moved to the plugins folder.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("New plugin")
+    @Test
+    void newPlugin() throws Exception {
+      // STUBBING
+      final File staged = stage("plugin.jar");
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+      sync.deploy(staged, URL_SOURCE, null, true);
+
+      // ASSERT
+      assertThat(staged).doesNotExist();
+      assertThat(new File(pluginsFolder, "plugin.jar")).hasContent(CONTENT);
+      assertThat(sync.getCopied()).isOne();
+      assertThat(sync.getBytesWritten()).isEqualTo(CONTENT.length());
+    }
+
+    /**
+     * A plugin downloaded again with the same content is not rewritten.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Same content")
+    @Test
+    void sameContent() throws Exception {
+      // STUBBING
+      final File previous = stage("plugin.jar");
+      assertThat(previous.setLastModified(previous.lastModified() - 60_000L)).isTrue();
+      final PluginSync first = PluginSync.load(pluginsFolder);
+      first.deploy(previous, URL_SOURCE, null, true);
+      first.save();
+      final File deployed = new File(pluginsFolder, "plugin.jar");
+      final long lastModified = deployed.lastModified();
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+      sync.deploy(stage("plugin.jar"), URL_SOURCE, null, true);
+
+      // ASSERT
+      assertThat(deployed.lastModified()).isEqualTo(lastModified);
+      assertThat(sync.getUnchanged()).isOne();
+      assertThat(sync.getBytesWritten()).isZero();
+    }
+  }
+
+  /**
+   * Tests for {@link PluginSync#removeStale(boolean)}.
+   */
+  @DisplayName("Remove stale")
+  @Nested
+  class RemoveStaleTests {
+
+    /**
+     * Plugins which are no longer configured are removed.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Removed plugins")
+    @Test
+    void removed() throws Exception {
+      // STUBBING
+      final PluginSync first = PluginSync.load(pluginsFolder);
+      first.deploy(stage("kept.jar"), URL_SOURCE, null, true);
+      first.deploy(stage("removed.jar"), "url:https://example.org/removed.jar", null, true);
+      first.deploy(stage("edited.jar"), "url:https://example.org/edited.jar", null, true);
+      first.save();
+      FileUtils.writeStringToFile(new File(pluginsFolder, "edited.jar"), "edited plugin", StandardCharsets.UTF_8);
+      FileUtils.writeStringToFile(new File(pluginsFolder, "manual.jar"), "manual", StandardCharsets.UTF_8);
+      final String sha256 = DigestUtils.sha256Hex(CONTENT);
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+      sync.isUpToDate("kept.jar", URL_SOURCE, null, sha256, false);
+
+      // ASSERT
+      assertThat(sync.removeStale(true)).containsExactly("removed.jar");
+      sync.save();
+      assertThat(pluginsFolder.list())
+          .containsExactlyInAnyOrder("kept.jar", "edited.jar", "manual.jar", PluginSync.MANIFEST_NAME);
+      assertThat(sync.getRemoved()).isOne();
+    }
+
+    /**
+     * Additional plugins are kept when they are not synchronized.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Skipped additional plugins")
+    @Test
+    void skippedAdditional() throws Exception {
+      // STUBBING
+      copy(source, "plugin-1.0.jar", false);
+      final PluginSync first = PluginSync.load(pluginsFolder);
+      first.deploy(stage("additional.jar"), URL_SOURCE, null, true);
+      first.save();
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+
+      // ASSERT
+      assertThat(sync.removeStale(false)).containsExactly("plugin-1.0.jar");
+      assertThat(new File(pluginsFolder, "additional.jar")).exists();
+    }
+
+    /**
+     * A symbolic link whose source is gone is removed.
+     *
+     * @throws Exception when issue occurred
+     */
+    @DisplayName("Dangling link")
+    @Test
+    void danglingLink() throws Exception {
+      // STUBBING
+      final File link = new File(pluginsFolder, "linked.jar");
+      Files.createDirectories(pluginsFolder.toPath());
+      Files.createSymbolicLink(link.toPath(), source.toPath());
+      final PluginSync first = PluginSync.load(pluginsFolder);
+      first.recordLink(link, sourceId, source, false, FileCopier.Method.SYMBOLIC_LINK);
+      first.save();
+      Files.delete(source.toPath());
+
+      // CALL
+      final PluginSync sync = PluginSync.load(pluginsFolder);
+
+      // ASSERT
+      assertThat(sync.removeStale(true)).containsExactly("linked.jar");
+      assertThat(Files.exists(link.toPath(), LinkOption.NOFOLLOW_LINKS)).isFalse();
+    }
+  }
+
+  /**
+   * Copies given source to the plugins folder and records it in the manifest.
+   *
+   * @param sourceFile the source {@link File file}
+   * @param name       the name of the deployed JAR
+   * @param additional whether the plugin is an additional plugin
+   * @return the deployed {@link File JAR}
+   * @throws IOException            when issue occurred
+   * @throws MojoExecutionException when issue occurred
+   */
+  private File copy(final File sourceFile, final String name, final boolean additional)
+      throws IOException, MojoExecutionException {
+    final File deployed = new File(pluginsFolder, name);
+    FileUtils.copyFile(sourceFile, deployed);
+    final PluginSync sync = PluginSync.load(pluginsFolder);
+    sync.recordCopy(deployed, "file:" + sourceFile.getAbsolutePath(), sourceFile, additional);
+    sync.save();
+    return deployed;
+  }
+
+  /**
+   * Creates a staged plugin.
+   *
+   * @param name the name of the JAR
+   * @return the staged {@link File JAR}
+   * @throws IOException when issue occurred
+   */
+  private File stage(final String name) throws IOException {
+    final File staged = new File(temporaryDirectory, "staging/" + name);
+    FileUtils.writeStringToFile(staged, CONTENT, StandardCharsets.UTF_8);
+    return staged;
+  }
+}
@@ -0,0 +1,59 @@
+package fr.lehtto.maven.plugins.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RetryPolicy}.
+ *
+ * @author Lehtto
+ * @version 0.2.0
+ * @since 0.2.0
+ */
+@DisplayName("Retry policy")
+class RetryPolicyTest {
+
+  /**
+   * The delay doubles with every retry, up to the maximum backoff, half of it being random.
+   */
+  @DisplayName("Exponential backoff with jitter")
+  @Test
+  void backoff() {
+    // INPUTS
+    final RetryPolicy retryPolicy = new RetryPolicy();
+    retryPolicy.setInitialBackoff(100L);
+    retryPolicy.setMaxBackoff(1000L);
+
+    // ASSERT
+    for (int i = 0; i < 100; i++) {
+      assertThat(retryPolicy.computeDelay(0, null)).isBetween(50L, 100L);
+      assertThat(retryPolicy.computeDelay(2, null)).isBetween(200L, 400L);
+      assertThat(retryPolicy.computeDelay(10, null)).isBetween(500L, 1000L);
+    }
+  }
+
+  /**
+   * The delay requested by the server is honoured, bounded by the maximum backoff.
+   */
+  @DisplayName("Retry-After")
+  @Test
+  void retryAfter() {
+    // INPUTS
+    final RetryPolicy retryPolicy = new RetryPolicy();
+    retryPolicy.setMaxBackoff(10_000L);
+    final String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(5));
+
+    // ASSERT
+    assertThat(retryPolicy.computeDelay(0, "2")).isEqualTo(2000L);
+    assertThat(retryPolicy.computeDelay(0, "60")).isEqualTo(10_000L);
+    assertThat(retryPolicy.computeDelay(0, date)).isBetween(3000L, 5000L);
+    assertThat(RetryPolicy.parseRetryAfter("soon")).isEqualTo(-1L);
+    assertThat(retryPolicy.isRetryable(503)).isTrue();
+    assertThat(retryPolicy.isRetryable(404)).isFalse();
+  }
+}